@@ -55,6 +55,8 @@ public class Opacker {
 
         boolean convertEnumToOrdinal;
 
+        Class<?>[] prebakeTypes;
+
         public Builder() {
             this.valueStackInitialSize = 512;
             this.contextStackInitialSize = 128;
@@ -63,6 +65,8 @@ public class Opacker {
             this.enableWrapMapElementType = false;
 
             this.convertEnumToOrdinal = false;
+
+            this.prebakeTypes = new Class<?>[0];
         }
 
         public Builder setValueStackInitialSize(int valueStackInitialSize) {
@@ -90,6 +94,11 @@ public class Opacker {
             return this;
         }
 
+        public Builder setPrebakeTypes(Class<?>... prebakeTypes) {
+            this.prebakeTypes = prebakeTypes;
+            return this;
+        }
+
         /**
          * Create the {@link Opacker Opacker} through this builder.
          *
@@ -104,30 +113,47 @@ public class Opacker {
         NONE, SERIALIZE, DESERIALIZE
     }
 
+    static class Context {
+        final @NotNull FastStack<Object> objectStack;
+        final @NotNull FastStack<BakedType> typeStack;
+        final @NotNull FastStack<OpackValue> valueStack;
+
+        @NotNull State state;
+
+        /**
+         * Constructs the traversal context of one thread.
+         *
+         * @param contextStackInitialSize the initial size of object, type stack
+         * @param valueStackInitialSize   the initial size of value stack
+         */
+        Context(int contextStackInitialSize, int valueStackInitialSize) {
+            this.objectStack = new FastStack<>(contextStackInitialSize);
+            this.typeStack = new FastStack<>(contextStackInitialSize);
+            this.valueStack = new FastStack<>(valueStackInitialSize);
+
+            this.state = State.NONE;
+        }
+    }
+
     final @NotNull TypeBaker typeBaker;
 
-    final @NotNull FastStack<Object> objectStack;
-    final @NotNull FastStack<BakedType> typeStack;
-    final @NotNull FastStack<OpackValue> valueStack;
+    final @NotNull ThreadLocal<Context> contextThreadLocal;
 
     final boolean convertEnumToOrdinal;
 
-    @NotNull State state;
-
     /**
      * Constructs the Opacker with the builder of Opacker.
+     * The baked type cache is shared by every thread, but each thread traverses objects with its own stacks, so an opacker can be used concurrently.
      *
      * @param builder the builder of Opacker
-     * @throws IllegalStateException if the predefined transformer cannot be instanced
+     * @throws IllegalStateException if the predefined transformer cannot be instanced; if the prebake types cannot be baked
      */
     Opacker(Builder builder) {
         this.typeBaker = new TypeBaker(this);
 
-        this.objectStack = new FastStack<>(builder.contextStackInitialSize);
-        this.typeStack = new FastStack<>(builder.contextStackInitialSize);
-        this.valueStack = new FastStack<>(builder.valueStackInitialSize);
-
-        this.state = State.NONE;
+        int contextStackInitialSize = builder.contextStackInitialSize;
+        int valueStackInitialSize = builder.valueStackInitialSize;
+        this.contextThreadLocal = ThreadLocal.withInitial(() -> new Context(contextStackInitialSize, valueStackInitialSize));
 
         try {
             if (builder.enableWrapListElementType) {
@@ -146,6 +172,20 @@ public class Opacker {
         }
 
         this.convertEnumToOrdinal = builder.convertEnumToOrdinal;
+
+        try {
+            this.typeBaker.prebake(builder.prebakeTypes);
+        } catch (BakeException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    public @NotNull TypeBaker getTypeBaker() {
+        return typeBaker;
+    }
+
+    public boolean isConvertEnumToOrdinal() {
+        return convertEnumToOrdinal;
     }
 
     /**
@@ -155,19 +195,21 @@ public class Opacker {
      * @return opack value
      * @throws SerializeException if a problem occurs during serializing; if this opacker is deserializing
      */
-    public synchronized OpackValue serialize(Object object) throws SerializeException {
-        if (this.state == State.DESERIALIZE)
+    public OpackValue serialize(Object object) throws SerializeException {
+        Context context = this.contextThreadLocal.get();
+
+        if (context.state == State.DESERIALIZE)
             throw new SerializeException("Opacker is deserializing");
 
-        int separatorStack = this.objectStack.getSize();
-        OpackValue value = (OpackValue) this.prepareObjectSerialize(object.getClass(), object.getClass(), object);
+        int separatorStack = context.objectStack.getSize();
+        OpackValue value = (OpackValue) this.prepareObjectSerialize(context, object.getClass(), object.getClass(), object);
 
-        State lastState = this.state;
+        State lastState = context.state;
         try {
-            this.state = State.SERIALIZE;
-            this.executeSerializeStack(separatorStack);
+            context.state = State.SERIALIZE;
+            this.executeSerializeStack(context, separatorStack);
         } finally {
-            this.state = lastState;
+            context.state = lastState;
         }
 
         return value;
@@ -176,13 +218,14 @@ public class Opacker {
     /**
      * Store information needed for serialization in stacks.
      *
+     * @param context      the traversal context of current thread
      * @param baseType     the class of object to be serialized
      * @param originalType the class of original object
      * @param object       the object to be serialized
      * @return prepared opack value
      * @throws SerializeException if a problem occurs during serializing; if the baseType cannot be baked into {@link BakedType BakedType}
      */
-    Object prepareObjectSerialize(Class<?> baseType, Class<?> originalType, Object object) throws SerializeException {
+    Object prepareObjectSerialize(Context context, Class<?> baseType, Class<?> originalType, Object object) throws SerializeException {
         if (baseType == null || originalType == null || object == null) {
             return null;
         }
@@ -250,9 +293,9 @@ public class Opacker {
                 opackValue = new OpackObject<>();
             }
 
-            this.objectStack.push(object);
-            this.valueStack.push(opackValue);
-            this.typeStack.push(bakedType);
+            context.objectStack.push(object);
+            context.valueStack.push(opackValue);
+            context.typeStack.push(bakedType);
 
             return opackValue;
         } catch (BakeException exception) {
@@ -263,13 +306,15 @@ public class Opacker {
     /**
      * Serialize the elements of each opack value in the stack. (OpackObject: fields, OpackArray element : array elements)
      *
+     * @param context    the traversal context of current thread
+     * @param endOfStack the stack size to stop at
      * @throws SerializeException if a problem occurs during serializing; if the field in the class of instance to be serialized is not accessible
      */
-    void executeSerializeStack(int endOfStack) throws SerializeException {
-        while (this.objectStack.getSize() > endOfStack) {
-            Object object = this.objectStack.pop();
-            OpackValue opackValue = this.valueStack.pop();
-            BakedType bakedType = this.typeStack.pop();
+    void executeSerializeStack(Context context, int endOfStack) throws SerializeException {
+        while (context.objectStack.getSize() > endOfStack) {
+            Object object = context.objectStack.pop();
+            OpackValue opackValue = context.valueStack.pop();
+            BakedType bakedType = context.typeStack.pop();
 
             if (opackValue instanceof OpackArray) {
                 OpackArray<Object> opackArray = (OpackArray<Object>) opackValue;
@@ -279,7 +324,7 @@ public class Opacker {
                     Object element = ReflectionUtil.getArrayItem(object, index);
                     Class<?> elementType = element == null ? null : element.getClass();
 
-                    Object serializedValue = this.prepareObjectSerialize(elementType, elementType, element);
+                    Object serializedValue = this.prepareObjectSerialize(context, elementType, elementType, element);
 
                     opackArray.add(serializedValue);
                 }
@@ -296,7 +341,7 @@ public class Opacker {
                             fieldType = element.getClass();
                         }
 
-                        Object serializedValue = this.prepareObjectSerialize(fieldType, originalType, element);
+                        Object serializedValue = this.prepareObjectSerialize(context, fieldType, originalType, element);
                         opackObject.put(property.getName(), serializedValue);
                     } catch (IllegalAccessException exception) {
                         throw new SerializeException("Can't get " + property.getName() + " field data in " + bakedType.getType().getSimpleName(), exception);
@@ -314,19 +359,21 @@ public class Opacker {
      * @return deserialized object
      * @throws DeserializeException if a problem occurs during deserializing; if this opacker is serializing
      */
-    public synchronized <T> T deserialize(Class<T> type, OpackValue opackValue) throws DeserializeException {
-        if (this.state == State.SERIALIZE)
+    public <T> T deserialize(Class<T> type, OpackValue opackValue) throws DeserializeException {
+        Context context = this.contextThreadLocal.get();
+
+        if (context.state == State.SERIALIZE)
             throw new DeserializeException("Opacker is serializing");
 
-        int separatorStack = this.objectStack.getSize();
-        T value = type.cast(this.prepareObjectDeserialize(type, opackValue));
+        int separatorStack = context.objectStack.getSize();
+        T value = type.cast(this.prepareObjectDeserialize(context, type, opackValue));
 
-        State lastState = this.state;
+        State lastState = context.state;
         try {
-            this.state = State.DESERIALIZE;
-            this.executeDeserializeStack(separatorStack);
+            context.state = State.DESERIALIZE;
+            this.executeDeserializeStack(context, separatorStack);
         } finally {
-            this.state = lastState;
+            context.state = lastState;
         }
 
         return value;
@@ -340,7 +387,20 @@ public class Opacker {
      * @return prepared object
      * @throws DeserializeException if a problem occurs during deserializing
      */
-    public synchronized Object prepareObjectDeserialize(Class<?> goalType, Object object) throws DeserializeException {
+    public Object prepareObjectDeserialize(Class<?> goalType, Object object) throws DeserializeException {
+        return this.prepareObjectDeserialize(this.contextThreadLocal.get(), goalType, object);
+    }
+
+    /**
+     * Store information needed for deserialization in stacks of the context.
+     *
+     * @param context  the traversal context of current thread
+     * @param goalType the class of object to be deserialized
+     * @param object   the object to be deserialized
+     * @return prepared object
+     * @throws DeserializeException if a problem occurs during deserializing
+     */
+    Object prepareObjectDeserialize(Context context, Class<?> goalType, Object object) throws DeserializeException {
         if (goalType == null || object == null) {
             return null;
         }
@@ -421,9 +481,9 @@ public class Opacker {
                     }
                 }
 
-                this.objectStack.push(targetObject);
-                this.valueStack.push(opackValue);
-                this.typeStack.push(bakedType);
+                context.objectStack.push(targetObject);
+                context.valueStack.push(opackValue);
+                context.typeStack.push(bakedType);
 
                 return targetObject;
             } else if (object.getClass() == goalType) {
@@ -439,13 +499,15 @@ public class Opacker {
     /**
      * Deserialize the elements of each opack value in the stack. (OpackObject element : fields, OpackArray element : array elements)
      *
+     * @param context    the traversal context of current thread
+     * @param endOfStack the stack size to stop at
      * @throws DeserializeException if a problem occurs during deserializing; if the field in the class of instance to be deserialized is not accessible
      */
-    void executeDeserializeStack(int endOfStack) throws DeserializeException {
-        while (this.objectStack.getSize() > endOfStack) {
-            Object object = this.objectStack.pop();
-            OpackValue opackValue = this.valueStack.pop();
-            BakedType bakedType = this.typeStack.pop();
+    void executeDeserializeStack(Context context, int endOfStack) throws DeserializeException {
+        while (context.objectStack.getSize() > endOfStack) {
+            Object object = context.objectStack.pop();
+            OpackValue opackValue = context.valueStack.pop();
+            BakedType bakedType = context.typeStack.pop();
 
             if (opackValue instanceof OpackArray) {
                 OpackArray<Object> opackArray = (OpackArray<Object>) opackValue;
@@ -454,7 +516,7 @@ public class Opacker {
 
                 for (int index = 0; index < length; index++) {
                     Object element = opackArray.get(index);
-                    Object deserializedValue = this.prepareObjectDeserialize(componentType, element);
+                    Object deserializedValue = this.prepareObjectDeserialize(context, componentType, element);
 
                     ReflectionUtil.setArrayItem(object, index, deserializedValue == null ? null : ReflectionUtil.cast(componentType, deserializedValue));
                 }
@@ -470,7 +532,7 @@ public class Opacker {
                             element = property.getTransformer().deserialize(this, fieldType, element);
                         }
 
-                        Object deserializedValue = this.prepareObjectDeserialize(fieldType, element);
+                        Object deserializedValue = this.prepareObjectDeserialize(context, fieldType, element);
 
                         property.set(object, deserializedValue == null ? null : ReflectionUtil.cast(actualFieldType, deserializedValue));
                     } catch (IllegalAccessException | IllegalArgumentException exception) {
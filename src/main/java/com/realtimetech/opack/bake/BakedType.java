@@ -36,13 +36,21 @@ public class BakedType {
         final Transformer transformer;
         final Class<?> explicitType;
 
+        final FieldAccessor accessor;
+
         public Property(@NotNull Field field, Transformer transformer, Class<?> explicitType) {
+            this(field, transformer, explicitType, FieldAccessor.create(field));
+        }
+
+        public Property(@NotNull Field field, Transformer transformer, Class<?> explicitType, @NotNull FieldAccessor accessor) {
             this.field = field;
             this.name = this.field.getName();
             this.type = explicitType == null ? this.field.getType() : explicitType;
 
             this.transformer = transformer;
             this.explicitType = explicitType;
+
+            this.accessor = accessor;
         }
 
         public String getName() {
@@ -65,6 +73,10 @@ public class BakedType {
             return explicitType;
         }
 
+        public FieldAccessor getAccessor() {
+            return accessor;
+        }
+
         /**
          * Sets the field of the object to a specified value.
          *
@@ -73,10 +85,7 @@ public class BakedType {
          * @throws IllegalAccessException if this Field object is enforcing Java language access control and the underlying field is either inaccessible or final
          */
         public void set(Object object, Object value) throws IllegalAccessException {
-            if (!this.field.canAccess(object)) {
-                this.field.setAccessible(true);
-            }
-            this.field.set(object, value);
+            this.accessor.set(object, value);
         }
 
         /**
@@ -87,10 +96,7 @@ public class BakedType {
          * @throws IllegalAccessException if this Field object is enforcing Java language access control and the underlying field is inaccessible.
          */
         public Object get(Object object) throws IllegalAccessException {
-            if (!this.field.canAccess(object)) {
-                this.field.setAccessible(true);
-            }
-            return this.field.get(object);
+            return this.accessor.get(object);
         }
     }
 
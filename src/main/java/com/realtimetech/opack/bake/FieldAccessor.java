@@ -0,0 +1,240 @@
+/*
+ * Copyright (C) 2021 REALTIMETECH All Rights Reserved
+ *
+ * Licensed either under the Apache License, Version 2.0, or (at your option)
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (subject to the "Classpath" exception),
+ * either version 2, or any later version (collectively, the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     http://www.gnu.org/licenses/
+ *     http://www.gnu.org/software/classpath/license.html
+ *
+ * or as provided in the LICENSE file that accompanied this code.
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.realtimetech.opack.bake;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.reflect.Field;
+
+public abstract class FieldAccessor {
+    /**
+     * Create the fastest available accessor for the field.
+     * If a {@link MethodHandleFieldAccessor MethodHandleFieldAccessor} cannot be generated for the field, falls back to {@link ReflectionFieldAccessor ReflectionFieldAccessor}.
+     *
+     * @param field the field to access
+     * @return created field accessor
+     */
+    public static @NotNull FieldAccessor create(@NotNull Field field) {
+        try {
+            return new MethodHandleFieldAccessor(field);
+        } catch (IllegalAccessException | RuntimeException exception) {
+            // Ok, let's access through reflection
+        }
+
+        return new ReflectionFieldAccessor(field);
+    }
+
+    final @NotNull Field field;
+
+    /**
+     * Constructs a FieldAccessor.
+     *
+     * @param field the field to access
+     */
+    protected FieldAccessor(@NotNull Field field) {
+        this.field = field;
+    }
+
+    public @NotNull Field getField() {
+        return field;
+    }
+
+    /**
+     * Returns the field value extracted from the object.
+     *
+     * @param object the object to extract the field value
+     * @return field value
+     * @throws IllegalAccessException if the underlying field is inaccessible
+     */
+    public abstract Object get(Object object) throws IllegalAccessException;
+
+    /**
+     * Sets the field of the object to a specified value.
+     *
+     * @param object the object whose field should be modified
+     * @param value  the new value for the field of object being modified
+     * @throws IllegalAccessException   if the underlying field is either inaccessible or final
+     * @throws IllegalArgumentException if the value cannot be assigned to the field
+     */
+    public abstract void set(Object object, Object value) throws IllegalAccessException;
+
+    /**
+     * Returns the boolean field value extracted from the object without boxing.
+     *
+     * @param object the object to extract the field value
+     * @return field value
+     * @throws IllegalAccessException   if the underlying field is inaccessible
+     * @throws IllegalArgumentException if the field is not boolean type
+     */
+    public abstract boolean getBoolean(Object object) throws IllegalAccessException;
+
+    /**
+     * Returns the byte field value extracted from the object without boxing.
+     *
+     * @param object the object to extract the field value
+     * @return field value
+     * @throws IllegalAccessException   if the underlying field is inaccessible
+     * @throws IllegalArgumentException if the field is not byte type
+     */
+    public abstract byte getByte(Object object) throws IllegalAccessException;
+
+    /**
+     * Returns the char field value extracted from the object without boxing.
+     *
+     * @param object the object to extract the field value
+     * @return field value
+     * @throws IllegalAccessException   if the underlying field is inaccessible
+     * @throws IllegalArgumentException if the field is not char type
+     */
+    public abstract char getChar(Object object) throws IllegalAccessException;
+
+    /**
+     * Returns the short field value extracted from the object without boxing.
+     *
+     * @param object the object to extract the field value
+     * @return field value
+     * @throws IllegalAccessException   if the underlying field is inaccessible
+     * @throws IllegalArgumentException if the field is not short type
+     */
+    public abstract short getShort(Object object) throws IllegalAccessException;
+
+    /**
+     * Returns the int field value extracted from the object without boxing.
+     *
+     * @param object the object to extract the field value
+     * @return field value
+     * @throws IllegalAccessException   if the underlying field is inaccessible
+     * @throws IllegalArgumentException if the field is not int type
+     */
+    public abstract int getInt(Object object) throws IllegalAccessException;
+
+    /**
+     * Returns the float field value extracted from the object without boxing.
+     *
+     * @param object the object to extract the field value
+     * @return field value
+     * @throws IllegalAccessException   if the underlying field is inaccessible
+     * @throws IllegalArgumentException if the field is not float type
+     */
+    public abstract float getFloat(Object object) throws IllegalAccessException;
+
+    /**
+     * Returns the long field value extracted from the object without boxing.
+     *
+     * @param object the object to extract the field value
+     * @return field value
+     * @throws IllegalAccessException   if the underlying field is inaccessible
+     * @throws IllegalArgumentException if the field is not long type
+     */
+    public abstract long getLong(Object object) throws IllegalAccessException;
+
+    /**
+     * Returns the double field value extracted from the object without boxing.
+     *
+     * @param object the object to extract the field value
+     * @return field value
+     * @throws IllegalAccessException   if the underlying field is inaccessible
+     * @throws IllegalArgumentException if the field is not double type
+     */
+    public abstract double getDouble(Object object) throws IllegalAccessException;
+
+    /**
+     * Sets the boolean field of the object without boxing.
+     *
+     * @param object the object whose field should be modified
+     * @param value  the new value for the field
+     * @throws IllegalAccessException   if the underlying field is either inaccessible or final
+     * @throws IllegalArgumentException if the field is not boolean type
+     */
+    public abstract void setBoolean(Object object, boolean value) throws IllegalAccessException;
+
+    /**
+     * Sets the byte field of the object without boxing.
+     *
+     * @param object the object whose field should be modified
+     * @param value  the new value for the field
+     * @throws IllegalAccessException   if the underlying field is either inaccessible or final
+     * @throws IllegalArgumentException if the field is not byte type
+     */
+    public abstract void setByte(Object object, byte value) throws IllegalAccessException;
+
+    /**
+     * Sets the char field of the object without boxing.
+     *
+     * @param object the object whose field should be modified
+     * @param value  the new value for the field
+     * @throws IllegalAccessException   if the underlying field is either inaccessible or final
+     * @throws IllegalArgumentException if the field is not char type
+     */
+    public abstract void setChar(Object object, char value) throws IllegalAccessException;
+
+    /**
+     * Sets the short field of the object without boxing.
+     *
+     * @param object the object whose field should be modified
+     * @param value  the new value for the field
+     * @throws IllegalAccessException   if the underlying field is either inaccessible or final
+     * @throws IllegalArgumentException if the field is not short type
+     */
+    public abstract void setShort(Object object, short value) throws IllegalAccessException;
+
+    /**
+     * Sets the int field of the object without boxing.
+     *
+     * @param object the object whose field should be modified
+     * @param value  the new value for the field
+     * @throws IllegalAccessException   if the underlying field is either inaccessible or final
+     * @throws IllegalArgumentException if the field is not int type
+     */
+    public abstract void setInt(Object object, int value) throws IllegalAccessException;
+
+    /**
+     * Sets the float field of the object without boxing.
+     *
+     * @param object the object whose field should be modified
+     * @param value  the new value for the field
+     * @throws IllegalAccessException   if the underlying field is either inaccessible or final
+     * @throws IllegalArgumentException if the field is not float type
+     */
+    public abstract void setFloat(Object object, float value) throws IllegalAccessException;
+
+    /**
+     * Sets the long field of the object without boxing.
+     *
+     * @param object the object whose field should be modified
+     * @param value  the new value for the field
+     * @throws IllegalAccessException   if the underlying field is either inaccessible or final
+     * @throws IllegalArgumentException if the field is not long type
+     */
+    public abstract void setLong(Object object, long value) throws IllegalAccessException;
+
+    /**
+     * Sets the double field of the object without boxing.
+     *
+     * @param object the object whose field should be modified
+     * @param value  the new value for the field
+     * @throws IllegalAccessException   if the underlying field is either inaccessible or final
+     * @throws IllegalArgumentException if the field is not double type
+     */
+    public abstract void setDouble(Object object, double value) throws IllegalAccessException;
+}
@@ -0,0 +1,257 @@
+/*
+ * Copyright (C) 2021 REALTIMETECH All Rights Reserved
+ *
+ * Licensed either under the Apache License, Version 2.0, or (at your option)
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (subject to the "Classpath" exception),
+ * either version 2, or any later version (collectively, the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     http://www.gnu.org/licenses/
+ *     http://www.gnu.org/software/classpath/license.html
+ *
+ * or as provided in the LICENSE file that accompanied this code.
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.realtimetech.opack.bake;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.WrongMethodTypeException;
+import java.lang.reflect.Field;
+
+public final class MethodHandleFieldAccessor extends FieldAccessor {
+    final @NotNull Class<?> type;
+    final boolean primitive;
+
+    final @NotNull MethodHandle getter;
+    final @NotNull MethodHandle setter;
+
+    final @NotNull MethodHandle exactGetter;
+    final @NotNull MethodHandle exactSetter;
+
+    /**
+     * Constructs a MethodHandleFieldAccessor.
+     * The getter and setter handles are resolved once here, so each access is a direct handle invocation instead of a reflective call.
+     *
+     * @param field the field to access
+     * @throws IllegalAccessException if the method handles for the field cannot be created
+     * @throws SecurityException      if the field cannot be made accessible
+     */
+    public MethodHandleFieldAccessor(@NotNull Field field) throws IllegalAccessException {
+        super(field);
+
+        this.type = field.getType();
+        this.primitive = this.type.isPrimitive();
+
+        field.setAccessible(true);
+
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        MethodHandle getter = lookup.unreflectGetter(field);
+        MethodHandle setter = lookup.unreflectSetter(field);
+
+        this.getter = getter.asType(MethodType.methodType(Object.class, Object.class));
+        this.setter = setter.asType(MethodType.methodType(void.class, Object.class, Object.class));
+
+        this.exactGetter = getter.asType(MethodType.methodType(this.type, Object.class));
+        this.exactSetter = setter.asType(MethodType.methodType(void.class, Object.class, this.type));
+    }
+
+    /**
+     * Converts the throwable thrown by the method handle to the exception that {@link Field Field} would throw.
+     *
+     * @param throwable the throwable thrown by the method handle
+     * @return exception to throw
+     */
+    RuntimeException convertThrowable(Throwable throwable) {
+        if (throwable instanceof WrongMethodTypeException || throwable instanceof ClassCastException) {
+            return new IllegalArgumentException("Can't access " + this.field.getName() + " field of " + this.type.getSimpleName() + " type", throwable);
+        }
+
+        if (throwable instanceof RuntimeException) {
+            return (RuntimeException) throwable;
+        }
+
+        if (throwable instanceof Error) {
+            throw (Error) throwable;
+        }
+
+        return new IllegalStateException(throwable);
+    }
+
+    @Override
+    public Object get(Object object) {
+        try {
+            return (Object) this.getter.invokeExact(object);
+        } catch (Throwable throwable) {
+            throw this.convertThrowable(throwable);
+        }
+    }
+
+    @Override
+    public void set(Object object, Object value) {
+        if (value == null && this.primitive) {
+            throw new IllegalArgumentException("Can't set null to " + this.field.getName() + " field of " + this.type.getSimpleName() + " type");
+        }
+
+        try {
+            this.setter.invokeExact(object, value);
+        } catch (Throwable throwable) {
+            throw this.convertThrowable(throwable);
+        }
+    }
+
+    @Override
+    public boolean getBoolean(Object object) {
+        try {
+            return (boolean) this.exactGetter.invokeExact(object);
+        } catch (Throwable throwable) {
+            throw this.convertThrowable(throwable);
+        }
+    }
+
+    @Override
+    public byte getByte(Object object) {
+        try {
+            return (byte) this.exactGetter.invokeExact(object);
+        } catch (Throwable throwable) {
+            throw this.convertThrowable(throwable);
+        }
+    }
+
+    @Override
+    public char getChar(Object object) {
+        try {
+            return (char) this.exactGetter.invokeExact(object);
+        } catch (Throwable throwable) {
+            throw this.convertThrowable(throwable);
+        }
+    }
+
+    @Override
+    public short getShort(Object object) {
+        try {
+            return (short) this.exactGetter.invokeExact(object);
+        } catch (Throwable throwable) {
+            throw this.convertThrowable(throwable);
+        }
+    }
+
+    @Override
+    public int getInt(Object object) {
+        try {
+            return (int) this.exactGetter.invokeExact(object);
+        } catch (Throwable throwable) {
+            throw this.convertThrowable(throwable);
+        }
+    }
+
+    @Override
+    public float getFloat(Object object) {
+        try {
+            return (float) this.exactGetter.invokeExact(object);
+        } catch (Throwable throwable) {
+            throw this.convertThrowable(throwable);
+        }
+    }
+
+    @Override
+    public long getLong(Object object) {
+        try {
+            return (long) this.exactGetter.invokeExact(object);
+        } catch (Throwable throwable) {
+            throw this.convertThrowable(throwable);
+        }
+    }
+
+    @Override
+    public double getDouble(Object object) {
+        try {
+            return (double) this.exactGetter.invokeExact(object);
+        } catch (Throwable throwable) {
+            throw this.convertThrowable(throwable);
+        }
+    }
+
+    @Override
+    public void setBoolean(Object object, boolean value) {
+        try {
+            this.exactSetter.invokeExact(object, value);
+        } catch (Throwable throwable) {
+            throw this.convertThrowable(throwable);
+        }
+    }
+
+    @Override
+    public void setByte(Object object, byte value) {
+        try {
+            this.exactSetter.invokeExact(object, value);
+        } catch (Throwable throwable) {
+            throw this.convertThrowable(throwable);
+        }
+    }
+
+    @Override
+    public void setChar(Object object, char value) {
+        try {
+            this.exactSetter.invokeExact(object, value);
+        } catch (Throwable throwable) {
+            throw this.convertThrowable(throwable);
+        }
+    }
+
+    @Override
+    public void setShort(Object object, short value) {
+        try {
+            this.exactSetter.invokeExact(object, value);
+        } catch (Throwable throwable) {
+            throw this.convertThrowable(throwable);
+        }
+    }
+
+    @Override
+    public void setInt(Object object, int value) {
+        try {
+            this.exactSetter.invokeExact(object, value);
+        } catch (Throwable throwable) {
+            throw this.convertThrowable(throwable);
+        }
+    }
+
+    @Override
+    public void setFloat(Object object, float value) {
+        try {
+            this.exactSetter.invokeExact(object, value);
+        } catch (Throwable throwable) {
+            throw this.convertThrowable(throwable);
+        }
+    }
+
+    @Override
+    public void setLong(Object object, long value) {
+        try {
+            this.exactSetter.invokeExact(object, value);
+        } catch (Throwable throwable) {
+            throw this.convertThrowable(throwable);
+        }
+    }
+
+    @Override
+    public void setDouble(Object object, double value) {
+        try {
+            this.exactSetter.invokeExact(object, value);
+        } catch (Throwable throwable) {
+            throw this.convertThrowable(throwable);
+        }
+    }
+}
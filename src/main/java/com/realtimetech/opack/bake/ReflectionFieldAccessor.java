@@ -0,0 +1,160 @@
+/*
+ * Copyright (C) 2021 REALTIMETECH All Rights Reserved
+ *
+ * Licensed either under the Apache License, Version 2.0, or (at your option)
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (subject to the "Classpath" exception),
+ * either version 2, or any later version (collectively, the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     http://www.gnu.org/licenses/
+ *     http://www.gnu.org/software/classpath/license.html
+ *
+ * or as provided in the LICENSE file that accompanied this code.
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.realtimetech.opack.bake;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.reflect.Field;
+
+public final class ReflectionFieldAccessor extends FieldAccessor {
+    volatile boolean accessible;
+
+    /**
+     * Constructs a ReflectionFieldAccessor.
+     *
+     * @param field the field to access
+     */
+    public ReflectionFieldAccessor(@NotNull Field field) {
+        super(field);
+
+        this.accessible = false;
+    }
+
+    /**
+     * Make the underlying field accessible on the first access.
+     */
+    void ensureAccessible() {
+        if (!this.accessible) {
+            this.field.setAccessible(true);
+            this.accessible = true;
+        }
+    }
+
+    @Override
+    public Object get(Object object) throws IllegalAccessException {
+        this.ensureAccessible();
+        return this.field.get(object);
+    }
+
+    @Override
+    public void set(Object object, Object value) throws IllegalAccessException {
+        this.ensureAccessible();
+        this.field.set(object, value);
+    }
+
+    @Override
+    public boolean getBoolean(Object object) throws IllegalAccessException {
+        this.ensureAccessible();
+        return this.field.getBoolean(object);
+    }
+
+    @Override
+    public byte getByte(Object object) throws IllegalAccessException {
+        this.ensureAccessible();
+        return this.field.getByte(object);
+    }
+
+    @Override
+    public char getChar(Object object) throws IllegalAccessException {
+        this.ensureAccessible();
+        return this.field.getChar(object);
+    }
+
+    @Override
+    public short getShort(Object object) throws IllegalAccessException {
+        this.ensureAccessible();
+        return this.field.getShort(object);
+    }
+
+    @Override
+    public int getInt(Object object) throws IllegalAccessException {
+        this.ensureAccessible();
+        return this.field.getInt(object);
+    }
+
+    @Override
+    public float getFloat(Object object) throws IllegalAccessException {
+        this.ensureAccessible();
+        return this.field.getFloat(object);
+    }
+
+    @Override
+    public long getLong(Object object) throws IllegalAccessException {
+        this.ensureAccessible();
+        return this.field.getLong(object);
+    }
+
+    @Override
+    public double getDouble(Object object) throws IllegalAccessException {
+        this.ensureAccessible();
+        return this.field.getDouble(object);
+    }
+
+    @Override
+    public void setBoolean(Object object, boolean value) throws IllegalAccessException {
+        this.ensureAccessible();
+        this.field.setBoolean(object, value);
+    }
+
+    @Override
+    public void setByte(Object object, byte value) throws IllegalAccessException {
+        this.ensureAccessible();
+        this.field.setByte(object, value);
+    }
+
+    @Override
+    public void setChar(Object object, char value) throws IllegalAccessException {
+        this.ensureAccessible();
+        this.field.setChar(object, value);
+    }
+
+    @Override
+    public void setShort(Object object, short value) throws IllegalAccessException {
+        this.ensureAccessible();
+        this.field.setShort(object, value);
+    }
+
+    @Override
+    public void setInt(Object object, int value) throws IllegalAccessException {
+        this.ensureAccessible();
+        this.field.setInt(object, value);
+    }
+
+    @Override
+    public void setFloat(Object object, float value) throws IllegalAccessException {
+        this.ensureAccessible();
+        this.field.setFloat(object, value);
+    }
+
+    @Override
+    public void setLong(Object object, long value) throws IllegalAccessException {
+        this.ensureAccessible();
+        this.field.setLong(object, value);
+    }
+
+    @Override
+    public void setDouble(Object object, double value) throws IllegalAccessException {
+        this.ensureAccessible();
+        this.field.setDouble(object, value);
+    }
+}
@@ -35,6 +35,7 @@ import org.jetbrains.annotations.NotNull;
 import java.lang.reflect.AnnotatedElement;
 import java.lang.reflect.Field;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -67,7 +68,10 @@ public class TypeBaker {
 
     final @NotNull TransformerFactory transformerFactory;
 
-    final @NotNull HashMap<Class<?>, BakedType> backedTypeMap;
+    /*
+        Copy-on-write, replaced as a whole on every bake so lookups never lock
+     */
+    volatile @NotNull IdentityHashMap<Class<?>, BakedType> backedTypeMap;
     final @NotNull HashMap<Class<?>, List<PredefinedTransformer>> predefinedTransformerMap;
 
     /**
@@ -80,7 +84,7 @@ public class TypeBaker {
 
         this.transformerFactory = new TransformerFactory(opacker);
 
-        this.backedTypeMap = new HashMap<>();
+        this.backedTypeMap = new IdentityHashMap<>();
         this.predefinedTransformerMap = new HashMap<>();
     }
 
@@ -114,6 +118,7 @@ public class TypeBaker {
 
     /**
      * Register a predefined transformer for the specific class.
+     * The types baked so far are discarded, so that they are baked again with the predefined transformer.
      *
      * @param type            the class to be the target
      * @param transformerType the predefined transformer to register
@@ -137,11 +142,14 @@ public class TypeBaker {
         Transformer transformer = this.transformerFactory.get(transformerType);
         predefinedTransformers.add(new PredefinedTransformer(transformer, inheritable));
 
+        this.backedTypeMap = new IdentityHashMap<>();
+
         return true;
     }
 
     /**
      * Unregister a predefined transformer for the specific class.
+     * The types baked so far are discarded, so that they are baked again without the predefined transformer.
      *
      * @param type            the targeted type class
      * @param transformerType the predefined transformer to unregister
@@ -168,6 +176,8 @@ public class TypeBaker {
 
         predefinedTransformers.remove(targetPredefinedTransformer);
 
+        this.backedTypeMap = new IdentityHashMap<>();
+
         return true;
     }
 
@@ -277,7 +287,9 @@ public class TypeBaker {
                 Transformer[] fieldTransformers = this.getTransformer(field);
                 Class<?> explicitType = this.getExplicitType(field);
 
-                properties.add(new BakedType.Property(field, fieldTransformers.length > 0 ? fieldTransformers[0] : null, explicitType));
+                FieldAccessor fieldAccessor = FieldAccessor.create(field);
+
+                properties.add(new BakedType.Property(field, fieldTransformers.length > 0 ? fieldTransformers[0] : null, explicitType, fieldAccessor));
             }
 
             transformers = this.getTransformer(bakeType);
@@ -286,6 +298,24 @@ public class TypeBaker {
         return new BakedType(bakeType, transformers, properties.toArray(new BakedType.Property[0]));
     }
 
+    /**
+     * Bake the classes in advance, so that the first serialization or deserialization of them does not pay the baking cost.
+     *
+     * @param bakeTypes the classes to be baked
+     * @throws BakeException if a problem occurs during baking a class into {@link BakedType BakedType}
+     */
+    public synchronized void prebake(@NotNull Class<?> @NotNull ... bakeTypes) throws BakeException {
+        IdentityHashMap<Class<?>, BakedType> newBackedTypeMap = new IdentityHashMap<>(this.backedTypeMap);
+
+        for (Class<?> bakeType : bakeTypes) {
+            if (!newBackedTypeMap.containsKey(bakeType)) {
+                newBackedTypeMap.put(bakeType, this.bake(bakeType));
+            }
+        }
+
+        this.backedTypeMap = newBackedTypeMap;
+    }
+
     /**
      * Returns BakedType for target class.
      *
@@ -294,16 +324,23 @@ public class TypeBaker {
      * @throws BakeException if a problem occurs during baking a class into class info
      */
     public @NotNull BakedType get(@NotNull Class<?> bakeType) throws BakeException {
-        if (!this.backedTypeMap.containsKey(bakeType)) {
-            synchronized (this.backedTypeMap) {
-                if (!this.backedTypeMap.containsKey(bakeType)) {
-                    BakedType bakedType = this.bake(bakeType);
+        BakedType bakedType = this.backedTypeMap.get(bakeType);
+
+        if (bakedType == null) {
+            synchronized (this) {
+                bakedType = this.backedTypeMap.get(bakeType);
+
+                if (bakedType == null) {
+                    bakedType = this.bake(bakeType);
+
+                    IdentityHashMap<Class<?>, BakedType> newBackedTypeMap = new IdentityHashMap<>(this.backedTypeMap);
+                    newBackedTypeMap.put(bakeType, bakedType);
 
-                    this.backedTypeMap.put(bakeType, bakedType);
+                    this.backedTypeMap = newBackedTypeMap;
                 }
             }
         }
 
-        return this.backedTypeMap.get(bakeType);
+        return bakedType;
     }
 }
\ No newline at end of file
@@ -22,9 +22,21 @@
 
 package com.realtimetech.opack.codec.dense;
 
+import com.realtimetech.opack.Opacker;
+import com.realtimetech.opack.bake.BakedType;
+import com.realtimetech.opack.bake.FieldAccessor;
+import com.realtimetech.opack.bake.TypeBaker;
 import com.realtimetech.opack.codec.OpackCodec;
+import com.realtimetech.opack.codec.dense.frame.BlockCompressor;
+import com.realtimetech.opack.codec.dense.frame.DenseFrameInputStream;
+import com.realtimetech.opack.codec.dense.frame.DenseFrameOutputStream;
+import com.realtimetech.opack.codec.dense.frame.DenseFrameReader;
+import com.realtimetech.opack.exception.BakeException;
 import com.realtimetech.opack.exception.DecodeException;
+import com.realtimetech.opack.exception.DeserializeException;
 import com.realtimetech.opack.exception.EncodeException;
+import com.realtimetech.opack.exception.SerializeException;
+import com.realtimetech.opack.transformer.Transformer;
 import com.realtimetech.opack.util.OpackArrayConverter;
 import com.realtimetech.opack.util.ReflectionUtil;
 import com.realtimetech.opack.util.structure.FastStack;
@@ -34,17 +46,256 @@ import com.realtimetech.opack.value.OpackObject;
 import com.realtimetech.opack.value.OpackValue;
 
 import java.io.*;
+import java.lang.reflect.Array;
 import java.lang.reflect.InvocationTargetException;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 public final class DenseCodec extends OpackCodec<InputStream, OutputStream> {
+    static class ObjectLayout {
+        static class Entry {
+            final int index;
+            final BakedType.Property property;
+            final byte[] nameBytes;
+            final Class<?> primitiveType;
+
+            /**
+             * Constructs the Entry of object layout.
+             * The primitive type is set only if the field can be read and written directly, without any transformer.
+             *
+             * @param typeBaker the type baker that has the predefined transformers of primitive types
+             * @param index     the index of entry in object layout
+             * @param property  the property to encode
+             * @throws BakeException if the primitive type cannot be baked
+             */
+            Entry(TypeBaker typeBaker, int index, BakedType.Property property) throws BakeException {
+                this.index = index;
+                this.property = property;
+                this.nameBytes = property.getName().getBytes(StandardCharsets.UTF_8);
+
+                Class<?> fieldType = property.getField().getType();
+                boolean direct = property.getTransformer() == null && property.getExplicitType() == null && fieldType.isPrimitive();
+
+                // Predefined transformers can be registered for primitive types too
+                if (direct && typeBaker.get(fieldType).getTransformers().length != 0) {
+                    direct = false;
+                }
+
+                this.primitiveType = direct ? fieldType : null;
+            }
+        }
+
+        final BakedType bakedType;
+        final Entry[] entries;
+        final HashMap<String, Entry> entryMap;
+
+        /**
+         * Constructs the ObjectLayout of baked type.
+         * The entries follow the key order of the {@link OpackObject OpackObject} that {@link Opacker#serialize(Object) serialize} creates, so both encoding paths produce the same bytes.
+         *
+         * @param typeBaker the type baker that baked the type
+         * @param bakedType the baked type to encode or decode
+         * @throws BakeException if the primitive type of field cannot be baked
+         */
+        ObjectLayout(TypeBaker typeBaker, BakedType bakedType) throws BakeException {
+            this.bakedType = bakedType;
+
+            HashMap<String, BakedType.Property> propertyMap = new HashMap<>();
+
+            for (BakedType.Property property : bakedType.getFields()) {
+                propertyMap.put(property.getName(), property);
+            }
+
+            this.entries = new Entry[propertyMap.size()];
+            this.entryMap = new HashMap<>();
+
+            int index = 0;
+            for (BakedType.Property property : propertyMap.values()) {
+                Entry entry = new Entry(typeBaker, index, property);
+
+                this.entries[index++] = entry;
+                this.entryMap.put(property.getName(), entry);
+            }
+        }
+    }
+
+    static class DecodeSchema {
+        final String[] keys;
+
+        ObjectLayout objectLayout;
+        ObjectLayout.Entry[] entries;
+
+        /**
+         * Constructs the DecodeSchema of the keys in encoded order.
+         *
+         * @param keys the keys of schema
+         */
+        DecodeSchema(String[] keys) {
+            this.keys = keys;
+        }
+
+        /**
+         * Returns the entries of object layout matched to the keys of this schema, resolving them on first use for the object layout.
+         *
+         * @param objectLayout the object layout to decode
+         * @return the entries in encoded order, null for the keys that are not in the object layout
+         */
+        ObjectLayout.Entry[] getEntries(ObjectLayout objectLayout) {
+            if (this.objectLayout != objectLayout) {
+                ObjectLayout.Entry[] entries = new ObjectLayout.Entry[this.keys.length];
+
+                for (int index = 0; index < this.keys.length; index++) {
+                    entries[index] = objectLayout.entryMap.get(this.keys[index]);
+                }
+
+                this.entries = entries;
+                this.objectLayout = objectLayout;
+            }
+
+            return this.entries;
+        }
+    }
+
+    /**
+     * Task of parallel encoding that encodes a sequence of values to the segments of bytes in order.
+     * Splits the sequence into chunks if it is larger than a chunk, and splits the large objects and arrays into the sequences of their children.
+     */
+    static final class EncodeTask extends RecursiveTask<List<byte[]>> {
+        private static final long serialVersionUID = 1L;
+
+        final transient DenseCodec denseCodec;
+        final boolean compact;
+        final transient Object[] values;
+        final int from;
+        final int to;
+
+        /**
+         * Constructs the EncodeTask of the range of values.
+         *
+         * @param denseCodec the dense codec that has the fork-join pool and worker codecs
+         * @param compact    true if the values are encoded in compact form
+         * @param values     the values to encode in order
+         * @param from       the start index, inclusive
+         * @param to         the end index, exclusive
+         */
+        EncodeTask(DenseCodec denseCodec, boolean compact, Object[] values, int from, int to) {
+            this.denseCodec = denseCodec;
+            this.compact = compact;
+            this.values = values;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<byte[]> compute() {
+            try {
+                return this.encode();
+            } catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+            }
+        }
+
+        /**
+         * Encodes the range of values, in the current thread except the split chunks and children.
+         *
+         * @return the encoded segments in order
+         * @throws IOException if an I/O error occurs when writing to byte stream
+         */
+        List<byte[]> encode() throws IOException {
+            int count = this.to - this.from;
+            int chunkCount = this.denseCodec.encodeParallelism * 4;
+            int chunkSize = Math.max(this.denseCodec.encodeParallelThreshold, (count + chunkCount - 1) / chunkCount);
+            ArrayList<byte[]> segments = new ArrayList<>();
+
+            if (count > chunkSize) {
+                ArrayList<EncodeTask> encodeTasks = new ArrayList<>();
+
+                for (int start = this.from; start < this.to; start += chunkSize) {
+                    encodeTasks.add(new EncodeTask(this.denseCodec, this.compact, this.values, start, Math.min(this.to, start + chunkSize)));
+                }
+
+                invokeAll(encodeTasks);
+
+                for (EncodeTask encodeTask : encodeTasks) {
+                    segments.addAll(encodeTask.join());
+                }
+
+                return segments;
+            }
+
+            DenseCodec workerCodec = this.denseCodec.encodeWorkerCodec.get();
+            ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+            DenseWriter denseWriter = new DenseWriter(byteArrayOutputStream);
+
+            denseWriter.setCompact(this.compact);
+
+            for (int index = this.from; index < this.to; index++) {
+                Object value = this.values[index];
+                Object[] children = this.denseCodec.getParallelChildren(value);
+
+                if (children == null) {
+                    workerCodec.encodeValue(denseWriter, value);
+                    continue;
+                }
+
+                if (value instanceof OpackObject) {
+                    denseWriter.writeByte(CONST_TYPE_OPACK_OBJECT);
+                    denseWriter.writeLength(children.length / 2);
+                } else {
+                    denseWriter.writeByte(CONST_TYPE_OPACK_ARRAY);
+                    denseWriter.writeLength(children.length);
+                    denseWriter.writeByte(CONST_NO_NATIVE_ARRAY);
+                }
+
+                denseWriter.flush();
+                segments.add(byteArrayOutputStream.toByteArray());
+                byteArrayOutputStream.reset();
+
+                segments.addAll(new EncodeTask(this.denseCodec, this.compact, children, 0, children.length).encode());
+            }
+
+            denseWriter.flush();
+
+            if (byteArrayOutputStream.size() > 0) {
+                segments.add(byteArrayOutputStream.toByteArray());
+            }
+
+            return segments;
+        }
+    }
+
+    static class DecodeFrame {
+        Object object;
+        Class<?> componentType;
+        ObjectLayout objectLayout;
+        ObjectLayout.Entry[] schemaEntries;
+        boolean[] assigned;
+
+        int size;
+        int index;
+    }
+
     public final static class Builder {
         int encodeOutputBufferInitialSize;
         int encodeStackInitialSize;
         int decodeStackInitialSize;
         boolean ignoreVersionCompare;
+        int encodeVersion;
+        boolean encodeStringDictionary;
+        boolean encodeObjectSchema;
+        BlockCompressor encodeCompressor;
+        int encodeCompressionBlockSize;
+        BlockCompressor[] decodeCompressors;
+        int encodeParallelism;
+        int encodeParallelThreshold;
+        ForkJoinPool encodeForkJoinPool;
 
         public Builder() {
             this.encodeOutputBufferInitialSize = 1024;
@@ -52,6 +303,15 @@ public final class DenseCodec extends OpackCodec<InputStream, OutputStream> {
             this.decodeStackInitialSize = 128;
 
             this.ignoreVersionCompare = false;
+            this.encodeVersion = 2;
+            this.encodeStringDictionary = false;
+            this.encodeObjectSchema = false;
+            this.encodeCompressor = null;
+            this.encodeCompressionBlockSize = 1 << 16;
+            this.decodeCompressors = new BlockCompressor[0];
+            this.encodeParallelism = 1;
+            this.encodeParallelThreshold = 1024;
+            this.encodeForkJoinPool = null;
         }
 
         public Builder setEncodeOutputBufferInitialSize(int encodeOutputBufferInitialSize) {
@@ -74,6 +334,116 @@ public final class DenseCodec extends OpackCodec<InputStream, OutputStream> {
             return this;
         }
 
+        /**
+         * Sets the version of dense format to encode, 1 for fixed-width lengths and values, or 2 (default) for variable-length lengths and values.
+         * Both versions are always decodable.
+         * Version 2 is about half the size of version 1 on small integers, short strings and small collections,
+         * but barely smaller on large values and primitive arrays, which are written in the same width by both versions.
+         *
+         * @param encodeVersion the version to encode
+         * @return this builder
+         */
+        public Builder setEncodeVersion(int encodeVersion) {
+            this.encodeVersion = encodeVersion;
+            return this;
+        }
+
+        /**
+         * Sets whether to encode each distinct string of a message once, and the repeated strings as references to it.
+         * The decoder resolves the references to the same string instance, whatever this option is.
+         * Repeated strings are then decoded without being copied and converted again, so decoding is not slower than plain strings;
+         * encoding looks up every string in the dictionary, so this option only pays off when the strings of a message repeat.
+         *
+         * @param encodeStringDictionary true if the strings are encoded through the dictionary
+         * @return this builder
+         */
+        public Builder setEncodeStringDictionary(boolean encodeStringDictionary) {
+            this.encodeStringDictionary = encodeStringDictionary;
+            return this;
+        }
+
+        /**
+         * Sets whether {@link DenseCodec#encodeObject(Opacker, Object) encodeObject} writes the field names of each class once per message as schema, and the objects as tuples of values in schema order.
+         * The decoder reads the schema objects as usual objects, whatever this option is.
+         *
+         * @param encodeObjectSchema true if the objects are encoded through the schema
+         * @return this builder
+         */
+        public Builder setEncodeObjectSchema(boolean encodeObjectSchema) {
+            this.encodeObjectSchema = encodeObjectSchema;
+            return this;
+        }
+
+        /**
+         * Sets the compressor to encode the dense format data in {@link DenseFrameOutputStream dense frame}, or null (default) to encode it uncompressed.
+         *
+         * @param encodeCompressor the compressor of blocks, or null
+         * @return this builder
+         */
+        public Builder setEncodeCompressor(BlockCompressor encodeCompressor) {
+            this.encodeCompressor = encodeCompressor;
+            return this;
+        }
+
+        /**
+         * Sets the original byte size of each compressed block, 65536 by default.
+         *
+         * @param encodeCompressionBlockSize the block size
+         * @return this builder
+         */
+        public Builder setEncodeCompressionBlockSize(int encodeCompressionBlockSize) {
+            this.encodeCompressionBlockSize = encodeCompressionBlockSize;
+            return this;
+        }
+
+        /**
+         * Sets the compressors to decode dense frames, in addition to the deflate compressor and the encode compressor.
+         * The decoder detects dense frame by its header, so uncompressed data is decodable whatever this option is.
+         *
+         * @param decodeCompressors the compressors of blocks
+         * @return this builder
+         */
+        public Builder setDecodeCompressors(BlockCompressor... decodeCompressors) {
+            this.decodeCompressors = decodeCompressors;
+            return this;
+        }
+
+        /**
+         * Sets the number of threads to encode {@link OpackValue OpackValue} tree, 1 (default) to encode in the calling thread.
+         * In parallel, the large objects and arrays are split into chunks that are encoded on the {@link #setEncodeForkJoinPool(ForkJoinPool) fork-join pool}, and the output is identical to the sequential encoding.
+         * The string dictionary depends on the encoding order, so the tree is encoded sequentially if {@link #setEncodeStringDictionary(boolean) string dictionary} is enabled.
+         *
+         * @param encodeParallelism the number of threads
+         * @return this builder
+         */
+        public Builder setEncodeParallelism(int encodeParallelism) {
+            this.encodeParallelism = encodeParallelism;
+            return this;
+        }
+
+        /**
+         * Sets the minimum number of entries or elements of object or array to split in parallel encoding, 1024 by default.
+         *
+         * @param encodeParallelThreshold the minimum size to split
+         * @return this builder
+         */
+        public Builder setEncodeParallelThreshold(int encodeParallelThreshold) {
+            this.encodeParallelThreshold = encodeParallelThreshold;
+            return this;
+        }
+
+        /**
+         * Sets the fork-join pool to run parallel encoding on, {@link ForkJoinPool#commonPool() common pool} by default.
+         * The codec does not own the pool, so the caller shuts it down when it is no longer used.
+         *
+         * @param encodeForkJoinPool the fork-join pool, or null to use the common pool
+         * @return this builder
+         */
+        public Builder setEncodeForkJoinPool(ForkJoinPool encodeForkJoinPool) {
+            this.encodeForkJoinPool = encodeForkJoinPool;
+            return this;
+        }
+
         public DenseCodec create() {
             return new DenseCodec(this);
         }
@@ -82,47 +452,79 @@ public final class DenseCodec extends OpackCodec<InputStream, OutputStream> {
     /*
         DO NOT CHANGE CLASSIFIER
      */
-    private static final byte[] CONST_DENSE_CODEC_CLASSIFIER = new byte[]{0x20, 0x22, 'D', 'S'};
+    static final byte[] CONST_DENSE_CODEC_CLASSIFIER = new byte[]{0x20, 0x22, 'D', 'S'};
 
     /*
         !! IMPORTANT !!
         If the structure of Dense Codec changes, you must change(increase) the version
      */
-    private static final byte[] CONST_DENSE_CODEC_VERSION = new byte[]{0x00, 0x01};
-
-    private static final byte CONST_TYPE_OPACK_OBJECT = 0x00;
-    private static final byte CONST_TYPE_OPACK_ARRAY = 0x01;
-
-    private static final byte CONST_TYPE_BOOLEAN = 0x10;
-    private static final byte CONST_TYPE_BYTE = 0x11;
-    private static final byte CONST_TYPE_CHARACTER = 0x12;
-    private static final byte CONST_TYPE_SHORT = 0x13;
-    private static final byte CONST_TYPE_INTEGER = 0x14;
-    private static final byte CONST_TYPE_FLOAT = 0x15;
-    private static final byte CONST_TYPE_LONG = 0x16;
-    private static final byte CONST_TYPE_DOUBLE = 0x17;
-    private static final byte CONST_TYPE_NULL = 0x18;
-    private static final byte CONST_TYPE_STRING = 0x19;
-
-    private static final byte CONST_PRIMITIVE_BOOLEAN_NATIVE_ARRAY = 0x20;
-    private static final byte CONST_PRIMITIVE_BYTE_NATIVE_ARRAY = 0x21;
-    private static final byte CONST_PRIMITIVE_CHARACTER_NATIVE_ARRAY = 0x22;
-    private static final byte CONST_PRIMITIVE_SHORT_NATIVE_ARRAY = 0x23;
-    private static final byte CONST_PRIMITIVE_INTEGER_NATIVE_ARRAY = 0x24;
-    private static final byte CONST_PRIMITIVE_FLOAT_NATIVE_ARRAY = 0x25;
-    private static final byte CONST_PRIMITIVE_LONG_NATIVE_ARRAY = 0x26;
-    private static final byte CONST_PRIMITIVE_DOUBLE_NATIVE_ARRAY = 0x27;
-
-    private static final byte CONST_WRAPPER_BOOLEAN_NATIVE_ARRAY = 0x30;
-    private static final byte CONST_WRAPPER_BYTE_NATIVE_ARRAY = 0x31;
-    private static final byte CONST_WRAPPER_CHARACTER_NATIVE_ARRAY = 0x32;
-    private static final byte CONST_WRAPPER_SHORT_NATIVE_ARRAY = 0x33;
-    private static final byte CONST_WRAPPER_INTEGER_NATIVE_ARRAY = 0x34;
-    private static final byte CONST_WRAPPER_FLOAT_NATIVE_ARRAY = 0x35;
-    private static final byte CONST_WRAPPER_LONG_NATIVE_ARRAY = 0x36;
-    private static final byte CONST_WRAPPER_DOUBLE_NATIVE_ARRAY = 0x37;
-
-    private static final byte CONST_NO_NATIVE_ARRAY = 0x0F;
+    static final byte[] CONST_DENSE_CODEC_VERSION = new byte[]{0x00, 0x02};
+
+    /*
+        Version 1 has fixed-width lengths and integral values, still decodable
+     */
+    static final byte[] CONST_DENSE_CODEC_VERSION_1 = new byte[]{0x00, 0x01};
+
+    static final byte CONST_TYPE_OPACK_OBJECT = 0x00;
+    static final byte CONST_TYPE_OPACK_ARRAY = 0x01;
+
+    static final byte CONST_TYPE_BOOLEAN = 0x10;
+    static final byte CONST_TYPE_BYTE = 0x11;
+    static final byte CONST_TYPE_CHARACTER = 0x12;
+    static final byte CONST_TYPE_SHORT = 0x13;
+    static final byte CONST_TYPE_INTEGER = 0x14;
+    static final byte CONST_TYPE_FLOAT = 0x15;
+    static final byte CONST_TYPE_LONG = 0x16;
+    static final byte CONST_TYPE_DOUBLE = 0x17;
+    static final byte CONST_TYPE_NULL = 0x18;
+    static final byte CONST_TYPE_STRING = 0x19;
+
+    /*
+        Inlined small values, version 2 only
+        Small integer and long blocks have the zigzag encoded value (-32 ~ 31) in the lower 6 bits of block header
+     */
+    static final byte CONST_TYPE_BOOLEAN_TRUE = 0x1A;
+    static final byte CONST_TYPE_BOOLEAN_FALSE = 0x1B;
+    static final byte CONST_TYPE_SMALL_INTEGER = 0x40;
+    static final byte CONST_TYPE_SMALL_LONG = (byte) 0x80;
+
+    /*
+        String dictionary, the definition block is a string block that is added to the dictionary of the message
+        The reference block has the index in the dictionary as length
+     */
+    static final byte CONST_TYPE_STRING_DEFINITION = 0x1C;
+    static final byte CONST_TYPE_STRING_REFERENCE = 0x1D;
+
+    /*
+        Object schema, the definition block has the number of keys and the key blocks, and it is added to the schemas of the message
+        The schema object block has the index in the schemas as length
+        Both are followed by the values in the order of keys
+     */
+    static final byte CONST_TYPE_SCHEMA_DEFINITION = 0x1E;
+    static final byte CONST_TYPE_SCHEMA_OBJECT = 0x1F;
+
+    static final int CONST_SMALL_VALUE_MASK = 0x3F;
+    static final int CONST_SMALL_TYPE_MASK = 0xC0;
+
+    static final byte CONST_PRIMITIVE_BOOLEAN_NATIVE_ARRAY = 0x20;
+    static final byte CONST_PRIMITIVE_BYTE_NATIVE_ARRAY = 0x21;
+    static final byte CONST_PRIMITIVE_CHARACTER_NATIVE_ARRAY = 0x22;
+    static final byte CONST_PRIMITIVE_SHORT_NATIVE_ARRAY = 0x23;
+    static final byte CONST_PRIMITIVE_INTEGER_NATIVE_ARRAY = 0x24;
+    static final byte CONST_PRIMITIVE_FLOAT_NATIVE_ARRAY = 0x25;
+    static final byte CONST_PRIMITIVE_LONG_NATIVE_ARRAY = 0x26;
+    static final byte CONST_PRIMITIVE_DOUBLE_NATIVE_ARRAY = 0x27;
+
+    static final byte CONST_WRAPPER_BOOLEAN_NATIVE_ARRAY = 0x30;
+    static final byte CONST_WRAPPER_BYTE_NATIVE_ARRAY = 0x31;
+    static final byte CONST_WRAPPER_CHARACTER_NATIVE_ARRAY = 0x32;
+    static final byte CONST_WRAPPER_SHORT_NATIVE_ARRAY = 0x33;
+    static final byte CONST_WRAPPER_INTEGER_NATIVE_ARRAY = 0x34;
+    static final byte CONST_WRAPPER_FLOAT_NATIVE_ARRAY = 0x35;
+    static final byte CONST_WRAPPER_LONG_NATIVE_ARRAY = 0x36;
+    static final byte CONST_WRAPPER_DOUBLE_NATIVE_ARRAY = 0x37;
+
+    static final byte CONST_NO_NATIVE_ARRAY = 0x0F;
 
     private static final Object CONTEXT_NULL_OBJECT = new Object();
     private static final Object CONTEXT_BRANCH_CONTEXT_OBJECT = new Object();
@@ -130,10 +532,37 @@ public final class DenseCodec extends OpackCodec<InputStream, OutputStream> {
     final ByteArrayOutputStream encodeByteArrayStream;
     final FastStack<Object> encodeStack;
 
+    final FastStack<Object> encodeObjectStack;
+    final FastStack<Class<?>> encodeObjectTypeStack;
+    final FastStack<ObjectLayout.Entry> encodeObjectEntryStack;
+
+    final FastStack<DecodeFrame> decodeObjectFrameStack;
+    final FastStack<DecodeFrame> decodeObjectFramePool;
+
+    final IdentityHashMap<Class<?>, ObjectLayout> objectLayoutMap;
+
     final FastStack<OpackValue> decodeStack;
     final FastStack<Object[]> decodeContextStack;
 
+    final HashMap<String, Integer> encodeStringTable;
+    final ArrayList<String> decodeStringTable;
+
+    final IdentityHashMap<ObjectLayout, Integer> encodeSchemaTable;
+    final ArrayList<DecodeSchema> decodeSchemaTable;
+
     final boolean ignoreVersionCompare;
+    final byte[] encodeVersion;
+    final boolean encodeStringDictionary;
+    final boolean encodeObjectSchema;
+
+    final BlockCompressor encodeCompressor;
+    final int encodeCompressionBlockSize;
+    final BlockCompressor[] decodeCompressors;
+
+    final int encodeParallelism;
+    final int encodeParallelThreshold;
+    final ForkJoinPool encodeForkJoinPool;
+    final ThreadLocal<DenseCodec> encodeWorkerCodec;
 
     /**
      * Constructs the DenseCodec with the builder of DenseCodec.
@@ -146,10 +575,66 @@ public final class DenseCodec extends OpackCodec<InputStream, OutputStream> {
         this.encodeByteArrayStream = new ByteArrayOutputStream(builder.encodeOutputBufferInitialSize);
         this.encodeStack = new FastStack<>(builder.encodeStackInitialSize);
 
+        this.encodeObjectStack = new FastStack<>(builder.encodeStackInitialSize);
+        this.encodeObjectTypeStack = new FastStack<>(builder.encodeStackInitialSize);
+        this.encodeObjectEntryStack = new FastStack<>(builder.encodeStackInitialSize);
+
+        this.decodeObjectFrameStack = new FastStack<>(builder.decodeStackInitialSize);
+        this.decodeObjectFramePool = new FastStack<>(builder.decodeStackInitialSize);
+
+        this.objectLayoutMap = new IdentityHashMap<>();
+
         this.decodeStack = new FastStack<>(builder.decodeStackInitialSize);
         this.decodeContextStack = new FastStack<>(builder.decodeStackInitialSize);
 
+        this.encodeStringTable = new HashMap<>();
+        this.decodeStringTable = new ArrayList<>();
+
+        this.encodeSchemaTable = new IdentityHashMap<>();
+        this.decodeSchemaTable = new ArrayList<>();
+
+        this.encodeStringDictionary = builder.encodeStringDictionary;
+        this.encodeObjectSchema = builder.encodeObjectSchema;
         this.ignoreVersionCompare = builder.ignoreVersionCompare;
+
+        if (builder.encodeVersion == 1) {
+            this.encodeVersion = CONST_DENSE_CODEC_VERSION_1;
+        } else if (builder.encodeVersion == 2) {
+            this.encodeVersion = CONST_DENSE_CODEC_VERSION;
+        } else {
+            throw new IllegalArgumentException("Dense format version must be 1 or 2, got " + builder.encodeVersion);
+        }
+
+        if (builder.encodeCompressionBlockSize <= 0) {
+            throw new IllegalArgumentException("Compression block size must be positive, got " + builder.encodeCompressionBlockSize);
+        }
+
+        this.encodeCompressor = builder.encodeCompressor;
+        this.encodeCompressionBlockSize = builder.encodeCompressionBlockSize;
+
+        if (builder.encodeCompressor != null) {
+            this.decodeCompressors = Arrays.copyOf(builder.decodeCompressors, builder.decodeCompressors.length + 1);
+            this.decodeCompressors[builder.decodeCompressors.length] = builder.encodeCompressor;
+        } else {
+            this.decodeCompressors = builder.decodeCompressors.clone();
+        }
+
+        if (builder.encodeParallelism <= 0 || builder.encodeParallelThreshold <= 0) {
+            throw new IllegalArgumentException("Parallelism and parallel threshold must be positive, got " + builder.encodeParallelism + " and " + builder.encodeParallelThreshold);
+        }
+
+        this.encodeParallelism = builder.encodeParallelism;
+        this.encodeParallelThreshold = builder.encodeParallelThreshold;
+
+        if (this.encodeParallelism > 1) {
+            int encodeStackInitialSize = builder.encodeStackInitialSize;
+
+            this.encodeForkJoinPool = builder.encodeForkJoinPool != null ? builder.encodeForkJoinPool : ForkJoinPool.commonPool();
+            this.encodeWorkerCodec = ThreadLocal.withInitial(() -> new Builder().setEncodeStackInitialSize(encodeStackInitialSize).create());
+        } else {
+            this.encodeForkJoinPool = null;
+            this.encodeWorkerCodec = null;
+        }
     }
 
 
@@ -163,37 +648,111 @@ public final class DenseCodec extends OpackCodec<InputStream, OutputStream> {
      */
     @Override
     protected void doEncode(OutputStream outputStream, OpackValue opackValue) throws IOException {
-        DenseWriter denseWriter = new DenseWriter(outputStream);
+        if (this.encodeCompressor != null) {
+            DenseFrameOutputStream frameOutputStream = new DenseFrameOutputStream(outputStream, this.encodeCompressor, this.encodeCompressionBlockSize);
 
-        denseWriter.writeBytes(CONST_DENSE_CODEC_CLASSIFIER);
-        denseWriter.writeBytes(CONST_DENSE_CODEC_VERSION);
+            this.doEncode(new DenseWriter(frameOutputStream), opackValue);
+            frameOutputStream.finish();
+        } else {
+            this.doEncode(new DenseWriter(outputStream), opackValue);
+        }
+    }
+
+    /**
+     * Encodes the OpackValue with the dense header to the dense writer.
+     *
+     * @param denseWriter the writer to write the encoded data
+     * @param opackValue  the OpackValue to encode
+     * @throws IOException              if an I/O error occurs when writing to byte stream
+     * @throws IllegalArgumentException if the type of data to be encoded is not allowed in dense format
+     */
+    void doEncode(DenseWriter denseWriter, OpackValue opackValue) throws IOException {
+        this.doEncode(denseWriter, opackValue, true);
+    }
 
-        this.encodeStack.push(opackValue);
+    /**
+     * Encodes the OpackValue to the dense writer.
+     * Without the dense header, the value is written in the form of the encode version, which the reader must know to decode it.
+     *
+     * @param denseWriter the writer to write the encoded data
+     * @param opackValue  the OpackValue to encode
+     * @param header      true to write the dense header before the value
+     * @throws IOException              if an I/O error occurs when writing to byte stream
+     * @throws IllegalArgumentException if the type of data to be encoded is not allowed in dense format
+     */
+    synchronized void doEncode(DenseWriter denseWriter, OpackValue opackValue, boolean header) throws IOException {
+        if (header) {
+            writeHeader(denseWriter, this.encodeVersion);
+        } else {
+            denseWriter.setCompact(this.encodeVersion != CONST_DENSE_CODEC_VERSION_1);
+        }
 
-        while (!this.encodeStack.isEmpty()) {
-            Object object = this.encodeStack.pop();
+        if (this.encodeForkJoinPool != null && !this.encodeStringDictionary) {
+            List<byte[]> segments;
 
-            if (object == null) {
-                denseWriter.writeByte(CONST_TYPE_NULL);
-                continue;
+            try {
+                segments = this.encodeForkJoinPool.invoke(new EncodeTask(this, denseWriter.isCompact(), new Object[]{opackValue}, 0, 1));
+            } catch (UncheckedIOException exception) {
+                throw exception.getCause();
             }
 
-            Class<?> objectType = object.getClass();
-
-            if (ReflectionUtil.isWrapperType(objectType)) {
-                objectType = ReflectionUtil.convertWrapperClassToPrimitiveClass(objectType);
+            for (byte[] segment : segments) {
+                denseWriter.writeBytes(segment);
             }
 
+            denseWriter.flush();
+            return;
+        }
+
+        this.encodeStack.reset();
+        this.encodeStringTable.clear();
+
+        this.encodeValue(denseWriter, opackValue);
+
+        this.encodeStringTable.clear();
+        denseWriter.flush();
+    }
+
+    /**
+     * Writes the header of dense format, and sets the writer to write in the form of the version.
+     *
+     * @param denseWriter the writer to write the encoded data
+     * @param version     the version of dense format, {@code CONST_DENSE_CODEC_VERSION} or {@code CONST_DENSE_CODEC_VERSION_1}
+     * @throws IOException if an I/O error occurs when writing to byte stream
+     */
+    static void writeHeader(DenseWriter denseWriter, byte[] version) throws IOException {
+        denseWriter.writeBytes(CONST_DENSE_CODEC_CLASSIFIER);
+        denseWriter.writeBytes(version);
+        denseWriter.setCompact(version != CONST_DENSE_CODEC_VERSION_1);
+    }
+
+    /**
+     * Encodes the value and all of its children, without the dense header.
+     *
+     * @param denseWriter the writer to write the encoded data
+     * @param value       the opack value or literal value to encode
+     * @throws IOException              if an I/O error occurs when writing to byte stream
+     * @throws IllegalArgumentException if the type of data to be encoded is not allowed in dense format
+     */
+    void encodeValue(DenseWriter denseWriter, Object value) throws IOException {
+        int endOfStack = this.encodeStack.getSize();
+
+        this.encodeStack.push(value);
+
+        while (this.encodeStack.getSize() > endOfStack) {
+            Object object = this.encodeStack.pop();
+            Class<?> objectType = object == null ? null : object.getClass();
+
             if (objectType == OpackObject.class) {
                 OpackObject<Object, Object> opackObject = (OpackObject<Object, Object>) object;
                 int size = opackObject.size();
 
                 denseWriter.writeByte(CONST_TYPE_OPACK_OBJECT);
-                denseWriter.writeInt(size);
+                denseWriter.writeLength(size);
 
                 for (Object key : opackObject.keySet()) {
-                    Object value = opackObject.get(key);
-                    this.encodeStack.push(value);
+                    Object keyValue = opackObject.get(key);
+                    this.encodeStack.push(keyValue);
                     this.encodeStack.push(key);
                 }
             } else if (objectType == OpackArray.class) {
@@ -204,505 +763,2071 @@ public final class DenseCodec extends OpackCodec<InputStream, OutputStream> {
                     List<?> opackArrayList = OpackArrayConverter.getOpackArrayList(opackArray);
 
                     denseWriter.writeByte(CONST_TYPE_OPACK_ARRAY);
-                    denseWriter.writeInt(length);
+                    denseWriter.writeLength(length);
 
-                    boolean optimized = true;
+                    boolean optimized = false;
 
                     if (opackArrayList instanceof NativeList) {
                         NativeList nativeList = (NativeList) opackArrayList;
-                        Object arrayObject = nativeList.getArrayObject();
-                        Class<?> arrayType = arrayObject.getClass();
-
-                        if (arrayType == boolean[].class) {
-                            boolean[] array = (boolean[]) arrayObject;
-                            denseWriter.writeByte(CONST_PRIMITIVE_BOOLEAN_NATIVE_ARRAY);
-                            for (boolean value : array) {
-                                denseWriter.writeByte(value ? 1 : 0);
-                            }
-                        } else if (arrayType == byte[].class) {
-                            byte[] array = (byte[]) arrayObject;
-                            denseWriter.writeByte(CONST_PRIMITIVE_BYTE_NATIVE_ARRAY);
-                            for (byte value : array) {
-                                denseWriter.writeByte(value);
-                            }
-                        } else if (arrayType == char[].class) {
-                            char[] array = (char[]) arrayObject;
-                            denseWriter.writeByte(CONST_PRIMITIVE_CHARACTER_NATIVE_ARRAY);
-                            for (char value : array) {
-                                denseWriter.writeChar(value);
-                            }
-                        } else if (arrayType == short[].class) {
-                            short[] array = (short[]) arrayObject;
-                            denseWriter.writeByte(CONST_PRIMITIVE_SHORT_NATIVE_ARRAY);
-                            for (short value : array) {
-                                denseWriter.writeShort(value);
-                            }
-                        } else if (arrayType == int[].class) {
-                            int[] array = (int[]) arrayObject;
-                            denseWriter.writeByte(CONST_PRIMITIVE_INTEGER_NATIVE_ARRAY);
-                            for (int value : array) {
-                                denseWriter.writeInt(value);
-                            }
-                        } else if (arrayType == float[].class) {
-                            float[] array = (float[]) arrayObject;
-                            denseWriter.writeByte(CONST_PRIMITIVE_FLOAT_NATIVE_ARRAY);
-                            for (float value : array) {
-                                denseWriter.writeFloat(value);
-                            }
-                        } else if (arrayType == long[].class) {
-                            long[] array = (long[]) arrayObject;
-                            denseWriter.writeByte(CONST_PRIMITIVE_LONG_NATIVE_ARRAY);
-                            for (long value : array) {
-                                denseWriter.writeLong(value);
-                            }
-                        } else if (arrayType == double[].class) {
-                            double[] array = (double[]) arrayObject;
-                            denseWriter.writeByte(CONST_PRIMITIVE_DOUBLE_NATIVE_ARRAY);
-                            for (double value : array) {
-                                denseWriter.writeDouble(value);
-                            }
-                        } else if (arrayType == Boolean[].class) {
-                            Boolean[] array = (Boolean[]) arrayObject;
-                            denseWriter.writeByte(CONST_WRAPPER_BOOLEAN_NATIVE_ARRAY);
-                            for (Boolean value : array) {
-                                if (value == null) {
-                                    denseWriter.writeByte(0);
-                                } else {
-                                    denseWriter.writeByte(1);
-                                    denseWriter.writeByte(value ? 1 : 0);
-                                }
-                            }
-                        } else if (arrayType == Byte[].class) {
-                            Byte[] array = (Byte[]) arrayObject;
-                            denseWriter.writeByte(CONST_WRAPPER_BYTE_NATIVE_ARRAY);
-                            for (Byte value : array) {
-                                if (value == null) {
-                                    denseWriter.writeByte(0);
-                                } else {
-                                    denseWriter.writeByte(1);
-                                    denseWriter.writeByte(value);
-                                }
-                            }
-                        } else if (arrayType == Character[].class) {
-                            Character[] array = (Character[]) arrayObject;
-                            denseWriter.writeByte(CONST_WRAPPER_CHARACTER_NATIVE_ARRAY);
-                            for (Character value : array) {
-                                if (value == null) {
-                                    denseWriter.writeByte(0);
-                                } else {
-                                    denseWriter.writeByte(1);
-                                    denseWriter.writeChar(value);
-                                }
-                            }
-                        } else if (arrayType == Short[].class) {
-                            Short[] array = (Short[]) arrayObject;
-                            denseWriter.writeByte(CONST_WRAPPER_SHORT_NATIVE_ARRAY);
-                            for (Short value : array) {
-                                if (value == null) {
-                                    denseWriter.writeByte(0);
-                                } else {
-                                    denseWriter.writeByte(1);
-                                    denseWriter.writeShort(value);
-                                }
-                            }
-                        } else if (arrayType == Integer[].class) {
-                            Integer[] array = (Integer[]) arrayObject;
-                            denseWriter.writeByte(CONST_WRAPPER_INTEGER_NATIVE_ARRAY);
-                            for (Integer value : array) {
-                                if (value == null) {
-                                    denseWriter.writeByte(0);
-                                } else {
-                                    denseWriter.writeByte(1);
-                                    denseWriter.writeInt(value);
-                                }
-                            }
-                        } else if (arrayType == Float[].class) {
-                            Float[] array = (Float[]) arrayObject;
-                            denseWriter.writeByte(CONST_WRAPPER_FLOAT_NATIVE_ARRAY);
-                            for (Float value : array) {
-                                if (value == null) {
-                                    denseWriter.writeByte(0);
-                                } else {
-                                    denseWriter.writeByte(1);
-                                    denseWriter.writeFloat(value);
-                                }
-                            }
-                        } else if (arrayType == Long[].class) {
-                            Long[] array = (Long[]) arrayObject;
-                            denseWriter.writeByte(CONST_WRAPPER_LONG_NATIVE_ARRAY);
-                            for (Long value : array) {
-                                if (value == null) {
-                                    denseWriter.writeByte(0);
-                                } else {
-                                    denseWriter.writeByte(1);
-                                    denseWriter.writeLong(value);
-                                }
-                            }
-                        } else if (arrayType == Double[].class) {
-                            Double[] array = (Double[]) arrayObject;
-                            denseWriter.writeByte(CONST_WRAPPER_DOUBLE_NATIVE_ARRAY);
-                            for (Double value : array) {
-                                if (value == null) {
-                                    denseWriter.writeByte(0);
-                                } else {
-                                    denseWriter.writeByte(1);
-                                    denseWriter.writeDouble(value);
-                                }
-                            }
-                        } else {
-                            optimized = false;
-                        }
-                    } else {
-                        optimized = false;
+                        optimized = this.encodeNativeArray(denseWriter, nativeList.getArrayObject());
                     }
 
                     if (!optimized) {
                         denseWriter.writeByte(CONST_NO_NATIVE_ARRAY);
 
                         for (int index = length - 1; index >= 0; index--) {
-                            Object value = opackArray.get(index);
-                            encodeStack.push(value);
+                            Object element = opackArray.get(index);
+                            this.encodeStack.push(element);
                         }
                     }
                 } catch (InvocationTargetException | IllegalAccessException e) {
                     throw new IllegalStateException("Failed to access the native list object in OpackArray");
                 }
             } else {
-                if (objectType == boolean.class) {
-                    denseWriter.writeByte(CONST_TYPE_BOOLEAN);
-                    denseWriter.writeByte((boolean) object ? 1 : 0);
-                } else if (objectType == byte.class) {
-                    denseWriter.writeByte(CONST_TYPE_BYTE);
-                    denseWriter.writeByte((byte) object);
-                } else if (objectType == char.class) {
-                    denseWriter.writeByte(CONST_TYPE_CHARACTER);
-                    denseWriter.writeChar((char) object);
-                } else if (objectType == short.class) {
-                    denseWriter.writeByte(CONST_TYPE_SHORT);
-                    denseWriter.writeShort((short) object);
-                } else if (objectType == int.class) {
-                    denseWriter.writeByte(CONST_TYPE_INTEGER);
-                    denseWriter.writeInt((int) object);
-                } else if (objectType == float.class) {
-                    denseWriter.writeByte(CONST_TYPE_FLOAT);
-                    denseWriter.writeFloat((float) object);
-                } else if (objectType == long.class) {
-                    denseWriter.writeByte(CONST_TYPE_LONG);
-                    denseWriter.writeLong((long) object);
-                } else if (objectType == double.class) {
-                    denseWriter.writeByte(CONST_TYPE_DOUBLE);
-                    denseWriter.writeDouble((double) object);
-                } else if (objectType == String.class) {
-                    String string = (String) object;
-                    byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
-
-                    denseWriter.writeByte(CONST_TYPE_STRING);
-                    denseWriter.writeInt(bytes.length);
-                    denseWriter.writeBytes(bytes);
-                } else {
-                    throw new IllegalArgumentException(objectType + " is not allowed in dense format. (unknown literal object type)");
-                }
+                this.encodeLiteral(denseWriter, object);
             }
         }
     }
 
-    public synchronized byte[] encode(OpackValue opackValue) throws EncodeException {
-        this.encodeByteArrayStream.reset();
-        this.encode(this.encodeByteArrayStream, opackValue);
-        return this.encodeByteArrayStream.toByteArray();
-    }
-
     /**
-     * Decodes one block to OpackValue. (basic block protocol: header(1 byte), data (variable))
-     * If data of block to be decoded is OpackObject or OpackArray(excluding primitive array), returns CONTEXT_BRANCH_CONTEXT_OBJECT for linear decoding.
+     * Returns the children of the object or array to split in parallel encoding, in the order that {@link #encodeValue(DenseWriter, Object) encodeValue} writes them.
+     * The entries of object are written in reverse order of keys, as key and value pairs.
      *
-     * @param denseReader the byte buffer that wraps the data
-     * @return opack value or CONTEXT_BRANCH_CONTEXT_OBJECT
-     * @throws IllegalArgumentException if the type of data to be decoded is not allowed in dense format; if unknown block header is parsed
+     * @param value the value to encode
+     * @return the children, or null if the value is not object or array to split
      */
-    Object decodeBlock(DenseReader denseReader) throws IOException {
-        byte b = (byte) denseReader.readByte();
-
-        if (b == CONST_TYPE_BOOLEAN) {
-            return (byte) denseReader.readByte() == 1;
-        } else if (b == CONST_TYPE_BYTE) {
-            return (byte) denseReader.readByte();
-        } else if (b == CONST_TYPE_CHARACTER) {
-            return denseReader.readChar();
-        } else if (b == CONST_TYPE_SHORT) {
-            return denseReader.readShort();
-        } else if (b == CONST_TYPE_INTEGER) {
-            return denseReader.readInt();
-        } else if (b == CONST_TYPE_FLOAT) {
-            return denseReader.readFloat();
-        } else if (b == CONST_TYPE_LONG) {
-            return denseReader.readLong();
-        } else if (b == CONST_TYPE_DOUBLE) {
-            return denseReader.readDouble();
-        } else if (b == CONST_TYPE_NULL) {
-            return null;
-        } else if (b == CONST_TYPE_STRING) {
-            int length = denseReader.readInt();
-            byte[] bytes = new byte[length];
-            denseReader.readBytes(bytes);
+    Object[] getParallelChildren(Object value) {
+        Class<?> valueType = value == null ? null : value.getClass();
 
-            return new String(bytes, StandardCharsets.UTF_8);
-        } else if (b == CONST_TYPE_OPACK_OBJECT) {
-            int size = denseReader.readInt();
-            OpackObject<Object, Object> opackObject = new OpackObject<>(size);
+        if (valueType == OpackObject.class) {
+            OpackObject<Object, Object> opackObject = (OpackObject<Object, Object>) value;
+            int size = opackObject.size();
 
-            decodeContextStack.push(new Object[]{size, 0, CONTEXT_NULL_OBJECT, CONTEXT_NULL_OBJECT});
-            decodeStack.push(opackObject);
+            if (size < this.encodeParallelThreshold) {
+                return null;
+            }
 
-            return CONTEXT_BRANCH_CONTEXT_OBJECT;
-        } else if (b == CONST_TYPE_OPACK_ARRAY) {
-            int length = denseReader.readInt();
+            Object[] children = new Object[size * 2];
+            int index = children.length;
 
-            byte nativeType = (byte) denseReader.readByte();
+            for (Object key : opackObject.keySet()) {
+                children[--index] = opackObject.get(key);
+                children[--index] = key;
+            }
 
-            if (nativeType == CONST_NO_NATIVE_ARRAY) {
-                OpackArray<Object> opackArray = new OpackArray<>(length);
+            return children;
+        } else if (valueType == OpackArray.class) {
+            OpackArray<Object> opackArray = (OpackArray<Object>) value;
+            int length = opackArray.length();
 
-                decodeContextStack.push(new Object[]{length, 0});
-                decodeStack.push(opackArray);
+            if (length < this.encodeParallelThreshold) {
+                return null;
+            }
 
-                return CONTEXT_BRANCH_CONTEXT_OBJECT;
-            } else {
-                if (nativeType == CONST_PRIMITIVE_BOOLEAN_NATIVE_ARRAY) {
-                    boolean[] array = new boolean[length];
-                    for (int index = 0; index < array.length; index++) {
-                        array[index] = denseReader.readByte() == 1;
-                    }
-                    return OpackArray.createWithArrayObject(array);
-                } else if (nativeType == CONST_PRIMITIVE_BYTE_NATIVE_ARRAY) {
-                    byte[] array = new byte[length];
-                    for (int index = 0; index < array.length; index++) {
-                        array[index] = (byte) denseReader.readByte();
-                    }
-                    return OpackArray.createWithArrayObject(array);
-                } else if (nativeType == CONST_PRIMITIVE_CHARACTER_NATIVE_ARRAY) {
-                    char[] array = new char[length];
-                    for (int index = 0; index < array.length; index++) {
-                        array[index] = denseReader.readChar();
-                    }
-                    return OpackArray.createWithArrayObject(array);
-                } else if (nativeType == CONST_PRIMITIVE_SHORT_NATIVE_ARRAY) {
-                    short[] array = new short[length];
-                    for (int index = 0; index < array.length; index++) {
-                        array[index] = denseReader.readShort();
-                    }
-                    return OpackArray.createWithArrayObject(array);
-                } else if (nativeType == CONST_PRIMITIVE_INTEGER_NATIVE_ARRAY) {
-                    int[] array = new int[length];
-                    for (int index = 0; index < array.length; index++) {
-                        array[index] = denseReader.readInt();
-                    }
-                    return OpackArray.createWithArrayObject(array);
-                } else if (nativeType == CONST_PRIMITIVE_FLOAT_NATIVE_ARRAY) {
-                    float[] array = new float[length];
-                    for (int index = 0; index < array.length; index++) {
-                        array[index] = denseReader.readFloat();
-                    }
-                    return OpackArray.createWithArrayObject(array);
-                } else if (nativeType == CONST_PRIMITIVE_LONG_NATIVE_ARRAY) {
-                    long[] array = new long[length];
-                    for (int index = 0; index < array.length; index++) {
-                        array[index] = denseReader.readLong();
-                    }
-                    return OpackArray.createWithArrayObject(array);
-                } else if (nativeType == CONST_PRIMITIVE_DOUBLE_NATIVE_ARRAY) {
-                    double[] array = new double[length];
-                    for (int index = 0; index < array.length; index++) {
-                        array[index] = denseReader.readDouble();
-                    }
-                    return OpackArray.createWithArrayObject(array);
-                } else if (nativeType == CONST_WRAPPER_BOOLEAN_NATIVE_ARRAY) {
-                    Boolean[] array = new Boolean[length];
-                    for (int index = 0; index < array.length; index++) {
-                        boolean nullFlag = denseReader.readByte() == 1;
-                        if (nullFlag) {
-                            array[index] = denseReader.readByte() == 1;
-                        }
-                    }
-                    return OpackArray.createWithArrayObject(array);
-                } else if (nativeType == CONST_WRAPPER_BYTE_NATIVE_ARRAY) {
-                    Byte[] array = new Byte[length];
-                    for (int index = 0; index < array.length; index++) {
-                        boolean nullFlag = denseReader.readByte() == 1;
-                        if (nullFlag) {
-                            array[index] = (byte) denseReader.readByte();
-                        }
-                    }
-                    return OpackArray.createWithArrayObject(array);
-                } else if (nativeType == CONST_WRAPPER_CHARACTER_NATIVE_ARRAY) {
-                    Character[] array = new Character[length];
-                    for (int index = 0; index < array.length; index++) {
-                        boolean nullFlag = denseReader.readByte() == 1;
-                        if (nullFlag) {
-                            array[index] = denseReader.readChar();
-                        }
-                    }
-                    return OpackArray.createWithArrayObject(array);
-                } else if (nativeType == CONST_WRAPPER_SHORT_NATIVE_ARRAY) {
-                    Short[] array = new Short[length];
-                    for (int index = 0; index < array.length; index++) {
-                        boolean nullFlag = denseReader.readByte() == 1;
-                        if (nullFlag) {
-                            array[index] = denseReader.readShort();
-                        }
-                    }
-                    return OpackArray.createWithArrayObject(array);
-                } else if (nativeType == CONST_WRAPPER_INTEGER_NATIVE_ARRAY) {
-                    Integer[] array = new Integer[length];
-                    for (int index = 0; index < array.length; index++) {
-                        boolean nullFlag = denseReader.readByte() == 1;
-                        if (nullFlag) {
-                            array[index] = denseReader.readInt();
-                        }
-                    }
-                    return OpackArray.createWithArrayObject(array);
-                } else if (nativeType == CONST_WRAPPER_FLOAT_NATIVE_ARRAY) {
-                    Float[] array = new Float[length];
-                    for (int index = 0; index < array.length; index++) {
-                        boolean nullFlag = denseReader.readByte() == 1;
-                        if (nullFlag) {
-                            array[index] = denseReader.readFloat();
-                        }
-                    }
-                    return OpackArray.createWithArrayObject(array);
-                } else if (nativeType == CONST_WRAPPER_LONG_NATIVE_ARRAY) {
-                    Long[] array = new Long[length];
-                    for (int index = 0; index < array.length; index++) {
-                        boolean nullFlag = denseReader.readByte() == 1;
-                        if (nullFlag) {
-                            array[index] = denseReader.readLong();
-                        }
-                    }
-                    return OpackArray.createWithArrayObject(array);
-                } else if (nativeType == CONST_WRAPPER_DOUBLE_NATIVE_ARRAY) {
-                    Double[] array = new Double[length];
-                    for (int index = 0; index < array.length; index++) {
-                        boolean nullFlag = denseReader.readByte() == 1;
-                        if (nullFlag) {
-                            array[index] = denseReader.readDouble();
-                        }
-                    }
-                    return OpackArray.createWithArrayObject(array);
-                } else {
-                    throw new IllegalArgumentException(nativeType + " is not registered native array type binary in dense format. (unknown native array type)");
+            try {
+                if (OpackArrayConverter.getOpackArrayList(opackArray) instanceof NativeList) {
+                    return null;
                 }
+            } catch (InvocationTargetException | IllegalAccessException e) {
+                throw new IllegalStateException("Failed to access the native list object in OpackArray");
+            }
+
+            Object[] children = new Object[length];
+
+            for (int index = 0; index < length; index++) {
+                children[index] = opackArray.get(index);
             }
+
+            return children;
         }
 
-        throw new IllegalArgumentException(b + " is not registered block header binary in dense codec. (unknown block header)");
+        return null;
     }
 
     /**
-     * Decodes the byte array encoded through the dense codec to OpackValue.
+     * Encodes the native type and the elements of a one dimension primitive or wrapper array.
      *
-     * @param inputStream the stream to decode
-     * @return opack value
-     * @throws IllegalArgumentException if the decoded value is not a opack value
+     * @param denseWriter the writer to write the encoded data
+     * @param arrayObject the array object to encode
+     * @return false if the array is not a native array type, nothing is written in that case
+     * @throws IOException if an I/O error occurs when writing to byte stream
      */
-    @Override
-    protected OpackValue doDecode(InputStream inputStream) throws IOException {
-        DenseReader denseReader = new DenseReader(inputStream);
-
-        byte[] classifier = inputStream.readNBytes(CONST_DENSE_CODEC_CLASSIFIER.length);
+    boolean encodeNativeArray(DenseWriter denseWriter, Object arrayObject) throws IOException {
+        Class<?> arrayType = arrayObject.getClass();
+        byte nativeType = arrayType.isArray() ? getNativeType(arrayType.getComponentType()) : CONST_NO_NATIVE_ARRAY;
 
-        if (!Arrays.equals(CONST_DENSE_CODEC_CLASSIFIER, classifier)) {
-            throw new IllegalArgumentException("Decoding data is not dense format data. (Expected " + Arrays.toString(CONST_DENSE_CODEC_CLASSIFIER) + ", got " + Arrays.toString(classifier) + ")");
+        if (nativeType == CONST_NO_NATIVE_ARRAY) {
+            return false;
         }
 
-        if (!this.ignoreVersionCompare) {
-            byte[] version = inputStream.readNBytes(CONST_DENSE_CODEC_VERSION.length);
+        denseWriter.writeByte(nativeType);
+        writeNativeArrayElements(denseWriter, nativeType, arrayObject, 0, Array.getLength(arrayObject));
 
-            if (!Arrays.equals(CONST_DENSE_CODEC_VERSION, version)) {
-                throw new IllegalArgumentException("Decoding data does not match current version of dense codec. (Expected " + Arrays.toString(CONST_DENSE_CODEC_VERSION) + ", got " + Arrays.toString(version) + ")");
-            }
-        }
+        return true;
+    }
 
-        this.decodeStack.reset();
+    /**
+     * Returns the native array type of the component type.
+     *
+     * @param componentType the component type of array
+     * @return the native array type, or {@code CONST_NO_NATIVE_ARRAY} if the component type is not primitive or wrapper type
+     */
+    static byte getNativeType(Class<?> componentType) {
+        if (componentType == boolean.class) {
+            return CONST_PRIMITIVE_BOOLEAN_NATIVE_ARRAY;
+        } else if (componentType == byte.class) {
+            return CONST_PRIMITIVE_BYTE_NATIVE_ARRAY;
+        } else if (componentType == char.class) {
+            return CONST_PRIMITIVE_CHARACTER_NATIVE_ARRAY;
+        } else if (componentType == short.class) {
+            return CONST_PRIMITIVE_SHORT_NATIVE_ARRAY;
+        } else if (componentType == int.class) {
+            return CONST_PRIMITIVE_INTEGER_NATIVE_ARRAY;
+        } else if (componentType == float.class) {
+            return CONST_PRIMITIVE_FLOAT_NATIVE_ARRAY;
+        } else if (componentType == long.class) {
+            return CONST_PRIMITIVE_LONG_NATIVE_ARRAY;
+        } else if (componentType == double.class) {
+            return CONST_PRIMITIVE_DOUBLE_NATIVE_ARRAY;
+        } else if (componentType == Boolean.class) {
+            return CONST_WRAPPER_BOOLEAN_NATIVE_ARRAY;
+        } else if (componentType == Byte.class) {
+            return CONST_WRAPPER_BYTE_NATIVE_ARRAY;
+        } else if (componentType == Character.class) {
+            return CONST_WRAPPER_CHARACTER_NATIVE_ARRAY;
+        } else if (componentType == Short.class) {
+            return CONST_WRAPPER_SHORT_NATIVE_ARRAY;
+        } else if (componentType == Integer.class) {
+            return CONST_WRAPPER_INTEGER_NATIVE_ARRAY;
+        } else if (componentType == Float.class) {
+            return CONST_WRAPPER_FLOAT_NATIVE_ARRAY;
+        } else if (componentType == Long.class) {
+            return CONST_WRAPPER_LONG_NATIVE_ARRAY;
+        } else if (componentType == Double.class) {
+            return CONST_WRAPPER_DOUBLE_NATIVE_ARRAY;
+        }
+
+        return CONST_NO_NATIVE_ARRAY;
+    }
+
+    /**
+     * Returns the component type of the native array type.
+     *
+     * @param nativeType the native array type
+     * @return the component type
+     * @throws IllegalArgumentException if unknown native array type is passed
+     */
+    static Class<?> getNativeComponentType(byte nativeType) {
+        switch (nativeType) {
+            case CONST_PRIMITIVE_BOOLEAN_NATIVE_ARRAY:
+                return boolean.class;
+            case CONST_PRIMITIVE_BYTE_NATIVE_ARRAY:
+                return byte.class;
+            case CONST_PRIMITIVE_CHARACTER_NATIVE_ARRAY:
+                return char.class;
+            case CONST_PRIMITIVE_SHORT_NATIVE_ARRAY:
+                return short.class;
+            case CONST_PRIMITIVE_INTEGER_NATIVE_ARRAY:
+                return int.class;
+            case CONST_PRIMITIVE_FLOAT_NATIVE_ARRAY:
+                return float.class;
+            case CONST_PRIMITIVE_LONG_NATIVE_ARRAY:
+                return long.class;
+            case CONST_PRIMITIVE_DOUBLE_NATIVE_ARRAY:
+                return double.class;
+            case CONST_WRAPPER_BOOLEAN_NATIVE_ARRAY:
+                return Boolean.class;
+            case CONST_WRAPPER_BYTE_NATIVE_ARRAY:
+                return Byte.class;
+            case CONST_WRAPPER_CHARACTER_NATIVE_ARRAY:
+                return Character.class;
+            case CONST_WRAPPER_SHORT_NATIVE_ARRAY:
+                return Short.class;
+            case CONST_WRAPPER_INTEGER_NATIVE_ARRAY:
+                return Integer.class;
+            case CONST_WRAPPER_FLOAT_NATIVE_ARRAY:
+                return Float.class;
+            case CONST_WRAPPER_LONG_NATIVE_ARRAY:
+                return Long.class;
+            case CONST_WRAPPER_DOUBLE_NATIVE_ARRAY:
+                return Double.class;
+        }
+
+        throw new IllegalArgumentException(nativeType + " is not registered native array type binary in dense format. (unknown native array type)");
+    }
+
+    /**
+     * Returns the byte size of element value of the native array type, without the null flag of wrapper types.
+     *
+     * @param nativeType the native array type
+     * @return the byte size
+     * @throws IllegalArgumentException if unknown native array type is passed
+     */
+    static int getNativeElementSize(byte nativeType) {
+        Class<?> componentType = getNativeComponentType(nativeType);
+
+        if (componentType == boolean.class || componentType == byte.class || componentType == Boolean.class || componentType == Byte.class) {
+            return 1;
+        } else if (componentType == char.class || componentType == short.class || componentType == Character.class || componentType == Short.class) {
+            return 2;
+        } else if (componentType == int.class || componentType == float.class || componentType == Integer.class || componentType == Float.class) {
+            return 4;
+        }
+
+        return 8;
+    }
+
+    /**
+     * Returns whether the native array type is the array of wrapper type, which has the null flag per element.
+     *
+     * @param nativeType the native array type
+     * @return true if the native array type is wrapper type
+     */
+    static boolean isWrapperNativeType(byte nativeType) {
+        return nativeType >= CONST_WRAPPER_BOOLEAN_NATIVE_ARRAY && nativeType <= CONST_WRAPPER_DOUBLE_NATIVE_ARRAY;
+    }
+
+    /**
+     * Encodes the range of elements of a one dimension primitive or wrapper array, without the native array type.
+     *
+     * @param denseWriter the writer to write the encoded data
+     * @param nativeType  the native array type of array
+     * @param arrayObject the array object to encode
+     * @param offset      the start offset in the array
+     * @param length      the number of elements to encode
+     * @throws IOException if an I/O error occurs when writing to byte stream
+     */
+    static void writeNativeArrayElements(DenseWriter denseWriter, byte nativeType, Object arrayObject, int offset, int length) throws IOException {
+        int end = offset + length;
+
+        if (nativeType == CONST_PRIMITIVE_BOOLEAN_NATIVE_ARRAY) {
+            denseWriter.writeBooleans((boolean[]) arrayObject, offset, length);
+        } else if (nativeType == CONST_PRIMITIVE_BYTE_NATIVE_ARRAY) {
+            denseWriter.writeBytes((byte[]) arrayObject, offset, length);
+        } else if (nativeType == CONST_PRIMITIVE_CHARACTER_NATIVE_ARRAY) {
+            denseWriter.writeChars((char[]) arrayObject, offset, length);
+        } else if (nativeType == CONST_PRIMITIVE_SHORT_NATIVE_ARRAY) {
+            denseWriter.writeShorts((short[]) arrayObject, offset, length);
+        } else if (nativeType == CONST_PRIMITIVE_INTEGER_NATIVE_ARRAY) {
+            denseWriter.writeInts((int[]) arrayObject, offset, length);
+        } else if (nativeType == CONST_PRIMITIVE_FLOAT_NATIVE_ARRAY) {
+            denseWriter.writeFloats((float[]) arrayObject, offset, length);
+        } else if (nativeType == CONST_PRIMITIVE_LONG_NATIVE_ARRAY) {
+            denseWriter.writeLongs((long[]) arrayObject, offset, length);
+        } else if (nativeType == CONST_PRIMITIVE_DOUBLE_NATIVE_ARRAY) {
+            denseWriter.writeDoubles((double[]) arrayObject, offset, length);
+        } else if (nativeType == CONST_WRAPPER_BOOLEAN_NATIVE_ARRAY) {
+            Boolean[] array = (Boolean[]) arrayObject;
+            for (int index = offset; index < end; index++) {
+                Boolean value = array[index];
+                if (value == null) {
+                    denseWriter.writeByte(0);
+                } else {
+                    denseWriter.writeByte(1);
+                    denseWriter.writeByte(value ? 1 : 0);
+                }
+            }
+        } else if (nativeType == CONST_WRAPPER_BYTE_NATIVE_ARRAY) {
+            Byte[] array = (Byte[]) arrayObject;
+            for (int index = offset; index < end; index++) {
+                Byte value = array[index];
+                if (value == null) {
+                    denseWriter.writeByte(0);
+                } else {
+                    denseWriter.writeByte(1);
+                    denseWriter.writeByte(value);
+                }
+            }
+        } else if (nativeType == CONST_WRAPPER_CHARACTER_NATIVE_ARRAY) {
+            Character[] array = (Character[]) arrayObject;
+            for (int index = offset; index < end; index++) {
+                Character value = array[index];
+                if (value == null) {
+                    denseWriter.writeByte(0);
+                } else {
+                    denseWriter.writeByte(1);
+                    denseWriter.writeChar(value);
+                }
+            }
+        } else if (nativeType == CONST_WRAPPER_SHORT_NATIVE_ARRAY) {
+            Short[] array = (Short[]) arrayObject;
+            for (int index = offset; index < end; index++) {
+                Short value = array[index];
+                if (value == null) {
+                    denseWriter.writeByte(0);
+                } else {
+                    denseWriter.writeByte(1);
+                    denseWriter.writeShort(value);
+                }
+            }
+        } else if (nativeType == CONST_WRAPPER_INTEGER_NATIVE_ARRAY) {
+            Integer[] array = (Integer[]) arrayObject;
+            for (int index = offset; index < end; index++) {
+                Integer value = array[index];
+                if (value == null) {
+                    denseWriter.writeByte(0);
+                } else {
+                    denseWriter.writeByte(1);
+                    denseWriter.writeInt(value);
+                }
+            }
+        } else if (nativeType == CONST_WRAPPER_FLOAT_NATIVE_ARRAY) {
+            Float[] array = (Float[]) arrayObject;
+            for (int index = offset; index < end; index++) {
+                Float value = array[index];
+                if (value == null) {
+                    denseWriter.writeByte(0);
+                } else {
+                    denseWriter.writeByte(1);
+                    denseWriter.writeFloat(value);
+                }
+            }
+        } else if (nativeType == CONST_WRAPPER_LONG_NATIVE_ARRAY) {
+            Long[] array = (Long[]) arrayObject;
+            for (int index = offset; index < end; index++) {
+                Long value = array[index];
+                if (value == null) {
+                    denseWriter.writeByte(0);
+                } else {
+                    denseWriter.writeByte(1);
+                    denseWriter.writeLong(value);
+                }
+            }
+        } else if (nativeType == CONST_WRAPPER_DOUBLE_NATIVE_ARRAY) {
+            Double[] array = (Double[]) arrayObject;
+            for (int index = offset; index < end; index++) {
+                Double value = array[index];
+                if (value == null) {
+                    denseWriter.writeByte(0);
+                } else {
+                    denseWriter.writeByte(1);
+                    denseWriter.writeDouble(value);
+                }
+            }
+        } else {
+            throw new IllegalArgumentException(nativeType + " is not registered native array type binary in dense format. (unknown native array type)");
+        }
+    }
+
+    /**
+     * Encodes the literal value. (null, primitive, wrapper, string)
+     *
+     * @param denseWriter the writer to write the encoded data
+     * @param object      the literal object to encode
+     * @throws IOException              if an I/O error occurs when writing to byte stream
+     * @throws IllegalArgumentException if the type of data to be encoded is not allowed in dense format
+     */
+    void encodeLiteral(DenseWriter denseWriter, Object object) throws IOException {
+        if (object == null) {
+            denseWriter.writeByte(CONST_TYPE_NULL);
+            return;
+        }
+
+        Class<?> objectType = object.getClass();
+
+        if (ReflectionUtil.isWrapperType(objectType)) {
+            objectType = ReflectionUtil.convertWrapperClassToPrimitiveClass(objectType);
+        }
+
+        if (objectType == boolean.class) {
+            writeBooleanBlock(denseWriter, (boolean) object);
+        } else if (objectType == byte.class) {
+            denseWriter.writeByte(CONST_TYPE_BYTE);
+            denseWriter.writeByte((byte) object);
+        } else if (objectType == char.class) {
+            writeCharacterBlock(denseWriter, (char) object);
+        } else if (objectType == short.class) {
+            writeShortBlock(denseWriter, (short) object);
+        } else if (objectType == int.class) {
+            writeIntegerBlock(denseWriter, (int) object);
+        } else if (objectType == float.class) {
+            denseWriter.writeByte(CONST_TYPE_FLOAT);
+            denseWriter.writeFloat((float) object);
+        } else if (objectType == long.class) {
+            writeLongBlock(denseWriter, (long) object);
+        } else if (objectType == double.class) {
+            denseWriter.writeByte(CONST_TYPE_DOUBLE);
+            denseWriter.writeDouble((double) object);
+        } else if (objectType == String.class) {
+            this.encodeString(denseWriter, (String) object, null);
+        } else {
+            throw new IllegalArgumentException(objectType + " is not allowed in dense format. (unknown literal object type)");
+        }
+    }
+
+    /**
+     * Writes the boolean block, inlined to the block header if the writer is compact.
+     *
+     * @param denseWriter the writer to write the encoded data
+     * @param value       the boolean value
+     * @throws IOException if an I/O error occurs when writing to byte stream
+     */
+    static void writeBooleanBlock(DenseWriter denseWriter, boolean value) throws IOException {
+        if (denseWriter.isCompact()) {
+            denseWriter.writeByte(value ? CONST_TYPE_BOOLEAN_TRUE : CONST_TYPE_BOOLEAN_FALSE);
+        } else {
+            denseWriter.writeByte(CONST_TYPE_BOOLEAN);
+            denseWriter.writeByte(value ? 1 : 0);
+        }
+    }
+
+    /**
+     * Writes the character block, with variable-length payload if the writer is compact.
+     *
+     * @param denseWriter the writer to write the encoded data
+     * @param value       the character value
+     * @throws IOException if an I/O error occurs when writing to byte stream
+     */
+    static void writeCharacterBlock(DenseWriter denseWriter, char value) throws IOException {
+        denseWriter.writeByte(CONST_TYPE_CHARACTER);
+
+        if (denseWriter.isCompact()) {
+            denseWriter.writeVarInt(value);
+        } else {
+            denseWriter.writeChar(value);
+        }
+    }
+
+    /**
+     * Writes the short block, with zigzag variable-length payload if the writer is compact.
+     *
+     * @param denseWriter the writer to write the encoded data
+     * @param value       the short value
+     * @throws IOException if an I/O error occurs when writing to byte stream
+     */
+    static void writeShortBlock(DenseWriter denseWriter, short value) throws IOException {
+        denseWriter.writeByte(CONST_TYPE_SHORT);
+
+        if (denseWriter.isCompact()) {
+            denseWriter.writeVarInt(encodeZigZag(value));
+        } else {
+            denseWriter.writeShort(value);
+        }
+    }
+
+    /**
+     * Writes the integer block, inlined to the block header for small value or with zigzag variable-length payload if the writer is compact.
+     *
+     * @param denseWriter the writer to write the encoded data
+     * @param value       the int value
+     * @throws IOException if an I/O error occurs when writing to byte stream
+     */
+    static void writeIntegerBlock(DenseWriter denseWriter, int value) throws IOException {
+        if (denseWriter.isCompact()) {
+            int zigZag = encodeZigZag(value);
+
+            if ((zigZag & ~CONST_SMALL_VALUE_MASK) == 0) {
+                denseWriter.writeByte(CONST_TYPE_SMALL_INTEGER | zigZag);
+            } else {
+                denseWriter.writeByte(CONST_TYPE_INTEGER);
+                denseWriter.writeVarInt(zigZag);
+            }
+        } else {
+            denseWriter.writeByte(CONST_TYPE_INTEGER);
+            denseWriter.writeInt(value);
+        }
+    }
+
+    /**
+     * Writes the long block, inlined to the block header for small value or with zigzag variable-length payload if the writer is compact.
+     *
+     * @param denseWriter the writer to write the encoded data
+     * @param value       the long value
+     * @throws IOException if an I/O error occurs when writing to byte stream
+     */
+    static void writeLongBlock(DenseWriter denseWriter, long value) throws IOException {
+        if (denseWriter.isCompact()) {
+            long zigZag = encodeZigZag(value);
+
+            if ((zigZag & ~CONST_SMALL_VALUE_MASK) == 0) {
+                denseWriter.writeByte(CONST_TYPE_SMALL_LONG | (int) zigZag);
+            } else {
+                denseWriter.writeByte(CONST_TYPE_LONG);
+                denseWriter.writeVarLong(zigZag);
+            }
+        } else {
+            denseWriter.writeByte(CONST_TYPE_LONG);
+            denseWriter.writeLong(value);
+        }
+    }
+
+    /**
+     * Writes the string block of UTF-8 bytes.
+     *
+     * @param denseWriter the writer to write the encoded data
+     * @param bytes       the UTF-8 bytes of string
+     * @throws IOException if an I/O error occurs when writing to byte stream
+     */
+    static void writeStringBlock(DenseWriter denseWriter, byte[] bytes) throws IOException {
+        denseWriter.writeByte(CONST_TYPE_STRING);
+        denseWriter.writeLength(bytes.length);
+        denseWriter.writeBytes(bytes);
+    }
+
+    /**
+     * Encodes the string, as the reference to the dictionary if the string is already in the dictionary of the message.
+     *
+     * @param denseWriter the writer to write the encoded data
+     * @param string      the string to encode
+     * @param bytes       the UTF-8 bytes of string, or null to encode them only if needed
+     * @throws IOException if an I/O error occurs when writing to byte stream
+     */
+    void encodeString(DenseWriter denseWriter, String string, byte[] bytes) throws IOException {
+        if (!this.encodeStringDictionary) {
+            writeStringBlock(denseWriter, bytes == null ? string.getBytes(StandardCharsets.UTF_8) : bytes);
+            return;
+        }
+
+        Integer index = this.encodeStringTable.get(string);
+
+        if (index != null) {
+            denseWriter.writeByte(CONST_TYPE_STRING_REFERENCE);
+            denseWriter.writeLength(index);
+            return;
+        }
+
+        this.encodeStringTable.put(string, this.encodeStringTable.size());
+
+        if (bytes == null) {
+            bytes = string.getBytes(StandardCharsets.UTF_8);
+        }
+
+        denseWriter.writeByte(CONST_TYPE_STRING_DEFINITION);
+        denseWriter.writeLength(bytes.length);
+        denseWriter.writeBytes(bytes);
+    }
+
+    /**
+     * Returns the zigzag encoded value, which maps signed value to unsigned value so that small magnitude has small encoding.
+     *
+     * @param value the int value
+     * @return zigzag encoded value
+     */
+    static int encodeZigZag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    /**
+     * Returns the zigzag encoded value, which maps signed value to unsigned value so that small magnitude has small encoding.
+     *
+     * @param value the long value
+     * @return zigzag encoded value
+     */
+    static long encodeZigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    /**
+     * Returns the value decoded from zigzag encoded value.
+     *
+     * @param zigZag the zigzag encoded value
+     * @return the int value
+     */
+    static int decodeZigZag(int zigZag) {
+        return (zigZag >>> 1) ^ -(zigZag & 1);
+    }
+
+    /**
+     * Returns the value decoded from zigzag encoded value.
+     *
+     * @param zigZag the zigzag encoded value
+     * @return the long value
+     */
+    static long decodeZigZag(long zigZag) {
+        return (zigZag >>> 1) ^ -(zigZag & 1);
+    }
+
+    public synchronized byte[] encode(OpackValue opackValue) throws EncodeException {
+        this.encodeByteArrayStream.reset();
+        this.encode(this.encodeByteArrayStream, opackValue);
+        return this.encodeByteArrayStream.toByteArray();
+    }
+
+    /**
+     * Encodes the OpackValue directly into the heap or direct byte buffer, starting at its position.
+     * On success, the position of the byte buffer is advanced by the number of bytes written; on failure, it is not changed.
+     *
+     * @param byteBuffer the byte buffer to write the encoded data
+     * @param opackValue the OpackValue to encode
+     * @return the number of bytes written
+     * @throws EncodeException if a problem occurs during encoding; if the byte buffer has not enough space
+     */
+    public synchronized int encode(ByteBuffer byteBuffer, OpackValue opackValue) throws EncodeException {
+        if (this.encodeCompressor != null) {
+            return this.putEncodedBytes(byteBuffer, this.encode(opackValue));
+        }
+
+        try {
+            DenseWriter denseWriter = new DenseWriter(byteBuffer);
+            int start = byteBuffer.position();
+
+            this.doEncode(denseWriter, opackValue);
+            byteBuffer.position(denseWriter.getPosition());
+
+            return denseWriter.getPosition() - start;
+        } catch (Exception exception) {
+            throw new EncodeException(exception);
+        }
+    }
+
+    /**
+     * Returns the object layout of baked type, creating it on first use.
+     * The layout is created again if the type is baked again, for example after a predefined transformer is registered.
+     *
+     * @param typeBaker the type baker that baked the type
+     * @param bakedType the baked type to encode or decode
+     * @return object layout
+     * @throws BakeException if the primitive type of field cannot be baked
+     */
+    ObjectLayout getObjectLayout(TypeBaker typeBaker, BakedType bakedType) throws BakeException {
+        ObjectLayout objectLayout = this.objectLayoutMap.get(bakedType.getType());
+
+        if (objectLayout == null || objectLayout.bakedType != bakedType) {
+            objectLayout = new ObjectLayout(typeBaker, bakedType);
+            this.objectLayoutMap.put(bakedType.getType(), objectLayout);
+        }
+
+        return objectLayout;
+    }
+
+    /**
+     * Encodes the primitive field of the object without boxing.
+     *
+     * @param denseWriter the writer to write the encoded data
+     * @param entry       the layout entry of the primitive field
+     * @param object      the object that has the field
+     * @throws IOException            if an I/O error occurs when writing to byte stream
+     * @throws IllegalAccessException if the field is not accessible
+     */
+    void encodePrimitiveField(DenseWriter denseWriter, ObjectLayout.Entry entry, Object object) throws IOException, IllegalAccessException {
+        FieldAccessor fieldAccessor = entry.property.getAccessor();
+        Class<?> primitiveType = entry.primitiveType;
+
+        if (primitiveType == boolean.class) {
+            writeBooleanBlock(denseWriter, fieldAccessor.getBoolean(object));
+        } else if (primitiveType == byte.class) {
+            denseWriter.writeByte(CONST_TYPE_BYTE);
+            denseWriter.writeByte(fieldAccessor.getByte(object));
+        } else if (primitiveType == char.class) {
+            writeCharacterBlock(denseWriter, fieldAccessor.getChar(object));
+        } else if (primitiveType == short.class) {
+            writeShortBlock(denseWriter, fieldAccessor.getShort(object));
+        } else if (primitiveType == int.class) {
+            writeIntegerBlock(denseWriter, fieldAccessor.getInt(object));
+        } else if (primitiveType == float.class) {
+            denseWriter.writeByte(CONST_TYPE_FLOAT);
+            denseWriter.writeFloat(fieldAccessor.getFloat(object));
+        } else if (primitiveType == long.class) {
+            writeLongBlock(denseWriter, fieldAccessor.getLong(object));
+        } else if (primitiveType == double.class) {
+            denseWriter.writeByte(CONST_TYPE_DOUBLE);
+            denseWriter.writeDouble(fieldAccessor.getDouble(object));
+        } else {
+            throw new IllegalArgumentException(primitiveType + " is not primitive type.");
+        }
+    }
+
+    /**
+     * Encodes the object directly through the baked types of the opacker, without creating {@link OpackValue OpackValue} tree.
+     * The encoded bytes are the same as encoding the result of {@link Opacker#serialize(Object) serialize}.
+     *
+     * @param denseWriter the writer to write the encoded data
+     * @param opacker     the opacker that has baked types and transformers
+     * @param rootObject  the object to encode
+     * @throws IOException              if an I/O error occurs when writing to byte stream
+     * @throws SerializeException       if a problem occurs during serializing; if the class cannot be baked; if the field is not accessible
+     * @throws IllegalArgumentException if the type of data to be encoded is not allowed in dense format
+     */
+    void encodeObject(DenseWriter denseWriter, Opacker opacker, Object rootObject) throws IOException, SerializeException {
+        TypeBaker typeBaker = opacker.getTypeBaker();
+        int endOfStack = this.encodeObjectStack.getSize();
+
+        this.encodeObjectStack.push(rootObject);
+        this.encodeObjectTypeStack.push(rootObject.getClass());
+        this.encodeObjectEntryStack.push(null);
+
+        while (this.encodeObjectStack.getSize() > endOfStack) {
+            Object object = this.encodeObjectStack.pop();
+            Class<?> baseType = this.encodeObjectTypeStack.pop();
+            ObjectLayout.Entry entry = this.encodeObjectEntryStack.pop();
+
+            /*
+                Field entry, write key and resolve the field value
+             */
+            if (entry != null) {
+                BakedType.Property property = entry.property;
+
+                if (!this.encodeObjectSchema) {
+                    this.encodeString(denseWriter, property.getName(), entry.nameBytes);
+                }
+
+                try {
+                    if (entry.primitiveType != null) {
+                        this.encodePrimitiveField(denseWriter, entry, object);
+                        continue;
+                    }
+
+                    object = property.get(object);
+                    baseType = property.getType();
+                } catch (IllegalAccessException exception) {
+                    throw new SerializeException("Can't get " + property.getName() + " field data in " + property.getField().getDeclaringClass().getSimpleName(), exception);
+                }
+
+                if (property.getTransformer() != null) {
+                    object = property.getTransformer().serialize(opacker, object);
+                    baseType = object.getClass();
+                }
+            }
+
+            if (baseType == null || object == null) {
+                denseWriter.writeByte(CONST_TYPE_NULL);
+                continue;
+            }
+
+            BakedType bakedType;
+
+            try {
+                bakedType = typeBaker.get(baseType);
+            } catch (BakeException exception) {
+                throw new SerializeException("Can't bake " + baseType.getName() + " class information", exception);
+            }
+
+            for (Transformer transformer : bakedType.getTransformers()) {
+                object = transformer.serialize(opacker, object);
+            }
+
+            Class<?> objectType = object.getClass();
+
+            /*
+                Early stopping
+             */
+            if (OpackValue.isAllowType(objectType)) {
+                if (object instanceof OpackValue) {
+                    this.encodeValue(denseWriter, object);
+                } else {
+                    this.encodeLiteral(denseWriter, object);
+                }
+
+                continue;
+            }
+
+            /*
+                Enum converting
+             */
+            if (objectType.isEnum()) {
+                if (opacker.isConvertEnumToOrdinal()) {
+                    Object[] enums = objectType.getEnumConstants();
+                    int ordinal = -1;
+
+                    for (int i = 0; i < enums.length; i++) {
+                        if (enums[i] == object) {
+                            ordinal = i;
+                            break;
+                        }
+                    }
+
+                    writeIntegerBlock(denseWriter, ordinal);
+                } else {
+                    this.encodeLiteral(denseWriter, object.toString());
+                }
+
+                continue;
+            }
+
+            if (objectType.isArray()) {
+                int length = Array.getLength(object);
+
+                denseWriter.writeByte(CONST_TYPE_OPACK_ARRAY);
+                denseWriter.writeLength(length);
+
+                /*
+                    Optimize algorithm for big array
+                 */
+                if (OpackArray.isAllowArray(objectType) && ReflectionUtil.getArrayDimension(objectType) == 1) {
+                    if (this.encodeNativeArray(denseWriter, object)) {
+                        continue;
+                    }
+                }
+
+                denseWriter.writeByte(CONST_NO_NATIVE_ARRAY);
+
+                for (int index = length - 1; index >= 0; index--) {
+                    Object element = ReflectionUtil.getArrayItem(object, index);
+
+                    this.encodeObjectStack.push(element);
+                    this.encodeObjectTypeStack.push(element == null ? null : element.getClass());
+                    this.encodeObjectEntryStack.push(null);
+                }
+            } else {
+                ObjectLayout objectLayout;
+
+                try {
+                    objectLayout = this.getObjectLayout(typeBaker, bakedType);
+                } catch (BakeException exception) {
+                    throw new SerializeException("Can't bake " + baseType.getName() + " class information", exception);
+                }
+
+                if (this.encodeObjectSchema) {
+                    this.encodeSchema(denseWriter, objectLayout);
+                } else {
+                    denseWriter.writeByte(CONST_TYPE_OPACK_OBJECT);
+                    denseWriter.writeLength(objectLayout.entries.length);
+                }
+
+                for (ObjectLayout.Entry objectEntry : objectLayout.entries) {
+                    this.encodeObjectStack.push(object);
+                    this.encodeObjectTypeStack.push(null);
+                    this.encodeObjectEntryStack.push(objectEntry);
+                }
+            }
+        }
+    }
+
+    /**
+     * Encodes the header of schema object, as the reference to the schemas if the object layout is already in the schemas of the message.
+     * The keys are written in the order that the entries are encoded, which is the reverse order of entries.
+     *
+     * @param denseWriter  the writer to write the encoded data
+     * @param objectLayout the object layout of object to encode
+     * @throws IOException if an I/O error occurs when writing to byte stream
+     */
+    void encodeSchema(DenseWriter denseWriter, ObjectLayout objectLayout) throws IOException {
+        Integer index = this.encodeSchemaTable.get(objectLayout);
+
+        if (index != null) {
+            denseWriter.writeByte(CONST_TYPE_SCHEMA_OBJECT);
+            denseWriter.writeLength(index);
+            return;
+        }
+
+        this.encodeSchemaTable.put(objectLayout, this.encodeSchemaTable.size());
+
+        denseWriter.writeByte(CONST_TYPE_SCHEMA_DEFINITION);
+        denseWriter.writeLength(objectLayout.entries.length);
+
+        for (int entryIndex = objectLayout.entries.length - 1; entryIndex >= 0; entryIndex--) {
+            ObjectLayout.Entry entry = objectLayout.entries[entryIndex];
+
+            this.encodeString(denseWriter, entry.property.getName(), entry.nameBytes);
+        }
+    }
+
+    /**
+     * Encodes the object directly to bytes through dense codec, without creating {@link OpackValue OpackValue} tree.
+     *
+     * @param outputStream the byte stream to write the encoded data
+     * @param opacker      the opacker that has baked types and transformers
+     * @param object       the object to encode
+     * @throws EncodeException if a problem occurs during encoding; if a problem occurs during serializing
+     */
+    public synchronized void encodeObject(OutputStream outputStream, Opacker opacker, Object object) throws EncodeException {
+        if (this.encodeCompressor != null) {
+            DenseFrameOutputStream frameOutputStream = new DenseFrameOutputStream(outputStream, this.encodeCompressor, this.encodeCompressionBlockSize);
+
+            this.doEncodeObject(new DenseWriter(frameOutputStream), opacker, object);
+
+            try {
+                frameOutputStream.finish();
+            } catch (IOException exception) {
+                throw new EncodeException(exception);
+            }
+        } else {
+            this.doEncodeObject(new DenseWriter(outputStream), opacker, object);
+        }
+    }
+
+    /**
+     * Encodes the object with the dense header directly to the dense writer.
+     *
+     * @param denseWriter the writer to write the encoded data
+     * @param opacker     the opacker that has baked types and transformers
+     * @param object      the object to encode
+     * @throws EncodeException if a problem occurs during encoding; if a problem occurs during serializing
+     */
+    synchronized void doEncodeObject(DenseWriter denseWriter, Opacker opacker, Object object) throws EncodeException {
+        this.doEncodeObject(denseWriter, opacker, object, true);
+    }
+
+    /**
+     * Encodes the object directly to the dense writer.
+     * Without the dense header, the object is written in the form of the encode version, which the reader must know to decode it.
+     *
+     * @param denseWriter the writer to write the encoded data
+     * @param opacker     the opacker that has baked types and transformers
+     * @param object      the object to encode
+     * @param header      true to write the dense header before the object
+     * @throws EncodeException if a problem occurs during encoding; if a problem occurs during serializing
+     */
+    synchronized void doEncodeObject(DenseWriter denseWriter, Opacker opacker, Object object, boolean header) throws EncodeException {
+        try {
+            if (header) {
+                writeHeader(denseWriter, this.encodeVersion);
+            } else {
+                denseWriter.setCompact(this.encodeVersion != CONST_DENSE_CODEC_VERSION_1);
+            }
+
+            this.encodeStack.reset();
+            this.encodeObjectStack.reset();
+            this.encodeObjectTypeStack.reset();
+            this.encodeObjectEntryStack.reset();
+            this.encodeStringTable.clear();
+            this.encodeSchemaTable.clear();
+
+            this.encodeObject(denseWriter, opacker, object);
+
+            this.encodeStringTable.clear();
+            this.encodeSchemaTable.clear();
+            denseWriter.flush();
+        } catch (Exception exception) {
+            throw new EncodeException(exception);
+        }
+    }
+
+    /**
+     * Encodes the object directly to bytes through dense codec, without creating {@link OpackValue OpackValue} tree.
+     *
+     * @param opacker the opacker that has baked types and transformers
+     * @param object  the object to encode
+     * @return encoded bytes
+     * @throws EncodeException if a problem occurs during encoding; if a problem occurs during serializing
+     */
+    public synchronized byte[] encodeObject(Opacker opacker, Object object) throws EncodeException {
+        this.encodeByteArrayStream.reset();
+        this.encodeObject(this.encodeByteArrayStream, opacker, object);
+        return this.encodeByteArrayStream.toByteArray();
+    }
+
+    /**
+     * Encodes the object directly into the heap or direct byte buffer, without creating {@link OpackValue OpackValue} tree.
+     * On success, the position of the byte buffer is advanced by the number of bytes written; on failure, it is not changed.
+     *
+     * @param byteBuffer the byte buffer to write the encoded data
+     * @param opacker    the opacker that has baked types and transformers
+     * @param object     the object to encode
+     * @return the number of bytes written
+     * @throws EncodeException if a problem occurs during encoding; if a problem occurs during serializing; if the byte buffer has not enough space
+     */
+    public synchronized int encodeObject(ByteBuffer byteBuffer, Opacker opacker, Object object) throws EncodeException {
+        if (this.encodeCompressor != null) {
+            return this.putEncodedBytes(byteBuffer, this.encodeObject(opacker, object));
+        }
+
+        DenseWriter denseWriter = new DenseWriter(byteBuffer);
+        int start = byteBuffer.position();
+
+        this.doEncodeObject(denseWriter, opacker, object);
+        byteBuffer.position(denseWriter.getPosition());
+
+        return denseWriter.getPosition() - start;
+    }
+
+    /**
+     * Puts the encoded bytes into the byte buffer, as the byte buffer encoding does when the data is compressed.
+     *
+     * @param byteBuffer the byte buffer to write the encoded data
+     * @param bytes      the encoded bytes
+     * @return the number of bytes written
+     * @throws EncodeException if the byte buffer has not enough space
+     */
+    int putEncodedBytes(ByteBuffer byteBuffer, byte[] bytes) throws EncodeException {
+        try {
+            byteBuffer.put(bytes);
+        } catch (Exception exception) {
+            throw new EncodeException(exception);
+        }
+
+        return bytes.length;
+    }
+
+    /**
+     * Decodes one block to OpackValue. (basic block protocol: header(1 byte), data (variable))
+     * If data of block to be decoded is OpackObject or OpackArray(excluding primitive array), returns CONTEXT_BRANCH_CONTEXT_OBJECT for linear decoding.
+     *
+     * @param denseReader the byte buffer that wraps the data
+     * @param b           the block header already read
+     * @return opack value or CONTEXT_BRANCH_CONTEXT_OBJECT
+     * @throws IllegalArgumentException if the type of data to be decoded is not allowed in dense format; if unknown block header is parsed
+     */
+    Object decodeBlock(DenseReader denseReader, byte b) throws IOException {
+        if (isSmallIntegerBlock(b)) {
+            return getSmallValue(b);
+        } else if (isSmallLongBlock(b)) {
+            return (long) getSmallValue(b);
+        } else if (b == CONST_TYPE_BOOLEAN) {
+            return (byte) denseReader.readByte() == 1;
+        } else if (b == CONST_TYPE_BOOLEAN_TRUE) {
+            return true;
+        } else if (b == CONST_TYPE_BOOLEAN_FALSE) {
+            return false;
+        } else if (b == CONST_TYPE_BYTE) {
+            return (byte) denseReader.readByte();
+        } else if (b == CONST_TYPE_CHARACTER) {
+            return readCharacterPayload(denseReader);
+        } else if (b == CONST_TYPE_SHORT) {
+            return readShortPayload(denseReader);
+        } else if (b == CONST_TYPE_INTEGER) {
+            return readIntegerPayload(denseReader);
+        } else if (b == CONST_TYPE_FLOAT) {
+            return denseReader.readFloat();
+        } else if (b == CONST_TYPE_LONG) {
+            return readLongPayload(denseReader);
+        } else if (b == CONST_TYPE_DOUBLE) {
+            return denseReader.readDouble();
+        } else if (b == CONST_TYPE_NULL) {
+            return null;
+        } else if (b == CONST_TYPE_STRING || b == CONST_TYPE_STRING_DEFINITION) {
+            int length = denseReader.readLength();
+            byte[] bytes = new byte[length];
+            denseReader.readBytes(bytes);
+
+            String string = new String(bytes, StandardCharsets.UTF_8);
+
+            if (b == CONST_TYPE_STRING_DEFINITION) {
+                this.decodeStringTable.add(string);
+            }
+
+            return string;
+        } else if (b == CONST_TYPE_STRING_REFERENCE) {
+            int index = denseReader.readLength();
+
+            if (index < 0 || index >= this.decodeStringTable.size()) {
+                throw new IllegalArgumentException(index + " is not defined string index in dense data. (" + this.decodeStringTable.size() + " strings defined)");
+            }
+
+            return this.decodeStringTable.get(index);
+        } else if (b == CONST_TYPE_OPACK_OBJECT) {
+            int size = denseReader.readLength();
+            OpackObject<Object, Object> opackObject = new OpackObject<>(size);
+
+            decodeContextStack.push(new Object[]{size, 0, CONTEXT_NULL_OBJECT, CONTEXT_NULL_OBJECT, null});
+            decodeStack.push(opackObject);
+
+            return CONTEXT_BRANCH_CONTEXT_OBJECT;
+        } else if (b == CONST_TYPE_SCHEMA_DEFINITION || b == CONST_TYPE_SCHEMA_OBJECT) {
+            String[] keys = this.decodeSchema(denseReader, b).keys;
+            OpackObject<Object, Object> opackObject = new OpackObject<>(keys.length);
+
+            decodeContextStack.push(new Object[]{keys.length, 0, CONTEXT_NULL_OBJECT, CONTEXT_NULL_OBJECT, keys});
+            decodeStack.push(opackObject);
+
+            return CONTEXT_BRANCH_CONTEXT_OBJECT;
+        } else if (b == CONST_TYPE_OPACK_ARRAY) {
+            int length = denseReader.readLength();
+
+            byte nativeType = (byte) denseReader.readByte();
+
+            if (nativeType == CONST_NO_NATIVE_ARRAY) {
+                OpackArray<Object> opackArray = new OpackArray<>(length);
+
+                decodeContextStack.push(new Object[]{length, 0});
+                decodeStack.push(opackArray);
+
+                return CONTEXT_BRANCH_CONTEXT_OBJECT;
+            } else {
+                return OpackArray.createWithArrayObject(this.decodeNativeArray(denseReader, nativeType, length));
+            }
+        }
+
+        throw new IllegalArgumentException(b + " is not registered block header binary in dense codec. (unknown block header)");
+    }
+
+    /**
+     * Decodes the schema of schema definition or schema object block.
+     *
+     * @param denseReader the byte buffer that wraps the data
+     * @param b           the block header already read
+     * @return the decoded schema
+     * @throws IOException              if an I/O error occurs when reading from byte stream
+     * @throws IllegalArgumentException if the schema is not defined; if the key of schema is not string
+     */
+    DecodeSchema decodeSchema(DenseReader denseReader, byte b) throws IOException {
+        if (b == CONST_TYPE_SCHEMA_OBJECT) {
+            int index = denseReader.readLength();
+
+            if (index < 0 || index >= this.decodeSchemaTable.size()) {
+                throw new IllegalArgumentException(index + " is not defined schema index in dense data. (" + this.decodeSchemaTable.size() + " schemas defined)");
+            }
+
+            return this.decodeSchemaTable.get(index);
+        }
+
+        String[] keys = new String[denseReader.readLength()];
+
+        for (int index = 0; index < keys.length; index++) {
+            byte keyHeader = (byte) denseReader.readByte();
+
+            if (keyHeader != CONST_TYPE_STRING && keyHeader != CONST_TYPE_STRING_DEFINITION && keyHeader != CONST_TYPE_STRING_REFERENCE) {
+                throw new IllegalArgumentException(keyHeader + " is not string block header, the key of schema must be string.");
+            }
+
+            keys[index] = (String) this.decodeBlock(denseReader, keyHeader);
+        }
+
+        DecodeSchema decodeSchema = new DecodeSchema(keys);
+        this.decodeSchemaTable.add(decodeSchema);
+
+        return decodeSchema;
+    }
+
+    /**
+     * Returns whether the block header is inlined small integer.
+     *
+     * @param b the block header
+     * @return true if the block header is small integer
+     */
+    static boolean isSmallIntegerBlock(byte b) {
+        return (b & CONST_SMALL_TYPE_MASK) == CONST_TYPE_SMALL_INTEGER;
+    }
+
+    /**
+     * Returns whether the block header is inlined small long.
+     *
+     * @param b the block header
+     * @return true if the block header is small long
+     */
+    static boolean isSmallLongBlock(byte b) {
+        return (b & CONST_SMALL_TYPE_MASK) == (CONST_TYPE_SMALL_LONG & CONST_SMALL_TYPE_MASK);
+    }
+
+    /**
+     * Returns the value inlined in the small integer or small long block header.
+     *
+     * @param b the block header
+     * @return the small value
+     */
+    static int getSmallValue(byte b) {
+        return decodeZigZag(b & CONST_SMALL_VALUE_MASK);
+    }
+
+    /**
+     * Reads the payload of character block.
+     *
+     * @param denseReader the byte buffer that wraps the data
+     * @return the character
+     * @throws IOException if an I/O error occurs when reading from byte stream
+     */
+    static char readCharacterPayload(DenseReader denseReader) throws IOException {
+        return denseReader.isCompact() ? (char) denseReader.readVarInt() : denseReader.readChar();
+    }
+
+    /**
+     * Reads the payload of short block.
+     *
+     * @param denseReader the byte buffer that wraps the data
+     * @return the short
+     * @throws IOException if an I/O error occurs when reading from byte stream
+     */
+    static short readShortPayload(DenseReader denseReader) throws IOException {
+        return denseReader.isCompact() ? (short) decodeZigZag(denseReader.readVarInt()) : denseReader.readShort();
+    }
+
+    /**
+     * Reads the payload of integer block.
+     *
+     * @param denseReader the byte buffer that wraps the data
+     * @return the int
+     * @throws IOException if an I/O error occurs when reading from byte stream
+     */
+    static int readIntegerPayload(DenseReader denseReader) throws IOException {
+        return denseReader.isCompact() ? decodeZigZag(denseReader.readVarInt()) : denseReader.readInt();
+    }
+
+    /**
+     * Reads the payload of long block.
+     *
+     * @param denseReader the byte buffer that wraps the data
+     * @return the long
+     * @throws IOException if an I/O error occurs when reading from byte stream
+     */
+    static long readLongPayload(DenseReader denseReader) throws IOException {
+        return denseReader.isCompact() ? decodeZigZag(denseReader.readVarLong()) : denseReader.readLong();
+    }
+
+    /**
+     * Decodes the payload of native array to the array object.
+     *
+     * @param denseReader the byte buffer that wraps the data
+     * @param nativeType  the native array type header already read
+     * @param length      the length of array
+     * @return decoded array object
+     * @throws IOException              if an I/O error occurs when reading from byte stream
+     * @throws IllegalArgumentException if unknown native array type is parsed
+     */
+    Object decodeNativeArray(DenseReader denseReader, byte nativeType, int length) throws IOException {
+        Object array = Array.newInstance(getNativeComponentType(nativeType), length);
+        readNativeArrayElements(denseReader, nativeType, array, 0, length);
+
+        return array;
+    }
+
+    /**
+     * Decodes the range of elements of native array payload into the array object.
+     *
+     * @param denseReader the byte buffer that wraps the data
+     * @param nativeType  the native array type header already read
+     * @param arrayObject the array object to fill, its component type must match the native array type
+     * @param offset      the start offset in the array
+     * @param length      the number of elements to decode
+     * @throws IOException              if an I/O error occurs when reading from byte stream
+     * @throws IllegalArgumentException if unknown native array type is passed
+     */
+    static void readNativeArrayElements(DenseReader denseReader, byte nativeType, Object arrayObject, int offset, int length) throws IOException {
+        int end = offset + length;
+
+        if (nativeType == CONST_PRIMITIVE_BOOLEAN_NATIVE_ARRAY) {
+            denseReader.readBooleans((boolean[]) arrayObject, offset, length);
+        } else if (nativeType == CONST_PRIMITIVE_BYTE_NATIVE_ARRAY) {
+            denseReader.readBytes((byte[]) arrayObject, offset, length);
+        } else if (nativeType == CONST_PRIMITIVE_CHARACTER_NATIVE_ARRAY) {
+            denseReader.readChars((char[]) arrayObject, offset, length);
+        } else if (nativeType == CONST_PRIMITIVE_SHORT_NATIVE_ARRAY) {
+            denseReader.readShorts((short[]) arrayObject, offset, length);
+        } else if (nativeType == CONST_PRIMITIVE_INTEGER_NATIVE_ARRAY) {
+            denseReader.readInts((int[]) arrayObject, offset, length);
+        } else if (nativeType == CONST_PRIMITIVE_FLOAT_NATIVE_ARRAY) {
+            denseReader.readFloats((float[]) arrayObject, offset, length);
+        } else if (nativeType == CONST_PRIMITIVE_LONG_NATIVE_ARRAY) {
+            denseReader.readLongs((long[]) arrayObject, offset, length);
+        } else if (nativeType == CONST_PRIMITIVE_DOUBLE_NATIVE_ARRAY) {
+            denseReader.readDoubles((double[]) arrayObject, offset, length);
+        } else if (nativeType == CONST_WRAPPER_BOOLEAN_NATIVE_ARRAY) {
+            Boolean[] array = (Boolean[]) arrayObject;
+            for (int index = offset; index < end; index++) {
+                boolean nullFlag = denseReader.readByte() == 1;
+                array[index] = nullFlag ? denseReader.readByte() == 1 : null;
+            }
+        } else if (nativeType == CONST_WRAPPER_BYTE_NATIVE_ARRAY) {
+            Byte[] array = (Byte[]) arrayObject;
+            for (int index = offset; index < end; index++) {
+                boolean nullFlag = denseReader.readByte() == 1;
+                array[index] = nullFlag ? (byte) denseReader.readByte() : null;
+            }
+        } else if (nativeType == CONST_WRAPPER_CHARACTER_NATIVE_ARRAY) {
+            Character[] array = (Character[]) arrayObject;
+            for (int index = offset; index < end; index++) {
+                boolean nullFlag = denseReader.readByte() == 1;
+                array[index] = nullFlag ? denseReader.readChar() : null;
+            }
+        } else if (nativeType == CONST_WRAPPER_SHORT_NATIVE_ARRAY) {
+            Short[] array = (Short[]) arrayObject;
+            for (int index = offset; index < end; index++) {
+                boolean nullFlag = denseReader.readByte() == 1;
+                array[index] = nullFlag ? denseReader.readShort() : null;
+            }
+        } else if (nativeType == CONST_WRAPPER_INTEGER_NATIVE_ARRAY) {
+            Integer[] array = (Integer[]) arrayObject;
+            for (int index = offset; index < end; index++) {
+                boolean nullFlag = denseReader.readByte() == 1;
+                array[index] = nullFlag ? denseReader.readInt() : null;
+            }
+        } else if (nativeType == CONST_WRAPPER_FLOAT_NATIVE_ARRAY) {
+            Float[] array = (Float[]) arrayObject;
+            for (int index = offset; index < end; index++) {
+                boolean nullFlag = denseReader.readByte() == 1;
+                array[index] = nullFlag ? denseReader.readFloat() : null;
+            }
+        } else if (nativeType == CONST_WRAPPER_LONG_NATIVE_ARRAY) {
+            Long[] array = (Long[]) arrayObject;
+            for (int index = offset; index < end; index++) {
+                boolean nullFlag = denseReader.readByte() == 1;
+                array[index] = nullFlag ? denseReader.readLong() : null;
+            }
+        } else if (nativeType == CONST_WRAPPER_DOUBLE_NATIVE_ARRAY) {
+            Double[] array = (Double[]) arrayObject;
+            for (int index = offset; index < end; index++) {
+                boolean nullFlag = denseReader.readByte() == 1;
+                array[index] = nullFlag ? denseReader.readDouble() : null;
+            }
+        } else {
+            throw new IllegalArgumentException(nativeType + " is not registered native array type binary in dense format. (unknown native array type)");
+        }
+    }
+
+    /**
+     * Reads the header of dense format and checks the classifier and version.
+     *
+     * @param denseReader the byte buffer that wraps the data
+     * @throws IOException              if an I/O error occurs when reading from byte stream
+     * @throws IllegalArgumentException if the data is not dense format data; if the version does not match
+     */
+    void decodeHeader(DenseReader denseReader) throws IOException {
+        readHeader(denseReader, this.ignoreVersionCompare);
+    }
+
+    /**
+     * Reads the header of dense format, checks the classifier and version, and sets the reader to read in the form of the version.
+     * If the version compare is ignored, unknown version is read in the form of current version.
+     *
+     * @param denseReader          the byte buffer that wraps the data
+     * @param ignoreVersionCompare true if unknown version is allowed
+     * @throws IOException              if an I/O error occurs when reading from byte stream
+     * @throws IllegalArgumentException if the data is not dense format data; if the version is not supported
+     */
+    static void readHeader(DenseReader denseReader, boolean ignoreVersionCompare) throws IOException {
+        byte[] classifier = new byte[CONST_DENSE_CODEC_CLASSIFIER.length];
+        denseReader.readBytes(classifier);
+
+        if (!Arrays.equals(CONST_DENSE_CODEC_CLASSIFIER, classifier)) {
+            throw new IllegalArgumentException("Decoding data is not dense format data. (Expected " + Arrays.toString(CONST_DENSE_CODEC_CLASSIFIER) + ", got " + Arrays.toString(classifier) + ")");
+        }
+
+        byte[] version = new byte[CONST_DENSE_CODEC_VERSION.length];
+        denseReader.readBytes(version);
+
+        denseReader.setCompact(isCompactVersion(version, ignoreVersionCompare));
+    }
+
+    /**
+     * Checks the version of dense format, and returns whether the version is read in the compact form.
+     * If the version compare is ignored, unknown version is read in the form of current version.
+     *
+     * @param version              the version of dense format
+     * @param ignoreVersionCompare true if unknown version is allowed
+     * @return true if the version is read in the compact form
+     * @throws IllegalArgumentException if the version is not supported
+     */
+    static boolean isCompactVersion(byte[] version, boolean ignoreVersionCompare) {
+        if (Arrays.equals(CONST_DENSE_CODEC_VERSION_1, version)) {
+            return false;
+        } else if (Arrays.equals(CONST_DENSE_CODEC_VERSION, version) || ignoreVersionCompare) {
+            return true;
+        }
+
+        throw new IllegalArgumentException("Decoding data does not match supported versions of dense codec. (Expected " + Arrays.toString(CONST_DENSE_CODEC_VERSION) + " or " + Arrays.toString(CONST_DENSE_CODEC_VERSION_1) + ", got " + Arrays.toString(version) + ")");
+    }
+
+    /**
+     * Decodes one value including all of its children to OpackValue or literal.
+     *
+     * @param denseReader the byte buffer that wraps the data
+     * @param b           the block header already read
+     * @return decoded value
+     * @throws IOException              if an I/O error occurs when reading from byte stream
+     * @throws IllegalArgumentException if the type of data to be decoded is not allowed in dense format; if unknown block header is parsed
+     */
+    Object decodeValue(DenseReader denseReader, byte b) throws IOException {
+        int endOfStack = this.decodeStack.getSize();
+        Object rootValue = this.decodeBlock(denseReader, b);
+
+        if (rootValue != CONTEXT_BRANCH_CONTEXT_OBJECT) {
+            return rootValue;
+        }
+
+        rootValue = this.decodeStack.peek();
+
+        while (this.decodeStack.getSize() > endOfStack) {
+            OpackValue opackValue = this.decodeStack.peek();
+            Object[] context = this.decodeContextStack.peek();
+
+            Integer size = (Integer) context[0];
+            Integer offset = (Integer) context[1];
+
+            boolean bypass = false;
+            int index = offset;
+
+            if (opackValue instanceof OpackObject) {
+                OpackObject<Object, Object> opackObject = (OpackObject<Object, Object>) opackValue;
+                String[] schemaKeys = (String[]) context[4];
+
+                for (; index < size; index++) {
+                    Object key = context[2];
+                    Object value = context[3];
+
+                    if (key == CONTEXT_NULL_OBJECT && schemaKeys != null) {
+                        key = schemaKeys[index];
+                        context[2] = key;
+                    }
+
+                    if (key == CONTEXT_NULL_OBJECT) {
+                        key = this.decodeBlock(denseReader, (byte) denseReader.readByte());
+                        if (key == CONTEXT_BRANCH_CONTEXT_OBJECT) {
+                            context[2] = this.decodeStack.peek();
+                            bypass = true;
+                            break;
+                        } else {
+                            context[2] = key;
+                        }
+                    }
+
+                    if (value == CONTEXT_NULL_OBJECT) {
+                        value = this.decodeBlock(denseReader, (byte) denseReader.readByte());
+                        if (value == CONTEXT_BRANCH_CONTEXT_OBJECT) {
+                            context[3] = this.decodeStack.peek();
+                            bypass = true;
+                            break;
+                        } else {
+                            context[3] = value;
+                        }
+                    }
+
+                    opackObject.put(key, value);
+                    context[2] = CONTEXT_NULL_OBJECT;
+                    context[3] = CONTEXT_NULL_OBJECT;
+                }
+            } else if (opackValue instanceof OpackArray) {
+                OpackArray<Object> opackArray = (OpackArray<Object>) opackValue;
+
+                for (; index < size; index++) {
+                    Object value = this.decodeBlock(denseReader, (byte) denseReader.readByte());
+
+                    if (value == CONTEXT_BRANCH_CONTEXT_OBJECT) {
+                        index++;
+                        opackArray.add(this.decodeStack.peek());
+
+                        bypass = true;
+                        break;
+                    } else {
+                        opackArray.add(value);
+                    }
+                }
+            } else {
+                throw new IllegalArgumentException(opackValue.getClass() + " is not a type of opack value. (unknown opack value type)");
+            }
+
+            if (!bypass) {
+                this.decodeStack.pop();
+                this.decodeContextStack.pop();
+            } else {
+                context[1] = index;
+            }
+        }
+
+        return rootValue;
+    }
+
+    /**
+     * Decodes the byte array encoded through the dense codec to OpackValue.
+     *
+     * @param inputStream the stream to decode
+     * @return opack value
+     * @throws IllegalArgumentException if the decoded value is not a opack value
+     */
+    @Override
+    protected OpackValue doDecode(InputStream inputStream) throws IOException {
+        DenseReader denseReader = new DenseReader(this.unwrapFrame(inputStream), false);
+        OpackValue opackValue = this.doDecode(denseReader);
+
+        denseReader.release();
+
+        return opackValue;
+    }
+
+    /**
+     * Returns the stream of original bytes if the stream starts with {@link DenseFrameOutputStream dense frame}, otherwise the stream itself.
+     *
+     * @param inputStream the stream to decode
+     * @return the stream of dense format data
+     * @throws IOException if an I/O error occurs when reading from byte stream
+     */
+    InputStream unwrapFrame(InputStream inputStream) throws IOException {
+        // Peek the classifier with mark if possible, so the stream itself is kept markable for the dense reader
+        boolean markSupported = inputStream.markSupported();
+        InputStream peekInputStream = markSupported ? inputStream : new PushbackInputStream(inputStream, CONST_DENSE_CODEC_CLASSIFIER.length);
+        byte[] classifier = new byte[CONST_DENSE_CODEC_CLASSIFIER.length];
+        int length = 0;
+
+        if (markSupported) {
+            inputStream.mark(classifier.length);
+        }
+
+        while (length < classifier.length) {
+            int read = peekInputStream.read(classifier, length, classifier.length - length);
+
+            if (read < 0) {
+                break;
+            }
+
+            length += read;
+        }
+
+        if (markSupported) {
+            inputStream.reset();
+        } else {
+            ((PushbackInputStream) peekInputStream).unread(classifier, 0, length);
+        }
+
+        if (DenseFrameReader.isFrame(Arrays.copyOf(classifier, length))) {
+            return new DenseFrameInputStream(peekInputStream, this.decodeCompressors);
+        }
+
+        return peekInputStream;
+    }
+
+    /**
+     * Returns the original bytes if the bytes are {@link DenseFrameOutputStream dense frame}, otherwise the bytes themselves.
+     *
+     * @param bytes the bytes to decode
+     * @return the bytes of dense format data
+     * @throws IOException if the frame is corrupted
+     */
+    byte[] unwrapFrame(byte[] bytes) throws IOException {
+        if (DenseFrameReader.isFrame(bytes)) {
+            return new DenseFrameReader(ByteBuffer.wrap(bytes), this.decodeCompressors).readAll(false);
+        }
+
+        return bytes;
+    }
+
+    /**
+     * Decodes the data of the dense reader to OpackValue.
+     *
+     * @param denseReader the byte buffer that wraps the data
+     * @return opack value
+     * @throws IOException              if an I/O error occurs when reading from byte stream
+     * @throws IllegalArgumentException if the decoded value is not a opack value
+     */
+    OpackValue doDecode(DenseReader denseReader) throws IOException {
+        this.decodeHeader(denseReader);
+
+        this.decodeStack.reset();
         this.decodeContextStack.reset();
+        this.resetDecodeDictionary(null, null);
 
-        decodeBlock(denseReader);
-        OpackValue rootValue = this.decodeStack.peek();
+        return (OpackValue) this.decodeValue(denseReader, (byte) denseReader.readByte());
+    }
 
-        while (!this.decodeStack.isEmpty()) {
-            OpackValue opackValue = this.decodeStack.peek();
-            Object[] context = this.decodeContextStack.peek();
+    /**
+     * Decodes the bytes encoded through the dense codec to OpackValue.
+     * The bytes are read directly, without copying to the buffer of the stream.
+     *
+     * @param bytes the bytes to decode
+     * @return opack value
+     * @throws DecodeException if a problem occurs during decoding; if the type of data to be decoded is not allowed in dense codec
+     */
+    public synchronized OpackValue decode(byte[] bytes) throws DecodeException {
+        try {
+            bytes = this.unwrapFrame(bytes);
 
-            Integer size = (Integer) context[0];
-            Integer offset = (Integer) context[1];
+            return this.doDecode(new DenseReader(bytes, 0, bytes.length));
+        } catch (Exception exception) {
+            throw new DecodeException(exception);
+        }
+    }
 
-            boolean bypass = false;
-            int index = offset;
+    /**
+     * Decodes one value without the dense header from the dense reader.
+     *
+     * @param denseReader the byte buffer that wraps the data
+     * @param stringTable the strings defined before the value, or null
+     * @param schemaTable the keys of schemas defined before the value, or null
+     * @return decoded opack value or literal
+     * @throws DecodeException if a problem occurs during decoding; if the type of data to be decoded is not allowed in dense codec
+     */
+    synchronized Object doDecodeValue(DenseReader denseReader, List<String> stringTable, List<String[]> schemaTable) throws DecodeException {
+        try {
+            this.decodeStack.reset();
+            this.decodeContextStack.reset();
+            this.resetDecodeDictionary(stringTable, schemaTable);
+
+            return this.decodeValue(denseReader, (byte) denseReader.readByte());
+        } catch (Exception exception) {
+            throw new DecodeException(exception);
+        }
+    }
 
-            if (opackValue instanceof OpackObject) {
-                OpackObject<Object, Object> opackObject = (OpackObject<Object, Object>) opackValue;
+    /**
+     * Decodes the data encoded through the dense codec directly from the heap or direct byte buffer, starting at its position.
+     * On success, the position of the byte buffer is advanced past the decoded data; on failure, it is not changed.
+     *
+     * @param byteBuffer the byte buffer to decode
+     * @return opack value
+     * @throws DecodeException if a problem occurs during decoding; if the type of data to be decoded is not allowed in dense codec
+     */
+    public synchronized OpackValue decode(ByteBuffer byteBuffer) throws DecodeException {
+        try {
+            if (DenseFrameReader.isFrame(byteBuffer)) {
+                DenseFrameReader frameReader = new DenseFrameReader(byteBuffer, this.decodeCompressors);
+                byte[] bytes = frameReader.readAll(false);
+                OpackValue opackValue = this.doDecode(new DenseReader(bytes, 0, bytes.length));
 
-                for (; index < size; index++) {
-                    Object key = context[2];
-                    Object value = context[3];
+                byteBuffer.position(byteBuffer.position() + frameReader.getFrameSize());
 
-                    if (key == CONTEXT_NULL_OBJECT) {
-                        key = decodeBlock(denseReader);
-                        if (key == CONTEXT_BRANCH_CONTEXT_OBJECT) {
-                            context[2] = this.decodeStack.peek();
-                            bypass = true;
-                            break;
-                        } else {
-                            context[2] = key;
-                        }
-                    }
+                return opackValue;
+            }
 
-                    if (value == CONTEXT_NULL_OBJECT) {
-                        value = decodeBlock(denseReader);
-                        if (value == CONTEXT_BRANCH_CONTEXT_OBJECT) {
-                            context[3] = this.decodeStack.peek();
-                            bypass = true;
-                            break;
-                        } else {
-                            context[3] = value;
-                        }
-                    }
+            DenseReader denseReader = new DenseReader(byteBuffer);
+            OpackValue opackValue = this.doDecode(denseReader);
 
-                    opackObject.put(key, value);
-                    context[2] = CONTEXT_NULL_OBJECT;
-                    context[3] = CONTEXT_NULL_OBJECT;
+            byteBuffer.position(denseReader.getPosition());
+
+            return opackValue;
+        } catch (Exception exception) {
+            throw new DecodeException(exception);
+        }
+    }
+
+    /**
+     * Resets the string dictionary and schemas of decoding message.
+     *
+     * @param stringTable the strings defined before the value to decode, or null
+     * @param schemaTable the keys of schemas defined before the value to decode, or null
+     */
+    void resetDecodeDictionary(List<String> stringTable, List<String[]> schemaTable) {
+        this.decodeStringTable.clear();
+        this.decodeSchemaTable.clear();
+
+        if (stringTable != null) {
+            this.decodeStringTable.addAll(stringTable);
+        }
+
+        if (schemaTable != null) {
+            for (String[] keys : schemaTable) {
+                this.decodeSchemaTable.add(new DecodeSchema(keys));
+            }
+        }
+    }
+
+    /**
+     * Pushes the frame of object or array to be filled by direct decoding.
+     *
+     * @param object        the instance or array to fill
+     * @param componentType the component type of array, or null if object is not array
+     * @param objectLayout  the object layout of instance, or null if object is array
+     * @param schemaEntries the entries of schema object in encoded order, or null if the keys are encoded
+     * @param size          the number of entries or elements to decode
+     */
+    void pushDecodeFrame(Object object, Class<?> componentType, ObjectLayout objectLayout, ObjectLayout.Entry[] schemaEntries, int size) {
+        DecodeFrame decodeFrame = this.decodeObjectFramePool.isEmpty() ? new DecodeFrame() : this.decodeObjectFramePool.pop();
+
+        decodeFrame.object = object;
+        decodeFrame.componentType = componentType;
+        decodeFrame.objectLayout = objectLayout;
+        decodeFrame.schemaEntries = schemaEntries;
+        decodeFrame.size = size;
+        decodeFrame.index = 0;
+
+        if (objectLayout != null) {
+            int length = objectLayout.entries.length;
+
+            if (decodeFrame.assigned == null || decodeFrame.assigned.length < length) {
+                decodeFrame.assigned = new boolean[length];
+            } else {
+                Arrays.fill(decodeFrame.assigned, 0, length, false);
+            }
+        }
+
+        this.decodeObjectFrameStack.push(decodeFrame);
+    }
+
+    /**
+     * Deserializes the decoded element through the opacker, the same way as {@link Opacker#deserialize(Class, OpackValue) deserialize}.
+     *
+     * @param opacker  the opacker that has baked types and transformers
+     * @param goalType the class of object to be deserialized
+     * @param element  the decoded opack value or literal
+     * @return deserialized object
+     * @throws DeserializeException if a problem occurs during deserializing
+     */
+    Object deserializeElement(Opacker opacker, Class<?> goalType, Object element) throws DeserializeException {
+        if (element instanceof OpackValue) {
+            return opacker.deserialize(goalType, (OpackValue) element);
+        }
+
+        return opacker.prepareObjectDeserialize(goalType, element);
+    }
+
+    /**
+     * Decodes the primitive field of the object without boxing, if the block header matches the type of field.
+     *
+     * @param denseReader the byte buffer that wraps the data
+     * @param b           the block header already read
+     * @param entry       the layout entry of the primitive field
+     * @param object      the object that has the field
+     * @return true if the field is decoded
+     * @throws IOException            if an I/O error occurs when reading from byte stream
+     * @throws IllegalAccessException if the field is not accessible
+     */
+    boolean decodePrimitiveField(DenseReader denseReader, byte b, ObjectLayout.Entry entry, Object object) throws IOException, IllegalAccessException {
+        FieldAccessor fieldAccessor = entry.property.getAccessor();
+        Class<?> primitiveType = entry.primitiveType;
+
+        if (primitiveType == int.class && isSmallIntegerBlock(b)) {
+            fieldAccessor.setInt(object, getSmallValue(b));
+        } else if (primitiveType == long.class && isSmallLongBlock(b)) {
+            fieldAccessor.setLong(object, getSmallValue(b));
+        } else if (primitiveType == boolean.class && (b == CONST_TYPE_BOOLEAN_TRUE || b == CONST_TYPE_BOOLEAN_FALSE)) {
+            fieldAccessor.setBoolean(object, b == CONST_TYPE_BOOLEAN_TRUE);
+        } else if (primitiveType == boolean.class && b == CONST_TYPE_BOOLEAN) {
+            fieldAccessor.setBoolean(object, (byte) denseReader.readByte() == 1);
+        } else if (primitiveType == byte.class && b == CONST_TYPE_BYTE) {
+            fieldAccessor.setByte(object, (byte) denseReader.readByte());
+        } else if (primitiveType == char.class && b == CONST_TYPE_CHARACTER) {
+            fieldAccessor.setChar(object, readCharacterPayload(denseReader));
+        } else if (primitiveType == short.class && b == CONST_TYPE_SHORT) {
+            fieldAccessor.setShort(object, readShortPayload(denseReader));
+        } else if (primitiveType == int.class && b == CONST_TYPE_INTEGER) {
+            fieldAccessor.setInt(object, readIntegerPayload(denseReader));
+        } else if (primitiveType == float.class && b == CONST_TYPE_FLOAT) {
+            fieldAccessor.setFloat(object, denseReader.readFloat());
+        } else if (primitiveType == long.class && b == CONST_TYPE_LONG) {
+            fieldAccessor.setLong(object, readLongPayload(denseReader));
+        } else if (primitiveType == double.class && b == CONST_TYPE_DOUBLE) {
+            fieldAccessor.setDouble(object, denseReader.readDouble());
+        } else {
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Decodes one element to object of the goal type.
+     * If the element is object or array, returns the created instance and pushes the frame to fill it.
+     *
+     * @param denseReader the byte buffer that wraps the data
+     * @param opacker     the opacker that has baked types and transformers
+     * @param goalType    the class of object to be deserialized
+     * @return decoded object
+     * @throws IOException          if an I/O error occurs when reading from byte stream
+     * @throws DeserializeException if a problem occurs during deserializing; if the class cannot be baked
+     */
+    Object decodeElement(DenseReader denseReader, Opacker opacker, Class<?> goalType) throws IOException, DeserializeException {
+        byte b = (byte) denseReader.readByte();
+
+        if (b == CONST_TYPE_NULL) {
+            return null;
+        }
+
+        BakedType bakedType;
+
+        try {
+            bakedType = opacker.getTypeBaker().get(goalType);
+        } catch (BakeException exception) {
+            throw new DeserializeException("Can't bake " + goalType.getName() + " class information", exception);
+        }
+
+        /*
+            Transformers need opack value, decode as tree
+         */
+        if (bakedType.getTransformers().length > 0) {
+            return this.deserializeElement(opacker, goalType, this.decodeValue(denseReader, b));
+        }
+
+        if (b == CONST_TYPE_OPACK_OBJECT || b == CONST_TYPE_SCHEMA_DEFINITION || b == CONST_TYPE_SCHEMA_OBJECT) {
+            if (goalType.isArray() || goalType.isEnum() || OpackValue.isAllowType(goalType)) {
+                return this.deserializeElement(opacker, goalType, this.decodeValue(denseReader, b));
+            }
+
+            ObjectLayout objectLayout;
+
+            try {
+                objectLayout = this.getObjectLayout(opacker.getTypeBaker(), bakedType);
+            } catch (BakeException exception) {
+                throw new DeserializeException("Can't bake " + goalType.getName() + " class information", exception);
+            }
+
+            ObjectLayout.Entry[] schemaEntries = null;
+            int size;
+
+            if (b == CONST_TYPE_OPACK_OBJECT) {
+                size = denseReader.readLength();
+            } else {
+                schemaEntries = this.decodeSchema(denseReader, b).getEntries(objectLayout);
+                size = schemaEntries.length;
+            }
+
+            Object targetObject;
+
+            try {
+                targetObject = ReflectionUtil.createInstanceUnsafe(goalType);
+            } catch (InvocationTargetException | IllegalAccessException | InstantiationException exception) {
+                throw new DeserializeException("Can't create instance using unsafe method", exception);
+            }
+
+            this.pushDecodeFrame(targetObject, null, objectLayout, schemaEntries, size);
+
+            return targetObject;
+        } else if (b == CONST_TYPE_OPACK_ARRAY) {
+            if (!goalType.isArray()) {
+                return this.deserializeElement(opacker, goalType, this.decodeValue(denseReader, b));
+            }
+
+            int length = denseReader.readLength();
+            byte nativeType = (byte) denseReader.readByte();
+            Class<?> componentType = goalType.getComponentType();
+
+            if (nativeType != CONST_NO_NATIVE_ARRAY) {
+                Object array = this.decodeNativeArray(denseReader, nativeType, length);
+
+                /*
+                    Optimize algorithm for big array, use decoded array without copy
+                 */
+                if (array.getClass().getComponentType() == componentType) {
+                    return array;
                 }
-            } else if (opackValue instanceof OpackArray) {
-                OpackArray<Object> opackArray = (OpackArray<Object>) opackValue;
 
-                for (; index < size; index++) {
-                    Object value = decodeBlock(denseReader);
+                return this.deserializeElement(opacker, goalType, OpackArray.createWithArrayObject(array));
+            }
 
-                    if (value == CONTEXT_BRANCH_CONTEXT_OBJECT) {
-                        index++;
-                        opackArray.add(this.decodeStack.peek());
+            Object targetArray = Array.newInstance(componentType, length);
 
-                        bypass = true;
-                        break;
-                    } else {
-                        opackArray.add(value);
-                    }
+            this.pushDecodeFrame(targetArray, componentType, null, null, length);
+
+            return targetArray;
+        }
+
+        Object literal = this.decodeBlock(denseReader, b);
+
+        if (OpackValue.isAllowType(goalType)) {
+            return literal;
+        }
+
+        return opacker.prepareObjectDeserialize(goalType, literal);
+    }
+
+    /**
+     * Decodes one entry of object and sets the matched field.
+     *
+     * @param denseReader the byte buffer that wraps the data
+     * @param opacker     the opacker that has baked types and transformers
+     * @param decodeFrame the frame of object to fill
+     * @param index       the index of entry in the object
+     * @throws IOException          if an I/O error occurs when reading from byte stream
+     * @throws DeserializeException if a problem occurs during deserializing; if the field is not accessible
+     */
+    void decodeProperty(DenseReader denseReader, Opacker opacker, DecodeFrame decodeFrame, int index) throws IOException, DeserializeException {
+        ObjectLayout objectLayout = decodeFrame.objectLayout;
+        ObjectLayout.Entry entry;
+
+        if (decodeFrame.schemaEntries != null) {
+            entry = decodeFrame.schemaEntries[index];
+        } else {
+            Object key = this.decodeValue(denseReader, (byte) denseReader.readByte());
+            entry = key instanceof String ? objectLayout.entryMap.get(key) : null;
+        }
+
+        /*
+            Skip unknown entry
+         */
+        if (entry == null) {
+            this.decodeValue(denseReader, (byte) denseReader.readByte());
+            return;
+        }
+
+        BakedType.Property property = entry.property;
+        Object object = decodeFrame.object;
+
+        decodeFrame.assigned[entry.index] = true;
+
+        try {
+            Object value;
+
+            if (entry.primitiveType != null) {
+                byte b = (byte) denseReader.readByte();
+
+                if (this.decodePrimitiveField(denseReader, b, entry, object)) {
+                    return;
                 }
+
+                value = this.decodeValue(denseReader, b);
+            } else if (property.getTransformer() != null) {
+                Object element = this.decodeValue(denseReader, (byte) denseReader.readByte());
+
+                element = property.getTransformer().deserialize(opacker, property.getType(), element);
+                value = this.deserializeElement(opacker, property.getType(), element);
             } else {
-                throw new IllegalArgumentException(opackValue.getClass() + " is not a type of opack value. (unknown opack value type)");
+                value = this.decodeElement(denseReader, opacker, property.getType());
             }
 
-            if (!bypass) {
-                this.decodeStack.pop();
-                this.decodeContextStack.pop();
+            property.set(object, value == null ? null : ReflectionUtil.cast(property.getField().getType(), value));
+        } catch (IllegalAccessException | IllegalArgumentException exception) {
+            throw new DeserializeException("Can't set " + property.getName() + " field in " + objectLayout.bakedType.getType().getSimpleName(), exception);
+        }
+    }
+
+    /**
+     * Sets the fields that are not in the decoded data, the same way as {@link Opacker#deserialize(Class, OpackValue) deserialize} does for missing keys.
+     *
+     * @param opacker     the opacker that has baked types and transformers
+     * @param decodeFrame the frame of object to complete
+     * @throws DeserializeException if a problem occurs during deserializing; if the field is not accessible
+     */
+    void completeObjectFrame(Opacker opacker, DecodeFrame decodeFrame) throws DeserializeException {
+        ObjectLayout objectLayout = decodeFrame.objectLayout;
+
+        for (ObjectLayout.Entry entry : objectLayout.entries) {
+            if (decodeFrame.assigned[entry.index]) {
+                continue;
+            }
+
+            BakedType.Property property = entry.property;
+
+            try {
+                Object element = null;
+
+                if (property.getTransformer() != null) {
+                    element = property.getTransformer().deserialize(opacker, property.getType(), null);
+                }
+
+                Object value = this.deserializeElement(opacker, property.getType(), element);
+
+                property.set(decodeFrame.object, value == null ? null : ReflectionUtil.cast(property.getField().getType(), value));
+            } catch (IllegalAccessException | IllegalArgumentException exception) {
+                throw new DeserializeException("Can't set " + property.getName() + " field in " + objectLayout.bakedType.getType().getSimpleName(), exception);
+            }
+        }
+    }
+
+    /**
+     * Decodes the object of the goal type directly through the baked types of the opacker, without creating {@link OpackValue OpackValue} tree.
+     *
+     * @param denseReader the byte buffer that wraps the data
+     * @param opacker     the opacker that has baked types and transformers
+     * @param goalType    the class of object to be decoded
+     * @return decoded object
+     * @throws IOException          if an I/O error occurs when reading from byte stream
+     * @throws DeserializeException if a problem occurs during deserializing
+     */
+    Object decodeObject(DenseReader denseReader, Opacker opacker, Class<?> goalType) throws IOException, DeserializeException {
+        int endOfStack = this.decodeObjectFrameStack.getSize();
+        Object rootObject = this.decodeElement(denseReader, opacker, goalType);
+
+        while (this.decodeObjectFrameStack.getSize() > endOfStack) {
+            DecodeFrame decodeFrame = this.decodeObjectFrameStack.peek();
+
+            if (decodeFrame.index >= decodeFrame.size) {
+                if (decodeFrame.objectLayout != null) {
+                    this.completeObjectFrame(opacker, decodeFrame);
+                }
+
+                this.decodeObjectFrameStack.pop();
+
+                decodeFrame.object = null;
+                decodeFrame.componentType = null;
+                decodeFrame.objectLayout = null;
+                decodeFrame.schemaEntries = null;
+                this.decodeObjectFramePool.push(decodeFrame);
+
+                continue;
+            }
+
+            int index = decodeFrame.index++;
+
+            if (decodeFrame.objectLayout == null) {
+                Class<?> componentType = decodeFrame.componentType;
+                Object value = this.decodeElement(denseReader, opacker, componentType);
+
+                ReflectionUtil.setArrayItem(decodeFrame.object, index, value == null ? null : ReflectionUtil.cast(componentType, value));
             } else {
-                context[1] = index;
+                this.decodeProperty(denseReader, opacker, decodeFrame, index);
             }
         }
 
-        return rootValue;
+        return rootObject;
+    }
+
+    /**
+     * Decodes the bytes encoded through dense codec directly to object of the target class, without creating {@link OpackValue OpackValue} tree.
+     *
+     * @param inputStream the stream to decode
+     * @param opacker     the opacker that has baked types and transformers
+     * @param type        the target class
+     * @return decoded object
+     * @throws DecodeException if a problem occurs during decoding; if a problem occurs during deserializing
+     */
+    public synchronized <T> T decodeObject(InputStream inputStream, Opacker opacker, Class<T> type) throws DecodeException {
+        try {
+            DenseReader denseReader = new DenseReader(this.unwrapFrame(inputStream), false);
+            T object = this.doDecodeObject(denseReader, opacker, type);
+
+            denseReader.release();
+
+            return object;
+        } catch (IOException exception) {
+            throw new DecodeException(exception);
+        }
+    }
+
+    /**
+     * Decodes the data of the dense reader directly to object of the target class.
+     *
+     * @param denseReader the byte buffer that wraps the data
+     * @param opacker     the opacker that has baked types and transformers
+     * @param type        the target class
+     * @return decoded object
+     * @throws DecodeException if a problem occurs during decoding; if a problem occurs during deserializing
+     */
+    synchronized <T> T doDecodeObject(DenseReader denseReader, Opacker opacker, Class<T> type) throws DecodeException {
+        return this.doDecodeObject(denseReader, opacker, type, true, null, null);
+    }
+
+    /**
+     * Decodes the data of the dense reader directly to object of the target class.
+     *
+     * @param denseReader the byte buffer that wraps the data
+     * @param opacker     the opacker that has baked types and transformers
+     * @param type        the target class
+     * @param header      true if the data starts with the dense header
+     * @param stringTable the strings defined before the value, or null
+     * @param schemaTable the keys of schemas defined before the value, or null
+     * @return decoded object
+     * @throws DecodeException if a problem occurs during decoding; if a problem occurs during deserializing
+     */
+    synchronized <T> T doDecodeObject(DenseReader denseReader, Opacker opacker, Class<T> type, boolean header, List<String> stringTable, List<String[]> schemaTable) throws DecodeException {
+        try {
+            if (header) {
+                this.decodeHeader(denseReader);
+            }
+
+            this.decodeStack.reset();
+            this.decodeContextStack.reset();
+            this.decodeObjectFrameStack.reset();
+            this.resetDecodeDictionary(stringTable, schemaTable);
+
+            return type.cast(this.decodeObject(denseReader, opacker, type));
+        } catch (Exception exception) {
+            throw new DecodeException(exception);
+        }
+    }
+
+    /**
+     * Decodes the bytes encoded through dense codec directly to object of the target class, without creating {@link OpackValue OpackValue} tree.
+     *
+     * @param bytes   the bytes to decode
+     * @param opacker the opacker that has baked types and transformers
+     * @param type    the target class
+     * @return decoded object
+     * @throws DecodeException if a problem occurs during decoding; if a problem occurs during deserializing
+     */
+    public <T> T decodeObject(byte[] bytes, Opacker opacker, Class<T> type) throws DecodeException {
+        try {
+            bytes = this.unwrapFrame(bytes);
+        } catch (IOException exception) {
+            throw new DecodeException(exception);
+        }
+
+        return this.doDecodeObject(new DenseReader(bytes, 0, bytes.length), opacker, type);
     }
 
-    public OpackValue decode(byte[] bytes) throws DecodeException {
-        return this.decode(new ByteArrayInputStream(bytes));
+    /**
+     * Decodes the data encoded through dense codec directly from the heap or direct byte buffer to object of the target class, without creating {@link OpackValue OpackValue} tree.
+     * On success, the position of the byte buffer is advanced past the decoded data; on failure, it is not changed.
+     *
+     * @param byteBuffer the byte buffer to decode
+     * @param opacker    the opacker that has baked types and transformers
+     * @param type       the target class
+     * @return decoded object
+     * @throws DecodeException if a problem occurs during decoding; if a problem occurs during deserializing
+     */
+    public synchronized <T> T decodeObject(ByteBuffer byteBuffer, Opacker opacker, Class<T> type) throws DecodeException {
+        if (DenseFrameReader.isFrame(byteBuffer)) {
+            try {
+                DenseFrameReader frameReader = new DenseFrameReader(byteBuffer, this.decodeCompressors);
+                T value = this.decodeObject(frameReader.readAll(false), opacker, type);
+
+                byteBuffer.position(byteBuffer.position() + frameReader.getFrameSize());
+
+                return value;
+            } catch (IOException exception) {
+                throw new DecodeException(exception);
+            }
+        }
+
+        DenseReader denseReader = new DenseReader(byteBuffer);
+        T value = this.doDecodeObject(denseReader, opacker, type);
+
+        byteBuffer.position(denseReader.getPosition());
+
+        return value;
     }
 }
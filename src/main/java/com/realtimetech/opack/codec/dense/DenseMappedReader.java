@@ -0,0 +1,788 @@
+/*
+ * Copyright (C) 2021 REALTIMETECH All Rights Reserved
+ *
+ * Licensed either under the Apache License, Version 2.0, or (at your option)
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (subject to the "Classpath" exception),
+ * either version 2, or any later version (collectively, the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     http://www.gnu.org/licenses/
+ *     http://www.gnu.org/software/classpath/license.html
+ *
+ * or as provided in the LICENSE file that accompanied this code.
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.realtimetech.opack.codec.dense;
+
+import com.realtimetech.opack.Opacker;
+import com.realtimetech.opack.exception.DecodeException;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Random-access reader of dense format file through memory-mapped segments.
+ * Navigates the document lazily and decodes only the subtree that is requested, so the cost depends on what is touched, not on the file size.
+ * The string and schema definitions that references point to are collected by walking the file from the root only up to the referencing block, at most once over the lifetime of this reader.
+ * Decoding a subtree with references still copies the definitions collected so far into the dense codec.
+ * This reader is not thread-safe.
+ */
+public final class DenseMappedReader implements Closeable {
+    /*
+        Every segment maps extra bytes, so that any primitive value starting in a segment can be read from that segment
+     */
+    private static final int SEGMENT_OVERLAP_SIZE = 8;
+
+    private static final int DEFAULT_SEGMENT_SIZE = 1 << 30;
+
+    public final class Node {
+        private final long offset;
+        private final byte header;
+
+        private HashMap<String, Node> keyIndex;
+        private long[] elementOffsets;
+
+        /**
+         * Constructs the Node of the value that starts at the offset.
+         *
+         * @param offset the offset of block header
+         * @throws IOException if the offset is out of the file
+         */
+        Node(long offset) throws IOException {
+            this.offset = offset;
+            this.header = DenseMappedReader.this.getByte(offset);
+        }
+
+        /**
+         * Returns the offset of this node in the file.
+         *
+         * @return the offset
+         */
+        public long getOffset() {
+            return offset;
+        }
+
+        /**
+         * Returns whether this node is OpackObject.
+         *
+         * @return true if this node is OpackObject
+         */
+        public boolean isObject() {
+            return this.header == DenseCodec.CONST_TYPE_OPACK_OBJECT || this.isSchemaObject();
+        }
+
+        /**
+         * Returns whether this node is OpackObject encoded through the schema.
+         *
+         * @return true if this node is schema object
+         */
+        boolean isSchemaObject() {
+            return this.header == DenseCodec.CONST_TYPE_SCHEMA_DEFINITION || this.header == DenseCodec.CONST_TYPE_SCHEMA_OBJECT;
+        }
+
+        /**
+         * Returns whether this node is OpackArray.
+         *
+         * @return true if this node is OpackArray
+         */
+        public boolean isArray() {
+            return this.header == DenseCodec.CONST_TYPE_OPACK_ARRAY;
+        }
+
+        /**
+         * Returns whether this node is null.
+         *
+         * @return true if this node is null
+         */
+        public boolean isNull() {
+            return this.header == DenseCodec.CONST_TYPE_NULL;
+        }
+
+        /**
+         * Returns the number of entries of object, or the length of array.
+         *
+         * @return the size
+         * @throws IOException           if the data is out of the file
+         * @throws IllegalStateException if this node is not object or array
+         */
+        public int getSize() throws IOException {
+            if (!this.isObject() && !this.isArray()) {
+                throw new IllegalStateException("Node is not object or array.");
+            }
+
+            if (this.header == DenseCodec.CONST_TYPE_SCHEMA_OBJECT) {
+                return DenseMappedReader.this.getSchemaKeys(this.offset).length;
+            }
+
+            return DenseMappedReader.this.getLength(this.offset + 1);
+        }
+
+        /**
+         * Returns the node of the value mapped to the key in this object.
+         * The first lookup scans the entries of this object once, skipping values without decoding them.
+         *
+         * @param key the key of value
+         * @return found node, or null if the key is not in this object
+         * @throws IOException           if the data is out of the file; if unknown block header is parsed
+         * @throws IllegalStateException if this node is not object
+         */
+        public Node get(@NotNull String key) throws IOException {
+            if (!this.isObject()) {
+                throw new IllegalStateException("Node is not object.");
+            }
+
+            if (this.keyIndex == null) {
+                HashMap<String, Node> keyIndex = new HashMap<>();
+
+                if (this.isSchemaObject()) {
+                    String[] keys = DenseMappedReader.this.getSchemaKeys(this.offset);
+                    long position = DenseMappedReader.this.skipSchemaKeys(this.offset);
+
+                    for (String schemaKey : keys) {
+                        keyIndex.put(schemaKey, new Node(position));
+                        position = DenseMappedReader.this.skip(position);
+                    }
+                } else {
+                    int size = this.getSize();
+                    long position = DenseMappedReader.this.skipLength(this.offset + 1);
+
+                    for (int index = 0; index < size; index++) {
+                        long valueOffset = DenseMappedReader.this.skip(position);
+                        String entryKey = DenseMappedReader.this.getKey(position);
+
+                        if (entryKey != null) {
+                            keyIndex.put(entryKey, new Node(valueOffset));
+                        }
+
+                        position = DenseMappedReader.this.skip(valueOffset);
+                    }
+                }
+
+                this.keyIndex = keyIndex;
+            }
+
+            return this.keyIndex.get(key);
+        }
+
+        /**
+         * Returns the node of the element at the index in this array.
+         * The first lookup scans the elements of this array once, skipping them without decoding.
+         *
+         * @param index the index of element
+         * @return found node
+         * @throws IOException               if the data is out of the file; if unknown block header is parsed
+         * @throws IllegalStateException     if this node is not array; if this array is native array, which has no element nodes
+         * @throws IndexOutOfBoundsException if the index is out of range
+         */
+        public Node get(int index) throws IOException {
+            if (!this.isArray()) {
+                throw new IllegalStateException("Node is not array.");
+            }
+
+            long nativeTypeOffset = DenseMappedReader.this.skipLength(this.offset + 1);
+
+            if (DenseMappedReader.this.getByte(nativeTypeOffset) != DenseCodec.CONST_NO_NATIVE_ARRAY) {
+                throw new IllegalStateException("Node is native array, decode it as a whole.");
+            }
+
+            if (this.elementOffsets == null) {
+                long[] elementOffsets = new long[this.getSize()];
+                long position = nativeTypeOffset + 1;
+
+                for (int elementIndex = 0; elementIndex < elementOffsets.length; elementIndex++) {
+                    elementOffsets[elementIndex] = position;
+                    position = DenseMappedReader.this.skip(position);
+                }
+
+                this.elementOffsets = elementOffsets;
+            }
+
+            if (index < 0 || index >= this.elementOffsets.length) {
+                throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + this.elementOffsets.length);
+            }
+
+            return new Node(this.elementOffsets[index]);
+        }
+
+        /**
+         * Decodes only the subtree of this node to OpackValue or literal.
+         *
+         * @return decoded value
+         * @throws DecodeException if a problem occurs during decoding
+         */
+        public Object decode() throws DecodeException {
+            try {
+                DenseReader denseReader = DenseMappedReader.this.createReader(this.offset);
+
+                return DenseMappedReader.this.denseCodec.doDecodeValue(denseReader, DenseMappedReader.this.getReferencedStringTable(this.offset), DenseMappedReader.this.getReferencedSchemaTable(this.offset));
+            } catch (IOException exception) {
+                throw new DecodeException(exception);
+            }
+        }
+
+        /**
+         * Decodes only the subtree of this node directly to object of the target class.
+         *
+         * @param opacker the opacker that has baked types and transformers
+         * @param type    the target class
+         * @return decoded object
+         * @throws DecodeException if a problem occurs during decoding; if a problem occurs during deserializing
+         */
+        public <T> T decode(@NotNull Opacker opacker, @NotNull Class<T> type) throws DecodeException {
+            try {
+                DenseReader denseReader = DenseMappedReader.this.createReader(this.offset);
+
+                return DenseMappedReader.this.denseCodec.doDecodeObject(denseReader, opacker, type, false, DenseMappedReader.this.getReferencedStringTable(this.offset), DenseMappedReader.this.getReferencedSchemaTable(this.offset));
+            } catch (IOException exception) {
+                throw new DecodeException(exception);
+            }
+        }
+    }
+
+    private final @NotNull DenseCodec denseCodec;
+    private final @NotNull FileChannel fileChannel;
+
+    private final long size;
+    private final int segmentSize;
+    private final boolean compact;
+    private final @NotNull MappedByteBuffer @NotNull [] segments;
+
+    private final @NotNull Node root;
+
+    private final @NotNull List<String> stringTable;
+    private final @NotNull List<String[]> schemaTable;
+    private long dictionaryOffset;
+    private long dictionaryPending;
+    private boolean dictionaryReferenced;
+    private long skipPending;
+
+    /**
+     * Calls {@code new DenseMappedReader(denseCodec, path, 1 << 30)}
+     *
+     * @param denseCodec the dense codec to decode subtrees
+     * @param path       the path of dense format file
+     * @throws IOException if an I/O error occurs; if the file is not dense format data
+     */
+    public DenseMappedReader(@NotNull DenseCodec denseCodec, @NotNull Path path) throws IOException {
+        this(denseCodec, path, DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * Constructs the DenseMappedReader that maps the file in segments of the segment size.
+     *
+     * @param denseCodec  the dense codec to decode subtrees
+     * @param path        the path of dense format file
+     * @param segmentSize the byte size of each mapped segment
+     * @throws IOException              if an I/O error occurs; if the file is not dense format data
+     * @throws IllegalArgumentException if the segment size is not positive or too large to map
+     */
+    public DenseMappedReader(@NotNull DenseCodec denseCodec, @NotNull Path path, int segmentSize) throws IOException {
+        if (segmentSize <= 0 || segmentSize > Integer.MAX_VALUE - SEGMENT_OVERLAP_SIZE) {
+            throw new IllegalArgumentException("Segment size must be between 1 and " + (Integer.MAX_VALUE - SEGMENT_OVERLAP_SIZE) + ", got " + segmentSize);
+        }
+
+        this.denseCodec = denseCodec;
+        this.fileChannel = FileChannel.open(path, StandardOpenOption.READ);
+
+        try {
+            this.size = this.fileChannel.size();
+            this.segmentSize = segmentSize;
+            this.segments = new MappedByteBuffer[(int) Math.max(1, (this.size + segmentSize - 1) / segmentSize)];
+
+            for (int index = 0; index < this.segments.length; index++) {
+                long segmentOffset = (long) index * segmentSize;
+                long mappedSize = Math.min((long) segmentSize + SEGMENT_OVERLAP_SIZE, this.size - segmentOffset);
+
+                this.segments[index] = this.fileChannel.map(FileChannel.MapMode.READ_ONLY, segmentOffset, mappedSize);
+            }
+
+            DenseReader denseReader = this.createReader(0, Math.min(this.size, 64));
+
+            try {
+                this.denseCodec.decodeHeader(denseReader);
+            } catch (IllegalArgumentException exception) {
+                throw new IOException(exception);
+            }
+
+            this.compact = denseReader.isCompact();
+            this.root = new Node(denseReader.getPosition());
+
+            this.stringTable = new ArrayList<>();
+            this.schemaTable = new ArrayList<>();
+            this.dictionaryOffset = this.root.getOffset();
+            this.dictionaryPending = 1;
+        } catch (IOException | RuntimeException exception) {
+            this.fileChannel.close();
+            throw exception;
+        }
+    }
+
+    /**
+     * Returns the node of the root value.
+     *
+     * @return root node
+     */
+    public @NotNull Node getRoot() {
+        return root;
+    }
+
+    /**
+     * Collects the strings and schemas of the definition blocks before the offset, continuing the walk from where the last collection stopped.
+     * The file is walked in document order, so each block is walked at most once for the dictionary.
+     *
+     * @param offset the offset of block that refers to the dictionary
+     * @throws IOException if the data is out of the file; if unknown block header is parsed
+     */
+    private void collectDictionary(long offset) throws IOException {
+        if (this.dictionaryPending > 0 && this.dictionaryOffset < offset) {
+            // Keep the references of the last skipped value, the walk skips other values
+            boolean dictionaryReferenced = this.dictionaryReferenced;
+
+            this.dictionaryOffset = this.skip(this.dictionaryOffset, this.dictionaryPending, offset, this.stringTable, this.schemaTable);
+            this.dictionaryPending = this.skipPending;
+            this.dictionaryReferenced = dictionaryReferenced;
+        }
+    }
+
+    /**
+     * Returns the string dictionary of the file, that has at least the strings defined before the offset.
+     *
+     * @param offset the offset of block that refers to the dictionary
+     * @return the string dictionary
+     * @throws IOException if the data is out of the file; if unknown block header is parsed
+     */
+    List<String> getStringTable(long offset) throws IOException {
+        this.collectDictionary(offset);
+
+        return this.stringTable;
+    }
+
+    /**
+     * Returns the keys of schemas of the file, that has at least the schemas defined before the offset.
+     *
+     * @param offset the offset of block that refers to the schemas
+     * @return the keys of schemas
+     * @throws IOException if the data is out of the file; if unknown block header is parsed
+     */
+    List<String[]> getSchemaTable(long offset) throws IOException {
+        this.collectDictionary(offset);
+
+        return this.schemaTable;
+    }
+
+    /**
+     * Returns the string dictionary defined before the offset if the last skipped value has string or schema references, otherwise null.
+     *
+     * @param offset the offset of the last skipped value
+     * @return the string dictionary, or null
+     * @throws IOException if the data is out of the file; if unknown block header is parsed
+     */
+    List<String> getReferencedStringTable(long offset) throws IOException {
+        return this.dictionaryReferenced ? this.getStringTable(offset) : null;
+    }
+
+    /**
+     * Returns the keys of schemas defined before the offset if the last skipped value has string or schema references, otherwise null.
+     *
+     * @param offset the offset of the last skipped value
+     * @return the keys of schemas, or null
+     * @throws IOException if the data is out of the file; if unknown block header is parsed
+     */
+    List<String[]> getReferencedSchemaTable(long offset) throws IOException {
+        return this.dictionaryReferenced ? this.getSchemaTable(offset) : null;
+    }
+
+    /**
+     * Returns the segment that contains the offset, positioned nowhere.
+     *
+     * @param offset the offset in the file
+     * @return the segment
+     * @throws IOException if the offset is out of the file
+     */
+    private MappedByteBuffer getSegment(long offset) throws IOException {
+        if (offset < 0 || offset >= this.size) {
+            throw new IOException("Offset " + offset + " is out of the file. (size " + this.size + ")");
+        }
+
+        return this.segments[(int) (offset / this.segmentSize)];
+    }
+
+    byte getByte(long offset) throws IOException {
+        return this.getSegment(offset).get((int) (offset % this.segmentSize));
+    }
+
+    int getInt(long offset) throws IOException {
+        return this.getSegment(offset).getInt((int) (offset % this.segmentSize));
+    }
+
+    /**
+     * Reads the length of string, object or array at the offset, in the form of the version of the file.
+     *
+     * @param offset the offset of length
+     * @return the length
+     * @throws IOException if the data is out of the file
+     */
+    int getLength(long offset) throws IOException {
+        if (!this.compact) {
+            return this.getInt(offset);
+        }
+
+        int value = 0;
+
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = this.getByte(offset++);
+            value |= (b & 0x7F) << shift;
+
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+
+        throw new IOException("Malformed variable-length int in dense data.");
+    }
+
+    /**
+     * Returns the offset right after the length at the offset.
+     *
+     * @param offset the offset of length
+     * @return the offset after the length
+     * @throws IOException if the data is out of the file
+     */
+    long skipLength(long offset) throws IOException {
+        return this.compact ? this.skipVarNumber(offset) : offset + 4;
+    }
+
+    /**
+     * Returns the offset right after the variable-length number at the offset.
+     *
+     * @param offset the offset of variable-length number
+     * @return the offset after the number
+     * @throws IOException if the data is out of the file
+     */
+    long skipVarNumber(long offset) throws IOException {
+        while ((this.getByte(offset++) & 0x80) != 0) {
+            // Continuation bit is set
+        }
+
+        return offset;
+    }
+
+    /**
+     * Reads the string block payload (length and UTF-8 bytes) at the offset.
+     *
+     * @param offset the offset of string length
+     * @return the string
+     * @throws IOException if the data is out of the file
+     */
+    String getString(long offset) throws IOException {
+        int length = this.getLength(offset);
+        long start = this.skipLength(offset);
+        byte[] bytes = new byte[length];
+
+        this.createReader(start, start + length).readBytes(bytes);
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads the string key block at the offset.
+     *
+     * @param offset the offset of key block header
+     * @return the key, or null if the key is not string
+     * @throws IOException if the data is out of the file
+     */
+    String getKey(long offset) throws IOException {
+        byte keyHeader = this.getByte(offset);
+
+        if (keyHeader == DenseCodec.CONST_TYPE_STRING || keyHeader == DenseCodec.CONST_TYPE_STRING_DEFINITION) {
+            return this.getString(offset + 1);
+        } else if (keyHeader == DenseCodec.CONST_TYPE_STRING_REFERENCE) {
+            return this.getStringTable(offset).get(this.getLength(offset + 1));
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns the keys of the schema object block at the offset.
+     *
+     * @param offset the offset of block header
+     * @return the keys in encoded order
+     * @throws IOException if the data is out of the file; if unknown block header is parsed
+     */
+    String[] getSchemaKeys(long offset) throws IOException {
+        if (this.getByte(offset) == DenseCodec.CONST_TYPE_SCHEMA_OBJECT) {
+            return this.getSchemaTable(offset).get(this.getLength(offset + 1));
+        }
+
+        String[] keys = new String[this.getLength(offset + 1)];
+        long position = this.skipLength(offset + 1);
+
+        for (int index = 0; index < keys.length; index++) {
+            keys[index] = this.getKey(position);
+            position = this.skip(position);
+        }
+
+        return keys;
+    }
+
+    /**
+     * Returns the offset of the first value of the schema object block at the offset.
+     *
+     * @param offset the offset of block header
+     * @return the offset after the schema
+     * @throws IOException if the data is out of the file; if unknown block header is parsed
+     */
+    long skipSchemaKeys(long offset) throws IOException {
+        if (this.getByte(offset) == DenseCodec.CONST_TYPE_SCHEMA_OBJECT) {
+            return this.skipLength(offset + 1);
+        }
+
+        int size = this.getLength(offset + 1);
+        long position = this.skipLength(offset + 1);
+
+        for (int index = 0; index < size; index++) {
+            position = this.skip(position);
+        }
+
+        return position;
+    }
+
+    /**
+     * Returns the offset right after the value that starts at the offset, without decoding it.
+     *
+     * @param offset the offset of block header
+     * @return the offset after the value
+     * @throws IOException if the data is out of the file; if unknown block header is parsed
+     */
+    long skip(long offset) throws IOException {
+        return this.skip(offset, 1, Long.MAX_VALUE, null, null);
+    }
+
+    /**
+     * Walks the blocks from the offset in document order without decoding them, until the pending values are passed or the end offset is reached.
+     * Records whether the walked blocks have string or schema references, see {@link #getReferencedStringTable(long) getReferencedStringTable}, and the number of values still pending in {@link #skipPending}.
+     *
+     * @param offset  the offset of block header
+     * @param pending the number of values to pass
+     * @param end     the offset to stop walking at, if the pending values are not passed yet
+     * @param strings the list to add the strings of definition blocks, or null
+     * @param schemas the list to add the keys of schema definition blocks, or null if strings is null
+     * @return the offset after the last walked block
+     * @throws IOException if the data is out of the file; if unknown block header is parsed
+     */
+    long skip(long offset, long pending, long end, List<String> strings, List<String[]> schemas) throws IOException {
+        boolean referenced = false;
+
+        while (pending > 0 && offset < end) {
+            byte b = this.getByte(offset++);
+            pending--;
+
+            if (DenseCodec.isSmallIntegerBlock(b) || DenseCodec.isSmallLongBlock(b)) {
+                // Inlined in block header
+            } else if (b == DenseCodec.CONST_TYPE_BOOLEAN_TRUE || b == DenseCodec.CONST_TYPE_BOOLEAN_FALSE || b == DenseCodec.CONST_TYPE_NULL) {
+                // No payload
+            } else if (b == DenseCodec.CONST_TYPE_BOOLEAN || b == DenseCodec.CONST_TYPE_BYTE) {
+                offset += 1;
+            } else if (b == DenseCodec.CONST_TYPE_FLOAT) {
+                offset += 4;
+            } else if (b == DenseCodec.CONST_TYPE_DOUBLE) {
+                offset += 8;
+            } else if (this.compact && (b == DenseCodec.CONST_TYPE_CHARACTER || b == DenseCodec.CONST_TYPE_SHORT || b == DenseCodec.CONST_TYPE_INTEGER || b == DenseCodec.CONST_TYPE_LONG)) {
+                offset = this.skipVarNumber(offset);
+            } else if (b == DenseCodec.CONST_TYPE_CHARACTER || b == DenseCodec.CONST_TYPE_SHORT) {
+                offset += 2;
+            } else if (b == DenseCodec.CONST_TYPE_INTEGER) {
+                offset += 4;
+            } else if (b == DenseCodec.CONST_TYPE_LONG) {
+                offset += 8;
+            } else if (b == DenseCodec.CONST_TYPE_STRING) {
+                offset = this.skipLength(offset) + (this.getLength(offset) & 0xFFFFFFFFL);
+            } else if (b == DenseCodec.CONST_TYPE_STRING_DEFINITION) {
+                if (strings != null) {
+                    strings.add(this.getString(offset));
+                }
+
+                offset = this.skipLength(offset) + (this.getLength(offset) & 0xFFFFFFFFL);
+            } else if (b == DenseCodec.CONST_TYPE_STRING_REFERENCE) {
+                referenced = true;
+                offset = this.skipLength(offset);
+            } else if (b == DenseCodec.CONST_TYPE_OPACK_OBJECT) {
+                pending += 2L * this.getLength(offset);
+                offset = this.skipLength(offset);
+            } else if (b == DenseCodec.CONST_TYPE_SCHEMA_DEFINITION) {
+                int size = this.getLength(offset);
+                offset = this.skipLength(offset);
+
+                if (schemas != null) {
+                    /*
+                        Keys are read in place, so that the strings defined in keys are collected in order
+                     */
+                    String[] keys = new String[size];
+
+                    for (int index = 0; index < size; index++) {
+                        byte keyHeader = this.getByte(offset);
+
+                        if (keyHeader == DenseCodec.CONST_TYPE_STRING_REFERENCE) {
+                            keys[index] = strings.get(this.getLength(offset + 1));
+                        } else {
+                            keys[index] = this.getString(offset + 1);
+
+                            if (keyHeader == DenseCodec.CONST_TYPE_STRING_DEFINITION) {
+                                strings.add(keys[index]);
+                            }
+                        }
+
+                        offset = this.skip(offset);
+                    }
+
+                    schemas.add(keys);
+                    pending += size;
+                } else {
+                    pending += 2L * size;
+                }
+            } else if (b == DenseCodec.CONST_TYPE_SCHEMA_OBJECT) {
+                int index = this.getLength(offset);
+                List<String[]> schemaTable = schemas != null ? schemas : this.getSchemaTable(offset - 1);
+
+                if (index < 0 || index >= schemaTable.size()) {
+                    throw new IOException(index + " is not defined schema index in dense data. (" + schemaTable.size() + " schemas defined)");
+                }
+
+                referenced = true;
+                pending += schemaTable.get(index).length;
+                offset = this.skipLength(offset);
+            } else if (b == DenseCodec.CONST_TYPE_OPACK_ARRAY) {
+                int length = this.getLength(offset);
+                offset = this.skipLength(offset);
+                byte nativeType = this.getByte(offset);
+                offset += 1;
+
+                if (nativeType == DenseCodec.CONST_NO_NATIVE_ARRAY) {
+                    pending += length;
+                } else {
+                    offset = this.skipNativeArray(offset, nativeType, length);
+                }
+            } else {
+                throw new IOException(b + " is not registered block header binary in dense codec. (unknown block header)");
+            }
+        }
+
+        this.dictionaryReferenced = referenced;
+        this.skipPending = pending;
+
+        return offset;
+    }
+
+    /**
+     * Returns the offset right after the native array payload that starts at the offset.
+     *
+     * @param offset     the offset of native array payload
+     * @param nativeType the native array type
+     * @param length     the length of array
+     * @return the offset after the payload
+     * @throws IOException if the data is out of the file; if unknown native array type is parsed
+     */
+    long skipNativeArray(long offset, byte nativeType, int length) throws IOException {
+        int elementSize;
+
+        try {
+            elementSize = DenseCodec.getNativeElementSize(nativeType);
+        } catch (IllegalArgumentException exception) {
+            throw new IOException(exception);
+        }
+
+        if (!DenseCodec.isWrapperNativeType(nativeType)) {
+            return offset + (long) length * elementSize;
+        }
+
+        /*
+            Wrapper arrays have null flag per element
+         */
+        for (int index = 0; index < length; index++) {
+            boolean nullFlag = this.getByte(offset++) == 1;
+
+            if (nullFlag) {
+                offset += elementSize;
+            }
+        }
+
+        return offset;
+    }
+
+    /**
+     * Creates the dense reader for the value that starts at the offset.
+     *
+     * @param offset the offset of block header
+     * @return created dense reader
+     * @throws IOException if the data is out of the file; if unknown block header is parsed
+     */
+    DenseReader createReader(long offset) throws IOException {
+        return this.createReader(offset, this.skip(offset));
+    }
+
+    /**
+     * Creates the dense reader for the range of the file.
+     * Reads directly from the mapped segment if the range is in one segment, otherwise reads through the file channel.
+     *
+     * @param start the start offset, inclusive
+     * @param end   the end offset, exclusive
+     * @return created dense reader
+     * @throws IOException if the range is out of the file
+     */
+    DenseReader createReader(long start, long end) throws IOException {
+        if (end > this.size) {
+            throw new IOException("Offset " + end + " is out of the file. (size " + this.size + ")");
+        }
+
+        MappedByteBuffer segment = this.getSegment(start);
+        DenseReader denseReader;
+        long segmentOffset = start - start % this.segmentSize;
+
+        if (end - segmentOffset <= segment.limit()) {
+            ByteBuffer byteBuffer = segment.duplicate();
+
+            byteBuffer.limit((int) (end - segmentOffset));
+            byteBuffer.position((int) (start - segmentOffset));
+
+            denseReader = new DenseReader(byteBuffer);
+        } else {
+            this.fileChannel.position(start);
+
+            denseReader = new DenseReader(Channels.newInputStream(this.fileChannel), true);
+        }
+
+        denseReader.setCompact(this.compact);
+
+        return denseReader;
+    }
+
+    /**
+     * Closes the file channel of this reader.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public void close() throws IOException {
+        this.fileChannel.close();
+    }
+}
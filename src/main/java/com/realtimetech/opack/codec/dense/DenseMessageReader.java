@@ -0,0 +1,281 @@
+/*
+ * Copyright (C) 2021 REALTIMETECH All Rights Reserved
+ *
+ * Licensed either under the Apache License, Version 2.0, or (at your option)
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (subject to the "Classpath" exception),
+ * either version 2, or any later version (collectively, the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     http://www.gnu.org/licenses/
+ *     http://www.gnu.org/software/classpath/license.html
+ *
+ * or as provided in the LICENSE file that accompanied this code.
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.realtimetech.opack.codec.dense;
+
+import com.realtimetech.opack.Opacker;
+import com.realtimetech.opack.exception.DecodeException;
+import com.realtimetech.opack.value.OpackValue;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Reader that reads the dense messages written through {@link DenseMessageWriter DenseMessageWriter} one by one.
+ * Messages can be skipped without decoding, and reading is resumable: if the stream ends in the middle of a record,
+ * the bytes read so far are kept and the record is completed by the next read, once the stream has more data (e.g. a growing log file or a socket).
+ * This reader is not thread-safe.
+ */
+public final class DenseMessageReader implements Closeable {
+    private static final int CONST_HEADER_SIZE = DenseMessageWriter.CONST_DENSE_MESSAGE_CLASSIFIER.length + DenseCodec.CONST_DENSE_CODEC_VERSION.length;
+    private static final int CONST_LENGTH_SIZE = 4;
+
+    private final InputStream inputStream;
+    private final DenseCodec denseCodec;
+
+    private final byte[] headerBytes;
+    private int headerRead;
+    private boolean compact;
+
+    private final byte[] lengthBytes;
+    private int lengthRead;
+
+    private byte[] messageBytes;
+    private int messageLength;
+    private int messageRead;
+
+    private long count;
+    private long position;
+
+    /**
+     * Calls {@code new DenseMessageReader(inputStream, new DenseCodec.Builder().create())}
+     *
+     * @param inputStream the input stream to read
+     */
+    public DenseMessageReader(@NotNull InputStream inputStream) {
+        this(inputStream, new DenseCodec.Builder().create());
+    }
+
+    /**
+     * Constructs the DenseMessageReader that reads from the input stream.
+     * The stream header is read with the first message, so the stream may be empty yet.
+     *
+     * @param inputStream the input stream to read
+     * @param denseCodec  the dense codec to decode the messages
+     */
+    public DenseMessageReader(@NotNull InputStream inputStream, @NotNull DenseCodec denseCodec) {
+        this.inputStream = inputStream;
+        this.denseCodec = denseCodec;
+
+        this.headerBytes = new byte[CONST_HEADER_SIZE];
+        this.headerRead = 0;
+
+        this.lengthBytes = new byte[CONST_LENGTH_SIZE];
+        this.lengthRead = 0;
+
+        this.messageBytes = new byte[1024];
+        this.messageLength = -1;
+        this.messageRead = 0;
+
+        this.count = 0;
+        this.position = 0;
+    }
+
+    /**
+     * Returns the number of messages read or skipped.
+     *
+     * @return the number of messages
+     */
+    public long getCount() {
+        return this.count;
+    }
+
+    /**
+     * Returns the number of bytes of the stream header and the messages read or skipped, excluding the incomplete record.
+     *
+     * @return the position
+     */
+    public long getPosition() {
+        return this.position;
+    }
+
+    /**
+     * Returns whether the stream ended in the middle of the stream header or a record on the last read.
+     * If true after the stream is entirely written, the stream is truncated.
+     *
+     * @return true if the incomplete bytes are kept
+     */
+    public boolean isIncomplete() {
+        return (this.headerRead > 0 && this.headerRead < CONST_HEADER_SIZE) || this.lengthRead > 0 || this.messageLength >= 0;
+    }
+
+    /**
+     * Reads the next message.
+     *
+     * @return the message, or null if the stream has no complete message yet
+     * @throws IOException     if an I/O error occurs; if the stream is not dense message stream
+     * @throws DecodeException if a problem occurs during decoding
+     */
+    public OpackValue read() throws IOException, DecodeException {
+        DenseReader denseReader = this.readMessage();
+
+        if (denseReader == null) {
+            return null;
+        }
+
+        return (OpackValue) this.denseCodec.doDecodeValue(denseReader, null, null);
+    }
+
+    /**
+     * Reads the next message directly to object of the target class, without creating {@link OpackValue OpackValue} tree.
+     *
+     * @param opacker the opacker that has baked types and transformers
+     * @param type    the target class
+     * @param <T>     the type of object
+     * @return the decoded object, or null if the stream has no complete message yet
+     * @throws IOException     if an I/O error occurs; if the stream is not dense message stream
+     * @throws DecodeException if a problem occurs during decoding; if a problem occurs during deserializing
+     */
+    public <T> T read(@NotNull Opacker opacker, @NotNull Class<T> type) throws IOException, DecodeException {
+        DenseReader denseReader = this.readMessage();
+
+        if (denseReader == null) {
+            return null;
+        }
+
+        return this.denseCodec.doDecodeObject(denseReader, opacker, type, false, null, null);
+    }
+
+    /**
+     * Skips the next message without decoding it.
+     *
+     * @return true if a message is skipped, false if the stream has no complete message yet
+     * @throws IOException if an I/O error occurs; if the stream is not dense message stream
+     */
+    public boolean skip() throws IOException {
+        return this.readMessage() != null;
+    }
+
+    /**
+     * Reads the next complete record, continuing the incomplete stream header or record of the last read.
+     *
+     * @return the dense reader of the message, or null if the stream ended before the record is complete
+     * @throws IOException if an I/O error occurs; if the stream is not dense message stream; if the length of record is corrupted
+     */
+    private DenseReader readMessage() throws IOException {
+        if (this.headerRead < CONST_HEADER_SIZE) {
+            this.headerRead += this.fill(this.headerBytes, this.headerRead, CONST_HEADER_SIZE - this.headerRead);
+
+            if (this.headerRead < CONST_HEADER_SIZE) {
+                return null;
+            }
+
+            this.readHeader();
+            this.position += CONST_HEADER_SIZE;
+        }
+
+        if (this.messageLength < 0) {
+            this.lengthRead += this.fill(this.lengthBytes, this.lengthRead, CONST_LENGTH_SIZE - this.lengthRead);
+
+            if (this.lengthRead < CONST_LENGTH_SIZE) {
+                return null;
+            }
+
+            int length = ((this.lengthBytes[0] & 0xFF) << 24) | ((this.lengthBytes[1] & 0xFF) << 16) | ((this.lengthBytes[2] & 0xFF) << 8) | (this.lengthBytes[3] & 0xFF);
+
+            if (length < 0) {
+                throw new IOException("Caught corrupted message length " + length + " at " + this.position);
+            }
+
+            if (length > this.messageBytes.length) {
+                this.messageBytes = new byte[Math.max(length, this.messageBytes.length << 1)];
+            }
+
+            this.lengthRead = 0;
+            this.messageLength = length;
+            this.messageRead = 0;
+        }
+
+        this.messageRead += this.fill(this.messageBytes, this.messageRead, this.messageLength - this.messageRead);
+
+        if (this.messageRead < this.messageLength) {
+            return null;
+        }
+
+        DenseReader denseReader = new DenseReader(this.messageBytes, 0, this.messageLength);
+        denseReader.setCompact(this.compact);
+
+        this.position += CONST_LENGTH_SIZE + this.messageLength;
+        this.count++;
+        this.messageLength = -1;
+
+        return denseReader;
+    }
+
+    /**
+     * Checks the classifier and version of the stream header.
+     *
+     * @throws IOException if the stream is not dense message stream; if the version is not supported
+     */
+    private void readHeader() throws IOException {
+        byte[] classifier = Arrays.copyOfRange(this.headerBytes, 0, DenseMessageWriter.CONST_DENSE_MESSAGE_CLASSIFIER.length);
+        byte[] version = Arrays.copyOfRange(this.headerBytes, classifier.length, CONST_HEADER_SIZE);
+
+        if (!Arrays.equals(DenseMessageWriter.CONST_DENSE_MESSAGE_CLASSIFIER, classifier)) {
+            throw new IOException("Reading data is not dense message stream. (Expected " + Arrays.toString(DenseMessageWriter.CONST_DENSE_MESSAGE_CLASSIFIER) + ", got " + Arrays.toString(classifier) + ")");
+        }
+
+        try {
+            this.compact = DenseCodec.isCompactVersion(version, this.denseCodec.ignoreVersionCompare);
+        } catch (IllegalArgumentException exception) {
+            throw new IOException(exception);
+        }
+    }
+
+    /**
+     * Reads the bytes from the input stream until the length is filled or the stream ends.
+     *
+     * @param bytes  the array to fill
+     * @param offset the start offset in the array
+     * @param length the number of bytes to read
+     * @return the number of bytes read
+     * @throws IOException if an I/O error occurs
+     */
+    private int fill(byte[] bytes, int offset, int length) throws IOException {
+        int total = 0;
+
+        while (total < length) {
+            int read = this.inputStream.read(bytes, offset + total, length - total);
+
+            if (read <= 0) {
+                break;
+            }
+
+            total += read;
+        }
+
+        return total;
+    }
+
+    /**
+     * Closes the input stream.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public void close() throws IOException {
+        this.inputStream.close();
+    }
+}
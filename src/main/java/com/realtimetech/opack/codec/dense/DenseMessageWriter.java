@@ -0,0 +1,188 @@
+/*
+ * Copyright (C) 2021 REALTIMETECH All Rights Reserved
+ *
+ * Licensed either under the Apache License, Version 2.0, or (at your option)
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (subject to the "Classpath" exception),
+ * either version 2, or any later version (collectively, the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     http://www.gnu.org/licenses/
+ *     http://www.gnu.org/software/classpath/license.html
+ *
+ * or as provided in the LICENSE file that accompanied this code.
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.realtimetech.opack.codec.dense;
+
+import com.realtimetech.opack.Opacker;
+import com.realtimetech.opack.exception.EncodeException;
+import com.realtimetech.opack.value.OpackValue;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writer that writes many dense messages to one stream, for message logs and socket pipelines.
+ * The stream header (classifier and version) is written once, and each message follows as a length-prefixed record without its own header.
+ * <p>
+ * The stream consists of the classifier {@code CONST_DENSE_MESSAGE_CLASSIFIER} (4 bytes) and the version of dense format (2 bytes),
+ * then records of the length (int) and the message encoded in that version. Records can be read back one by one through {@link DenseMessageReader DenseMessageReader}.
+ * The compression of the dense codec is not applied to the records; wrap the output stream in {@link com.realtimetech.opack.codec.dense.frame.DenseFrameOutputStream DenseFrameOutputStream} to compress the whole stream.
+ * This writer is not thread-safe.
+ */
+public final class DenseMessageWriter implements Flushable, Closeable {
+    static final byte[] CONST_DENSE_MESSAGE_CLASSIFIER = new byte[]{0x20, 0x22, 'D', 'M'};
+
+    /**
+     * Byte array output stream that exposes its buffer, to write the encoded message without copying.
+     */
+    static final class MessageBuffer extends ByteArrayOutputStream {
+        MessageBuffer(int size) {
+            super(size);
+        }
+
+        byte[] getBuffer() {
+            return this.buf;
+        }
+    }
+
+    private final OutputStream outputStream;
+    private final DenseWriter denseWriter;
+    private final DenseCodec denseCodec;
+
+    private final MessageBuffer messageBuffer;
+    private DenseWriter messageWriter;
+
+    private long count;
+
+    /**
+     * Calls {@code new DenseMessageWriter(outputStream, new DenseCodec.Builder().create())}
+     *
+     * @param outputStream the output stream to write
+     * @throws IOException if an I/O error occurs
+     */
+    public DenseMessageWriter(@NotNull OutputStream outputStream) throws IOException {
+        this(outputStream, new DenseCodec.Builder().create());
+    }
+
+    /**
+     * Constructs the DenseMessageWriter that writes to the output stream through the internal buffer, and writes the stream header.
+     *
+     * @param outputStream the output stream to write
+     * @param denseCodec   the dense codec to encode the messages, its encode version is written in the stream header
+     * @throws IOException if an I/O error occurs
+     */
+    public DenseMessageWriter(@NotNull OutputStream outputStream, @NotNull DenseCodec denseCodec) throws IOException {
+        this.outputStream = outputStream;
+        this.denseWriter = new DenseWriter(outputStream);
+        this.denseCodec = denseCodec;
+
+        this.messageBuffer = new MessageBuffer(1024);
+        this.messageWriter = new DenseWriter(this.messageBuffer);
+
+        this.count = 0;
+
+        this.denseWriter.writeBytes(CONST_DENSE_MESSAGE_CLASSIFIER);
+        this.denseWriter.writeBytes(denseCodec.encodeVersion);
+    }
+
+    /**
+     * Returns the number of messages written.
+     *
+     * @return the number of messages
+     */
+    public long getCount() {
+        return this.count;
+    }
+
+    /**
+     * Writes the opack value as a message.
+     *
+     * @param opackValue the opack value to write
+     * @throws IOException     if an I/O error occurs
+     * @throws EncodeException if a problem occurs during encoding
+     */
+    public void write(@NotNull OpackValue opackValue) throws IOException, EncodeException {
+        this.messageBuffer.reset();
+
+        try {
+            this.denseCodec.doEncode(this.messageWriter, opackValue, false);
+        } catch (Exception exception) {
+            // Drop the bytes of failed message left in the buffer of message writer
+            this.messageWriter = new DenseWriter(this.messageBuffer);
+            throw new EncodeException(exception);
+        }
+
+        this.writeMessage();
+    }
+
+    /**
+     * Encodes the object directly as a message, without creating {@link OpackValue OpackValue} tree.
+     *
+     * @param opacker the opacker that has baked types and transformers
+     * @param object  the object to write
+     * @throws IOException     if an I/O error occurs
+     * @throws EncodeException if a problem occurs during encoding; if a problem occurs during serializing
+     */
+    public void write(@NotNull Opacker opacker, @NotNull Object object) throws IOException, EncodeException {
+        this.messageBuffer.reset();
+
+        try {
+            this.denseCodec.doEncodeObject(this.messageWriter, opacker, object, false);
+        } catch (EncodeException exception) {
+            this.messageWriter = new DenseWriter(this.messageBuffer);
+            throw exception;
+        }
+
+        this.writeMessage();
+    }
+
+    /**
+     * Writes the encoded message in the message buffer as a length-prefixed record.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    private void writeMessage() throws IOException {
+        this.denseWriter.writeInt(this.messageBuffer.size());
+        this.denseWriter.writeBytes(this.messageBuffer.getBuffer(), 0, this.messageBuffer.size());
+
+        this.count++;
+    }
+
+    /**
+     * Flushes the buffered records to the output stream.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public void flush() throws IOException {
+        this.denseWriter.flush();
+        this.outputStream.flush();
+    }
+
+    /**
+     * Flushes the buffered records and closes the output stream.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            this.flush();
+        } finally {
+            this.outputStream.close();
+        }
+    }
+}
@@ -22,111 +22,649 @@
 
 package com.realtimetech.opack.codec.dense;
 
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 
 class DenseReader {
+    private static final int DEFAULT_BUFFER_SIZE = 8192;
+
     private final InputStream inputStream;
+    private final boolean exact;
+    private final boolean rewind;
+
+    private final ByteBuffer byteBuffer;
+
+    private boolean compact;
+    private int markedBytes;
 
     /**
-     * Constructs the DenseReader.
+     * Constructs the DenseReader that reads through the internal buffer filled from the input stream.
+     * <p>
+     * If read ahead is allowed, the reader may read past the end of the encoded data.
+     * Otherwise, the input stream is left right after the encoded data once {@link #release() release} is called:
+     * the reader still reads ahead if the input stream {@link InputStream#markSupported() supports mark} and resets back on release,
+     * and reads only the bytes required if not.
      *
      * @param inputStream an InputStream
+     * @param readAhead   true if the reader may read past the end of the encoded data
      */
-    public DenseReader(InputStream inputStream) {
+    public DenseReader(InputStream inputStream, boolean readAhead) {
         this.inputStream = inputStream;
+        this.exact = !readAhead && !inputStream.markSupported();
+        this.rewind = !readAhead && inputStream.markSupported();
+        this.byteBuffer = ByteBuffer.allocate(DEFAULT_BUFFER_SIZE).order(ByteOrder.BIG_ENDIAN);
+        this.byteBuffer.limit(0);
+        this.markedBytes = 0;
     }
 
     /**
-     * Reads the next byte of data from the input stream.
-     * The value byte is returned as an int in the range 0 to 255.
+     * Constructs the DenseReader that reads directly from the byte array.
+     *
+     * @param bytes  the byte array to read
+     * @param offset the offset of data in the byte array
+     * @param length the length of data
+     */
+    public DenseReader(byte[] bytes, int offset, int length) {
+        this.inputStream = null;
+        this.exact = false;
+        this.rewind = false;
+        this.byteBuffer = ByteBuffer.wrap(bytes, offset, length).order(ByteOrder.BIG_ENDIAN);
+    }
+
+    /**
+     * Constructs the DenseReader that reads directly from the byte buffer, from its current position up to its limit.
+     * The position of the byte buffer itself is not changed, see {@link #getPosition() getPosition}.
+     *
+     * @param byteBuffer the heap or direct byte buffer to read
+     */
+    public DenseReader(ByteBuffer byteBuffer) {
+        this.inputStream = null;
+        this.exact = false;
+        this.rewind = false;
+        this.byteBuffer = byteBuffer.duplicate().order(ByteOrder.BIG_ENDIAN);
+    }
+
+    /**
+     * Returns the current position in the byte buffer read.
+     *
+     * @return the position
+     */
+    public int getPosition() {
+        return this.byteBuffer.position();
+    }
+
+    /**
+     * Returns whether this reader reads lengths and integral values in compact variable-length form. (dense format version 2)
+     *
+     * @return true if this reader is compact
+     */
+    public boolean isCompact() {
+        return this.compact;
+    }
+
+    /**
+     * Sets whether this reader reads lengths and integral values in compact variable-length form. (dense format version 2)
+     *
+     * @param compact true if this reader is compact
+     */
+    public void setCompact(boolean compact) {
+        this.compact = compact;
+    }
+
+    /**
+     * Makes sure that the buffer has at least the required number of bytes, filling it from the input stream.
+     *
+     * @param required the number of bytes required, must not be larger than the buffer
+     * @throws IOException  if an I/O exception occurs
+     * @throws EOFException if the end of data has been reached before the required bytes
+     */
+    private void require(int required) throws IOException {
+        if (this.byteBuffer.remaining() >= required) {
+            return;
+        }
+
+        if (this.inputStream == null) {
+            throw new EOFException("Unexpected end of dense data. (Expected " + required + " bytes, but " + this.byteBuffer.remaining() + " bytes left)");
+        }
+
+        this.byteBuffer.compact();
+
+        int fillLimit = this.exact ? required : this.byteBuffer.capacity();
+
+        if (this.rewind) {
+            this.inputStream.mark(this.byteBuffer.capacity());
+            this.markedBytes = 0;
+        }
+
+        try {
+            while (this.byteBuffer.position() < required) {
+                int read = this.inputStream.read(this.byteBuffer.array(), this.byteBuffer.position(), fillLimit - this.byteBuffer.position());
+
+                if (read == -1) {
+                    throw new EOFException("Unexpected end of dense data. (Expected " + required + " bytes, but " + this.byteBuffer.position() + " bytes left)");
+                }
+
+                this.byteBuffer.position(this.byteBuffer.position() + read);
+                this.markedBytes += read;
+            }
+        } finally {
+            this.byteBuffer.flip();
+        }
+    }
+
+    /**
+     * Leaves the input stream right after the data read so far, if this reader must not read ahead.
+     * The bytes read ahead are given back to the input stream by resetting it to the mark and skipping the bytes consumed.
      *
-     * @return the byte read, or -1 if the end of the stream has been reached
      * @throws IOException if an I/O exception occurs
      */
+    public void release() throws IOException {
+        int remaining = this.byteBuffer.remaining();
+
+        if (!this.rewind || remaining == 0) {
+            return;
+        }
+
+        long consumed = this.markedBytes - remaining;
+
+        this.inputStream.reset();
+        this.byteBuffer.limit(0);
+
+        while (consumed > 0) {
+            long skipped = this.inputStream.skip(consumed);
+
+            if (skipped <= 0) {
+                if (this.inputStream.read() == -1) {
+                    throw new EOFException("Unexpected end of dense data while releasing the input stream.");
+                }
+
+                skipped = 1;
+            }
+
+            consumed -= skipped;
+        }
+    }
+
+    /**
+     * Returns the number of elements that can be decoded from the buffer at once, filling the buffer if needed.
+     *
+     * @param remaining the number of elements remaining
+     * @param size      the byte size of element
+     * @return the number of elements to decode
+     * @throws IOException  if an I/O exception occurs
+     * @throws EOFException if the end of data has been reached
+     */
+    private int requireElements(int remaining, int size) throws IOException {
+        // Exact reads fill only the bytes of elements remaining, up to the buffer
+        this.require(this.exact ? Math.min(remaining, this.byteBuffer.capacity() / size) * size : size);
+
+        return Math.min(remaining, this.byteBuffer.remaining() / size);
+    }
+
+    /**
+     * Reads the next byte of data.
+     * The value byte is returned as an int in the range 0 to 255.
+     *
+     * @return the byte read
+     * @throws IOException  if an I/O exception occurs
+     * @throws EOFException if the end of data has been reached
+     */
     public int readByte() throws IOException {
-        return this.inputStream.read();
+        this.require(1);
+
+        return this.byteBuffer.get() & 0xFF;
     }
 
     /**
-     * Reads the next character of data from the input stream.
+     * Reads the next character of data.
      *
      * @return the character read
-     * @throws IOException if an I/O exception occurs
+     * @throws IOException  if an I/O exception occurs
+     * @throws EOFException if the end of data has been reached
      */
     public char readChar() throws IOException {
-        return (char) (((this.inputStream.read() & 0xFF) << 8) |
-                ((this.inputStream.read() & 0xFF) << 0));
+        this.require(2);
+
+        return this.byteBuffer.getChar();
     }
 
     /**
-     * Reads the next short of data from the input stream.
+     * Reads the next short of data.
      *
      * @return the short read
-     * @throws IOException if an I/O exception occurs
+     * @throws IOException  if an I/O exception occurs
+     * @throws EOFException if the end of data has been reached
      */
     public short readShort() throws IOException {
-        return (short) (((this.inputStream.read() & 0xFF) << 8) |
-                ((this.inputStream.read() & 0xFF) << 0));
+        this.require(2);
+
+        return this.byteBuffer.getShort();
     }
 
     /**
-     * Reads the next int of data from the input stream.
+     * Reads the next int of data.
      *
      * @return the int read
-     * @throws IOException if an I/O exception occurs
+     * @throws IOException  if an I/O exception occurs
+     * @throws EOFException if the end of data has been reached
      */
     public int readInt() throws IOException {
-        return (((this.inputStream.read() & 0xFF) << 24) |
-                ((this.inputStream.read() & 0xFF) << 16) |
-                ((this.inputStream.read() & 0xFF) << 8) |
-                ((this.inputStream.read() & 0xFF) << 0));
+        this.require(4);
+
+        return this.byteBuffer.getInt();
+    }
+
+    /**
+     * Reads the next unsigned LEB128 variable-length int of data.
+     *
+     * @return the int read
+     * @throws IOException  if an I/O exception occurs; if the variable-length int is longer than 5 bytes
+     * @throws EOFException if the end of data has been reached
+     */
+    public int readVarInt() throws IOException {
+        int value = 0;
+
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = this.readByte();
+            value |= (b & 0x7F) << shift;
+
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+
+        throw new IOException("Malformed variable-length int in dense data.");
+    }
+
+    /**
+     * Reads the next unsigned LEB128 variable-length long of data.
+     *
+     * @return the long read
+     * @throws IOException  if an I/O exception occurs; if the variable-length long is longer than 10 bytes
+     * @throws EOFException if the end of data has been reached
+     */
+    public long readVarLong() throws IOException {
+        long value = 0;
+
+        for (int shift = 0; shift < 70; shift += 7) {
+            int b = this.readByte();
+            value |= (long) (b & 0x7F) << shift;
+
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+
+        throw new IOException("Malformed variable-length long in dense data.");
     }
 
     /**
-     * Reads the next float of data from the input stream.
+     * Reads the next length of string, object or array, as variable-length int if this reader is compact, otherwise as int.
+     *
+     * @return the length read
+     * @throws IOException  if an I/O exception occurs
+     * @throws EOFException if the end of data has been reached
+     */
+    public int readLength() throws IOException {
+        return this.compact ? this.readVarInt() : this.readInt();
+    }
+
+    /**
+     * Reads the next float of data.
      *
      * @return the float read
-     * @throws IOException if an I/O exception occurs
+     * @throws IOException  if an I/O exception occurs
+     * @throws EOFException if the end of data has been reached
      */
     public float readFloat() throws IOException {
-        return Float.intBitsToFloat(this.readInt());
+        this.require(4);
+
+        return this.byteBuffer.getFloat();
     }
 
     /**
-     * Reads the next long of data from the input stream.
+     * Reads the next long of data.
      *
      * @return the long read
-     * @throws IOException if an I/O exception occurs
+     * @throws IOException  if an I/O exception occurs
+     * @throws EOFException if the end of data has been reached
      */
     public long readLong() throws IOException {
-        return ((((long) this.inputStream.read() & 0xFF) << 56) |
-                (((long) this.inputStream.read() & 0xFF) << 48) |
-                (((long) this.inputStream.read() & 0xFF) << 40) |
-                (((long) this.inputStream.read() & 0xFF) << 32) |
-                (((long) this.inputStream.read() & 0xFF) << 24) |
-                (((long) this.inputStream.read() & 0xFF) << 16) |
-                (((long) this.inputStream.read() & 0xFF) << 8) |
-                (((long) this.inputStream.read() & 0xFF) << 0));
+        this.require(8);
+
+        return this.byteBuffer.getLong();
     }
 
     /**
-     * Reads the next double of data from the input stream.
+     * Reads the next double of data.
      *
      * @return the double read
-     * @throws IOException if an I/O exception occurs
+     * @throws IOException  if an I/O exception occurs
+     * @throws EOFException if the end of data has been reached
      */
     public double readDouble() throws IOException {
-        return Double.longBitsToDouble(this.readLong());
+        this.require(8);
+
+        return this.byteBuffer.getDouble();
     }
 
     /**
-     * Reads the next bytes of data from the input stream.
+     * Reads the next bytes of data to fill the byte array.
      *
      * @param bytes the byte array to write the bytes read
-     * @throws IOException if an I/O exception occurs
+     * @throws IOException  if an I/O exception occurs
+     * @throws EOFException if the end of data has been reached before the array is filled
      */
     public void readBytes(byte[] bytes) throws IOException {
-        this.inputStream.readNBytes(bytes, 0, bytes.length);
+        this.readBytes(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Reads the next bytes of data to the byte array.
+     *
+     * @param bytes  the byte array to write the bytes read
+     * @param offset the start offset in the byte array
+     * @param length the number of bytes to read
+     * @throws IOException  if an I/O exception occurs
+     * @throws EOFException if the end of data has been reached before the bytes are read
+     */
+    public void readBytes(byte[] bytes, int offset, int length) throws IOException {
+        int available = Math.min(length, this.byteBuffer.remaining());
+
+        this.byteBuffer.get(bytes, offset, available);
+
+        if (available == length) {
+            return;
+        }
+
+        if (this.inputStream == null) {
+            throw new EOFException("Unexpected end of dense data. (Expected " + length + " bytes, but " + available + " bytes left)");
+        }
+
+        /*
+            Read the rest directly, bypass the buffer
+         */
+        int read = this.inputStream.readNBytes(bytes, offset + available, length - available);
+
+        if (read < length - available) {
+            throw new EOFException("Unexpected end of dense data. (Expected " + length + " bytes, but " + (available + read) + " bytes left)");
+        }
+    }
+
+    /**
+     * Skips the next bytes of data.
+     *
+     * @param length the number of bytes to skip
+     * @throws IOException  if an I/O exception occurs
+     * @throws EOFException if the end of data has been reached before the bytes are skipped
+     */
+    public void skipBytes(long length) throws IOException {
+        int available = (int) Math.min(length, this.byteBuffer.remaining());
+
+        this.byteBuffer.position(this.byteBuffer.position() + available);
+
+        if (available == length) {
+            return;
+        }
+
+        if (this.inputStream == null) {
+            throw new EOFException("Unexpected end of dense data. (Expected " + length + " bytes, but " + available + " bytes left)");
+        }
+
+        long remaining = length - available;
+
+        while (remaining > 0) {
+            long skipped = this.inputStream.skip(remaining);
+
+            if (skipped <= 0) {
+                if (this.inputStream.read() == -1) {
+                    throw new EOFException("Unexpected end of dense data. (Expected " + length + " bytes, but " + (length - remaining) + " bytes left)");
+                }
+
+                skipped = 1;
+            }
+
+            remaining -= skipped;
+        }
+    }
+
+    /**
+     * Reads the next booleans of data to fill the boolean array.
+     *
+     * @param array the boolean array to fill
+     * @throws IOException  if an I/O exception occurs
+     * @throws EOFException if the end of data has been reached before the array is filled
+     */
+    public void readBooleans(boolean[] array) throws IOException {
+        this.readBooleans(array, 0, array.length);
+    }
+
+    /**
+     * Reads the next booleans of data to fill the range of the boolean array.
+     *
+     * @param array  the boolean array to fill
+     * @param offset the start offset in the array
+     * @param length the number of elements to read
+     * @throws IOException  if an I/O exception occurs
+     * @throws EOFException if the end of data has been reached before the range is filled
+     */
+    public void readBooleans(boolean[] array, int offset, int length) throws IOException {
+        int index = offset;
+        int end = offset + length;
+
+        while (index < end) {
+            int count = this.requireElements(end - index, 1);
+
+            for (int chunkEnd = index + count; index < chunkEnd; index++) {
+                array[index] = this.byteBuffer.get() == 1;
+            }
+        }
+    }
+
+    /**
+     * Reads the next characters of data through the big-endian view of the buffer to fill the character array.
+     *
+     * @param array the character array to fill
+     * @throws IOException  if an I/O exception occurs
+     * @throws EOFException if the end of data has been reached before the array is filled
+     */
+    public void readChars(char[] array) throws IOException {
+        this.readChars(array, 0, array.length);
+    }
+
+    /**
+     * Reads the next characters of data through the big-endian view of the buffer to fill the range of the character array.
+     *
+     * @param array  the character array to fill
+     * @param offset the start offset in the array
+     * @param length the number of elements to read
+     * @throws IOException  if an I/O exception occurs
+     * @throws EOFException if the end of data has been reached before the range is filled
+     */
+    public void readChars(char[] array, int offset, int length) throws IOException {
+        int index = offset;
+        int end = offset + length;
+
+        while (index < end) {
+            int count = this.requireElements(end - index, 2);
+
+            this.byteBuffer.asCharBuffer().get(array, index, count);
+            this.byteBuffer.position(this.byteBuffer.position() + count * 2);
+
+            index += count;
+        }
+    }
+
+    /**
+     * Reads the next shorts of data through the big-endian view of the buffer to fill the short array.
+     *
+     * @param array the short array to fill
+     * @throws IOException  if an I/O exception occurs
+     * @throws EOFException if the end of data has been reached before the array is filled
+     */
+    public void readShorts(short[] array) throws IOException {
+        this.readShorts(array, 0, array.length);
+    }
+
+    /**
+     * Reads the next shorts of data through the big-endian view of the buffer to fill the range of the short array.
+     *
+     * @param array  the short array to fill
+     * @param offset the start offset in the array
+     * @param length the number of elements to read
+     * @throws IOException  if an I/O exception occurs
+     * @throws EOFException if the end of data has been reached before the range is filled
+     */
+    public void readShorts(short[] array, int offset, int length) throws IOException {
+        int index = offset;
+        int end = offset + length;
+
+        while (index < end) {
+            int count = this.requireElements(end - index, 2);
+
+            this.byteBuffer.asShortBuffer().get(array, index, count);
+            this.byteBuffer.position(this.byteBuffer.position() + count * 2);
+
+            index += count;
+        }
+    }
+
+    /**
+     * Reads the next ints of data through the big-endian view of the buffer to fill the int array.
+     *
+     * @param array the int array to fill
+     * @throws IOException  if an I/O exception occurs
+     * @throws EOFException if the end of data has been reached before the array is filled
+     */
+    public void readInts(int[] array) throws IOException {
+        this.readInts(array, 0, array.length);
+    }
+
+    /**
+     * Reads the next ints of data through the big-endian view of the buffer to fill the range of the int array.
+     *
+     * @param array  the int array to fill
+     * @param offset the start offset in the array
+     * @param length the number of elements to read
+     * @throws IOException  if an I/O exception occurs
+     * @throws EOFException if the end of data has been reached before the range is filled
+     */
+    public void readInts(int[] array, int offset, int length) throws IOException {
+        int index = offset;
+        int end = offset + length;
+
+        while (index < end) {
+            int count = this.requireElements(end - index, 4);
+
+            this.byteBuffer.asIntBuffer().get(array, index, count);
+            this.byteBuffer.position(this.byteBuffer.position() + count * 4);
+
+            index += count;
+        }
+    }
+
+    /**
+     * Reads the next floats of data through the big-endian view of the buffer to fill the float array.
+     *
+     * @param array the float array to fill
+     * @throws IOException  if an I/O exception occurs
+     * @throws EOFException if the end of data has been reached before the array is filled
+     */
+    public void readFloats(float[] array) throws IOException {
+        this.readFloats(array, 0, array.length);
+    }
+
+    /**
+     * Reads the next floats of data through the big-endian view of the buffer to fill the range of the float array.
+     *
+     * @param array  the float array to fill
+     * @param offset the start offset in the array
+     * @param length the number of elements to read
+     * @throws IOException  if an I/O exception occurs
+     * @throws EOFException if the end of data has been reached before the range is filled
+     */
+    public void readFloats(float[] array, int offset, int length) throws IOException {
+        int index = offset;
+        int end = offset + length;
+
+        while (index < end) {
+            int count = this.requireElements(end - index, 4);
+
+            this.byteBuffer.asFloatBuffer().get(array, index, count);
+            this.byteBuffer.position(this.byteBuffer.position() + count * 4);
+
+            index += count;
+        }
+    }
+
+    /**
+     * Reads the next longs of data through the big-endian view of the buffer to fill the long array.
+     *
+     * @param array the long array to fill
+     * @throws IOException  if an I/O exception occurs
+     * @throws EOFException if the end of data has been reached before the array is filled
+     */
+    public void readLongs(long[] array) throws IOException {
+        this.readLongs(array, 0, array.length);
+    }
+
+    /**
+     * Reads the next longs of data through the big-endian view of the buffer to fill the range of the long array.
+     *
+     * @param array  the long array to fill
+     * @param offset the start offset in the array
+     * @param length the number of elements to read
+     * @throws IOException  if an I/O exception occurs
+     * @throws EOFException if the end of data has been reached before the range is filled
+     */
+    public void readLongs(long[] array, int offset, int length) throws IOException {
+        int index = offset;
+        int end = offset + length;
+
+        while (index < end) {
+            int count = this.requireElements(end - index, 8);
+
+            this.byteBuffer.asLongBuffer().get(array, index, count);
+            this.byteBuffer.position(this.byteBuffer.position() + count * 8);
+
+            index += count;
+        }
+    }
+
+    /**
+     * Reads the next doubles of data through the big-endian view of the buffer to fill the double array.
+     *
+     * @param array the double array to fill
+     * @throws IOException  if an I/O exception occurs
+     * @throws EOFException if the end of data has been reached before the array is filled
+     */
+    public void readDoubles(double[] array) throws IOException {
+        this.readDoubles(array, 0, array.length);
+    }
+
+    /**
+     * Reads the next doubles of data through the big-endian view of the buffer to fill the range of the double array.
+     *
+     * @param array  the double array to fill
+     * @param offset the start offset in the array
+     * @param length the number of elements to read
+     * @throws IOException  if an I/O exception occurs
+     * @throws EOFException if the end of data has been reached before the range is filled
+     */
+    public void readDoubles(double[] array, int offset, int length) throws IOException {
+        int index = offset;
+        int end = offset + length;
+
+        while (index < end) {
+            int count = this.requireElements(end - index, 8);
+
+            this.byteBuffer.asDoubleBuffer().get(array, index, count);
+            this.byteBuffer.position(this.byteBuffer.position() + count * 8);
+
+            index += count;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,669 @@
+/*
+ * Copyright (C) 2021 REALTIMETECH All Rights Reserved
+ *
+ * Licensed either under the Apache License, Version 2.0, or (at your option)
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (subject to the "Classpath" exception),
+ * either version 2, or any later version (collectively, the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     http://www.gnu.org/licenses/
+ *     http://www.gnu.org/software/classpath/license.html
+ *
+ * or as provided in the LICENSE file that accompanied this code.
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.realtimetech.opack.codec.dense;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Streaming reader that reads dense format data token by token in constant memory, without building {@link com.realtimetech.opack.value.OpackValue OpackValue} tree.
+ * The entries of object are read as key and value pairs of tokens, and native arrays are read in chunks through {@link #readNativeArray(Object, int, int) readNativeArray}.
+ * This reader is not thread-safe.
+ */
+public final class DenseStreamReader implements Closeable {
+    public enum Token {
+        START_OBJECT,
+        END_OBJECT,
+        START_ARRAY,
+        END_ARRAY,
+        NATIVE_ARRAY,
+        BOOLEAN,
+        BYTE,
+        CHARACTER,
+        SHORT,
+        INTEGER,
+        FLOAT,
+        LONG,
+        DOUBLE,
+        NULL,
+        STRING,
+        END_DOCUMENT
+    }
+
+    private final InputStream inputStream;
+    private final DenseReader denseReader;
+
+    private long[] remainingStack;
+    private boolean[] objectStack;
+    private String[][] schemaStack;
+    private int depth;
+    private boolean rootRead;
+
+    private Token token;
+    private int size;
+
+    private long longValue;
+    private double doubleValue;
+
+    private int stringLength;
+    private boolean stringRead;
+    private byte[] stringBuffer;
+    private String stringValue;
+    private final ArrayList<String> stringTable;
+    private final ArrayList<String[]> schemaTable;
+
+    private byte nativeType;
+    private int nativeRemaining;
+
+    /**
+     * Constructs the DenseStreamReader that reads from the input stream.
+     * The reader may read ahead past the end of the encoded data.
+     *
+     * @param inputStream the input stream to read
+     * @throws IOException if an I/O error occurs; if the data is not dense format data
+     */
+    public DenseStreamReader(@NotNull InputStream inputStream) throws IOException {
+        this(inputStream, new DenseReader(inputStream, true));
+    }
+
+    /**
+     * Constructs the DenseStreamReader that reads directly from the byte array.
+     *
+     * @param bytes the bytes to read
+     * @throws IOException if the data is not dense format data
+     */
+    public DenseStreamReader(byte @NotNull [] bytes) throws IOException {
+        this(null, new DenseReader(bytes, 0, bytes.length));
+    }
+
+    /**
+     * Constructs the DenseStreamReader that reads directly from the heap or direct byte buffer, from its current position up to its limit.
+     * The position of the byte buffer itself is not changed.
+     *
+     * @param byteBuffer the byte buffer to read
+     * @throws IOException if the data is not dense format data
+     */
+    public DenseStreamReader(@NotNull ByteBuffer byteBuffer) throws IOException {
+        this(null, new DenseReader(byteBuffer));
+    }
+
+    /**
+     * Constructs the DenseStreamReader with the dense reader and reads the dense header.
+     *
+     * @param inputStream the input stream to close, or null
+     * @param denseReader the dense reader to read
+     * @throws IOException if an I/O error occurs; if the data is not dense format data
+     */
+    private DenseStreamReader(InputStream inputStream, DenseReader denseReader) throws IOException {
+        this.inputStream = inputStream;
+        this.denseReader = denseReader;
+
+        this.remainingStack = new long[16];
+        this.objectStack = new boolean[16];
+        this.schemaStack = new String[16][];
+        this.depth = 0;
+        this.rootRead = false;
+
+        this.stringBuffer = new byte[64];
+        this.stringTable = new ArrayList<>();
+        this.schemaTable = new ArrayList<>();
+
+        try {
+            DenseCodec.readHeader(this.denseReader, false);
+        } catch (IllegalArgumentException exception) {
+            throw new IOException(exception);
+        }
+    }
+
+    /**
+     * Returns the current token, or null if {@link #next() next} has not been called.
+     *
+     * @return the current token
+     */
+    public Token getToken() {
+        return token;
+    }
+
+    /**
+     * Returns the depth of objects and arrays that contain the current position.
+     *
+     * @return the depth
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Returns the number of entries of {@link Token#START_OBJECT START_OBJECT}, or the length of {@link Token#START_ARRAY START_ARRAY} and {@link Token#NATIVE_ARRAY NATIVE_ARRAY}.
+     *
+     * @return the size
+     * @throws IllegalStateException if the current token has no size
+     */
+    public int getSize() {
+        this.checkToken(Token.START_OBJECT, Token.START_ARRAY, Token.NATIVE_ARRAY);
+
+        return this.size;
+    }
+
+    /**
+     * Reads the next token.
+     * The unread part of the current string or native array is skipped.
+     *
+     * @return the token read
+     * @throws IOException if an I/O error occurs; if unknown block header is parsed
+     */
+    public Token next() throws IOException {
+        this.skipPending();
+
+        if (this.depth > 0 && this.remainingStack[this.depth - 1] == 0) {
+            this.depth--;
+            this.token = this.objectStack[this.depth] ? Token.END_OBJECT : Token.END_ARRAY;
+
+            return this.token;
+        }
+
+        if (this.depth == 0) {
+            if (this.rootRead) {
+                this.token = Token.END_DOCUMENT;
+
+                return this.token;
+            }
+
+            this.rootRead = true;
+        } else {
+            long remaining = --this.remainingStack[this.depth - 1];
+            String[] schemaKeys = this.schemaStack[this.depth - 1];
+
+            if (schemaKeys != null && (remaining & 1) == 1) {
+                // Keys of schema object are not in the data, the key token is made from the schema
+                this.stringValue = schemaKeys[schemaKeys.length - (int) ((remaining + 1) >> 1)];
+                this.stringRead = true;
+                this.token = Token.STRING;
+
+                return this.token;
+            }
+        }
+
+        byte b = (byte) this.denseReader.readByte();
+
+        switch (b) {
+            case DenseCodec.CONST_TYPE_OPACK_OBJECT:
+                this.size = this.denseReader.readLength();
+                this.push(2L * this.size, true, null);
+                this.token = Token.START_OBJECT;
+                break;
+            case DenseCodec.CONST_TYPE_SCHEMA_DEFINITION:
+            case DenseCodec.CONST_TYPE_SCHEMA_OBJECT:
+                String[] keys = this.readSchema(b);
+
+                this.size = keys.length;
+                this.push(2L * this.size, true, keys);
+                this.token = Token.START_OBJECT;
+                break;
+            case DenseCodec.CONST_TYPE_OPACK_ARRAY:
+                this.size = this.denseReader.readLength();
+                byte nativeType = (byte) this.denseReader.readByte();
+
+                if (nativeType == DenseCodec.CONST_NO_NATIVE_ARRAY) {
+                    this.push(this.size, false, null);
+                    this.token = Token.START_ARRAY;
+                } else {
+                    try {
+                        DenseCodec.getNativeComponentType(nativeType);
+                    } catch (IllegalArgumentException exception) {
+                        throw new IOException(exception);
+                    }
+
+                    this.nativeType = nativeType;
+                    this.nativeRemaining = this.size;
+                    this.token = Token.NATIVE_ARRAY;
+                }
+                break;
+            case DenseCodec.CONST_TYPE_BOOLEAN:
+                this.longValue = this.denseReader.readByte();
+                this.token = Token.BOOLEAN;
+                break;
+            case DenseCodec.CONST_TYPE_BOOLEAN_TRUE:
+            case DenseCodec.CONST_TYPE_BOOLEAN_FALSE:
+                this.longValue = b == DenseCodec.CONST_TYPE_BOOLEAN_TRUE ? 1 : 0;
+                this.token = Token.BOOLEAN;
+                break;
+            case DenseCodec.CONST_TYPE_BYTE:
+                this.longValue = (byte) this.denseReader.readByte();
+                this.token = Token.BYTE;
+                break;
+            case DenseCodec.CONST_TYPE_CHARACTER:
+                this.longValue = DenseCodec.readCharacterPayload(this.denseReader);
+                this.token = Token.CHARACTER;
+                break;
+            case DenseCodec.CONST_TYPE_SHORT:
+                this.longValue = DenseCodec.readShortPayload(this.denseReader);
+                this.token = Token.SHORT;
+                break;
+            case DenseCodec.CONST_TYPE_INTEGER:
+                this.longValue = DenseCodec.readIntegerPayload(this.denseReader);
+                this.token = Token.INTEGER;
+                break;
+            case DenseCodec.CONST_TYPE_FLOAT:
+                this.doubleValue = this.denseReader.readFloat();
+                this.token = Token.FLOAT;
+                break;
+            case DenseCodec.CONST_TYPE_LONG:
+                this.longValue = DenseCodec.readLongPayload(this.denseReader);
+                this.token = Token.LONG;
+                break;
+            case DenseCodec.CONST_TYPE_DOUBLE:
+                this.doubleValue = this.denseReader.readDouble();
+                this.token = Token.DOUBLE;
+                break;
+            case DenseCodec.CONST_TYPE_NULL:
+                this.token = Token.NULL;
+                break;
+            case DenseCodec.CONST_TYPE_STRING:
+                this.stringLength = this.denseReader.readLength();
+                this.stringRead = false;
+                this.stringValue = null;
+                this.token = Token.STRING;
+                break;
+            case DenseCodec.CONST_TYPE_STRING_DEFINITION:
+                this.stringLength = this.denseReader.readLength();
+                this.stringRead = false;
+                this.token = Token.STRING;
+
+                // Defined string is read eagerly, it may be referenced later
+                this.stringTable.add(this.getString());
+                break;
+            case DenseCodec.CONST_TYPE_STRING_REFERENCE:
+                int index = this.denseReader.readLength();
+
+                if (index < 0 || index >= this.stringTable.size()) {
+                    throw new IOException(index + " is not defined string index in dense data. (" + this.stringTable.size() + " strings defined)");
+                }
+
+                this.stringValue = this.stringTable.get(index);
+                this.stringRead = true;
+                this.token = Token.STRING;
+                break;
+            default:
+                if (DenseCodec.isSmallIntegerBlock(b)) {
+                    this.longValue = DenseCodec.getSmallValue(b);
+                    this.token = Token.INTEGER;
+                } else if (DenseCodec.isSmallLongBlock(b)) {
+                    this.longValue = DenseCodec.getSmallValue(b);
+                    this.token = Token.LONG;
+                } else {
+                    throw new IOException(b + " is not registered block header binary in dense codec. (unknown block header)");
+                }
+        }
+
+        return this.token;
+    }
+
+    /**
+     * Skips the children of the current token, if the current token is {@link Token#START_OBJECT START_OBJECT} or {@link Token#START_ARRAY START_ARRAY}.
+     * After skipping, the current token is the matching end token.
+     *
+     * @throws IOException if an I/O error occurs; if unknown block header is parsed
+     */
+    public void skipChildren() throws IOException {
+        if (this.token != Token.START_OBJECT && this.token != Token.START_ARRAY) {
+            return;
+        }
+
+        int targetDepth = this.depth - 1;
+
+        while (this.depth != targetDepth) {
+            this.next();
+        }
+    }
+
+    /**
+     * Reads the elements of the current {@link Token#NATIVE_ARRAY NATIVE_ARRAY} into the range of the array.
+     * The array must be the primitive or wrapper array whose component type is {@link #getNativeComponentType() getNativeComponentType}.
+     *
+     * @param array  the array to fill
+     * @param offset the start offset in the array
+     * @param length the maximum number of elements to read
+     * @return the number of elements read, or -1 if all elements of native array have been read
+     * @throws IOException           if an I/O error occurs
+     * @throws IllegalStateException if the current token is not native array
+     * @throws ClassCastException    if the type of array does not match the native array
+     */
+    public int readNativeArray(@NotNull Object array, int offset, int length) throws IOException {
+        this.checkToken(Token.NATIVE_ARRAY);
+
+        if (this.nativeRemaining == 0) {
+            return -1;
+        }
+
+        int count = Math.min(length, this.nativeRemaining);
+
+        DenseCodec.readNativeArrayElements(this.denseReader, this.nativeType, array, offset, count);
+        this.nativeRemaining -= count;
+
+        return count;
+    }
+
+    /**
+     * Returns the component type of the current {@link Token#NATIVE_ARRAY NATIVE_ARRAY}, primitive or wrapper type.
+     *
+     * @return the component type
+     * @throws IllegalStateException if the current token is not native array
+     */
+    public Class<?> getNativeComponentType() {
+        this.checkToken(Token.NATIVE_ARRAY);
+
+        return DenseCodec.getNativeComponentType(this.nativeType);
+    }
+
+    /**
+     * Returns the value of the current {@link Token#BOOLEAN BOOLEAN} token.
+     *
+     * @return the boolean
+     * @throws IllegalStateException if the current token is not boolean
+     */
+    public boolean getBoolean() {
+        this.checkToken(Token.BOOLEAN);
+
+        return this.longValue == 1;
+    }
+
+    /**
+     * Returns the value of the current {@link Token#BYTE BYTE} token.
+     *
+     * @return the byte
+     * @throws IllegalStateException if the current token is not byte
+     */
+    public byte getByte() {
+        this.checkToken(Token.BYTE);
+
+        return (byte) this.longValue;
+    }
+
+    /**
+     * Returns the value of the current {@link Token#CHARACTER CHARACTER} token.
+     *
+     * @return the character
+     * @throws IllegalStateException if the current token is not character
+     */
+    public char getChar() {
+        this.checkToken(Token.CHARACTER);
+
+        return (char) this.longValue;
+    }
+
+    /**
+     * Returns the value of the current {@link Token#BYTE BYTE} or {@link Token#SHORT SHORT} token.
+     *
+     * @return the short
+     * @throws IllegalStateException if the current token is not convertible to short
+     */
+    public short getShort() {
+        this.checkToken(Token.BYTE, Token.SHORT);
+
+        return (short) this.longValue;
+    }
+
+    /**
+     * Returns the value of the current integral token, except {@link Token#LONG LONG}.
+     *
+     * @return the int
+     * @throws IllegalStateException if the current token is not convertible to int
+     */
+    public int getInt() {
+        this.checkToken(Token.BYTE, Token.CHARACTER, Token.SHORT, Token.INTEGER);
+
+        return (int) this.longValue;
+    }
+
+    /**
+     * Returns the value of the current integral token.
+     *
+     * @return the long
+     * @throws IllegalStateException if the current token is not integral
+     */
+    public long getLong() {
+        this.checkToken(Token.BYTE, Token.CHARACTER, Token.SHORT, Token.INTEGER, Token.LONG);
+
+        return this.longValue;
+    }
+
+    /**
+     * Returns the value of the current {@link Token#FLOAT FLOAT} token.
+     *
+     * @return the float
+     * @throws IllegalStateException if the current token is not float
+     */
+    public float getFloat() {
+        this.checkToken(Token.FLOAT);
+
+        return (float) this.doubleValue;
+    }
+
+    /**
+     * Returns the value of the current {@link Token#FLOAT FLOAT} or {@link Token#DOUBLE DOUBLE} token.
+     *
+     * @return the double
+     * @throws IllegalStateException if the current token is not floating point
+     */
+    public double getDouble() {
+        this.checkToken(Token.FLOAT, Token.DOUBLE);
+
+        return this.doubleValue;
+    }
+
+    /**
+     * Returns the value of the current {@link Token#STRING STRING} token.
+     * The string bytes are read only when this method is called, otherwise they are skipped.
+     *
+     * @return the string
+     * @throws IOException           if an I/O error occurs
+     * @throws IllegalStateException if the current token is not string
+     */
+    public String getString() throws IOException {
+        this.checkToken(Token.STRING);
+
+        if (!this.stringRead) {
+            if (this.stringBuffer.length < this.stringLength) {
+                this.stringBuffer = new byte[Math.max(this.stringLength, this.stringBuffer.length * 2)];
+            }
+
+            this.denseReader.readBytes(this.stringBuffer, 0, this.stringLength);
+            this.stringValue = new String(this.stringBuffer, 0, this.stringLength, StandardCharsets.UTF_8);
+            this.stringRead = true;
+        }
+
+        return this.stringValue;
+    }
+
+    /**
+     * Returns the value of the current literal token as boxed object, in the same type as {@link DenseCodec DenseCodec} decodes.
+     *
+     * @return the literal value, or null for {@link Token#NULL NULL}
+     * @throws IOException           if an I/O error occurs
+     * @throws IllegalStateException if the current token is not literal
+     */
+    public Object getValue() throws IOException {
+        if (this.token == null) {
+            throw new IllegalStateException("Current token is null, not a literal.");
+        }
+
+        switch (this.token) {
+            case BOOLEAN:
+                return this.getBoolean();
+            case BYTE:
+                return this.getByte();
+            case CHARACTER:
+                return this.getChar();
+            case SHORT:
+                return this.getShort();
+            case INTEGER:
+                return this.getInt();
+            case FLOAT:
+                return this.getFloat();
+            case LONG:
+                return this.getLong();
+            case DOUBLE:
+                return this.getDouble();
+            case STRING:
+                return this.getString();
+            case NULL:
+                return null;
+            default:
+                throw new IllegalStateException("Current token is " + this.token + ", not a literal.");
+        }
+    }
+
+    /**
+     * Reads the keys of schema definition or schema object block, after the block header.
+     *
+     * @param b the block header already read
+     * @return the keys in encoded order
+     * @throws IOException if an I/O error occurs; if the schema is not defined; if the key of schema is not string
+     */
+    private String[] readSchema(byte b) throws IOException {
+        if (b == DenseCodec.CONST_TYPE_SCHEMA_OBJECT) {
+            int index = this.denseReader.readLength();
+
+            if (index < 0 || index >= this.schemaTable.size()) {
+                throw new IOException(index + " is not defined schema index in dense data. (" + this.schemaTable.size() + " schemas defined)");
+            }
+
+            return this.schemaTable.get(index);
+        }
+
+        String[] keys = new String[this.denseReader.readLength()];
+
+        for (int index = 0; index < keys.length; index++) {
+            byte keyHeader = (byte) this.denseReader.readByte();
+
+            if (keyHeader == DenseCodec.CONST_TYPE_STRING_REFERENCE) {
+                int stringIndex = this.denseReader.readLength();
+
+                if (stringIndex < 0 || stringIndex >= this.stringTable.size()) {
+                    throw new IOException(stringIndex + " is not defined string index in dense data. (" + this.stringTable.size() + " strings defined)");
+                }
+
+                keys[index] = this.stringTable.get(stringIndex);
+            } else if (keyHeader == DenseCodec.CONST_TYPE_STRING || keyHeader == DenseCodec.CONST_TYPE_STRING_DEFINITION) {
+                byte[] bytes = new byte[this.denseReader.readLength()];
+
+                this.denseReader.readBytes(bytes);
+                keys[index] = new String(bytes, StandardCharsets.UTF_8);
+
+                if (keyHeader == DenseCodec.CONST_TYPE_STRING_DEFINITION) {
+                    this.stringTable.add(keys[index]);
+                }
+            } else {
+                throw new IOException(keyHeader + " is not string block header, the key of schema must be string.");
+            }
+        }
+
+        this.schemaTable.add(keys);
+
+        return keys;
+    }
+
+    /**
+     * Pushes the context of object or array.
+     *
+     * @param remaining  the number of values in the object or array
+     * @param object     true if the context is object
+     * @param schemaKeys the keys of schema object, or null if the keys are in the data
+     */
+    private void push(long remaining, boolean object, String[] schemaKeys) {
+        if (this.depth == this.remainingStack.length) {
+            this.remainingStack = Arrays.copyOf(this.remainingStack, this.depth * 2);
+            this.objectStack = Arrays.copyOf(this.objectStack, this.depth * 2);
+            this.schemaStack = Arrays.copyOf(this.schemaStack, this.depth * 2);
+        }
+
+        this.remainingStack[this.depth] = remaining;
+        this.objectStack[this.depth] = object;
+        this.schemaStack[this.depth] = schemaKeys;
+        this.depth++;
+    }
+
+    /**
+     * Skips the unread bytes of the current string or native array.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    private void skipPending() throws IOException {
+        if (this.token == Token.STRING && !this.stringRead) {
+            this.denseReader.skipBytes(this.stringLength);
+            this.stringRead = true;
+        } else if (this.token == Token.NATIVE_ARRAY && this.nativeRemaining > 0) {
+            int elementSize = DenseCodec.getNativeElementSize(this.nativeType);
+
+            if (DenseCodec.isWrapperNativeType(this.nativeType)) {
+                for (int index = 0; index < this.nativeRemaining; index++) {
+                    boolean nullFlag = this.denseReader.readByte() == 1;
+
+                    if (nullFlag) {
+                        this.denseReader.skipBytes(elementSize);
+                    }
+                }
+            } else {
+                this.denseReader.skipBytes((long) this.nativeRemaining * elementSize);
+            }
+
+            this.nativeRemaining = 0;
+        }
+    }
+
+    /**
+     * Checks that the current token is one of the expected tokens.
+     *
+     * @param expectedTokens the expected tokens
+     * @throws IllegalStateException if the current token is not expected
+     */
+    private void checkToken(Token... expectedTokens) {
+        for (Token expectedToken : expectedTokens) {
+            if (this.token == expectedToken) {
+                return;
+            }
+        }
+
+        throw new IllegalStateException("Current token is " + this.token + ", not a value of that type.");
+    }
+
+    /**
+     * Closes the input stream of this reader.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public void close() throws IOException {
+        if (this.inputStream != null) {
+            this.inputStream.close();
+        }
+    }
+}
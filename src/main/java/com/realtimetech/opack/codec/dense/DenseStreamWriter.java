@@ -0,0 +1,405 @@
+/*
+ * Copyright (C) 2021 REALTIMETECH All Rights Reserved
+ *
+ * Licensed either under the Apache License, Version 2.0, or (at your option)
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (subject to the "Classpath" exception),
+ * either version 2, or any later version (collectively, the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     http://www.gnu.org/licenses/
+ *     http://www.gnu.org/software/classpath/license.html
+ *
+ * or as provided in the LICENSE file that accompanied this code.
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.realtimetech.opack.codec.dense;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Streaming writer that writes dense format data value by value, without building {@link com.realtimetech.opack.value.OpackValue OpackValue} tree.
+ * The sizes of objects and arrays are declared when they start, and they are closed automatically when all of their values are written.
+ * The entries of object are written as key and value pairs, and native arrays are written in chunks through {@link #writeNativeArray(Object, int, int) writeNativeArray}.
+ * This writer is not thread-safe.
+ */
+public final class DenseStreamWriter implements Flushable, Closeable {
+    private final OutputStream outputStream;
+    private final DenseWriter denseWriter;
+
+    private long[] remainingStack;
+    private int depth;
+    private boolean rootWritten;
+
+    private byte nativeType;
+    private int nativeRemaining;
+
+    /**
+     * Constructs the DenseStreamWriter that writes to the output stream through the internal buffer, and writes the dense header.
+     *
+     * @param outputStream the output stream to write
+     * @throws IOException if an I/O error occurs
+     */
+    public DenseStreamWriter(@NotNull OutputStream outputStream) throws IOException {
+        this(outputStream, new DenseWriter(outputStream));
+    }
+
+    /**
+     * Constructs the DenseStreamWriter that writes directly to the heap or direct byte buffer from its current position, and writes the dense header.
+     * The position of the byte buffer itself is not changed, see {@link #getPosition() getPosition}.
+     *
+     * @param byteBuffer the byte buffer to write
+     * @throws IOException                      if an I/O error occurs
+     * @throws java.nio.BufferOverflowException if the byte buffer is full
+     */
+    public DenseStreamWriter(@NotNull ByteBuffer byteBuffer) throws IOException {
+        this(null, new DenseWriter(byteBuffer));
+    }
+
+    /**
+     * Constructs the DenseStreamWriter with the dense writer, and writes the dense header.
+     *
+     * @param outputStream the output stream to close, or null
+     * @param denseWriter  the dense writer to write
+     * @throws IOException if an I/O error occurs
+     */
+    private DenseStreamWriter(OutputStream outputStream, DenseWriter denseWriter) throws IOException {
+        this.outputStream = outputStream;
+        this.denseWriter = denseWriter;
+
+        this.remainingStack = new long[16];
+        this.depth = 0;
+        this.rootWritten = false;
+
+        DenseCodec.writeHeader(this.denseWriter, DenseCodec.CONST_DENSE_CODEC_VERSION);
+    }
+
+    /**
+     * Returns the current position in the byte buffer written, only meaningful when writing to the byte buffer.
+     *
+     * @return the position
+     */
+    public int getPosition() {
+        return this.denseWriter.getPosition();
+    }
+
+    /**
+     * Returns whether the root value is written entirely.
+     *
+     * @return true if the root value is written entirely
+     */
+    public boolean isComplete() {
+        return this.rootWritten && this.depth == 0 && this.nativeRemaining == 0;
+    }
+
+    /**
+     * Starts the object that has the number of entries.
+     * The next {@code size * 2} values are written as key and value pairs of the object.
+     *
+     * @param size the number of entries
+     * @throws IOException           if an I/O error occurs
+     * @throws IllegalStateException if there is no place to write a value
+     */
+    public void startObject(int size) throws IOException {
+        this.beforeValue();
+
+        this.denseWriter.writeByte(DenseCodec.CONST_TYPE_OPACK_OBJECT);
+        this.denseWriter.writeLength(size);
+
+        this.push(2L * size);
+    }
+
+    /**
+     * Starts the array that has the length.
+     * The next {@code length} values are written as elements of the array.
+     *
+     * @param length the length of array
+     * @throws IOException           if an I/O error occurs
+     * @throws IllegalStateException if there is no place to write a value
+     */
+    public void startArray(int length) throws IOException {
+        this.beforeValue();
+
+        this.denseWriter.writeByte(DenseCodec.CONST_TYPE_OPACK_ARRAY);
+        this.denseWriter.writeLength(length);
+        this.denseWriter.writeByte(DenseCodec.CONST_NO_NATIVE_ARRAY);
+
+        this.push(length);
+    }
+
+    /**
+     * Starts the native array of primitive or wrapper component type.
+     * The elements must be written through {@link #writeNativeArray(Object, int, int) writeNativeArray} before the next value.
+     *
+     * @param componentType the primitive or wrapper component type
+     * @param length        the length of array
+     * @throws IOException              if an I/O error occurs
+     * @throws IllegalStateException    if there is no place to write a value
+     * @throws IllegalArgumentException if the component type is not primitive or wrapper type
+     */
+    public void startNativeArray(@NotNull Class<?> componentType, int length) throws IOException {
+        byte nativeType = DenseCodec.getNativeType(componentType);
+
+        if (nativeType == DenseCodec.CONST_NO_NATIVE_ARRAY) {
+            throw new IllegalArgumentException(componentType + " is not primitive or wrapper type.");
+        }
+
+        this.beforeValue();
+
+        this.denseWriter.writeByte(DenseCodec.CONST_TYPE_OPACK_ARRAY);
+        this.denseWriter.writeLength(length);
+        this.denseWriter.writeByte(nativeType);
+
+        this.nativeType = nativeType;
+        this.nativeRemaining = length;
+        this.afterValue();
+    }
+
+    /**
+     * Writes the range of the array as elements of the current native array.
+     *
+     * @param array  the primitive or wrapper array, whose component type matches the native array
+     * @param offset the start offset in the array
+     * @param length the number of elements to write
+     * @throws IOException           if an I/O error occurs
+     * @throws IllegalStateException if the elements exceed the length of native array
+     * @throws ClassCastException    if the type of array does not match the native array
+     */
+    public void writeNativeArray(@NotNull Object array, int offset, int length) throws IOException {
+        if (length > this.nativeRemaining) {
+            throw new IllegalStateException("Native array has " + this.nativeRemaining + " elements left, but got " + length + " elements.");
+        }
+
+        DenseCodec.writeNativeArrayElements(this.denseWriter, this.nativeType, array, offset, length);
+        this.nativeRemaining -= length;
+    }
+
+    /**
+     * Writes null.
+     *
+     * @throws IOException           if an I/O error occurs
+     * @throws IllegalStateException if there is no place to write a value
+     */
+    public void writeNull() throws IOException {
+        this.beforeValue();
+        this.denseWriter.writeByte(DenseCodec.CONST_TYPE_NULL);
+        this.afterValue();
+    }
+
+    /**
+     * Writes the boolean value.
+     *
+     * @param value the boolean value to write
+     * @throws IOException           if an I/O error occurs
+     * @throws IllegalStateException if there is no place to write a value
+     */
+    public void writeBoolean(boolean value) throws IOException {
+        this.beforeValue();
+        DenseCodec.writeBooleanBlock(this.denseWriter, value);
+        this.afterValue();
+    }
+
+    /**
+     * Writes the byte value.
+     *
+     * @param value the byte value to write
+     * @throws IOException           if an I/O error occurs
+     * @throws IllegalStateException if there is no place to write a value
+     */
+    public void writeByte(byte value) throws IOException {
+        this.beforeValue();
+        this.denseWriter.writeByte(DenseCodec.CONST_TYPE_BYTE);
+        this.denseWriter.writeByte(value);
+        this.afterValue();
+    }
+
+    /**
+     * Writes the character value.
+     *
+     * @param value the character value to write
+     * @throws IOException           if an I/O error occurs
+     * @throws IllegalStateException if there is no place to write a value
+     */
+    public void writeChar(char value) throws IOException {
+        this.beforeValue();
+        DenseCodec.writeCharacterBlock(this.denseWriter, value);
+        this.afterValue();
+    }
+
+    /**
+     * Writes the short value.
+     *
+     * @param value the short value to write
+     * @throws IOException           if an I/O error occurs
+     * @throws IllegalStateException if there is no place to write a value
+     */
+    public void writeShort(short value) throws IOException {
+        this.beforeValue();
+        DenseCodec.writeShortBlock(this.denseWriter, value);
+        this.afterValue();
+    }
+
+    /**
+     * Writes the int value.
+     *
+     * @param value the int value to write
+     * @throws IOException           if an I/O error occurs
+     * @throws IllegalStateException if there is no place to write a value
+     */
+    public void writeInt(int value) throws IOException {
+        this.beforeValue();
+        DenseCodec.writeIntegerBlock(this.denseWriter, value);
+        this.afterValue();
+    }
+
+    /**
+     * Writes the float value.
+     *
+     * @param value the float value to write
+     * @throws IOException           if an I/O error occurs
+     * @throws IllegalStateException if there is no place to write a value
+     */
+    public void writeFloat(float value) throws IOException {
+        this.beforeValue();
+        this.denseWriter.writeByte(DenseCodec.CONST_TYPE_FLOAT);
+        this.denseWriter.writeFloat(value);
+        this.afterValue();
+    }
+
+    /**
+     * Writes the long value.
+     *
+     * @param value the long value to write
+     * @throws IOException           if an I/O error occurs
+     * @throws IllegalStateException if there is no place to write a value
+     */
+    public void writeLong(long value) throws IOException {
+        this.beforeValue();
+        DenseCodec.writeLongBlock(this.denseWriter, value);
+        this.afterValue();
+    }
+
+    /**
+     * Writes the double value.
+     *
+     * @param value the double value to write
+     * @throws IOException           if an I/O error occurs
+     * @throws IllegalStateException if there is no place to write a value
+     */
+    public void writeDouble(double value) throws IOException {
+        this.beforeValue();
+        this.denseWriter.writeByte(DenseCodec.CONST_TYPE_DOUBLE);
+        this.denseWriter.writeDouble(value);
+        this.afterValue();
+    }
+
+    /**
+     * Writes the string value, encoded in UTF-8.
+     *
+     * @param value the string value to write
+     * @throws IOException           if an I/O error occurs
+     * @throws IllegalStateException if there is no place to write a value
+     */
+    public void writeString(@NotNull String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+
+        this.beforeValue();
+        DenseCodec.writeStringBlock(this.denseWriter, bytes);
+        this.afterValue();
+    }
+
+    /**
+     * Counts the object or array as a value of its parent, and pushes its context if it is not empty.
+     *
+     * @param remaining the number of values in the object or array
+     */
+    private void push(long remaining) {
+        this.afterValue();
+
+        if (remaining == 0) {
+            return;
+        }
+
+        if (this.depth == this.remainingStack.length) {
+            this.remainingStack = Arrays.copyOf(this.remainingStack, this.depth * 2);
+        }
+
+        this.remainingStack[this.depth] = remaining;
+        this.depth++;
+    }
+
+    /**
+     * Checks that there is a place to write a value.
+     *
+     * @throws IllegalStateException if the current native array is not completed; if the root value is already written
+     */
+    private void beforeValue() {
+        if (this.nativeRemaining > 0) {
+            throw new IllegalStateException("Native array has " + this.nativeRemaining + " elements left to write.");
+        }
+
+        if (this.depth == 0 && this.rootWritten) {
+            throw new IllegalStateException("Root value is already written.");
+        }
+    }
+
+    /**
+     * Counts the value written, and closes the objects and arrays whose values are all written.
+     */
+    private void afterValue() {
+        this.rootWritten = true;
+
+        if (this.depth > 0) {
+            this.remainingStack[this.depth - 1]--;
+        }
+
+        while (this.depth > 0 && this.remainingStack[this.depth - 1] == 0) {
+            this.depth--;
+        }
+    }
+
+    /**
+     * Flushes the buffered data to the output stream.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public void flush() throws IOException {
+        this.denseWriter.flush();
+    }
+
+    /**
+     * Flushes the buffered data and closes the output stream.
+     *
+     * @throws IOException if an I/O error occurs; if the root value is not written entirely
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            this.flush();
+        } finally {
+            if (this.outputStream != null) {
+                this.outputStream.close();
+            }
+        }
+
+        if (!this.isComplete()) {
+            throw new IOException("Dense data is not complete, " + this.depth + " objects or arrays are not filled.");
+        }
+    }
+}
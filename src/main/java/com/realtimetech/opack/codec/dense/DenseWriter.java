@@ -24,17 +24,111 @@ package com.realtimetech.opack.codec.dense;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 
 class DenseWriter {
+    private static final int DEFAULT_BUFFER_SIZE = 8192;
+
     private final OutputStream outputStream;
 
+    private final ByteBuffer byteBuffer;
+
+    private boolean compact;
+
     /**
-     * Constructs a DenseWriter.
+     * Constructs a DenseWriter that writes to the output stream.
+     * The written data is kept in the internal buffer until {@link #flush() flush} is called.
      *
      * @param outputStream an outputStream
      */
     public DenseWriter(OutputStream outputStream) {
         this.outputStream = outputStream;
+        this.byteBuffer = ByteBuffer.allocate(DEFAULT_BUFFER_SIZE).order(ByteOrder.BIG_ENDIAN);
+    }
+
+    /**
+     * Constructs a DenseWriter that writes directly into the byte buffer, from its current position up to its limit.
+     * The position of the byte buffer itself is not changed, see {@link #getPosition() getPosition}.
+     *
+     * @param byteBuffer the heap or direct byte buffer to write into
+     */
+    public DenseWriter(ByteBuffer byteBuffer) {
+        this.outputStream = null;
+        this.byteBuffer = byteBuffer.duplicate().order(ByteOrder.BIG_ENDIAN);
+    }
+
+    /**
+     * Returns the current position in the byte buffer written into.
+     *
+     * @return the position
+     */
+    public int getPosition() {
+        return this.byteBuffer.position();
+    }
+
+    /**
+     * Returns whether this writer writes lengths and integral values in compact variable-length form. (dense format version 2)
+     *
+     * @return true if this writer is compact
+     */
+    public boolean isCompact() {
+        return this.compact;
+    }
+
+    /**
+     * Sets whether this writer writes lengths and integral values in compact variable-length form. (dense format version 2)
+     *
+     * @param compact true if this writer is compact
+     */
+    public void setCompact(boolean compact) {
+        this.compact = compact;
+    }
+
+    /**
+     * Makes sure that the buffer has space for the required number of bytes, flushing it if needed.
+     *
+     * @param required the number of bytes required, must not be larger than the buffer
+     * @throws IOException             if an I/O error occurs; if the output stream has been closed.
+     * @throws BufferOverflowException if the byte buffer written into has not enough space
+     */
+    private void require(int required) throws IOException {
+        if (this.byteBuffer.remaining() < required) {
+            if (this.outputStream == null) {
+                throw new BufferOverflowException();
+            }
+
+            this.flush();
+        }
+    }
+
+    /**
+     * Returns the number of elements that can be encoded to the buffer at once, flushing it if needed.
+     *
+     * @param remaining the number of elements remaining
+     * @param size      the byte size of element
+     * @return the number of elements to encode
+     * @throws IOException             if an I/O error occurs; if the output stream has been closed.
+     * @throws BufferOverflowException if the byte buffer written into has not enough space
+     */
+    private int requireElements(int remaining, int size) throws IOException {
+        this.require(size);
+
+        return Math.min(remaining, this.byteBuffer.remaining() / size);
+    }
+
+    /**
+     * Writes the buffered data to the output stream.
+     * Does nothing if this writer writes directly into the byte buffer.
+     *
+     * @throws IOException if an I/O error occurs; if the output stream has been closed.
+     */
+    public void flush() throws IOException {
+        if (this.outputStream != null && this.byteBuffer.position() > 0) {
+            this.outputStream.write(this.byteBuffer.array(), 0, this.byteBuffer.position());
+            this.byteBuffer.clear();
+        }
     }
 
     /**
@@ -44,7 +138,9 @@ class DenseWriter {
      * @throws IOException if an I/O error occurs; if the output stream has been closed.
      */
     public void writeByte(int value) throws IOException {
-        this.outputStream.write(value);
+        this.require(1);
+
+        this.byteBuffer.put((byte) value);
     }
 
     /**
@@ -54,8 +150,9 @@ class DenseWriter {
      * @throws IOException if an I/O error occurs; if the output stream has been closed.
      */
     public void writeChar(char value) throws IOException {
-        this.outputStream.write((byte) ((value >> 8) & 0xff));
-        this.outputStream.write((byte) ((value >> 0) & 0xff));
+        this.require(2);
+
+        this.byteBuffer.putChar(value);
     }
 
     /**
@@ -65,8 +162,9 @@ class DenseWriter {
      * @throws IOException if an I/O error occurs; if the output stream has been closed.
      */
     public void writeShort(short value) throws IOException {
-        this.outputStream.write((byte) ((value >> 8) & 0xff));
-        this.outputStream.write((byte) ((value >> 0) & 0xff));
+        this.require(2);
+
+        this.byteBuffer.putShort(value);
     }
 
     /**
@@ -76,10 +174,57 @@ class DenseWriter {
      * @throws IOException if an I/O error occurs; if the output stream has been closed.
      */
     public void writeInt(int value) throws IOException {
-        this.outputStream.write((byte) ((value >> 24) & 0xff));
-        this.outputStream.write((byte) ((value >> 16) & 0xff));
-        this.outputStream.write((byte) ((value >> 8) & 0xff));
-        this.outputStream.write((byte) ((value >> 0) & 0xff));
+        this.require(4);
+
+        this.byteBuffer.putInt(value);
+    }
+
+    /**
+     * Writes the specified int as unsigned LEB128 variable-length int, 1 to 5 bytes.
+     *
+     * @param value the int
+     * @throws IOException if an I/O error occurs; if the output stream has been closed.
+     */
+    public void writeVarInt(int value) throws IOException {
+        this.require(5);
+
+        while ((value & ~0x7F) != 0) {
+            this.byteBuffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+
+        this.byteBuffer.put((byte) value);
+    }
+
+    /**
+     * Writes the specified long as unsigned LEB128 variable-length long, 1 to 10 bytes.
+     *
+     * @param value the long
+     * @throws IOException if an I/O error occurs; if the output stream has been closed.
+     */
+    public void writeVarLong(long value) throws IOException {
+        this.require(10);
+
+        while ((value & ~0x7FL) != 0) {
+            this.byteBuffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+
+        this.byteBuffer.put((byte) value);
+    }
+
+    /**
+     * Writes the length of string, object or array, as variable-length int if this writer is compact, otherwise as int.
+     *
+     * @param length the length
+     * @throws IOException if an I/O error occurs; if the output stream has been closed.
+     */
+    public void writeLength(int length) throws IOException {
+        if (this.compact) {
+            this.writeVarInt(length);
+        } else {
+            this.writeInt(length);
+        }
     }
 
     /**
@@ -89,7 +234,9 @@ class DenseWriter {
      * @throws IOException if an I/O error occurs; if the output stream has been closed.
      */
     public void writeFloat(float value) throws IOException {
-        this.writeInt(Float.floatToRawIntBits(value));
+        this.require(4);
+
+        this.byteBuffer.putFloat(value);
     }
 
     /**
@@ -99,14 +246,9 @@ class DenseWriter {
      * @throws IOException if an I/O error occurs; if the output stream has been closed.
      */
     public void writeLong(long value) throws IOException {
-        this.outputStream.write((byte) ((value >> 56) & 0xff));
-        this.outputStream.write((byte) ((value >> 48) & 0xff));
-        this.outputStream.write((byte) ((value >> 40) & 0xff));
-        this.outputStream.write((byte) ((value >> 32) & 0xff));
-        this.outputStream.write((byte) ((value >> 24) & 0xff));
-        this.outputStream.write((byte) ((value >> 16) & 0xff));
-        this.outputStream.write((byte) ((value >> 8) & 0xff));
-        this.outputStream.write((byte) ((value >> 0) & 0xff));
+        this.require(8);
+
+        this.byteBuffer.putLong(value);
     }
 
     /**
@@ -116,7 +258,9 @@ class DenseWriter {
      * @throws IOException if an I/O error occurs; if the output stream has been closed.
      */
     public void writeDouble(double value) throws IOException {
-        this.writeLong(Double.doubleToRawLongBits(value));
+        this.require(8);
+
+        this.byteBuffer.putDouble(value);
     }
 
     /**
@@ -126,6 +270,253 @@ class DenseWriter {
      * @throws IOException if an I/O error occurs; if the output stream has been closed.
      */
     public void writeBytes(byte[] bytes) throws IOException {
-        this.outputStream.write(bytes);
+        this.writeBytes(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Writes the specified bytes to this output stream.
+     *
+     * @param bytes  the byte array to write
+     * @param offset the start offset in the byte array
+     * @param length the number of bytes to write
+     * @throws IOException if an I/O error occurs; if the output stream has been closed.
+     */
+    public void writeBytes(byte[] bytes, int offset, int length) throws IOException {
+        if (this.byteBuffer.remaining() < length && this.outputStream != null) {
+            this.flush();
+
+            /*
+                Write big bytes directly, bypass the buffer
+             */
+            if (length >= this.byteBuffer.capacity()) {
+                this.outputStream.write(bytes, offset, length);
+                return;
+            }
+        }
+
+        this.byteBuffer.put(bytes, offset, length);
+    }
+
+    /**
+     * Writes the specified booleans to this output stream, one byte per boolean.
+     *
+     * @param array the boolean array to write
+     * @throws IOException if an I/O error occurs; if the output stream has been closed.
+     */
+    public void writeBooleans(boolean[] array) throws IOException {
+        this.writeBooleans(array, 0, array.length);
+    }
+
+    /**
+     * Writes the range of the specified booleans to this output stream, one byte per boolean.
+     *
+     * @param array  the boolean array to write
+     * @param offset the start offset in the array
+     * @param length the number of elements to write
+     * @throws IOException if an I/O error occurs; if the output stream has been closed.
+     */
+    public void writeBooleans(boolean[] array, int offset, int length) throws IOException {
+        int index = offset;
+        int end = offset + length;
+
+        while (index < end) {
+            int count = this.requireElements(end - index, 1);
+
+            for (int chunkEnd = index + count; index < chunkEnd; index++) {
+                this.byteBuffer.put((byte) (array[index] ? 1 : 0));
+            }
+        }
+    }
+
+    /**
+     * Writes the specified characters to this output stream through the big-endian view of the buffer.
+     *
+     * @param array the character array to write
+     * @throws IOException if an I/O error occurs; if the output stream has been closed.
+     */
+    public void writeChars(char[] array) throws IOException {
+        this.writeChars(array, 0, array.length);
+    }
+
+    /**
+     * Writes the range of the specified characters to this output stream through the big-endian view of the buffer.
+     *
+     * @param array  the character array to write
+     * @param offset the start offset in the array
+     * @param length the number of elements to write
+     * @throws IOException if an I/O error occurs; if the output stream has been closed.
+     */
+    public void writeChars(char[] array, int offset, int length) throws IOException {
+        int index = offset;
+        int end = offset + length;
+
+        while (index < end) {
+            int count = this.requireElements(end - index, 2);
+
+            this.byteBuffer.asCharBuffer().put(array, index, count);
+            this.byteBuffer.position(this.byteBuffer.position() + count * 2);
+
+            index += count;
+        }
+    }
+
+    /**
+     * Writes the specified shorts to this output stream through the big-endian view of the buffer.
+     *
+     * @param array the short array to write
+     * @throws IOException if an I/O error occurs; if the output stream has been closed.
+     */
+    public void writeShorts(short[] array) throws IOException {
+        this.writeShorts(array, 0, array.length);
+    }
+
+    /**
+     * Writes the range of the specified shorts to this output stream through the big-endian view of the buffer.
+     *
+     * @param array  the short array to write
+     * @param offset the start offset in the array
+     * @param length the number of elements to write
+     * @throws IOException if an I/O error occurs; if the output stream has been closed.
+     */
+    public void writeShorts(short[] array, int offset, int length) throws IOException {
+        int index = offset;
+        int end = offset + length;
+
+        while (index < end) {
+            int count = this.requireElements(end - index, 2);
+
+            this.byteBuffer.asShortBuffer().put(array, index, count);
+            this.byteBuffer.position(this.byteBuffer.position() + count * 2);
+
+            index += count;
+        }
+    }
+
+    /**
+     * Writes the specified ints to this output stream through the big-endian view of the buffer.
+     *
+     * @param array the int array to write
+     * @throws IOException if an I/O error occurs; if the output stream has been closed.
+     */
+    public void writeInts(int[] array) throws IOException {
+        this.writeInts(array, 0, array.length);
+    }
+
+    /**
+     * Writes the range of the specified ints to this output stream through the big-endian view of the buffer.
+     *
+     * @param array  the int array to write
+     * @param offset the start offset in the array
+     * @param length the number of elements to write
+     * @throws IOException if an I/O error occurs; if the output stream has been closed.
+     */
+    public void writeInts(int[] array, int offset, int length) throws IOException {
+        int index = offset;
+        int end = offset + length;
+
+        while (index < end) {
+            int count = this.requireElements(end - index, 4);
+
+            this.byteBuffer.asIntBuffer().put(array, index, count);
+            this.byteBuffer.position(this.byteBuffer.position() + count * 4);
+
+            index += count;
+        }
+    }
+
+    /**
+     * Writes the specified floats to this output stream through the big-endian view of the buffer.
+     *
+     * @param array the float array to write
+     * @throws IOException if an I/O error occurs; if the output stream has been closed.
+     */
+    public void writeFloats(float[] array) throws IOException {
+        this.writeFloats(array, 0, array.length);
+    }
+
+    /**
+     * Writes the range of the specified floats to this output stream through the big-endian view of the buffer.
+     *
+     * @param array  the float array to write
+     * @param offset the start offset in the array
+     * @param length the number of elements to write
+     * @throws IOException if an I/O error occurs; if the output stream has been closed.
+     */
+    public void writeFloats(float[] array, int offset, int length) throws IOException {
+        int index = offset;
+        int end = offset + length;
+
+        while (index < end) {
+            int count = this.requireElements(end - index, 4);
+
+            this.byteBuffer.asFloatBuffer().put(array, index, count);
+            this.byteBuffer.position(this.byteBuffer.position() + count * 4);
+
+            index += count;
+        }
+    }
+
+    /**
+     * Writes the specified longs to this output stream through the big-endian view of the buffer.
+     *
+     * @param array the long array to write
+     * @throws IOException if an I/O error occurs; if the output stream has been closed.
+     */
+    public void writeLongs(long[] array) throws IOException {
+        this.writeLongs(array, 0, array.length);
+    }
+
+    /**
+     * Writes the range of the specified longs to this output stream through the big-endian view of the buffer.
+     *
+     * @param array  the long array to write
+     * @param offset the start offset in the array
+     * @param length the number of elements to write
+     * @throws IOException if an I/O error occurs; if the output stream has been closed.
+     */
+    public void writeLongs(long[] array, int offset, int length) throws IOException {
+        int index = offset;
+        int end = offset + length;
+
+        while (index < end) {
+            int count = this.requireElements(end - index, 8);
+
+            this.byteBuffer.asLongBuffer().put(array, index, count);
+            this.byteBuffer.position(this.byteBuffer.position() + count * 8);
+
+            index += count;
+        }
+    }
+
+    /**
+     * Writes the specified doubles to this output stream through the big-endian view of the buffer.
+     *
+     * @param array the double array to write
+     * @throws IOException if an I/O error occurs; if the output stream has been closed.
+     */
+    public void writeDoubles(double[] array) throws IOException {
+        this.writeDoubles(array, 0, array.length);
+    }
+
+    /**
+     * Writes the range of the specified doubles to this output stream through the big-endian view of the buffer.
+     *
+     * @param array  the double array to write
+     * @param offset the start offset in the array
+     * @param length the number of elements to write
+     * @throws IOException if an I/O error occurs; if the output stream has been closed.
+     */
+    public void writeDoubles(double[] array, int offset, int length) throws IOException {
+        int index = offset;
+        int end = offset + length;
+
+        while (index < end) {
+            int count = this.requireElements(end - index, 8);
+
+            this.byteBuffer.asDoubleBuffer().put(array, index, count);
+            this.byteBuffer.position(this.byteBuffer.position() + count * 8);
+
+            index += count;
+        }
     }
-}
\ No newline at end of file
+}
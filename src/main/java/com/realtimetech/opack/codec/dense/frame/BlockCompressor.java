@@ -0,0 +1,65 @@
+/*
+ * Copyright (C) 2021 REALTIMETECH All Rights Reserved
+ *
+ * Licensed either under the Apache License, Version 2.0, or (at your option)
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (subject to the "Classpath" exception),
+ * either version 2, or any later version (collectively, the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     http://www.gnu.org/licenses/
+ *     http://www.gnu.org/software/classpath/license.html
+ *
+ * or as provided in the LICENSE file that accompanied this code.
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.realtimetech.opack.codec.dense.frame;
+
+import java.io.IOException;
+
+/**
+ * Compression algorithm of the blocks of dense frame.
+ * The implementation must be thread-safe, because the blocks of a frame may be compressed or decompressed in parallel.
+ */
+public interface BlockCompressor {
+    /**
+     * Returns the id of this algorithm, written in the frame header to find the compressor for decompression.
+     *
+     * @return the id
+     */
+    public byte getId();
+
+    /**
+     * Compresses the source range into the target range.
+     *
+     * @param source       the bytes to compress
+     * @param sourceOffset the start offset in the source
+     * @param sourceLength the number of bytes to compress
+     * @param target       the array to write the compressed bytes
+     * @param targetOffset the start offset in the target
+     * @param targetLength the maximum number of bytes to write
+     * @return the number of compressed bytes, or -1 if the compressed bytes do not fit in the target range
+     * @throws IOException if a problem occurs during compressing
+     */
+    public int compress(byte[] source, int sourceOffset, int sourceLength, byte[] target, int targetOffset, int targetLength) throws IOException;
+
+    /**
+     * Decompresses the source range into the target range, that has exactly the size of decompressed bytes.
+     *
+     * @param source       the compressed bytes
+     * @param sourceOffset the start offset in the source
+     * @param sourceLength the number of compressed bytes
+     * @param target       the array to write the decompressed bytes
+     * @param targetOffset the start offset in the target
+     * @param targetLength the number of decompressed bytes
+     * @throws IOException if the compressed bytes are corrupted
+     */
+    public void decompress(byte[] source, int sourceOffset, int sourceLength, byte[] target, int targetOffset, int targetLength) throws IOException;
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (C) 2021 REALTIMETECH All Rights Reserved
+ *
+ * Licensed either under the Apache License, Version 2.0, or (at your option)
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (subject to the "Classpath" exception),
+ * either version 2, or any later version (collectively, the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     http://www.gnu.org/licenses/
+ *     http://www.gnu.org/software/classpath/license.html
+ *
+ * or as provided in the LICENSE file that accompanied this code.
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.realtimetech.opack.codec.dense.frame;
+
+import com.realtimetech.opack.codec.dense.frame.impl.DeflateBlockCompressor;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Layout of dense frame, the sequence of blocks that are compressed independently.
+ * <pre>
+ * frame  : classifier(4 bytes), version(2 bytes), compressor id(1 byte), block size(4 bytes), block..., end(4 bytes, 0)
+ * block  : original length(4 bytes), stored length(4 bytes), stored bytes
+ * </pre>
+ * The block is stored as is if the stored length equals the original length, because compressing it does not reduce the size.
+ */
+final class DenseFrame {
+    /*
+        DO NOT CHANGE CLASSIFIER
+     */
+    static final byte[] CONST_DENSE_FRAME_CLASSIFIER = new byte[]{0x20, 0x22, 'D', 'F'};
+
+    static final byte[] CONST_DENSE_FRAME_VERSION = new byte[]{0x00, 0x01};
+
+    static final int CONST_HEADER_SIZE = 11;
+    static final int CONST_BLOCK_HEADER_SIZE = 8;
+
+    static final int DEFAULT_BLOCK_SIZE = 1 << 16;
+
+    private static final BlockCompressor DEFAULT_COMPRESSOR = new DeflateBlockCompressor();
+
+    private DenseFrame() {
+    }
+
+    /**
+     * Writes the frame header into the bytes.
+     *
+     * @param bytes        the bytes to write, at least {@code CONST_HEADER_SIZE} length
+     * @param compressorId the id of block compressor
+     * @param blockSize    the maximum original length of block
+     */
+    static void writeHeader(byte[] bytes, byte compressorId, int blockSize) {
+        System.arraycopy(CONST_DENSE_FRAME_CLASSIFIER, 0, bytes, 0, CONST_DENSE_FRAME_CLASSIFIER.length);
+        System.arraycopy(CONST_DENSE_FRAME_VERSION, 0, bytes, 4, CONST_DENSE_FRAME_VERSION.length);
+
+        bytes[6] = compressorId;
+        writeInt(bytes, 7, blockSize);
+    }
+
+    /**
+     * Checks the frame header in the bytes and returns the compressor of the frame.
+     *
+     * @param bytes       the bytes of frame header
+     * @param compressors the compressors to find, the deflate compressor is found even if not given
+     * @return the compressor of the frame
+     * @throws IOException if the bytes are not dense frame; if the version is not supported; if the compressor is not found
+     */
+    static BlockCompressor readHeader(byte[] bytes, BlockCompressor[] compressors) throws IOException {
+        if (!isFrameHeader(bytes, 0, bytes.length)) {
+            throw new IOException("Decoding data is not dense frame data. (Expected " + Arrays.toString(CONST_DENSE_FRAME_CLASSIFIER) + ", got " + Arrays.toString(Arrays.copyOf(bytes, CONST_DENSE_FRAME_CLASSIFIER.length)) + ")");
+        }
+
+        if (bytes[4] != CONST_DENSE_FRAME_VERSION[0] || bytes[5] != CONST_DENSE_FRAME_VERSION[1]) {
+            throw new IOException("Decoding data does not match the version of dense frame. (Expected " + Arrays.toString(CONST_DENSE_FRAME_VERSION) + ", got " + Arrays.toString(Arrays.copyOfRange(bytes, 4, 6)) + ")");
+        }
+
+        byte compressorId = bytes[6];
+
+        for (BlockCompressor compressor : compressors) {
+            if (compressor.getId() == compressorId) {
+                return compressor;
+            }
+        }
+
+        if (DEFAULT_COMPRESSOR.getId() == compressorId) {
+            return DEFAULT_COMPRESSOR;
+        }
+
+        throw new IOException(compressorId + " is not registered block compressor id. (unknown compressor)");
+    }
+
+    /**
+     * Returns whether the range starts with the classifier of dense frame.
+     *
+     * @param bytes  the bytes to check
+     * @param offset the start offset
+     * @param length the number of bytes in the range
+     * @return true if the range starts with the classifier of dense frame
+     */
+    static boolean isFrameHeader(byte[] bytes, int offset, int length) {
+        if (length < CONST_DENSE_FRAME_CLASSIFIER.length) {
+            return false;
+        }
+
+        for (int index = 0; index < CONST_DENSE_FRAME_CLASSIFIER.length; index++) {
+            if (bytes[offset + index] != CONST_DENSE_FRAME_CLASSIFIER[index]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Checks the original length and stored length of block.
+     *
+     * @param originalLength the original length of block
+     * @param storedLength   the stored length of block
+     * @param blockSize      the block size of the frame
+     * @throws IOException if the lengths are out of range
+     */
+    static void checkBlockLength(int originalLength, int storedLength, int blockSize) throws IOException {
+        if (originalLength < 0 || originalLength > blockSize || storedLength <= 0 || storedLength > originalLength) {
+            throw new IOException("Block of dense frame is corrupted. (original " + originalLength + " bytes, stored " + storedLength + " bytes, block size " + blockSize + " bytes)");
+        }
+    }
+
+    static void writeInt(byte[] bytes, int offset, int value) {
+        bytes[offset] = (byte) (value >>> 24);
+        bytes[offset + 1] = (byte) (value >>> 16);
+        bytes[offset + 2] = (byte) (value >>> 8);
+        bytes[offset + 3] = (byte) value;
+    }
+
+    static int readInt(byte[] bytes, int offset) {
+        return ((bytes[offset] & 0xFF) << 24) | ((bytes[offset + 1] & 0xFF) << 16) | ((bytes[offset + 2] & 0xFF) << 8) | (bytes[offset + 3] & 0xFF);
+    }
+}
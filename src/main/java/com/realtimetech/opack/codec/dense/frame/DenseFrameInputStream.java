@@ -0,0 +1,182 @@
+/*
+ * Copyright (C) 2021 REALTIMETECH All Rights Reserved
+ *
+ * Licensed either under the Apache License, Version 2.0, or (at your option)
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (subject to the "Classpath" exception),
+ * either version 2, or any later version (collectively, the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     http://www.gnu.org/licenses/
+ *     http://www.gnu.org/software/classpath/license.html
+ *
+ * or as provided in the LICENSE file that accompanied this code.
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.realtimetech.opack.codec.dense.frame;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Input stream that reads the original bytes of dense frame, decompressing the blocks one by one.
+ * This stream is not thread-safe.
+ */
+public final class DenseFrameInputStream extends InputStream {
+    private final InputStream inputStream;
+    private final BlockCompressor[] compressors;
+
+    private BlockCompressor compressor;
+    private int blockSize;
+
+    private byte[] block;
+    private byte[] storedBlock;
+    private final byte[] header;
+    private int position;
+    private int limit;
+
+    private boolean ended;
+
+    /**
+     * Constructs the DenseFrameInputStream that reads the frame from the input stream.
+     * The frame header is read on first read.
+     *
+     * @param inputStream the input stream to read the frame
+     * @param compressors the compressors to find by the id in frame header, the deflate compressor is found even if not given
+     */
+    public DenseFrameInputStream(@NotNull InputStream inputStream, @NotNull BlockCompressor @NotNull ... compressors) {
+        this.inputStream = inputStream;
+        this.compressors = compressors;
+
+        this.header = new byte[DenseFrame.CONST_HEADER_SIZE];
+        this.position = 0;
+        this.limit = 0;
+
+        this.ended = false;
+    }
+
+    /**
+     * Reads the frame header, and allocates the buffers of the block size.
+     *
+     * @throws IOException if an I/O error occurs; if the data is not dense frame
+     */
+    private void readHeader() throws IOException {
+        this.readFully(this.header, 0, DenseFrame.CONST_HEADER_SIZE);
+
+        this.compressor = DenseFrame.readHeader(this.header, this.compressors);
+        this.blockSize = DenseFrame.readInt(this.header, 7);
+
+        if (this.blockSize <= 0) {
+            throw new IOException("Block size of dense frame must be positive, got " + this.blockSize);
+        }
+
+        this.block = new byte[this.blockSize];
+        this.storedBlock = new byte[this.blockSize];
+    }
+
+    /**
+     * Reads and decompresses the next block.
+     *
+     * @return false if the end of frame is reached
+     * @throws IOException if an I/O error occurs; if the block is corrupted
+     */
+    private boolean readBlock() throws IOException {
+        if (this.ended) {
+            return false;
+        }
+
+        if (this.compressor == null) {
+            this.readHeader();
+        }
+
+        this.readFully(this.header, 0, 4);
+        int originalLength = DenseFrame.readInt(this.header, 0);
+
+        if (originalLength == 0) {
+            this.ended = true;
+            return false;
+        }
+
+        this.readFully(this.header, 4, 4);
+        int storedLength = DenseFrame.readInt(this.header, 4);
+
+        DenseFrame.checkBlockLength(originalLength, storedLength, this.blockSize);
+
+        if (storedLength == originalLength) {
+            this.readFully(this.block, 0, originalLength);
+        } else {
+            this.readFully(this.storedBlock, 0, storedLength);
+            this.compressor.decompress(this.storedBlock, 0, storedLength, this.block, 0, originalLength);
+        }
+
+        this.position = 0;
+        this.limit = originalLength;
+
+        return true;
+    }
+
+    private void readFully(byte[] bytes, int offset, int length) throws IOException {
+        while (length > 0) {
+            int read = this.inputStream.read(bytes, offset, length);
+
+            if (read < 0) {
+                throw new EOFException("Dense frame ended unexpectedly.");
+            }
+
+            offset += read;
+            length -= read;
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (this.position == this.limit && !this.readBlock()) {
+            return -1;
+        }
+
+        return this.block[this.position++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte @NotNull [] bytes, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+
+        if (this.position == this.limit && !this.readBlock()) {
+            return -1;
+        }
+
+        int count = Math.min(length, this.limit - this.position);
+
+        System.arraycopy(this.block, this.position, bytes, offset, count);
+        this.position += count;
+
+        return count;
+    }
+
+    @Override
+    public int available() {
+        return this.limit - this.position;
+    }
+
+    /**
+     * Closes the input stream of this stream.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public void close() throws IOException {
+        this.inputStream.close();
+    }
+}
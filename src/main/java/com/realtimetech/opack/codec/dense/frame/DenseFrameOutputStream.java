@@ -0,0 +1,225 @@
+/*
+ * Copyright (C) 2021 REALTIMETECH All Rights Reserved
+ *
+ * Licensed either under the Apache License, Version 2.0, or (at your option)
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (subject to the "Classpath" exception),
+ * either version 2, or any later version (collectively, the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     http://www.gnu.org/licenses/
+ *     http://www.gnu.org/software/classpath/license.html
+ *
+ * or as provided in the LICENSE file that accompanied this code.
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.realtimetech.opack.codec.dense.frame;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Output stream that writes the bytes as dense frame, compressing every block of the block size independently.
+ * The frame is completed by {@link #finish() finish} or {@link #close() close}.
+ * This stream is not thread-safe.
+ */
+public final class DenseFrameOutputStream extends OutputStream {
+    private final OutputStream outputStream;
+    private final BlockCompressor compressor;
+    private final int blockSize;
+
+    private final byte[] block;
+    private final byte[] compressedBlock;
+    private final byte[] header;
+    private int position;
+
+    private boolean headerWritten;
+    private boolean finished;
+
+    /**
+     * Calls {@code new DenseFrameOutputStream(outputStream, compressor, 1 << 16)}
+     *
+     * @param outputStream the output stream to write the frame
+     * @param compressor   the compressor of blocks
+     */
+    public DenseFrameOutputStream(@NotNull OutputStream outputStream, @NotNull BlockCompressor compressor) {
+        this(outputStream, compressor, DenseFrame.DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * Constructs the DenseFrameOutputStream that compresses every block of the block size.
+     * Larger blocks compress better, smaller blocks allow finer random access and more parallelism.
+     *
+     * @param outputStream the output stream to write the frame
+     * @param compressor   the compressor of blocks
+     * @param blockSize    the original byte size of each block
+     * @throws IllegalArgumentException if the block size is not positive
+     */
+    public DenseFrameOutputStream(@NotNull OutputStream outputStream, @NotNull BlockCompressor compressor, int blockSize) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Block size must be positive, got " + blockSize);
+        }
+
+        this.outputStream = outputStream;
+        this.compressor = compressor;
+        this.blockSize = blockSize;
+
+        this.block = new byte[blockSize];
+        this.compressedBlock = new byte[blockSize];
+        this.header = new byte[DenseFrame.CONST_HEADER_SIZE];
+        this.position = 0;
+
+        this.headerWritten = false;
+        this.finished = false;
+    }
+
+    /**
+     * Writes the byte into the current block, compressing the block first if it is full.
+     *
+     * @param b the byte to write
+     * @throws IOException           if an I/O error occurs; if a problem occurs during compressing
+     * @throws IllegalStateException if this frame is already finished
+     */
+    @Override
+    public void write(int b) throws IOException {
+        this.checkNotFinished();
+
+        if (this.position == this.blockSize) {
+            this.writeBlock();
+        }
+
+        this.block[this.position++] = (byte) b;
+    }
+
+    /**
+     * Writes the bytes into the blocks, compressing each block as it becomes full.
+     *
+     * @param bytes  the bytes to write
+     * @param offset the start offset of bytes
+     * @param length the number of bytes to write
+     * @throws IOException           if an I/O error occurs; if a problem occurs during compressing
+     * @throws IllegalStateException if this frame is already finished
+     */
+    @Override
+    public void write(byte @NotNull [] bytes, int offset, int length) throws IOException {
+        this.checkNotFinished();
+
+        while (length > 0) {
+            if (this.position == this.blockSize) {
+                this.writeBlock();
+            }
+
+            int count = Math.min(length, this.blockSize - this.position);
+
+            System.arraycopy(bytes, offset, this.block, this.position, count);
+
+            this.position += count;
+            offset += count;
+            length -= count;
+        }
+    }
+
+    /**
+     * Compresses and writes the buffered bytes as a block, and writes the frame header before the first block.
+     *
+     * @throws IOException           if an I/O error occurs; if a problem occurs during compressing
+     * @throws IllegalStateException if this frame is already finished
+     */
+    private void writeBlock() throws IOException {
+        this.checkNotFinished();
+
+        if (!this.headerWritten) {
+            DenseFrame.writeHeader(this.header, this.compressor.getId(), this.blockSize);
+            this.outputStream.write(this.header, 0, DenseFrame.CONST_HEADER_SIZE);
+            this.headerWritten = true;
+        }
+
+        if (this.position == 0) {
+            return;
+        }
+
+        int compressedLength = this.compressor.compress(this.block, 0, this.position, this.compressedBlock, 0, this.position - 1);
+
+        DenseFrame.writeInt(this.header, 0, this.position);
+
+        if (compressedLength < 0) {
+            DenseFrame.writeInt(this.header, 4, this.position);
+            this.outputStream.write(this.header, 0, DenseFrame.CONST_BLOCK_HEADER_SIZE);
+            this.outputStream.write(this.block, 0, this.position);
+        } else {
+            DenseFrame.writeInt(this.header, 4, compressedLength);
+            this.outputStream.write(this.header, 0, DenseFrame.CONST_BLOCK_HEADER_SIZE);
+            this.outputStream.write(this.compressedBlock, 0, compressedLength);
+        }
+
+        this.position = 0;
+    }
+
+    /**
+     * Checks that this frame is not finished, so that the bytes written are not lost.
+     *
+     * @throws IllegalStateException if this frame is already finished
+     */
+    private void checkNotFinished() {
+        if (this.finished) {
+            throw new IllegalStateException("Dense frame is already finished.");
+        }
+    }
+
+    /**
+     * Writes the buffered bytes as a block, and flushes the output stream.
+     * Flushing often makes small blocks that compress poorly.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public void flush() throws IOException {
+        if (!this.finished) {
+            this.writeBlock();
+        }
+
+        this.outputStream.flush();
+    }
+
+    /**
+     * Writes the buffered bytes as the last block and the end of frame, without closing the output stream.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    public void finish() throws IOException {
+        if (this.finished) {
+            return;
+        }
+
+        this.writeBlock();
+
+        DenseFrame.writeInt(this.header, 0, 0);
+        this.outputStream.write(this.header, 0, 4);
+        this.outputStream.flush();
+
+        this.finished = true;
+    }
+
+    /**
+     * Finishes the frame and closes the output stream.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            this.finish();
+        } finally {
+            this.outputStream.close();
+        }
+    }
+}
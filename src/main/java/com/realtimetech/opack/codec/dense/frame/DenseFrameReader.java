@@ -0,0 +1,356 @@
+/*
+ * Copyright (C) 2021 REALTIMETECH All Rights Reserved
+ *
+ * Licensed either under the Apache License, Version 2.0, or (at your option)
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (subject to the "Classpath" exception),
+ * either version 2, or any later version (collectively, the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     http://www.gnu.org/licenses/
+ *     http://www.gnu.org/software/classpath/license.html
+ *
+ * or as provided in the LICENSE file that accompanied this code.
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.realtimetech.opack.codec.dense.frame;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Random-access reader of dense frame in the heap or direct byte buffer.
+ * Indexes the blocks once on construction by their headers, so that any block can be decompressed alone, and all blocks can be decompressed in parallel.
+ * This reader is thread-safe if the compressors are thread-safe.
+ */
+public final class DenseFrameReader {
+    private final ByteBuffer byteBuffer;
+    private final BlockCompressor compressor;
+    private final int blockSize;
+
+    private final int[] storedOffsets;
+    private final int[] storedLengths;
+    private final long[] originalOffsets;
+
+    private final int frameSize;
+
+    /**
+     * Returns whether the byte buffer starts with dense frame at its position.
+     *
+     * @param byteBuffer the byte buffer to check
+     * @return true if the byte buffer starts with dense frame
+     */
+    public static boolean isFrame(@NotNull ByteBuffer byteBuffer) {
+        if (byteBuffer.remaining() < DenseFrame.CONST_DENSE_FRAME_CLASSIFIER.length) {
+            return false;
+        }
+
+        for (int index = 0; index < DenseFrame.CONST_DENSE_FRAME_CLASSIFIER.length; index++) {
+            if (byteBuffer.get(byteBuffer.position() + index) != DenseFrame.CONST_DENSE_FRAME_CLASSIFIER[index]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns whether the bytes start with dense frame.
+     *
+     * @param bytes the bytes to check
+     * @return true if the bytes start with dense frame
+     */
+    public static boolean isFrame(byte @NotNull [] bytes) {
+        return DenseFrame.isFrameHeader(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Constructs the DenseFrameReader of the frame that starts at the position of the byte buffer.
+     * The position of the byte buffer itself is not changed.
+     *
+     * @param byteBuffer  the byte buffer that has the frame
+     * @param compressors the compressors to find by the id in frame header, the deflate compressor is found even if not given
+     * @throws IOException if the data is not dense frame; if the frame is corrupted or truncated
+     */
+    public DenseFrameReader(@NotNull ByteBuffer byteBuffer, @NotNull BlockCompressor @NotNull ... compressors) throws IOException {
+        this.byteBuffer = byteBuffer.duplicate().order(ByteOrder.BIG_ENDIAN);
+
+        int position = this.byteBuffer.position();
+        int limit = this.byteBuffer.limit();
+        byte[] header = new byte[DenseFrame.CONST_HEADER_SIZE];
+
+        if (limit - position < DenseFrame.CONST_HEADER_SIZE) {
+            throw new IOException("Dense frame ended unexpectedly.");
+        }
+
+        this.byteBuffer.get(header);
+        this.compressor = DenseFrame.readHeader(header, compressors);
+        this.blockSize = DenseFrame.readInt(header, 7);
+
+        if (this.blockSize <= 0) {
+            throw new IOException("Block size of dense frame must be positive, got " + this.blockSize);
+        }
+
+        int[] storedOffsets = new int[16];
+        int[] storedLengths = new int[16];
+        long[] originalOffsets = new long[17];
+        int blockCount = 0;
+        int offset = position + DenseFrame.CONST_HEADER_SIZE;
+
+        while (true) {
+            if (limit - offset < 4) {
+                throw new IOException("Dense frame ended unexpectedly.");
+            }
+
+            int originalLength = this.byteBuffer.getInt(offset);
+
+            if (originalLength == 0) {
+                offset += 4;
+                break;
+            }
+
+            if (limit - offset < DenseFrame.CONST_BLOCK_HEADER_SIZE) {
+                throw new IOException("Dense frame ended unexpectedly.");
+            }
+
+            int storedLength = this.byteBuffer.getInt(offset + 4);
+
+            DenseFrame.checkBlockLength(originalLength, storedLength, this.blockSize);
+            offset += DenseFrame.CONST_BLOCK_HEADER_SIZE;
+
+            if (limit - offset < storedLength) {
+                throw new IOException("Dense frame ended unexpectedly.");
+            }
+
+            if (blockCount == storedOffsets.length) {
+                storedOffsets = Arrays.copyOf(storedOffsets, blockCount * 2);
+                storedLengths = Arrays.copyOf(storedLengths, blockCount * 2);
+                originalOffsets = Arrays.copyOf(originalOffsets, blockCount * 2 + 1);
+            }
+
+            storedOffsets[blockCount] = offset;
+            storedLengths[blockCount] = storedLength;
+            originalOffsets[blockCount + 1] = originalOffsets[blockCount] + originalLength;
+            blockCount++;
+
+            offset += storedLength;
+        }
+
+        this.storedOffsets = Arrays.copyOf(storedOffsets, blockCount);
+        this.storedLengths = Arrays.copyOf(storedLengths, blockCount);
+        this.originalOffsets = Arrays.copyOf(originalOffsets, blockCount + 1);
+
+        this.frameSize = offset - position;
+    }
+
+    /**
+     * Returns the number of blocks in this frame.
+     *
+     * @return the number of blocks
+     */
+    public int getBlockCount() {
+        return this.storedOffsets.length;
+    }
+
+    /**
+     * Returns the byte size of the original data of this frame.
+     *
+     * @return the original size
+     */
+    public long getLength() {
+        return this.originalOffsets[this.storedOffsets.length];
+    }
+
+    /**
+     * Returns the byte size of this frame in the byte buffer, including the end of frame.
+     *
+     * @return the frame size
+     */
+    public int getFrameSize() {
+        return this.frameSize;
+    }
+
+    /**
+     * Returns the offset in the original data where the block starts.
+     *
+     * @param index the index of block
+     * @return the original offset of block
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public long getBlockOffset(int index) {
+        this.checkBlockIndex(index);
+
+        return this.originalOffsets[index];
+    }
+
+    /**
+     * Decompresses the block alone.
+     *
+     * @param index the index of block
+     * @return the original bytes of block
+     * @throws IOException               if the block is corrupted
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public byte[] readBlock(int index) throws IOException {
+        this.checkBlockIndex(index);
+
+        byte[] bytes = new byte[(int) (this.originalOffsets[index + 1] - this.originalOffsets[index])];
+        this.readBlock(index, bytes, 0);
+
+        return bytes;
+    }
+
+    /**
+     * Decompresses the block into the array.
+     *
+     * @param index  the index of block
+     * @param target the array to write the original bytes
+     * @param offset the start offset in the array
+     * @throws IOException if the block is corrupted
+     */
+    void readBlock(int index, byte[] target, int offset) throws IOException {
+        int originalLength = (int) (this.originalOffsets[index + 1] - this.originalOffsets[index]);
+        int storedOffset = this.storedOffsets[index];
+        int storedLength = this.storedLengths[index];
+
+        byte[] source;
+        int sourceOffset;
+
+        if (this.byteBuffer.hasArray()) {
+            source = this.byteBuffer.array();
+            sourceOffset = this.byteBuffer.arrayOffset() + storedOffset;
+        } else {
+            ByteBuffer duplicate = this.byteBuffer.duplicate();
+
+            source = new byte[storedLength];
+            sourceOffset = 0;
+
+            duplicate.position(storedOffset);
+            duplicate.get(source);
+        }
+
+        if (storedLength == originalLength) {
+            System.arraycopy(source, sourceOffset, target, offset, originalLength);
+        } else {
+            this.compressor.decompress(source, sourceOffset, storedLength, target, offset, originalLength);
+        }
+    }
+
+    /**
+     * Reads the original bytes at the position, decompressing only the blocks that overlap the range.
+     *
+     * @param position the offset in the original data
+     * @param bytes    the array to write the original bytes
+     * @param offset   the start offset in the array
+     * @param length   the maximum number of bytes to read
+     * @return the number of bytes read, or -1 if the position is at the end of original data
+     * @throws IOException               if the block is corrupted
+     * @throws IndexOutOfBoundsException if the position is negative
+     */
+    public int read(long position, byte @NotNull [] bytes, int offset, int length) throws IOException {
+        if (position < 0) {
+            throw new IndexOutOfBoundsException("Position " + position + " is negative.");
+        }
+
+        if (position >= this.getLength()) {
+            return -1;
+        }
+
+        int index = this.findBlock(position);
+        int read = 0;
+
+        while (read < length && index < this.storedOffsets.length) {
+            byte[] block = this.readBlock(index);
+            int blockPosition = (int) (position + read - this.originalOffsets[index]);
+            int count = Math.min(length - read, block.length - blockPosition);
+
+            System.arraycopy(block, blockPosition, bytes, offset + read, count);
+
+            read += count;
+            index++;
+        }
+
+        return read;
+    }
+
+    /**
+     * Decompresses all blocks of this frame.
+     * In parallel, the blocks are decompressed on the common fork-join pool.
+     *
+     * @param parallel true if the blocks are decompressed in parallel
+     * @return the original bytes
+     * @throws IOException           if a block is corrupted
+     * @throws IllegalStateException if the original data is too large for an array
+     */
+    public byte[] readAll(boolean parallel) throws IOException {
+        if (this.getLength() > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("Original data of " + this.getLength() + " bytes is too large for an array.");
+        }
+
+        byte[] bytes = new byte[(int) this.getLength()];
+
+        if (!parallel || this.storedOffsets.length < 2) {
+            for (int index = 0; index < this.storedOffsets.length; index++) {
+                this.readBlock(index, bytes, (int) this.originalOffsets[index]);
+            }
+
+            return bytes;
+        }
+
+        try {
+            IntStream.range(0, this.storedOffsets.length).parallel().forEach((index) -> {
+                try {
+                    this.readBlock(index, bytes, (int) this.originalOffsets[index]);
+                } catch (IOException exception) {
+                    throw new UncheckedIOException(exception);
+                }
+            });
+        } catch (UncheckedIOException exception) {
+            throw exception.getCause();
+        }
+
+        return bytes;
+    }
+
+    /**
+     * Returns the index of block that contains the position in the original data.
+     *
+     * @param position the offset in the original data
+     * @return the index of block
+     */
+    private int findBlock(long position) {
+        int low = 0;
+        int high = this.storedOffsets.length - 1;
+
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+
+            if (this.originalOffsets[middle] <= position) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+
+        return low;
+    }
+
+    private void checkBlockIndex(int index) {
+        if (index < 0 || index >= this.storedOffsets.length) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + this.storedOffsets.length);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2021 REALTIMETECH All Rights Reserved
+ *
+ * Licensed either under the Apache License, Version 2.0, or (at your option)
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (subject to the "Classpath" exception),
+ * either version 2, or any later version (collectively, the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     http://www.gnu.org/licenses/
+ *     http://www.gnu.org/software/classpath/license.html
+ *
+ * or as provided in the LICENSE file that accompanied this code.
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.realtimetech.opack.codec.dense.frame.impl;
+
+import com.realtimetech.opack.codec.dense.frame.BlockCompressor;
+
+import java.io.IOException;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Block compressor through the raw deflate of JDK, without zlib or gzip wrapper.
+ * Keeps a deflater and an inflater per thread, so that compressing a block does not allocate native memory.
+ */
+public class DeflateBlockCompressor implements BlockCompressor {
+    public static final byte ID = 0x01;
+
+    private final int level;
+
+    private final ThreadLocal<Deflater> deflaterThreadLocal;
+    private final ThreadLocal<Inflater> inflaterThreadLocal;
+
+    /**
+     * Calls {@code new DeflateBlockCompressor(Deflater.BEST_SPEED)}
+     */
+    public DeflateBlockCompressor() {
+        this(Deflater.BEST_SPEED);
+    }
+
+    /**
+     * Constructs the DeflateBlockCompressor with the compression level.
+     *
+     * @param level the compression level, 0 to 9 or {@link Deflater#DEFAULT_COMPRESSION}
+     * @throws IllegalArgumentException if the compression level is invalid
+     */
+    public DeflateBlockCompressor(int level) {
+        if ((level < 0 || level > 9) && level != Deflater.DEFAULT_COMPRESSION) {
+            throw new IllegalArgumentException("Compression level must be between 0 and 9, got " + level);
+        }
+
+        this.level = level;
+
+        this.deflaterThreadLocal = ThreadLocal.withInitial(() -> new Deflater(this.level, true));
+        this.inflaterThreadLocal = ThreadLocal.withInitial(() -> new Inflater(true));
+    }
+
+    /**
+     * Returns the compression level of this compressor.
+     *
+     * @return the compression level
+     */
+    public int getLevel() {
+        return level;
+    }
+
+    @Override
+    public byte getId() {
+        return ID;
+    }
+
+    @Override
+    public int compress(byte[] source, int sourceOffset, int sourceLength, byte[] target, int targetOffset, int targetLength) {
+        Deflater deflater = this.deflaterThreadLocal.get();
+
+        try {
+            deflater.setInput(source, sourceOffset, sourceLength);
+            deflater.finish();
+
+            int length = deflater.deflate(target, targetOffset, targetLength);
+
+            return deflater.finished() ? length : -1;
+        } finally {
+            deflater.reset();
+        }
+    }
+
+    @Override
+    public void decompress(byte[] source, int sourceOffset, int sourceLength, byte[] target, int targetOffset, int targetLength) throws IOException {
+        Inflater inflater = this.inflaterThreadLocal.get();
+
+        try {
+            inflater.setInput(source, sourceOffset, sourceLength);
+
+            int length = 0;
+
+            while (length < targetLength) {
+                int inflated = inflater.inflate(target, targetOffset + length, targetLength - length);
+
+                if (inflated == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+
+                length += inflated;
+            }
+
+            if (length != targetLength) {
+                throw new IOException("Compressed block is corrupted. (Expected " + targetLength + " bytes, got " + length + " bytes)");
+            }
+        } catch (DataFormatException exception) {
+            throw new IOException(exception);
+        } finally {
+            inflater.reset();
+        }
+    }
+}
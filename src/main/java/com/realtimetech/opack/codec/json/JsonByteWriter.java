@@ -0,0 +1,372 @@
+/*
+ * Copyright (C) 2021 REALTIMETECH All Rights Reserved
+ *
+ * Licensed either under the Apache License, Version 2.0, or (at your option)
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (subject to the "Classpath" exception),
+ * either version 2, or any later version (collectively, the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     http://www.gnu.org/licenses/
+ *     http://www.gnu.org/software/classpath/license.html
+ *
+ * or as provided in the LICENSE file that accompanied this code.
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.realtimetech.opack.codec.json;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Writer that encodes the characters to UTF-8 bytes directly into the byte array, without the charset encoder.
+ * The bytes are collected in the growing array, or drained to the output stream or the byte buffer when the array is full.
+ * A heap byte buffer is written through its backing array, without the array in between.
+ * ASCII characters are copied in a tight loop; unpaired surrogates are written as '?', as {@link java.nio.charset.StandardCharsets#UTF_8 UTF-8} charset does.
+ */
+class JsonByteWriter extends Writer {
+    private static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    private final byte[] buffer;
+
+    private byte[] bytes;
+    private int position;
+    private int limit;
+
+    private OutputStream outputStream;
+    private ByteBuffer byteBuffer;
+    private boolean backingArray;
+
+    private char highSurrogate;
+
+    /**
+     * Calls {@code new JsonByteWriter(DEFAULT_BUFFER_SIZE)}
+     */
+    public JsonByteWriter() {
+        this(DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Constructs the JsonByteWriter that collects the bytes in the growing array.
+     *
+     * @param initialSize the initial size of array
+     */
+    public JsonByteWriter(int initialSize) {
+        this.buffer = new byte[Math.max(initialSize, 4)];
+        this.bytes = this.buffer;
+        this.reset();
+    }
+
+    /**
+     * Constructs the JsonByteWriter that writes the bytes to the output stream through the array.
+     *
+     * @param outputStream the output stream to write
+     */
+    public JsonByteWriter(OutputStream outputStream) {
+        this(DEFAULT_BUFFER_SIZE);
+        this.reset(outputStream);
+    }
+
+    /**
+     * Resets this writer to collect the bytes in the growing array.
+     */
+    public void reset() {
+        if (this.backingArray) {
+            this.bytes = this.buffer;
+            this.backingArray = false;
+        }
+
+        this.position = 0;
+        this.limit = this.bytes.length;
+        this.outputStream = null;
+        this.byteBuffer = null;
+        this.highSurrogate = 0;
+    }
+
+    /**
+     * Resets this writer to write the bytes to the output stream.
+     *
+     * @param outputStream the output stream to write
+     */
+    public void reset(OutputStream outputStream) {
+        this.reset();
+        this.outputStream = outputStream;
+    }
+
+    /**
+     * Resets this writer to write the bytes into the byte buffer from its position.
+     * If the byte buffer is backed by a writable array, the bytes are written straight into that array, up to the limit of the byte buffer.
+     *
+     * @param byteBuffer the byte buffer to write
+     */
+    public void reset(ByteBuffer byteBuffer) {
+        this.reset();
+        this.byteBuffer = byteBuffer;
+
+        if (byteBuffer.hasArray()) {
+            this.bytes = byteBuffer.array();
+            this.position = byteBuffer.arrayOffset() + byteBuffer.position();
+            this.limit = byteBuffer.arrayOffset() + byteBuffer.limit();
+            this.backingArray = true;
+        }
+    }
+
+    /**
+     * Returns the number of bytes collected in the array.
+     *
+     * @return the number of bytes
+     */
+    public int getLength() {
+        return this.position;
+    }
+
+    /**
+     * Returns an array containing the bytes collected in this writer.
+     *
+     * @return the bytes
+     */
+    public byte[] toByteArray() {
+        byte[] byteArray = new byte[this.position];
+        System.arraycopy(this.bytes, 0, byteArray, 0, this.position);
+        return byteArray;
+    }
+
+    /**
+     * Makes room for the required bytes in the array, draining or growing it.
+     *
+     * @param required the number of bytes required
+     * @throws IOException             if an I/O error occurs
+     * @throws BufferOverflowException if the byte buffer written into has not enough space
+     */
+    private void require(int required) throws IOException {
+        if (this.limit - this.position < required) {
+            if (this.backingArray) {
+                throw new BufferOverflowException();
+            } else if (this.outputStream != null || this.byteBuffer != null) {
+                this.drain();
+            } else {
+                byte[] oldBytes = this.bytes;
+                this.bytes = new byte[Math.max(oldBytes.length << 1, this.position + required)];
+                this.limit = this.bytes.length;
+                System.arraycopy(oldBytes, 0, this.bytes, 0, this.position);
+            }
+        }
+    }
+
+    /**
+     * Writes the bytes in the array to the output stream or the byte buffer.
+     * If the bytes are written into the backing array of the byte buffer, advances the position of the byte buffer instead.
+     * Does nothing if this writer collects the bytes in the growing array.
+     *
+     * @throws IOException             if an I/O error occurs
+     * @throws BufferOverflowException if the byte buffer written into has not enough space
+     */
+    public void drain() throws IOException {
+        if (this.backingArray) {
+            this.byteBuffer.position(this.position - this.byteBuffer.arrayOffset());
+        } else if (this.position > 0) {
+            if (this.outputStream != null) {
+                this.outputStream.write(this.bytes, 0, this.position);
+                this.position = 0;
+            } else if (this.byteBuffer != null) {
+                this.byteBuffer.put(this.bytes, 0, this.position);
+                this.position = 0;
+            }
+        }
+    }
+
+    /**
+     * Writes the code point as UTF-8 bytes, the array must have room for 4 bytes.
+     *
+     * @param codePoint the code point to write
+     */
+    private void writeCodePoint(int codePoint) {
+        if (codePoint < 0x80) {
+            this.bytes[this.position++] = (byte) codePoint;
+        } else if (codePoint < 0x800) {
+            this.bytes[this.position++] = (byte) (0xC0 | (codePoint >> 6));
+            this.bytes[this.position++] = (byte) (0x80 | (codePoint & 0x3F));
+        } else if (codePoint < 0x10000) {
+            this.bytes[this.position++] = (byte) (0xE0 | (codePoint >> 12));
+            this.bytes[this.position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+            this.bytes[this.position++] = (byte) (0x80 | (codePoint & 0x3F));
+        } else {
+            this.bytes[this.position++] = (byte) (0xF0 | (codePoint >> 18));
+            this.bytes[this.position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+            this.bytes[this.position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+            this.bytes[this.position++] = (byte) (0x80 | (codePoint & 0x3F));
+        }
+    }
+
+    /**
+     * Writes the non-ASCII character, pairing the surrogates across the calls.
+     *
+     * @param character the character to write
+     * @throws IOException if an I/O error occurs
+     */
+    private void writeNonAscii(char character) throws IOException {
+        this.require(4);
+
+        if (this.highSurrogate != 0) {
+            char highSurrogate = this.highSurrogate;
+            this.highSurrogate = 0;
+
+            if (Character.isLowSurrogate(character)) {
+                this.writeCodePoint(Character.toCodePoint(highSurrogate, character));
+                return;
+            }
+
+            this.bytes[this.position++] = '?';
+        }
+
+        if (Character.isHighSurrogate(character)) {
+            this.highSurrogate = character;
+        } else if (Character.isLowSurrogate(character)) {
+            this.bytes[this.position++] = '?';
+        } else {
+            this.writeCodePoint(character);
+        }
+    }
+
+    /**
+     * Writes the pending high surrogate that is not followed by low surrogate.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    private void writeUnpairedSurrogate() throws IOException {
+        this.highSurrogate = 0;
+        this.require(1);
+        this.bytes[this.position++] = '?';
+    }
+
+    @Override
+    public void write(int character) throws IOException {
+        if (character < 0x80 && this.highSurrogate == 0) {
+            this.require(1);
+            this.bytes[this.position++] = (byte) character;
+        } else {
+            if (character < 0x80) {
+                this.writeUnpairedSurrogate();
+                this.write(character);
+            } else {
+                this.writeNonAscii((char) character);
+            }
+        }
+    }
+
+    @Override
+    public void write(char[] chars, int offset, int length) throws IOException {
+        int end = offset + length;
+
+        while (offset < end) {
+            char character = chars[offset];
+
+            if (character < 0x80 && this.highSurrogate == 0) {
+                this.require(1);
+
+                // ASCII fast path, as long as the array has room
+                int asciiEnd = Math.min(end, offset + this.limit - this.position);
+                byte[] bytes = this.bytes;
+                int position = this.position;
+
+                while (offset < asciiEnd && (character = chars[offset]) < 0x80) {
+                    bytes[position++] = (byte) character;
+                    offset++;
+                }
+
+                this.position = position;
+            } else {
+                if (character < 0x80) {
+                    this.writeUnpairedSurrogate();
+                } else {
+                    this.writeNonAscii(character);
+                    offset++;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void write(String string, int offset, int length) throws IOException {
+        int end = offset + length;
+
+        while (offset < end) {
+            char character = string.charAt(offset);
+
+            if (character < 0x80 && this.highSurrogate == 0) {
+                this.require(1);
+
+                int asciiEnd = Math.min(end, offset + this.limit - this.position);
+                byte[] bytes = this.bytes;
+                int position = this.position;
+
+                while (offset < asciiEnd && (character = string.charAt(offset)) < 0x80) {
+                    bytes[position++] = (byte) character;
+                    offset++;
+                }
+
+                this.position = position;
+            } else {
+                if (character < 0x80) {
+                    this.writeUnpairedSurrogate();
+                } else {
+                    this.writeNonAscii(character);
+                    offset++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the pending unpaired surrogate, and drains the bytes in the array to the output stream or the byte buffer.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    public void finish() throws IOException {
+        if (this.highSurrogate != 0) {
+            this.writeUnpairedSurrogate();
+        }
+
+        this.drain();
+    }
+
+    /**
+     * Finishes this writer, and flushes the output stream.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public void flush() throws IOException {
+        this.finish();
+
+        if (this.outputStream != null) {
+            this.outputStream.flush();
+        }
+    }
+
+    /**
+     * Flushes this writer, and closes the output stream.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            this.flush();
+        } finally {
+            if (this.outputStream != null) {
+                this.outputStream.close();
+            }
+        }
+    }
+}
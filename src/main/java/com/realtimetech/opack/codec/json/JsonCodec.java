@@ -23,6 +23,7 @@
 package com.realtimetech.opack.codec.json;
 
 import com.realtimetech.opack.codec.OpackCodec;
+import com.realtimetech.opack.exception.DecodeException;
 import com.realtimetech.opack.exception.EncodeException;
 import com.realtimetech.opack.util.ReflectionUtil;
 import com.realtimetech.opack.util.StringWriter;
@@ -31,8 +32,18 @@ import com.realtimetech.opack.value.OpackArray;
 import com.realtimetech.opack.value.OpackObject;
 import com.realtimetech.opack.value.OpackValue;
 
+import java.io.EOFException;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
 import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 public final class JsonCodec extends OpackCodec<String, Writer> {
     public final static class Builder {
@@ -43,6 +54,10 @@ public final class JsonCodec extends OpackCodec<String, Writer> {
         int encodeStackInitialSize;
         int encodeStringBufferSize;
         int decodeStackInitialSize;
+        int decodeBufferSize;
+        int decodeParallelism;
+        int decodeParallelThreshold;
+        ForkJoinPool decodeForkJoinPool;
 
         public Builder() {
             this.allowOpackValueToKeyValue = false;
@@ -52,6 +67,10 @@ public final class JsonCodec extends OpackCodec<String, Writer> {
             this.encodeStringBufferSize = 1024;
             this.encodeStackInitialSize = 128;
             this.decodeStackInitialSize = 128;
+            this.decodeBufferSize = 8192;
+            this.decodeParallelism = 1;
+            this.decodeParallelThreshold = 1 << 20;
+            this.decodeForkJoinPool = null;
         }
 
         public Builder setAllowOpackValueToKeyValue(boolean allowOpackValueToKeyValue) {
@@ -79,6 +98,47 @@ public final class JsonCodec extends OpackCodec<String, Writer> {
             return this;
         }
 
+        public Builder setDecodeBufferSize(int decodeBufferSize) {
+            this.decodeBufferSize = decodeBufferSize;
+            return this;
+        }
+
+        /**
+         * Sets the number of threads to decode the json string of top-level array, 1 (default) to decode in the calling thread.
+         * In parallel, the array is split into chunks of elements at the top-level commas, and the chunks are decoded on the {@link #setDecodeForkJoinPool(ForkJoinPool) fork-join pool} into one {@link OpackArray OpackArray} in order.
+         * The error of the first invalid element is reported at the same position as the sequential decoding.
+         *
+         * @param decodeParallelism the number of threads
+         * @return this builder
+         */
+        public Builder setDecodeParallelism(int decodeParallelism) {
+            this.decodeParallelism = decodeParallelism;
+            return this;
+        }
+
+        /**
+         * Sets the minimum length of json string to decode in parallel, 1048576 characters by default.
+         *
+         * @param decodeParallelThreshold the minimum length
+         * @return this builder
+         */
+        public Builder setDecodeParallelThreshold(int decodeParallelThreshold) {
+            this.decodeParallelThreshold = decodeParallelThreshold;
+            return this;
+        }
+
+        /**
+         * Sets the fork-join pool to run parallel decoding on, {@link ForkJoinPool#commonPool() common pool} by default.
+         * The codec does not own the pool, so the caller shuts it down when it is no longer used.
+         *
+         * @param decodeForkJoinPool the fork-join pool, or null to use the common pool
+         * @return this builder
+         */
+        public Builder setDecodeForkJoinPool(ForkJoinPool decodeForkJoinPool) {
+            this.decodeForkJoinPool = decodeForkJoinPool;
+            return this;
+        }
+
         /**
          * Create the {@link JsonCodec JsonCodec}.
          *
@@ -131,12 +191,21 @@ public final class JsonCodec extends OpackCodec<String, Writer> {
     final boolean prettyFormat;
 
     final StringWriter encodeLiteralStringWriter;
+    final char[] encodeNumberChars;
+    final char[] encodeStringChars;
     final StringWriter encodeStringWriter;
+    final JsonByteWriter encodeByteWriter;
     final FastStack<Object> encodeStack;
 
     final FastStack<Integer> decodeBaseStack;
     final FastStack<Object> decodeValueStack;
     final StringWriter decodeStringWriter;
+    final char[] decodeCharBuffer;
+
+    final int decodeParallelism;
+    final int decodeParallelThreshold;
+    final ForkJoinPool decodeForkJoinPool;
+    final ThreadLocal<JsonCodec> decodeWorkerCodec;
 
     /**
      * Constructs the JsonCodec with the builder of JsonCodec.
@@ -151,12 +220,34 @@ public final class JsonCodec extends OpackCodec<String, Writer> {
         this.prettyFormat = builder.prettyFormat;
 
         this.encodeLiteralStringWriter = new StringWriter(builder.encodeStringBufferSize);
+        this.encodeNumberChars = new char[JsonNumber.MAX_WRITE_LENGTH];
+        this.encodeStringChars = new char[Math.max(builder.encodeStringBufferSize, 16)];
         this.encodeStringWriter = new StringWriter(builder.encodeStringBufferSize);
+        this.encodeByteWriter = new JsonByteWriter(builder.encodeStringBufferSize);
         this.encodeStack = new FastStack<>(builder.encodeStackInitialSize);
 
         this.decodeBaseStack = new FastStack<>(builder.decodeStackInitialSize);
         this.decodeValueStack = new FastStack<>(builder.decodeStackInitialSize);
         this.decodeStringWriter = new StringWriter();
+        this.decodeCharBuffer = new char[builder.decodeBufferSize];
+
+        if (builder.decodeParallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be positive, got " + builder.decodeParallelism);
+        }
+
+        this.decodeParallelism = builder.decodeParallelism;
+        this.decodeParallelThreshold = builder.decodeParallelThreshold;
+
+        if (this.decodeParallelism > 1) {
+            int decodeStackInitialSize = builder.decodeStackInitialSize;
+            int decodeBufferSize = builder.decodeBufferSize;
+
+            this.decodeForkJoinPool = builder.decodeForkJoinPool != null ? builder.decodeForkJoinPool : ForkJoinPool.commonPool();
+            this.decodeWorkerCodec = ThreadLocal.withInitial(() -> new Builder().setDecodeStackInitialSize(decodeStackInitialSize).setDecodeBufferSize(decodeBufferSize).create());
+        } else {
+            this.decodeForkJoinPool = null;
+            this.decodeWorkerCodec = null;
+        }
     }
 
     /**
@@ -185,41 +276,7 @@ public final class JsonCodec extends OpackCodec<String, Writer> {
 
             return false;
         } else if (objectType == String.class) {
-            String string = (String) object;
-            char[] charArray = string.toCharArray();
-
-            writer.write(CONST_STRING_OPEN_CHARACTER);
-
-            int last = 0;
-            int length = charArray.length;
-
-            for (int index = 0; index < length; index++) {
-                char character = charArray[index];
-                char[] replacement = null;
-
-                if (character < CONST_REPLACEMENT_CHARACTERS.length) {
-                    replacement = CONST_REPLACEMENT_CHARACTERS[character];
-                } else if (character == '\u2028') {
-                    replacement = CONST_U2028;
-                } else if (character == '\u2029') {
-                    replacement = CONST_U2029;
-                }
-
-                if (replacement != null) {
-                    if (last < index) {
-                        writer.write(charArray, last, index - last);
-                    }
-
-                    writer.write(replacement);
-                    last = index + 1;
-                }
-            }
-
-            if (last < length) {
-                writer.write(charArray, last, length - last);
-            }
-
-            writer.write(CONST_STRING_CLOSE_CHARACTER);
+            this.encodeString(writer, (String) object);
         } else {
             if (!OpackValue.isAllowType(objectType)) {
                 throw new IllegalArgumentException(objectType + " is not allowed in json format.");
@@ -250,9 +307,15 @@ public final class JsonCodec extends OpackCodec<String, Writer> {
                     writer.write(object.toString().toCharArray());
                     writer.write(CONST_STRING_CLOSE_CHARACTER);
                 } else {
-                    int convertToInt = ((char) object);
-                    writer.write(((Integer) convertToInt).toString().toCharArray());
+                    writer.write(this.encodeNumberChars, 0, JsonNumber.writeLong(this.encodeNumberChars, (char) object));
                 }
+            } else if (numberType == Double.class) {
+                // Shortest round-trip digits, written without creating the number string
+                writer.write(this.encodeNumberChars, 0, JsonNumber.writeDouble(this.encodeNumberChars, (Double) object));
+            } else if (numberType == Float.class) {
+                writer.write(this.encodeNumberChars, 0, JsonNumber.writeFloat(this.encodeNumberChars, (Float) object));
+            } else if (numberType == Long.class || numberType == Integer.class || numberType == Short.class || numberType == Byte.class) {
+                writer.write(this.encodeNumberChars, 0, JsonNumber.writeLong(this.encodeNumberChars, ((Number) object).longValue()));
             } else {
                 writer.write(object.toString().toCharArray());
             }
@@ -261,6 +324,62 @@ public final class JsonCodec extends OpackCodec<String, Writer> {
         return true;
     }
 
+    /**
+     * Encodes the string literal with escapes.
+     * The string is copied into the reused buffer chunk by chunk, and the runs of characters that need no escape are written at once.
+     *
+     * @param writer the writer for writing encoded string
+     * @param string the string to encode
+     * @throws IOException if an I/O exception occurs
+     */
+    void encodeString(Writer writer, String string) throws IOException {
+        char[] chars = this.encodeStringChars;
+        int length = string.length();
+
+        writer.write(CONST_STRING_OPEN_CHARACTER);
+
+        for (int offset = 0; offset < length; offset += chars.length) {
+            int chunkLength = Math.min(chars.length, length - offset);
+            int last = 0;
+
+            string.getChars(offset, offset + chunkLength, chars, 0);
+
+            while (last < chunkLength) {
+                // Scan the run of characters that need no escape
+                int index = last;
+                char character = 0;
+
+                while (index < chunkLength) {
+                    character = chars[index];
+
+                    if (character < CONST_REPLACEMENT_CHARACTERS.length ? CONST_REPLACEMENT_CHARACTERS[character] != null : character == '\u2028' || character == '\u2029') {
+                        break;
+                    }
+
+                    index++;
+                }
+
+                if (last < index) {
+                    writer.write(chars, last, index - last);
+                }
+
+                if (index == chunkLength) {
+                    break;
+                }
+
+                if (character < CONST_REPLACEMENT_CHARACTERS.length) {
+                    writer.write(CONST_REPLACEMENT_CHARACTERS[character]);
+                } else {
+                    writer.write(character == '\u2028' ? CONST_U2028 : CONST_U2029);
+                }
+
+                last = index + 1;
+            }
+        }
+
+        writer.write(CONST_STRING_CLOSE_CHARACTER);
+    }
+
     /**
      * Encodes the OpackValue to json string.
      *
@@ -404,6 +523,81 @@ public final class JsonCodec extends OpackCodec<String, Writer> {
         return this.encodeStringWriter.toString();
     }
 
+    /**
+     * Encodes the OpackValue to UTF-8 json bytes, without creating json string.
+     * The bytes are identical to the UTF-8 bytes of {@link #encode(OpackValue) encoded json string}.
+     *
+     * @param opackValue the OpackValue to encode
+     * @return UTF-8 json bytes
+     * @throws EncodeException if a problem occurs during encoding; if the type of data to be encoded is not allowed in json format
+     */
+    public synchronized byte[] encodeToBytes(OpackValue opackValue) throws EncodeException {
+        this.encodeByteWriter.reset();
+        this.encodeBytes(opackValue);
+        return this.encodeByteWriter.toByteArray();
+    }
+
+    /**
+     * Encodes the OpackValue to the output stream as UTF-8 json bytes, through the internal buffer without the charset encoder.
+     * The output stream is not flushed.
+     *
+     * @param outputStream the output stream to write
+     * @param opackValue   the OpackValue to encode
+     * @throws EncodeException if a problem occurs during encoding; if the type of data to be encoded is not allowed in json format
+     */
+    public synchronized void encode(OutputStream outputStream, OpackValue opackValue) throws EncodeException {
+        this.encodeByteWriter.reset(outputStream);
+
+        try {
+            this.encodeBytes(opackValue);
+        } finally {
+            this.encodeByteWriter.reset();
+        }
+    }
+
+    /**
+     * Encodes the OpackValue as UTF-8 json bytes into the byte buffer, starting at its position.
+     * A heap byte buffer is written directly through its backing array; a direct byte buffer is written through the staging array of this codec.
+     * On success, the position of the byte buffer is advanced by the number of bytes written; on failure, it is not changed.
+     *
+     * @param byteBuffer the byte buffer to write
+     * @param opackValue the OpackValue to encode
+     * @return the number of bytes written
+     * @throws EncodeException if a problem occurs during encoding; if the byte buffer has not enough space
+     */
+    public synchronized int encode(ByteBuffer byteBuffer, OpackValue opackValue) throws EncodeException {
+        int start = byteBuffer.position();
+
+        this.encodeByteWriter.reset(byteBuffer);
+
+        try {
+            this.encodeBytes(opackValue);
+        } catch (EncodeException exception) {
+            byteBuffer.position(start);
+            throw exception;
+        } finally {
+            this.encodeByteWriter.reset();
+        }
+
+        return byteBuffer.position() - start;
+    }
+
+    /**
+     * Encodes the OpackValue through the byte writer, and finishes it.
+     *
+     * @param opackValue the OpackValue to encode
+     * @throws EncodeException if a problem occurs during encoding; if the type of data to be encoded is not allowed in json format
+     */
+    void encodeBytes(OpackValue opackValue) throws EncodeException {
+        this.encode(this.encodeByteWriter, opackValue);
+
+        try {
+            this.encodeByteWriter.finish();
+        } catch (Exception exception) {
+            throw new EncodeException(exception);
+        }
+    }
+
     /**
      * Decodes the json string to {@link OpackValue OpackValue}.
      *
@@ -413,19 +607,241 @@ public final class JsonCodec extends OpackCodec<String, Writer> {
      */
     @Override
     protected OpackValue doDecode(String data) throws IOException {
+        if (this.decodeForkJoinPool != null && data.length() >= this.decodeParallelThreshold) {
+            OpackValue opackValue = this.doDecodeParallel(data);
+
+            if (opackValue != null) {
+                return opackValue;
+            }
+        }
+
+        return this.doDecode(new JsonReader(data, this.decodeCharBuffer));
+    }
+
+    /**
+     * Decodes the json string of top-level array in parallel, splitting the array into chunks of elements at the top-level commas.
+     * The boundaries are found by scanning the characters once, tracking only the string and escape state and the depth.
+     *
+     * @param data the json string to decode
+     * @return decoded OpackArray, or null if the json string is not a well-formed top-level array to split, which is decoded sequentially
+     * @throws IOException if there is a syntax problem with the elements of json array
+     */
+    OpackArray<Object> doDecodeParallel(String data) throws IOException {
+        int length = data.length();
+        int start = 0;
+
+        while (start < length && isWhitespace(data.charAt(start))) {
+            start++;
+        }
+
+        if (start == length || data.charAt(start) != '[') {
+            return null;
+        }
+
+        int chunkLength = Math.max(1, (length - start) / (this.decodeParallelism * 4));
+        ArrayList<Integer> splits = new ArrayList<>();
+        int chunkStart = start + 1;
+        int depth = 1;
+        boolean string = false;
+        int index = start + 1;
+
+        splits.add(chunkStart);
+
+        for (; index < length; index++) {
+            char currentChar = data.charAt(index);
+
+            if (string) {
+                if (currentChar == '\\') {
+                    index++;
+                } else if (currentChar == '\"') {
+                    string = false;
+                }
+            } else if (currentChar == '\"') {
+                string = true;
+            } else if (currentChar == '[' || currentChar == '{') {
+                depth++;
+            } else if (currentChar == ']' || currentChar == '}') {
+                if (--depth == 0) {
+                    break;
+                }
+            } else if (currentChar == ',' && depth == 1 && index - chunkStart >= chunkLength) {
+                splits.add(index);
+                chunkStart = index + 1;
+            }
+        }
+
+        int end = index;
+
+        if (end >= length || data.charAt(end) != ']' || splits.size() < 2) {
+            return null;
+        }
+
+        for (index = end + 1; index < length; index++) {
+            if (!isWhitespace(data.charAt(index))) {
+                return null;
+            }
+        }
+
+        splits.add(end);
+
+        /*
+            The chunk ends before the comma, the next chunk starts after it
+         */
+        ArrayList<Callable<OpackArray<Object>>> tasks = new ArrayList<>();
+
+        for (int chunkIndex = 0; chunkIndex < splits.size() - 1; chunkIndex++) {
+            int from = chunkIndex == 0 ? splits.get(chunkIndex) : splits.get(chunkIndex) + 1;
+            int to = splits.get(chunkIndex + 1);
+            boolean last = chunkIndex == splits.size() - 2;
+
+            tasks.add(() -> this.decodeWorkerCodec.get().decodeElements(new JsonReader(data, from, to, this.decodeWorkerCodec.get().decodeCharBuffer), last));
+        }
+
+        OpackArray<Object> opackArray = null;
+
+        for (Future<OpackArray<Object>> future : this.decodeForkJoinPool.invokeAll(tasks)) {
+            OpackArray<Object> chunkArray = getResult(future);
+
+            if (opackArray == null) {
+                opackArray = chunkArray;
+            } else {
+                for (int elementIndex = 0; elementIndex < chunkArray.length(); elementIndex++) {
+                    opackArray.add(chunkArray.get(elementIndex));
+                }
+            }
+        }
+
+        return opackArray;
+    }
+
+    /**
+     * Decodes the elements of a chunk of json array, as the sequential decoding does after the opening bracket or a comma.
+     *
+     * @param jsonReader the json reader of the chunk
+     * @param last       true if the chunk ends at the closing bracket, false if it ends at a comma
+     * @return the array of decoded elements
+     * @throws IOException if there is a syntax problem with the elements
+     */
+    OpackArray<Object> decodeElements(JsonReader jsonReader, boolean last) throws IOException {
         this.decodeBaseStack.reset();
         this.decodeValueStack.reset();
         this.decodeStringWriter.reset();
 
-        int pointer = 0;
+        OpackArray<Object> opackArray = new OpackArray<>();
 
-        int length = data.length();
-        char[] charArray = data.toCharArray();
-        boolean literalMode = false;
+        this.decodeBaseStack.push(0);
+        this.decodeValueStack.push(opackArray);
 
-        while (pointer < length) {
+        boolean literalMode = this.decodeValues(jsonReader, true, false);
+
+        if (this.decodeBaseStack.getSize() != 1 || this.decodeValueStack.getSize() != 1) {
+            throw new IOException("Caught corrupted stack at " + jsonReader.getPosition());
+        }
+
+        if (literalMode && !last) {
+            throw new IOException("Expected literal value, but got syntax character at " + (jsonReader.getPosition() + 1) + "(,)");
+        }
+
+        return opackArray;
+    }
+
+    /**
+     * Waits for the decoding task on the fork-join pool, and returns its result.
+     *
+     * @param future the future of decoding task
+     * @param <T>    the type of result
+     * @return the result
+     * @throws IOException if the task failed; the syntax problem found by the task is rethrown as it is
+     */
+    static <T> T getResult(Future<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (ExecutionException exception) {
+            // The fork-join pool wraps the exception of callable, so find the syntax problem in the causes
+            Throwable cause = exception.getCause();
+
+            while (cause != null && !(cause instanceof IOException)) {
+                cause = cause.getCause();
+            }
+
+            if (cause != null) {
+                throw (IOException) cause;
+            }
+
+            throw new IOException(exception.getCause());
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IOException(exception);
+        }
+    }
+
+    private static boolean isWhitespace(char character) {
+        return character == ' ' || character == '\r' || character == '\n' || character == '\t';
+    }
+
+    /**
+     * Decodes the json data read through the json reader to {@link OpackValue OpackValue}.
+     *
+     * @param jsonReader the json reader to read
+     * @return OpackValue
+     * @throws IOException if an I/O error occurs; if there is a syntax problem with the json data; if the json data has a unicode whose unknown pattern
+     */
+    OpackValue doDecode(JsonReader jsonReader) throws IOException {
+        this.decodeBaseStack.reset();
+        this.decodeValueStack.reset();
+        this.decodeStringWriter.reset();
+
+        this.decodeValues(jsonReader, false, false);
+
+        return (OpackValue) this.decodeValueStack.get(0);
+    }
+
+    /**
+     * Decodes the next json value read through the json reader, leaving the data after the value unread.
+     *
+     * @param jsonReader the json reader to read
+     * @return OpackValue, or null if there is no value until the end of data
+     * @throws IOException if an I/O error occurs; if there is a syntax problem with the json data; if the json data ends in the middle of value; if the value is not object or array
+     */
+    synchronized OpackValue decodeNext(JsonReader jsonReader) throws IOException {
+        this.decodeBaseStack.reset();
+        this.decodeValueStack.reset();
+        this.decodeStringWriter.reset();
+
+        this.decodeValues(jsonReader, false, true);
+
+        if (!this.decodeBaseStack.isEmpty()) {
+            throw new EOFException("Unexpected end of json data, value is not closed at " + jsonReader.getPosition());
+        }
+
+        if (this.decodeValueStack.isEmpty()) {
+            return null;
+        }
+
+        Object value = this.decodeValueStack.get(0);
+
+        if (!(value instanceof OpackValue)) {
+            throw new IOException("Expected object or array, but got literal value at " + jsonReader.getPosition());
+        }
+
+        return (OpackValue) value;
+    }
+
+    /**
+     * Decodes the json data read through the json reader into the decode stacks, until the end of data.
+     *
+     * @param jsonReader  the json reader to read
+     * @param literalMode true if a literal value is expected first
+     * @param single      true to stop after the first top-level value
+     * @return true if a literal value is expected at the end of data
+     * @throws IOException if an I/O error occurs; if there is a syntax problem with the json data; if the json data has a unicode whose unknown pattern
+     */
+    boolean decodeValues(JsonReader jsonReader, boolean literalMode, boolean single) throws IOException {
+        int read;
+
+        while ((read = jsonReader.read()) != -1) {
             boolean stackMerge = false;
-            char currentChar = charArray[pointer++];
+            char currentChar = (char) read;
 
             switch (currentChar) {
                 /*
@@ -448,7 +864,7 @@ public final class JsonCodec extends OpackCodec<String, Writer> {
                 case '}':
                 case ']': {
                     if (this.decodeValueStack.getSize() - 1 != this.decodeBaseStack.peek()) {
-                        throw new IOException("Expected literal value, but got close syntax character at " + pointer + "(" + currentChar + ")");
+                        throw new IOException("Expected literal value, but got close syntax character at " + jsonReader.getPosition() + "(" + currentChar + ")");
                     }
 
                     this.decodeBaseStack.pop();
@@ -459,7 +875,7 @@ public final class JsonCodec extends OpackCodec<String, Writer> {
                 case ',':
                 case ':': {
                     if (literalMode) {
-                        throw new IOException("Expected literal value, but got syntax character at " + pointer + "(" + currentChar + ")");
+                        throw new IOException("Expected literal value, but got syntax character at " + jsonReader.getPosition() + "(" + currentChar + ")");
                     }
 
                     int baseIndex = this.decodeBaseStack.peek();
@@ -471,7 +887,7 @@ public final class JsonCodec extends OpackCodec<String, Writer> {
                         case ',': {
                             if (objectType == OpackObject.class) {
                                 if (valueSize != 0) {
-                                    throw new IOException("The map type cannot contain items that do not exist. at " + pointer + "(" + currentChar + ")");
+                                    throw new IOException("The map type cannot contain items that do not exist. at " + jsonReader.getPosition() + "(" + currentChar + ")");
                                 }
                             }
 
@@ -480,11 +896,11 @@ public final class JsonCodec extends OpackCodec<String, Writer> {
                         case ':': {
                             if (objectType == OpackObject.class) {
                                 if (valueSize != 1) {
-                                    throw new IOException("The map item must have a key. at " + pointer + "(" + currentChar + ")");
+                                    throw new IOException("The map item must have a key. at " + jsonReader.getPosition() + "(" + currentChar + ")");
                                 }
                             }
                             if (objectType == OpackArray.class) {
-                                throw new IOException("The array type cannot contain colons. at " + pointer + "(" + currentChar + ")");
+                                throw new IOException("The array type cannot contain colons. at " + jsonReader.getPosition() + "(" + currentChar + ")");
                             }
 
                             break;
@@ -508,105 +924,38 @@ public final class JsonCodec extends OpackCodec<String, Writer> {
                      */
                     if (literalMode) {
                         if (currentChar == '\"') {
-                            while (pointer < length) {
-                                char literalChar = charArray[pointer++];
-
-                                if (literalChar == '\"') {
-                                    this.decodeValueStack.push(this.decodeStringWriter.toString());
-
-                                    this.decodeStringWriter.reset();
-                                    stackMerge = true;
-                                    break;
-                                } else if (literalChar == '\\') {
-                                    char nextChar = charArray[pointer++];
-
-                                    switch (nextChar) {
-                                        case '"':
-                                            this.decodeStringWriter.write('\"');
-                                            break;
-                                        case '\\':
-                                            this.decodeStringWriter.write('\\');
-                                            break;
-                                        case 'u':
-                                            char result = 0;
-                                            for (int i = 0; i < 4; i++) {
-                                                char unicode = charArray[pointer++];
-                                                result <<= 4;
-                                                if (unicode >= '0' && unicode <= '9') {
-                                                    result += (unicode - '0');
-                                                } else if (unicode >= 'a' && unicode <= 'f') {
-                                                    result += (unicode - 'a' + 10);
-                                                } else if (unicode >= 'A' && unicode <= 'F') {
-                                                    result += (unicode - 'A' + 10);
-                                                } else {
-                                                    throw new IOException("Parsed unknown unicode pattern at " + pointer + "(" + unicode + ")");
-                                                }
-                                            }
-                                            this.decodeStringWriter.write(result);
-                                            break;
-                                        case 'b':
-                                            this.decodeStringWriter.write('\b');
-                                            break;
-                                        case 'f':
-                                            this.decodeStringWriter.write('\f');
-                                            break;
-                                        case 'n':
-                                            this.decodeStringWriter.write('\n');
-                                            break;
-                                        case 'r':
-                                            this.decodeStringWriter.write('\r');
-                                            break;
-                                        case 't':
-                                            this.decodeStringWriter.write('\t');
-                                            break;
-                                    }
-                                } else {
-                                    this.decodeStringWriter.write(literalChar);
-                                }
-                            }
+                            jsonReader.readString(this.decodeStringWriter);
+                            this.decodeValueStack.push(this.decodeStringWriter.toString());
+
+                            this.decodeStringWriter.reset();
+                            stackMerge = true;
                         } else if ((currentChar >= '0' && currentChar <= '9') || currentChar == '-') {
-                            pointer--;
-
-                            boolean decimal = false;
-                            while (pointer < length) {
-                                char literalChar = charArray[pointer++];
-
-                                if (!(literalChar >= '0' && literalChar <= '9') && literalChar != 'E' && literalChar != 'e' && literalChar != '+' && literalChar != '-' && literalChar != '.') {
-                                    if (decimal) {
-                                        this.decodeValueStack.push(Double.parseDouble(this.decodeStringWriter.toString()));
-                                    } else {
-                                        this.decodeValueStack.push(Long.parseLong(this.decodeStringWriter.toString()));
-                                    }
-
-                                    pointer--;
-                                    this.decodeStringWriter.reset();
-                                    stackMerge = true;
-                                    break;
-                                } else {
-                                    if (literalChar == '.') {
-                                        decimal = true;
-                                    }
-
-                                    this.decodeStringWriter.write(literalChar);
-                                }
+                            jsonReader.unread();
+
+                            if (jsonReader.readNumber(null)) {
+                                this.decodeValueStack.push(jsonReader.getDoubleValue());
+                            } else {
+                                this.decodeValueStack.push(jsonReader.getLongValue());
                             }
+
+                            stackMerge = true;
                         } else if (currentChar == 't') {
                             this.decodeValueStack.push(true);
-                            pointer = pointer + 3;
+                            jsonReader.skip(3);
                             stackMerge = true;
                         } else if (currentChar == 'f') {
                             this.decodeValueStack.push(false);
-                            pointer = pointer + 4;
+                            jsonReader.skip(4);
                             stackMerge = true;
                         } else if (currentChar == 'n') {
                             this.decodeValueStack.push(null);
-                            pointer = pointer + 3;
+                            jsonReader.skip(3);
                             stackMerge = true;
                         } else {
-                            throw new IOException("This value is not an opack value. Unknown value at " + pointer + "(" + currentChar + ")");
+                            throw new IOException("This value is not an opack value. Unknown value at " + jsonReader.getPosition() + "(" + currentChar + ")");
                         }
                     } else {
-                        throw new IOException("Parsed unknown character at " + pointer + "(" + currentChar + ")");
+                        throw new IOException("Parsed unknown character at " + jsonReader.getPosition() + "(" + currentChar + ")");
                     }
                 }
             }
@@ -639,9 +988,78 @@ public final class JsonCodec extends OpackCodec<String, Writer> {
                 } else {
                     throw new IOException("Caught corrupted stack, got " + objectType.getSimpleName());
                 }
+            } else if (stackMerge && single) {
+                break;
             }
         }
 
-        return (OpackValue) this.decodeValueStack.get(0);
+        return literalMode;
+    }
+
+    /**
+     * Decodes the json data read from the reader to {@link OpackValue OpackValue}.
+     * The data is read through the fixed-size buffer, so the whole document is never held in memory as characters.
+     *
+     * @param reader the reader to decode
+     * @return OpackValue
+     * @throws DecodeException if a problem occurs during decoding; if there is a syntax problem with the json data
+     */
+    public synchronized OpackValue decode(Reader reader) throws DecodeException {
+        try {
+            return this.doDecode(new JsonReader(reader, this.decodeCharBuffer));
+        } catch (Exception exception) {
+            throw new DecodeException(exception);
+        }
+    }
+
+    /**
+     * Decodes the UTF-8 json data read from the input stream to {@link OpackValue OpackValue}.
+     * The bytes are decoded into the fixed-size buffer directly, without an intermediate {@link Reader Reader}.
+     *
+     * @param inputStream the input stream to decode
+     * @return OpackValue
+     * @throws DecodeException if a problem occurs during decoding; if there is a syntax problem with the json data
+     */
+    public synchronized OpackValue decode(InputStream inputStream) throws DecodeException {
+        try {
+            return this.doDecode(new JsonReader(inputStream, this.decodeCharBuffer));
+        } catch (Exception exception) {
+            throw new DecodeException(exception);
+        }
+    }
+
+    /**
+     * Decodes the UTF-8 json bytes to {@link OpackValue OpackValue}.
+     * The bytes are decoded chunk by chunk through the fixed-size buffer, so no json string is created for the whole document.
+     *
+     * @param bytes the UTF-8 json bytes to decode
+     * @return OpackValue
+     * @throws DecodeException if a problem occurs during decoding; if there is a syntax problem with the json data
+     */
+    public synchronized OpackValue decode(byte[] bytes) throws DecodeException {
+        try {
+            return this.doDecode(new JsonReader(bytes, 0, bytes.length, this.decodeCharBuffer));
+        } catch (Exception exception) {
+            throw new DecodeException(exception);
+        }
+    }
+
+    /**
+     * Decodes the UTF-8 json bytes from the position up to the limit of the heap or direct byte buffer to {@link OpackValue OpackValue}.
+     * On success, the position of the byte buffer is advanced to its limit; on failure, it is not changed.
+     *
+     * @param byteBuffer the byte buffer to decode
+     * @return OpackValue
+     * @throws DecodeException if a problem occurs during decoding; if there is a syntax problem with the json data
+     */
+    public synchronized OpackValue decode(ByteBuffer byteBuffer) throws DecodeException {
+        try {
+            OpackValue opackValue = this.doDecode(new JsonReader(byteBuffer, this.decodeCharBuffer));
+            byteBuffer.position(byteBuffer.limit());
+
+            return opackValue;
+        } catch (Exception exception) {
+            throw new DecodeException(exception);
+        }
     }
-}
\ No newline at end of file
+}
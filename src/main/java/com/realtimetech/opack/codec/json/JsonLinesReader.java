@@ -0,0 +1,285 @@
+/*
+ * Copyright (C) 2021 REALTIMETECH All Rights Reserved
+ *
+ * Licensed either under the Apache License, Version 2.0, or (at your option)
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (subject to the "Classpath" exception),
+ * either version 2, or any later version (collectively, the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     http://www.gnu.org/licenses/
+ *     http://www.gnu.org/software/classpath/license.html
+ *
+ * or as provided in the LICENSE file that accompanied this code.
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.realtimetech.opack.codec.json;
+
+import com.realtimetech.opack.Opacker;
+import com.realtimetech.opack.exception.DeserializeException;
+import com.realtimetech.opack.util.StringWriter;
+import com.realtimetech.opack.value.OpackValue;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+
+/**
+ * Reader that reads the records of newline-delimited json (JSON Lines), one json value per line.
+ * The records are decoded straight from the fixed-size buffer through the decode stacks of {@link JsonCodec JsonCodec}, without creating a string per line.
+ * If the json codec is built with {@link JsonCodec.Builder#setDecodeParallelism(int) decode parallelism}, the lines are read in batches and decoded on the fork-join pool of the codec, in order.
+ * Each record must be an object or array on a single line. An invalid line is reported once at its turn, and the next read continues from the line after it, in both sequential and parallel reading.
+ * This reader is not thread-safe.
+ */
+public final class JsonLinesReader implements Closeable {
+    private static final int DEFAULT_BUFFER_SIZE = 8192;
+    private static final int BATCH_LINES_PER_THREAD = 256;
+
+    private final Reader reader;
+    private final JsonReader jsonReader;
+    private final JsonCodec jsonCodec;
+
+    private final StringWriter lineWriter;
+    private final ArrayDeque<Object> batchQueue;
+
+    private long lineNumber;
+
+    /**
+     * Calls {@code new JsonLinesReader(reader, new JsonCodec.Builder().create())}
+     *
+     * @param reader the reader to read
+     */
+    public JsonLinesReader(@NotNull Reader reader) {
+        this(reader, new JsonCodec.Builder().create());
+    }
+
+    /**
+     * Constructs the JsonLinesReader that reads the records from the reader.
+     *
+     * @param reader    the reader to read
+     * @param jsonCodec the json codec to decode the records
+     */
+    public JsonLinesReader(@NotNull Reader reader, @NotNull JsonCodec jsonCodec) {
+        this.reader = reader;
+        this.jsonReader = new JsonReader(reader, new char[DEFAULT_BUFFER_SIZE]);
+        this.jsonCodec = jsonCodec;
+
+        this.lineWriter = new StringWriter(256);
+        this.batchQueue = new ArrayDeque<>();
+
+        this.lineNumber = 0;
+    }
+
+    /**
+     * Calls {@code new JsonLinesReader(inputStream, new JsonCodec.Builder().create())}
+     *
+     * @param inputStream the UTF-8 input stream to read
+     */
+    public JsonLinesReader(@NotNull InputStream inputStream) {
+        this(inputStream, new JsonCodec.Builder().create());
+    }
+
+    /**
+     * Constructs the JsonLinesReader that reads the records from the UTF-8 input stream.
+     *
+     * @param inputStream the UTF-8 input stream to read
+     * @param jsonCodec   the json codec to decode the records
+     */
+    public JsonLinesReader(@NotNull InputStream inputStream, @NotNull JsonCodec jsonCodec) {
+        this(new InputStreamReader(inputStream, StandardCharsets.UTF_8), jsonCodec);
+    }
+
+    /**
+     * Returns the number of lines read so far, including the blank lines.
+     *
+     * @return the number of lines
+     */
+    public long getLineNumber() {
+        return this.lineNumber;
+    }
+
+    /**
+     * Reads the next record, skipping the blank lines.
+     *
+     * @return the record, or null if there are no more records
+     * @throws IOException if an I/O error occurs; if there is a syntax problem with the line; if the line has more than one json value; if the value is not object or array
+     */
+    public OpackValue read() throws IOException {
+        if (this.jsonCodec.decodeForkJoinPool != null) {
+            if (this.batchQueue.isEmpty()) {
+                this.readBatch();
+            }
+
+            Object result = this.batchQueue.poll();
+
+            if (result instanceof IOException) {
+                throw (IOException) result;
+            }
+
+            return (OpackValue) result;
+        }
+
+        int read;
+
+        while ((read = this.jsonReader.read()) != -1) {
+            char currentChar = (char) read;
+
+            if (currentChar == '\n') {
+                this.lineNumber++;
+            } else if (currentChar != ' ' && currentChar != '\r' && currentChar != '\t') {
+                this.jsonReader.unread();
+                this.jsonReader.setLineBounded(true);
+
+                try {
+                    return decodeLine(this.jsonCodec, this.jsonReader);
+                } catch (IOException exception) {
+                    throw new IOException("Caught invalid json line " + (this.lineNumber + 1), exception);
+                } finally {
+                    // Consume the rest of line and the line feed, even if the line is invalid
+                    this.jsonReader.setLineBounded(false);
+                    this.lineNumber++;
+
+                    while ((read = this.jsonReader.read()) != -1 && read != '\n') {
+                        // Skip the rest of line
+                    }
+                }
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Reads the next record, and deserializes it to the object of the type.
+     *
+     * @param opacker the opacker to deserialize the record
+     * @param type    the type of object
+     * @param <T>     the type of object
+     * @return the deserialized object, or null if there are no more records
+     * @throws IOException          if an I/O error occurs; if there is a syntax problem with the line
+     * @throws DeserializeException if a problem occurs during deserializing
+     */
+    public <T> T read(@NotNull Opacker opacker, @NotNull Class<T> type) throws IOException, DeserializeException {
+        OpackValue opackValue = this.read();
+
+        if (opackValue == null) {
+            return null;
+        }
+
+        return opacker.deserialize(type, opackValue);
+    }
+
+    /**
+     * Reads the batch of non-blank lines as strings, and decodes them on the fork-join pool of the json codec.
+     * The records are queued in order, and the exception of an invalid line is queued in place of its record.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    private void readBatch() throws IOException {
+        int batchSize = this.jsonCodec.decodeParallelism * BATCH_LINES_PER_THREAD;
+        ArrayList<Callable<OpackValue>> tasks = new ArrayList<>(batchSize);
+        ArrayList<Long> lineNumbers = new ArrayList<>(batchSize);
+
+        while (tasks.size() < batchSize) {
+            boolean blank = true;
+            int read;
+
+            this.lineWriter.reset();
+
+            while ((read = this.jsonReader.read()) != -1 && read != '\n') {
+                char currentChar = (char) read;
+
+                if (currentChar != ' ' && currentChar != '\r' && currentChar != '\t') {
+                    blank = false;
+                }
+
+                this.lineWriter.write(currentChar);
+            }
+
+            if (read == -1 && this.lineWriter.getLength() == 0) {
+                break;
+            }
+
+            this.lineNumber++;
+
+            if (!blank) {
+                String line = this.lineWriter.toString();
+
+                tasks.add(() -> {
+                    JsonCodec workerJsonCodec = this.jsonCodec.decodeWorkerCodec.get();
+                    return decodeLine(workerJsonCodec, new JsonReader(line, workerJsonCodec.decodeCharBuffer));
+                });
+                lineNumbers.add(this.lineNumber);
+            }
+
+            if (read == -1) {
+                break;
+            }
+        }
+
+        if (tasks.isEmpty()) {
+            return;
+        }
+
+        int index = 0;
+
+        for (Future<OpackValue> future : this.jsonCodec.decodeForkJoinPool.invokeAll(tasks)) {
+            try {
+                this.batchQueue.add(JsonCodec.getResult(future));
+            } catch (IOException exception) {
+                this.batchQueue.add(new IOException("Caught invalid json line " + lineNumbers.get(index), exception));
+            }
+
+            index++;
+        }
+    }
+
+    /**
+     * Decodes the json value of a line, and consumes the rest of line that must be blank.
+     * The json reader must end at the end of line, so that the value cannot continue to the next line.
+     *
+     * @param jsonCodec  the json codec to decode
+     * @param jsonReader the json reader positioned at the value, bounded to the line
+     * @return the decoded value
+     * @throws IOException if an I/O error occurs; if there is a syntax problem with the line; if the line has more than one json value; if the value is not object or array
+     */
+    private static OpackValue decodeLine(JsonCodec jsonCodec, JsonReader jsonReader) throws IOException {
+        OpackValue opackValue = jsonCodec.decodeNext(jsonReader);
+        int read;
+
+        while ((read = jsonReader.read()) != -1) {
+            char currentChar = (char) read;
+
+            if (currentChar != ' ' && currentChar != '\r' && currentChar != '\t') {
+                throw new IOException("Expected end of line, but got character at " + jsonReader.getPosition() + "(" + currentChar + ")");
+            }
+        }
+
+        return opackValue;
+    }
+
+    /**
+     * Closes the underlying reader.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public void close() throws IOException {
+        this.reader.close();
+    }
+}
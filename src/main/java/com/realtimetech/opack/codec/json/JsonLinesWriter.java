@@ -0,0 +1,136 @@
+/*
+ * Copyright (C) 2021 REALTIMETECH All Rights Reserved
+ *
+ * Licensed either under the Apache License, Version 2.0, or (at your option)
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (subject to the "Classpath" exception),
+ * either version 2, or any later version (collectively, the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     http://www.gnu.org/licenses/
+ *     http://www.gnu.org/software/classpath/license.html
+ *
+ * or as provided in the LICENSE file that accompanied this code.
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.realtimetech.opack.codec.json;
+
+import com.realtimetech.opack.Opacker;
+import com.realtimetech.opack.exception.EncodeException;
+import com.realtimetech.opack.exception.SerializeException;
+import com.realtimetech.opack.value.OpackValue;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+
+/**
+ * Writer that writes the records of newline-delimited json (JSON Lines), one json value per line.
+ * The records are encoded straight to the writer through {@link JsonCodec JsonCodec}, without creating a string per line.
+ * This writer is not thread-safe.
+ */
+public final class JsonLinesWriter implements Closeable, Flushable {
+    private static final char CONST_LINE_SEPARATOR_CHARACTER = '\n';
+
+    private final Writer writer;
+    private final JsonCodec jsonCodec;
+
+    /**
+     * Calls {@code new JsonLinesWriter(writer, new JsonCodec.Builder().create())}
+     *
+     * @param writer the writer to write
+     */
+    public JsonLinesWriter(@NotNull Writer writer) {
+        this(writer, new JsonCodec.Builder().create());
+    }
+
+    /**
+     * Constructs the JsonLinesWriter that writes the records to the writer.
+     *
+     * @param writer    the writer to write
+     * @param jsonCodec the json codec to encode the records
+     * @throws IllegalArgumentException if the json codec prints formatted, which breaks a record into multiple lines
+     */
+    public JsonLinesWriter(@NotNull Writer writer, @NotNull JsonCodec jsonCodec) {
+        if (jsonCodec.prettyFormat) {
+            throw new IllegalArgumentException("Json codec for json lines must not print formatted");
+        }
+
+        this.writer = writer;
+        this.jsonCodec = jsonCodec;
+    }
+
+    /**
+     * Calls {@code new JsonLinesWriter(outputStream, new JsonCodec.Builder().create())}
+     *
+     * @param outputStream the output stream to write in UTF-8
+     */
+    public JsonLinesWriter(@NotNull OutputStream outputStream) {
+        this(outputStream, new JsonCodec.Builder().create());
+    }
+
+    /**
+     * Constructs the JsonLinesWriter that writes the records to the output stream in UTF-8, through a buffer without the charset encoder.
+     *
+     * @param outputStream the output stream to write in UTF-8
+     * @param jsonCodec    the json codec to encode the records
+     */
+    public JsonLinesWriter(@NotNull OutputStream outputStream, @NotNull JsonCodec jsonCodec) {
+        this(new JsonByteWriter(outputStream), jsonCodec);
+    }
+
+    /**
+     * Writes the opack value as a line.
+     *
+     * @param opackValue the opack value to write
+     * @throws IOException     if an I/O error occurs
+     * @throws EncodeException if a problem occurs during encoding
+     */
+    public void write(@NotNull OpackValue opackValue) throws IOException, EncodeException {
+        this.jsonCodec.encode(this.writer, opackValue);
+        this.writer.write(CONST_LINE_SEPARATOR_CHARACTER);
+    }
+
+    /**
+     * Serializes the object, and writes it as a line.
+     *
+     * @param opacker the opacker to serialize the object
+     * @param object  the object to write
+     * @throws IOException        if an I/O error occurs
+     * @throws SerializeException if a problem occurs during serializing
+     * @throws EncodeException    if a problem occurs during encoding
+     */
+    public void write(@NotNull Opacker opacker, @NotNull Object object) throws IOException, SerializeException, EncodeException {
+        this.write(opacker.serialize(object));
+    }
+
+    /**
+     * Flushes the underlying writer.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public void flush() throws IOException {
+        this.writer.flush();
+    }
+
+    /**
+     * Closes the underlying writer.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public void close() throws IOException {
+        this.writer.close();
+    }
+}
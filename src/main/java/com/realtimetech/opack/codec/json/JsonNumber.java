@@ -0,0 +1,585 @@
+/*
+ * Copyright (C) 2021 REALTIMETECH All Rights Reserved
+ *
+ * Licensed either under the Apache License, Version 2.0, or (at your option)
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (subject to the "Classpath" exception),
+ * either version 2, or any later version (collectively, the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     http://www.gnu.org/licenses/
+ *     http://www.gnu.org/software/classpath/license.html
+ *
+ * or as provided in the LICENSE file that accompanied this code.
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.realtimetech.opack.codec.json;
+
+import java.math.BigInteger;
+
+/**
+ * Converts between the decimal number literals and the numbers, without creating the number string.
+ * <p>
+ * On parsing, exactly representable values are computed with one floating-point operation, and the others with the Eisel-Lemire algorithm.
+ * The rare values that cannot be decided are reported so that the caller can fall back to {@link Double#parseDouble(String)}.
+ * <p>
+ * On formatting, doubles and floats are written as the shortest decimal that rounds to the same value, with the Schubfach algorithm.
+ * The layout is the same as {@link Double#toString(double)}, such as {@code 100.0}, {@code 0.001} and {@code 1.0E-5}.
+ */
+final class JsonNumber {
+    /**
+     * The maximum number of significant decimal digits that an unsigned long can hold.
+     */
+    static final int MAX_SIGNIFICAND_DIGITS = 19;
+
+    /**
+     * The maximum number of characters written by the write methods.
+     */
+    static final int MAX_WRITE_LENGTH = 32;
+
+    private static final int SMALLEST_FORMAT_POWER_OF_TEN = -324;
+    private static final int LARGEST_FORMAT_POWER_OF_TEN = 292;
+
+    private static final int DOUBLE_SIGNIFICAND_BITS = 52;
+    private static final int DOUBLE_MIN_EXPONENT = -1074;
+    private static final long DOUBLE_TINY_SIGNIFICAND = 3;
+
+    private static final int FLOAT_SIGNIFICAND_BITS = 23;
+    private static final int FLOAT_MIN_EXPONENT = -149;
+    private static final long FLOAT_TINY_SIGNIFICAND = 8;
+
+    private static final long MASK_63 = (1L << 63) - 1;
+
+    private static final char[] MIN_LONG_CHARACTERS = Long.toString(Long.MIN_VALUE).toCharArray();
+
+    private static final int SMALLEST_POWER_OF_TEN = -342;
+    private static final int LARGEST_POWER_OF_TEN = 308;
+
+    private static final double[] EXACT_POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private static final long[] POWERS_OF_FIVE_HIGH;
+    private static final long[] POWERS_OF_FIVE_LOW;
+
+    private static final long[] FORMAT_POWERS_OF_TEN_HIGH;
+    private static final long[] FORMAT_POWERS_OF_TEN_LOW;
+
+    static {
+        int size = LARGEST_POWER_OF_TEN - SMALLEST_POWER_OF_TEN + 1;
+
+        POWERS_OF_FIVE_HIGH = new long[size];
+        POWERS_OF_FIVE_LOW = new long[size];
+
+        BigInteger five = BigInteger.valueOf(5);
+
+        for (int power = SMALLEST_POWER_OF_TEN; power <= LARGEST_POWER_OF_TEN; power++) {
+            BigInteger value;
+
+            if (power < 0) {
+                // The 128 most significant bits of 1 / 5^-power, rounded up
+                BigInteger powerOfFive = five.pow(-power);
+                int bits = powerOfFive.bitLength();
+
+                value = BigInteger.ONE.shiftLeft(power >= -27 ? bits + 127 : 2 * bits + 128).divide(powerOfFive).add(BigInteger.ONE);
+            } else {
+                // The 128 most significant bits of 5^power, truncated
+                value = five.pow(power);
+            }
+
+            value = value.bitLength() > 128 ? value.shiftRight(value.bitLength() - 128) : value.shiftLeft(128 - value.bitLength());
+
+            POWERS_OF_FIVE_HIGH[power - SMALLEST_POWER_OF_TEN] = value.shiftRight(64).longValue();
+            POWERS_OF_FIVE_LOW[power - SMALLEST_POWER_OF_TEN] = value.longValue();
+        }
+
+        size = LARGEST_FORMAT_POWER_OF_TEN - SMALLEST_FORMAT_POWER_OF_TEN + 1;
+
+        FORMAT_POWERS_OF_TEN_HIGH = new long[size];
+        FORMAT_POWERS_OF_TEN_LOW = new long[size];
+
+        for (int power = SMALLEST_FORMAT_POWER_OF_TEN; power <= LARGEST_FORMAT_POWER_OF_TEN; power++) {
+            // The 126 bits of 10^-power, floored and incremented by one
+            int shift = 125 - floorLog2PowerOfTen(-power);
+            BigInteger value;
+
+            if (power <= 0) {
+                BigInteger powerOfTen = BigInteger.TEN.pow(-power);
+                value = shift >= 0 ? powerOfTen.shiftLeft(shift) : powerOfTen.shiftRight(-shift);
+            } else {
+                value = BigInteger.ONE.shiftLeft(shift).divide(BigInteger.TEN.pow(power));
+            }
+
+            value = value.add(BigInteger.ONE);
+
+            FORMAT_POWERS_OF_TEN_HIGH[power - SMALLEST_FORMAT_POWER_OF_TEN] = value.shiftRight(63).longValue();
+            FORMAT_POWERS_OF_TEN_LOW[power - SMALLEST_FORMAT_POWER_OF_TEN] = value.longValue() & MASK_63;
+        }
+    }
+
+    private JsonNumber() {
+    }
+
+    /**
+     * Returns the double closest to {@code significand * 10^exponent}.
+     *
+     * @param significand the unsigned significand of at most {@link #MAX_SIGNIFICAND_DIGITS MAX_SIGNIFICAND_DIGITS} digits
+     * @param exponent    the decimal exponent
+     * @param negative    true if the number is negative
+     * @return the double, or {@link Double#NaN NaN} if it cannot be decided without the full number literal
+     */
+    static double toDouble(long significand, int exponent, boolean negative) {
+        if (significand == 0) {
+            return negative ? -0.0 : 0.0;
+        }
+
+        if (exponent >= -22 && exponent <= 22 && significand >= 0 && significand <= (1L << 53)) {
+            double value = (double) significand;
+            value = exponent < 0 ? value / EXACT_POWERS_OF_TEN[-exponent] : value * EXACT_POWERS_OF_TEN[exponent];
+
+            return negative ? -value : value;
+        }
+
+        if (exponent < SMALLEST_POWER_OF_TEN) {
+            return negative ? -0.0 : 0.0;
+        }
+
+        if (exponent > LARGEST_POWER_OF_TEN) {
+            return negative ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+        }
+
+        return computeDouble(significand, exponent, negative);
+    }
+
+    /**
+     * Computes the double with the Eisel-Lemire algorithm.
+     *
+     * @param significand the non-zero unsigned significand
+     * @param exponent    the decimal exponent, in the range of the power table
+     * @param negative    true if the number is negative
+     * @return the double, or {@link Double#NaN NaN} if it cannot be decided
+     */
+    private static double computeDouble(long significand, int exponent, boolean negative) {
+        int index = exponent - SMALLEST_POWER_OF_TEN;
+        long binaryExponent = (((152170L + 65536L) * exponent) >> 16) + 1024 + 63;
+        int leadingZeros = Long.numberOfLeadingZeros(significand);
+        long normalized = significand << leadingZeros;
+
+        long factorHigh = POWERS_OF_FIVE_HIGH[index];
+        long lower = normalized * factorHigh;
+        long upper = unsignedMultiplyHigh(normalized, factorHigh);
+
+        if ((upper & 0x1FF) == 0x1FF && Long.compareUnsigned(lower + normalized, lower) < 0) {
+            // The truncated product may be off, so take the lower half of the power into account
+            long factorLow = POWERS_OF_FIVE_LOW[index];
+            long productLow = normalized * factorLow;
+            long productMiddle = lower + unsignedMultiplyHigh(normalized, factorLow);
+            long productHigh = upper;
+
+            if (Long.compareUnsigned(productMiddle, lower) < 0) {
+                productHigh++;
+            }
+
+            if (productMiddle + 1 == 0 && (productHigh & 0x1FF) == 0x1FF && Long.compareUnsigned(productLow + normalized, productLow) < 0) {
+                return Double.NaN;
+            }
+
+            upper = productHigh;
+            lower = productMiddle;
+        }
+
+        int upperBit = (int) (upper >>> 63);
+        long mantissa = upper >>> (upperBit + 9);
+        leadingZeros += 1 ^ upperBit;
+
+        if (lower == 0 && (upper & 0x1FF) == 0 && (mantissa & 3) == 1) {
+            // Exactly halfway between two doubles
+            return Double.NaN;
+        }
+
+        mantissa += mantissa & 1;
+        mantissa >>>= 1;
+
+        if (mantissa >= (1L << 53)) {
+            mantissa = 1L << 52;
+            leadingZeros--;
+        }
+
+        mantissa &= ~(1L << 52);
+
+        long realExponent = binaryExponent - leadingZeros;
+
+        if (realExponent < 1 || realExponent > 2046) {
+            // Subnormal or overflowing
+            return Double.NaN;
+        }
+
+        return Double.longBitsToDouble(mantissa | realExponent << 52 | (negative ? 1L << 63 : 0));
+    }
+
+    /**
+     * Returns the high 64 bits of the unsigned 128-bit product.
+     *
+     * @param first  the first unsigned value
+     * @param second the second unsigned value
+     * @return the high 64 bits
+     */
+    private static long unsignedMultiplyHigh(long first, long second) {
+        return Math.multiplyHigh(first, second) + ((first >> 63) & second) + ((second >> 63) & first);
+    }
+
+    /**
+     * Writes the shortest decimal literal of the finite double that rounds to the same double.
+     *
+     * @param chars the chars to write, at least {@link #MAX_WRITE_LENGTH MAX_WRITE_LENGTH} long
+     * @param value the finite double to write
+     * @return the number of characters written
+     */
+    static int writeDouble(char[] chars, double value) {
+        long bits = Double.doubleToRawLongBits(value);
+        int index = 0;
+
+        if (bits < 0) {
+            chars[index++] = '-';
+        }
+
+        long fraction = bits & ((1L << DOUBLE_SIGNIFICAND_BITS) - 1);
+        int biasedExponent = (int) (bits >>> DOUBLE_SIGNIFICAND_BITS) & 0x7FF;
+
+        if (biasedExponent != 0) {
+            int exponent = DOUBLE_MIN_EXPONENT - 1 + biasedExponent;
+            long significand = (1L << DOUBLE_SIGNIFICAND_BITS) | fraction;
+
+            if (exponent < 0 && exponent > -DOUBLE_SIGNIFICAND_BITS - 1) {
+                // Integers are written as they are
+                long integer = significand >> -exponent;
+
+                if (integer << -exponent == significand) {
+                    return writeDecimal(chars, index, integer, 0);
+                }
+            }
+
+            return writeShortest(chars, index, exponent, significand, 0, fraction == 0 && biasedExponent > 1);
+        }
+
+        if (fraction != 0) {
+            return fraction < DOUBLE_TINY_SIGNIFICAND
+                    ? writeShortest(chars, index, DOUBLE_MIN_EXPONENT, 10 * fraction, -1, false)
+                    : writeShortest(chars, index, DOUBLE_MIN_EXPONENT, fraction, 0, false);
+        }
+
+        return writeZero(chars, index);
+    }
+
+    /**
+     * Writes the shortest decimal literal of the finite float that rounds to the same float.
+     *
+     * @param chars the chars to write, at least {@link #MAX_WRITE_LENGTH MAX_WRITE_LENGTH} long
+     * @param value the finite float to write
+     * @return the number of characters written
+     */
+    static int writeFloat(char[] chars, float value) {
+        int bits = Float.floatToRawIntBits(value);
+        int index = 0;
+
+        if (bits < 0) {
+            chars[index++] = '-';
+        }
+
+        long fraction = bits & ((1 << FLOAT_SIGNIFICAND_BITS) - 1);
+        int biasedExponent = (bits >>> FLOAT_SIGNIFICAND_BITS) & 0xFF;
+
+        if (biasedExponent != 0) {
+            int exponent = FLOAT_MIN_EXPONENT - 1 + biasedExponent;
+            long significand = (1L << FLOAT_SIGNIFICAND_BITS) | fraction;
+
+            if (exponent < 0 && exponent > -FLOAT_SIGNIFICAND_BITS - 1) {
+                // Integers are written as they are
+                long integer = significand >> -exponent;
+
+                if (integer << -exponent == significand) {
+                    return writeDecimal(chars, index, integer, 0);
+                }
+            }
+
+            return writeShortest(chars, index, exponent, significand, 0, fraction == 0 && biasedExponent > 1);
+        }
+
+        if (fraction != 0) {
+            return fraction < FLOAT_TINY_SIGNIFICAND
+                    ? writeShortest(chars, index, FLOAT_MIN_EXPONENT, 10 * fraction, -1, false)
+                    : writeShortest(chars, index, FLOAT_MIN_EXPONENT, fraction, 0, false);
+        }
+
+        return writeZero(chars, index);
+    }
+
+    /**
+     * Writes the decimal literal of the long.
+     *
+     * @param chars the chars to write, at least {@link #MAX_WRITE_LENGTH MAX_WRITE_LENGTH} long
+     * @param value the long to write
+     * @return the number of characters written
+     */
+    static int writeLong(char[] chars, long value) {
+        if (value == Long.MIN_VALUE) {
+            System.arraycopy(MIN_LONG_CHARACTERS, 0, chars, 0, MIN_LONG_CHARACTERS.length);
+            return MIN_LONG_CHARACTERS.length;
+        }
+
+        int index = 0;
+
+        if (value < 0) {
+            chars[index++] = '-';
+            value = -value;
+        }
+
+        int length = getDigitLength(value);
+        writeDigits(chars, index, value, length);
+
+        return index + length;
+    }
+
+    /**
+     * Writes the shortest decimal in the rounding interval of {@code significand * 2^exponent}, with the Schubfach algorithm.
+     *
+     * @param chars       the chars to write
+     * @param index       the index to write from
+     * @param exponent    the binary exponent
+     * @param significand the binary significand
+     * @param adjustment  the adjustment of decimal exponent, -1 if the significand of tiny subnormal is multiplied by 10
+     * @param irregular   true if the significand is the minimum of normal numbers, so the lower rounding interval is half as wide
+     * @return the index after the written characters
+     */
+    private static int writeShortest(char[] chars, int index, int exponent, long significand, int adjustment, boolean irregular) {
+        int odd = (int) significand & 0x1;
+        long scaled = significand << 2;
+        long scaledUpper = scaled + 2;
+        long scaledLower;
+        int decimalExponent;
+
+        if (irregular) {
+            scaledLower = scaled - 1;
+            decimalExponent = floorLog10ThreeQuartersPowerOfTwo(exponent);
+        } else {
+            scaledLower = scaled - 2;
+            decimalExponent = floorLog10PowerOfTwo(exponent);
+        }
+
+        int shift = exponent + floorLog2PowerOfTen(-decimalExponent) + 2;
+        int powerIndex = decimalExponent - SMALLEST_FORMAT_POWER_OF_TEN;
+        long powerHigh = FORMAT_POWERS_OF_TEN_HIGH[powerIndex];
+        long powerLow = FORMAT_POWERS_OF_TEN_LOW[powerIndex];
+
+        long value = roundToOdd(powerHigh, powerLow, scaled << shift);
+        long lower = roundToOdd(powerHigh, powerLow, scaledLower << shift);
+        long upper = roundToOdd(powerHigh, powerLow, scaledUpper << shift);
+
+        long shorter = value >> 2;
+
+        if (shorter >= 100) {
+            // Try one digit less first
+            long shorterLower = 10 * Math.multiplyHigh(shorter, 115_292_150_460_684_698L << 4);
+            long shorterUpper = shorterLower + 10;
+            boolean lowerInside = lower + odd <= shorterLower << 2;
+            boolean upperInside = (shorterUpper << 2) + odd <= upper;
+
+            if (lowerInside != upperInside) {
+                return writeDecimal(chars, index, lowerInside ? shorterLower : shorterUpper, decimalExponent);
+            }
+        }
+
+        long longer = shorter + 1;
+        boolean lowerInside = lower + odd <= shorter << 2;
+        boolean upperInside = (longer << 2) + odd <= upper;
+
+        if (lowerInside != upperInside) {
+            return writeDecimal(chars, index, lowerInside ? shorter : longer, decimalExponent + adjustment);
+        }
+
+        // Both are inside, so take the closer one, or the even one if tie
+        long compare = value - (shorter + longer << 1);
+
+        return writeDecimal(chars, index, compare < 0 || compare == 0 && (shorter & 0x1) == 0 ? shorter : longer, decimalExponent + adjustment);
+    }
+
+    /**
+     * Returns the product of 126-bit power of ten and the value, shifted and rounded to odd.
+     *
+     * @param powerHigh the high 63 bits of power of ten
+     * @param powerLow  the low 63 bits of power of ten
+     * @param value     the value to multiply
+     * @return the rounded product
+     */
+    private static long roundToOdd(long powerHigh, long powerLow, long value) {
+        long lowHigh = Math.multiplyHigh(powerLow, value);
+        long highLow = powerHigh * value;
+        long highHigh = Math.multiplyHigh(powerHigh, value);
+        long middle = (highLow >>> 1) + lowHigh;
+        long product = highHigh + (middle >>> 63);
+
+        return product | (middle & MASK_63) + MASK_63 >>> 63;
+    }
+
+    /**
+     * Writes {@code digits * 10^exponent} in the layout of {@link Double#toString(double)}.
+     *
+     * @param chars    the chars to write
+     * @param index    the index to write from
+     * @param digits   the positive decimal digits
+     * @param exponent the decimal exponent
+     * @return the index after the written characters
+     */
+    private static int writeDecimal(char[] chars, int index, long digits, int exponent) {
+        while (digits % 10 == 0) {
+            digits /= 10;
+            exponent++;
+        }
+
+        int length = getDigitLength(digits);
+        int pointPosition = exponent + length;
+
+        if (pointPosition > 0 && pointPosition <= 7) {
+            // 123.45 or 12300.0
+            writeDigits(chars, index, digits, length);
+
+            if (length <= pointPosition) {
+                for (int zero = length; zero < pointPosition; zero++) {
+                    chars[index + zero] = '0';
+                }
+
+                index += pointPosition;
+                chars[index++] = '.';
+                chars[index++] = '0';
+
+                return index;
+            }
+
+            System.arraycopy(chars, index + pointPosition, chars, index + pointPosition + 1, length - pointPosition);
+            chars[index + pointPosition] = '.';
+
+            return index + length + 1;
+        } else if (pointPosition > -3 && pointPosition <= 0) {
+            // 0.00123
+            chars[index++] = '0';
+            chars[index++] = '.';
+
+            for (int zero = pointPosition; zero < 0; zero++) {
+                chars[index++] = '0';
+            }
+
+            writeDigits(chars, index, digits, length);
+
+            return index + length;
+        }
+
+        // 1.2345E-10
+        writeDigits(chars, index + 1, digits, length);
+        chars[index] = chars[index + 1];
+        chars[index + 1] = '.';
+        index += length + 1;
+
+        if (length == 1) {
+            chars[index++] = '0';
+        }
+
+        chars[index++] = 'E';
+
+        int scientificExponent = pointPosition - 1;
+
+        if (scientificExponent < 0) {
+            chars[index++] = '-';
+            scientificExponent = -scientificExponent;
+        }
+
+        int exponentLength = getDigitLength(scientificExponent);
+        writeDigits(chars, index, scientificExponent, exponentLength);
+
+        return index + exponentLength;
+    }
+
+    /**
+     * Writes {@code 0.0}.
+     *
+     * @param chars the chars to write
+     * @param index the index to write from
+     * @return the index after the written characters
+     */
+    private static int writeZero(char[] chars, int index) {
+        chars[index++] = '0';
+        chars[index++] = '.';
+        chars[index++] = '0';
+
+        return index;
+    }
+
+    /**
+     * Writes the digits of the non-negative value backward from the end.
+     *
+     * @param chars  the chars to write
+     * @param index  the index to write from
+     * @param value  the non-negative value
+     * @param length the number of digits
+     */
+    private static void writeDigits(char[] chars, int index, long value, int length) {
+        for (int position = index + length - 1; position >= index; position--) {
+            chars[position] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    /**
+     * Returns the number of decimal digits of the non-negative value.
+     *
+     * @param value the non-negative value
+     * @return the number of digits
+     */
+    private static int getDigitLength(long value) {
+        int length = 1;
+
+        while (value >= 10) {
+            value /= 10;
+            length++;
+        }
+
+        return length;
+    }
+
+    /**
+     * Returns {@code floor(log10(2^exponent))}.
+     *
+     * @param exponent the exponent
+     * @return the floored logarithm
+     */
+    private static int floorLog10PowerOfTwo(int exponent) {
+        return (int) (exponent * 661_971_961_083L >> 41);
+    }
+
+    /**
+     * Returns {@code floor(log10(3/4 * 2^exponent))}.
+     *
+     * @param exponent the exponent
+     * @return the floored logarithm
+     */
+    private static int floorLog10ThreeQuartersPowerOfTwo(int exponent) {
+        return (int) (exponent * 661_971_961_083L - 274_743_187_321L >> 41);
+    }
+
+    /**
+     * Returns {@code floor(log2(10^exponent))}.
+     *
+     * @param exponent the exponent
+     * @return the floored logarithm
+     */
+    private static int floorLog2PowerOfTen(int exponent) {
+        return (int) (exponent * 913_124_641_741L >> 38);
+    }
+}
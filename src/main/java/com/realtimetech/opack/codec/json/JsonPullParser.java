@@ -0,0 +1,465 @@
+/*
+ * Copyright (C) 2021 REALTIMETECH All Rights Reserved
+ *
+ * Licensed either under the Apache License, Version 2.0, or (at your option)
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (subject to the "Classpath" exception),
+ * either version 2, or any later version (collectively, the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     http://www.gnu.org/licenses/
+ *     http://www.gnu.org/software/classpath/license.html
+ *
+ * or as provided in the LICENSE file that accompanied this code.
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.realtimetech.opack.codec.json;
+
+import com.realtimetech.opack.util.StringWriter;
+import com.realtimetech.opack.util.structure.FastStack;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+
+/**
+ * Pull parser that reads json data token by token, without building {@link com.realtimetech.opack.value.OpackValue OpackValue} tree.
+ * Subtrees that are not needed can be skipped without unescaping or allocating their values.
+ * This parser is not thread-safe.
+ */
+public final class JsonPullParser implements Closeable {
+    public enum Token {
+        START_OBJECT,
+        END_OBJECT,
+        START_ARRAY,
+        END_ARRAY,
+        KEY,
+        STRING,
+        NUMBER,
+        BOOLEAN,
+        NULL,
+        END_DOCUMENT
+    }
+
+    private static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    private static final int STATE_VALUE = 0;
+    private static final int STATE_VALUE_OR_CLOSE = 1;
+    private static final int STATE_KEY = 2;
+    private static final int STATE_KEY_OR_CLOSE = 3;
+    private static final int STATE_COLON = 4;
+    private static final int STATE_COMMA_OR_CLOSE = 5;
+    private static final int STATE_END = 6;
+
+    private final Closeable closeable;
+    private final JsonReader jsonReader;
+
+    private final StringWriter stringWriter;
+    private final FastStack<Boolean> objectStack;
+
+    private Token token;
+    private int state;
+    private boolean booleanValue;
+    private boolean decimal;
+
+    /**
+     * Constructs the JsonPullParser that parses the json string.
+     *
+     * @param json the json string to parse
+     */
+    public JsonPullParser(@NotNull String json) {
+        this(null, new JsonReader(json, new char[Math.min(DEFAULT_BUFFER_SIZE, Math.max(json.length(), 1))]));
+    }
+
+    /**
+     * Constructs the JsonPullParser that parses the json data read from the reader.
+     *
+     * @param reader the reader to parse
+     */
+    public JsonPullParser(@NotNull Reader reader) {
+        this(reader, new JsonReader(reader, new char[DEFAULT_BUFFER_SIZE]));
+    }
+
+    /**
+     * Constructs the JsonPullParser that parses the UTF-8 json data read from the input stream.
+     * The bytes are decoded straight into the buffer of the parser, without a character decoder in between.
+     *
+     * @param inputStream the input stream to parse
+     */
+    public JsonPullParser(@NotNull InputStream inputStream) {
+        this(inputStream, new JsonReader(inputStream, new char[DEFAULT_BUFFER_SIZE]));
+    }
+
+    /**
+     * Constructs the JsonPullParser with the json reader.
+     *
+     * @param closeable  the reader or input stream to close, or null
+     * @param jsonReader the json reader to read
+     */
+    private JsonPullParser(Closeable closeable, JsonReader jsonReader) {
+        this.closeable = closeable;
+        this.jsonReader = jsonReader;
+
+        this.stringWriter = new StringWriter(64);
+        this.objectStack = new FastStack<>();
+
+        this.token = null;
+        this.state = STATE_VALUE;
+    }
+
+    /**
+     * Returns the current token, or null if {@link #next() next} has not been called.
+     *
+     * @return the current token
+     */
+    public Token getToken() {
+        return token;
+    }
+
+    /**
+     * Returns the depth of objects and arrays that contain the current position.
+     *
+     * @return the depth
+     */
+    public int getDepth() {
+        return this.objectStack.getSize();
+    }
+
+    /**
+     * Returns the number of characters read so far.
+     *
+     * @return the position
+     */
+    public long getPosition() {
+        return this.jsonReader.getPosition();
+    }
+
+    /**
+     * Reads the next token.
+     *
+     * @return the token read
+     * @throws IOException  if an I/O error occurs; if there is a syntax problem with the json data
+     * @throws EOFException if the end of data has been reached inside of object or array
+     */
+    public Token next() throws IOException {
+        this.token = this.nextToken(false);
+
+        return this.token;
+    }
+
+    /**
+     * Skips the children of the current token, if the current token is {@link Token#START_OBJECT START_OBJECT} or {@link Token#START_ARRAY START_ARRAY}.
+     * After skipping, the current token is the matching end token.
+     *
+     * @throws IOException  if an I/O error occurs; if there is a syntax problem with the json data
+     * @throws EOFException if the end of data has been reached inside of object or array
+     */
+    public void skipChildren() throws IOException {
+        if (this.token != Token.START_OBJECT && this.token != Token.START_ARRAY) {
+            return;
+        }
+
+        int depth = this.objectStack.getSize() - 1;
+
+        do {
+            this.token = this.nextToken(true);
+        } while (this.objectStack.getSize() != depth);
+    }
+
+    /**
+     * Skips the next value entirely, including its children.
+     * It is typically called after {@link Token#KEY KEY} to skip the value mapped to the key.
+     *
+     * @throws IOException  if an I/O error occurs; if there is a syntax problem with the json data
+     * @throws EOFException if the end of data has been reached inside of object or array
+     */
+    public void skipValue() throws IOException {
+        this.token = this.nextToken(true);
+        this.skipChildren();
+    }
+
+    /**
+     * Returns the text of the current {@link Token#KEY KEY}, {@link Token#STRING STRING} or {@link Token#NUMBER NUMBER} token.
+     *
+     * @return the text
+     * @throws IllegalStateException if the current token has no text
+     */
+    public String getString() {
+        this.checkToken(Token.KEY, Token.STRING, Token.NUMBER);
+
+        return this.stringWriter.toString();
+    }
+
+    /**
+     * Returns whether the text of the current token is equal to the string, without creating a string.
+     *
+     * @param string the string to compare
+     * @return true if the text is equal to the string
+     * @throws IllegalStateException if the current token has no text
+     */
+    public boolean textEquals(@NotNull String string) {
+        this.checkToken(Token.KEY, Token.STRING, Token.NUMBER);
+
+        return this.stringWriter.contentEquals(string);
+    }
+
+    /**
+     * Returns the value of the current {@link Token#NUMBER NUMBER} token, as {@link Double Double} if it has a fraction or an exponent, otherwise as {@link Long Long}.
+     * It is the same type as {@link JsonCodec JsonCodec} decodes.
+     *
+     * @return the number
+     * @throws IllegalStateException if the current token is not number
+     * @throws NumberFormatException if the number literal is out of range of long
+     */
+    public Number getNumber() {
+        return this.decimal ? (Number) this.getDouble() : (Number) this.getLong();
+    }
+
+    /**
+     * Returns the value of the current {@link Token#NUMBER NUMBER} token as long.
+     * The number is parsed in place when the token is read, without creating the number string.
+     *
+     * @return the number
+     * @throws IllegalStateException if the current token is not number
+     * @throws NumberFormatException if the number literal has a fraction or an exponent, or is out of range of long
+     */
+    public long getLong() {
+        this.checkToken(Token.NUMBER);
+
+        return this.jsonReader.getLongValue();
+    }
+
+    /**
+     * Returns the value of the current {@link Token#NUMBER NUMBER} token as double, rounded to the nearest.
+     * The number is parsed in place when the token is read, without creating the number string.
+     *
+     * @return the number
+     * @throws IllegalStateException if the current token is not number
+     */
+    public double getDouble() {
+        this.checkToken(Token.NUMBER);
+
+        return this.jsonReader.getDoubleValue();
+    }
+
+    /**
+     * Returns the value of the current {@link Token#BOOLEAN BOOLEAN} token.
+     *
+     * @return the boolean
+     * @throws IllegalStateException if the current token is not boolean
+     */
+    public boolean getBoolean() {
+        this.checkToken(Token.BOOLEAN);
+
+        return this.booleanValue;
+    }
+
+    /**
+     * Checks that the current token is one of the expected tokens.
+     *
+     * @param expectedTokens the expected tokens
+     * @throws IllegalStateException if the current token is not expected
+     */
+    private void checkToken(Token... expectedTokens) {
+        for (Token expectedToken : expectedTokens) {
+            if (this.token == expectedToken) {
+                return;
+            }
+        }
+
+        throw new IllegalStateException("Current token is " + this.token + ", not a value of that type.");
+    }
+
+    /**
+     * Reads the next token, skipping the separators and the white spaces.
+     * The separators and tokens are checked against the state of the current object or array, so that the tokens read always form a valid json value.
+     *
+     * @param skip true if the value of token is not needed
+     * @return the token read
+     * @throws IOException  if an I/O error occurs; if there is a syntax problem with the json data
+     * @throws EOFException if the end of data has been reached inside of object or array
+     */
+    private Token nextToken(boolean skip) throws IOException {
+        int read;
+
+        while ((read = this.jsonReader.read()) != -1) {
+            char currentChar = (char) read;
+
+            switch (currentChar) {
+                case ' ':
+                case '\r':
+                case '\n':
+                case '\t': {
+                    // Skip no-meaning character
+                    break;
+                }
+                case ',': {
+                    if (this.state != STATE_COMMA_OR_CLOSE) {
+                        throw new IOException("Expected literal value, but got syntax character at " + this.jsonReader.getPosition() + "(" + currentChar + ")");
+                    }
+
+                    this.state = this.objectStack.peek() ? STATE_KEY : STATE_VALUE;
+
+                    break;
+                }
+                case ':': {
+                    if (this.state != STATE_COLON) {
+                        throw new IOException("The map item must have a key. at " + this.jsonReader.getPosition() + "(" + currentChar + ")");
+                    }
+
+                    this.state = STATE_VALUE;
+
+                    break;
+                }
+                case '{': {
+                    this.checkValue(currentChar);
+                    this.objectStack.push(Boolean.TRUE);
+                    this.state = STATE_KEY_OR_CLOSE;
+
+                    return Token.START_OBJECT;
+                }
+                case '[': {
+                    this.checkValue(currentChar);
+                    this.objectStack.push(Boolean.FALSE);
+                    this.state = STATE_VALUE_OR_CLOSE;
+
+                    return Token.START_ARRAY;
+                }
+                case '}':
+                case ']': {
+                    boolean object = currentChar == '}';
+
+                    if (this.objectStack.isEmpty() || this.objectStack.peek() != object) {
+                        throw new IOException("Parsed unmatched close syntax character at " + this.jsonReader.getPosition() + "(" + currentChar + ")");
+                    }
+
+                    if (this.state != STATE_COMMA_OR_CLOSE && this.state != (object ? STATE_KEY_OR_CLOSE : STATE_VALUE_OR_CLOSE)) {
+                        throw new IOException("Expected literal value, but got syntax character at " + this.jsonReader.getPosition() + "(" + currentChar + ")");
+                    }
+
+                    this.objectStack.pop();
+                    this.completeValue();
+
+                    return object ? Token.END_OBJECT : Token.END_ARRAY;
+                }
+                default: {
+                    this.stringWriter.reset();
+
+                    if (currentChar == '\"' && (this.state == STATE_KEY || this.state == STATE_KEY_OR_CLOSE)) {
+                        this.jsonReader.readString(skip ? null : this.stringWriter);
+                        this.state = STATE_COLON;
+
+                        return Token.KEY;
+                    }
+
+                    this.checkValue(currentChar);
+
+                    if (currentChar == '\"') {
+                        this.jsonReader.readString(skip ? null : this.stringWriter);
+                        this.completeValue();
+
+                        return Token.STRING;
+                    } else if ((currentChar >= '0' && currentChar <= '9') || currentChar == '-') {
+                        this.jsonReader.unread();
+                        this.decimal = this.jsonReader.readNumber(skip ? null : this.stringWriter);
+                        this.completeValue();
+
+                        return Token.NUMBER;
+                    } else if (currentChar == 't' || currentChar == 'f') {
+                        this.booleanValue = currentChar == 't';
+                        this.readLiteral(this.booleanValue ? "true" : "false");
+                        this.completeValue();
+
+                        return Token.BOOLEAN;
+                    } else if (currentChar == 'n') {
+                        this.readLiteral("null");
+                        this.completeValue();
+
+                        return Token.NULL;
+                    }
+
+                    throw new IOException("This value is not an opack value. Unknown value at " + this.jsonReader.getPosition() + "(" + currentChar + ")");
+                }
+            }
+        }
+
+        if (!this.objectStack.isEmpty()) {
+            throw new EOFException("Unexpected end of json data, " + this.objectStack.getSize() + " objects or arrays are not closed at " + this.jsonReader.getPosition());
+        }
+
+        return Token.END_DOCUMENT;
+    }
+
+    /**
+     * Reads the rest of the literal after its first character, checking that the characters match.
+     *
+     * @param literal the literal expected, including the first character already read
+     * @throws IOException  if an I/O error occurs; if the characters do not match the literal
+     * @throws EOFException if the end of data has been reached before the literal ends
+     */
+    private void readLiteral(String literal) throws IOException {
+        for (int index = 1; index < literal.length(); index++) {
+            int read = this.jsonReader.read();
+
+            if (read == -1) {
+                throw new EOFException("Unexpected end of json data, expected " + literal + " literal at " + this.jsonReader.getPosition());
+            }
+
+            if (read != literal.charAt(index)) {
+                throw new IOException("Expected " + literal + " literal, but got character at " + this.jsonReader.getPosition() + "(" + (char) read + ")");
+            }
+        }
+    }
+
+    /**
+     * Checks that a value can start at the current state.
+     *
+     * @param currentChar the first character of the value
+     * @throws IOException if the value is not expected
+     */
+    private void checkValue(char currentChar) throws IOException {
+        switch (this.state) {
+            case STATE_VALUE:
+            case STATE_VALUE_OR_CLOSE:
+                return;
+            case STATE_KEY:
+            case STATE_KEY_OR_CLOSE:
+                throw new IOException("The map item must have a string key. at " + this.jsonReader.getPosition() + "(" + currentChar + ")");
+            case STATE_COLON:
+                throw new IOException("Expected ':' after the key, but got value at " + this.jsonReader.getPosition() + "(" + currentChar + ")");
+            case STATE_COMMA_OR_CLOSE:
+                throw new IOException("Expected ',' or close syntax character, but got value at " + this.jsonReader.getPosition() + "(" + currentChar + ")");
+            default:
+                throw new IOException("Unexpected value after the end of json value at " + this.jsonReader.getPosition() + "(" + currentChar + ")");
+        }
+    }
+
+    /**
+     * Marks that a value is completed, so that a separator or a close syntax character follows in object or array, and nothing follows at the top level.
+     */
+    private void completeValue() {
+        this.state = this.objectStack.isEmpty() ? STATE_END : STATE_COMMA_OR_CLOSE;
+    }
+
+    /**
+     * Closes the reader or input stream of this parser.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public void close() throws IOException {
+        if (this.closeable != null) {
+            this.closeable.close();
+        }
+    }
+}
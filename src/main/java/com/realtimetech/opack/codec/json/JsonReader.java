@@ -0,0 +1,779 @@
+/*
+ * Copyright (C) 2021 REALTIMETECH All Rights Reserved
+ *
+ * Licensed either under the Apache License, Version 2.0, or (at your option)
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (subject to the "Classpath" exception),
+ * either version 2, or any later version (collectively, the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     http://www.gnu.org/licenses/
+ *     http://www.gnu.org/software/classpath/license.html
+ *
+ * or as provided in the LICENSE file that accompanied this code.
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.realtimetech.opack.codec.json;
+
+import com.realtimetech.opack.util.StringWriter;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+class JsonReader {
+    private final Reader reader;
+
+    private final String string;
+    private int stringOffset;
+    private final int stringEnd;
+
+    private final InputStream inputStream;
+    private final ByteBuffer byteBuffer;
+    private final byte[] bytes;
+    private int bytesPosition;
+    private int bytesLimit;
+    private char pendingLowSurrogate;
+
+    private char[] numberChars;
+    private int numberLength;
+    private boolean numberNegative;
+    private long numberSignificand;
+    private int numberDigits;
+    private int numberExponent;
+    private boolean numberTruncated;
+    private boolean numberDecimal;
+
+    private final char[] buffer;
+    private int position;
+    private int limit;
+    private int bufferLimit;
+    private boolean lineBounded;
+
+    private long bufferOffset;
+
+    /**
+     * Constructs the JsonReader that copies the string into the buffer chunk by chunk, instead of copying the whole string at once.
+     *
+     * @param string the json string to read
+     * @param buffer the buffer to read through
+     */
+    public JsonReader(String string, char[] buffer) {
+        this(string, 0, string.length(), buffer);
+    }
+
+    /**
+     * Constructs the JsonReader that reads the range of the string, reporting the positions in the whole string.
+     *
+     * @param string the json string to read
+     * @param start  the start index of range, inclusive
+     * @param end    the end index of range, exclusive
+     * @param buffer the buffer to read through
+     */
+    public JsonReader(String string, int start, int end, char[] buffer) {
+        this.reader = null;
+        this.string = string;
+        this.stringOffset = start;
+        this.stringEnd = end;
+        this.inputStream = null;
+        this.byteBuffer = null;
+        this.bytes = null;
+        this.buffer = buffer;
+        this.position = 0;
+        this.limit = 0;
+        this.bufferLimit = 0;
+        this.lineBounded = false;
+        this.bufferOffset = start;
+        this.numberChars = new char[32];
+    }
+
+    /**
+     * Constructs the JsonReader that reads from the reader through the buffer.
+     * The reader may read ahead past the end of the json document.
+     *
+     * @param reader the reader to read
+     * @param buffer the buffer to read through
+     */
+    public JsonReader(Reader reader, char[] buffer) {
+        this.reader = reader;
+        this.string = null;
+        this.stringOffset = 0;
+        this.stringEnd = 0;
+        this.inputStream = null;
+        this.byteBuffer = null;
+        this.bytes = null;
+        this.buffer = buffer;
+        this.position = 0;
+        this.limit = 0;
+        this.bufferLimit = 0;
+        this.lineBounded = false;
+        this.bufferOffset = 0;
+        this.numberChars = new char[32];
+    }
+
+    /**
+     * Constructs the JsonReader that decodes the UTF-8 bytes into the buffer chunk by chunk, without creating json string.
+     *
+     * @param bytes  the UTF-8 json bytes to read
+     * @param offset the start offset of json bytes
+     * @param length the number of json bytes
+     * @param buffer the buffer to read through
+     */
+    public JsonReader(byte[] bytes, int offset, int length, char[] buffer) {
+        this(null, null, bytes, offset, offset + length, buffer);
+    }
+
+    /**
+     * Constructs the JsonReader that decodes the UTF-8 bytes of the heap or direct byte buffer from its position up to its limit.
+     * The bytes of heap byte buffer are read directly, and the position of the byte buffer itself is not changed.
+     *
+     * @param byteBuffer the byte buffer to read
+     * @param buffer     the buffer to read through
+     */
+    public JsonReader(ByteBuffer byteBuffer, char[] buffer) {
+        this(null,
+                byteBuffer.hasArray() ? null : byteBuffer.duplicate(),
+                byteBuffer.hasArray() ? byteBuffer.array() : new byte[Math.max(buffer.length, 4)],
+                byteBuffer.hasArray() ? byteBuffer.arrayOffset() + byteBuffer.position() : 0,
+                byteBuffer.hasArray() ? byteBuffer.arrayOffset() + byteBuffer.limit() : 0,
+                buffer);
+    }
+
+    /**
+     * Constructs the JsonReader that decodes the UTF-8 bytes read from the input stream.
+     * The reader may read ahead past the end of the json document.
+     *
+     * @param inputStream the input stream to read
+     * @param buffer      the buffer to read through
+     */
+    public JsonReader(InputStream inputStream, char[] buffer) {
+        this(inputStream, null, new byte[Math.max(buffer.length, 4)], 0, 0, buffer);
+    }
+
+    /**
+     * Constructs the JsonReader that decodes the UTF-8 bytes.
+     *
+     * @param inputStream   the input stream to refill the bytes from, or null
+     * @param byteBuffer    the byte buffer to refill the bytes from, or null
+     * @param bytes         the bytes to decode, or the array to refill
+     * @param bytesPosition the start offset of bytes
+     * @param bytesLimit    the end offset of bytes
+     * @param buffer        the buffer to read through
+     */
+    private JsonReader(InputStream inputStream, ByteBuffer byteBuffer, byte[] bytes, int bytesPosition, int bytesLimit, char[] buffer) {
+        this.reader = null;
+        this.string = null;
+        this.stringOffset = 0;
+        this.stringEnd = 0;
+        this.inputStream = inputStream;
+        this.byteBuffer = byteBuffer;
+        this.bytes = bytes;
+        this.bytesPosition = bytesPosition;
+        this.bytesLimit = bytesLimit;
+        this.pendingLowSurrogate = 0;
+        this.buffer = buffer;
+        this.position = 0;
+        this.limit = 0;
+        this.bufferLimit = 0;
+        this.lineBounded = false;
+        this.bufferOffset = 0;
+        this.numberChars = new char[32];
+    }
+
+    /**
+     * Fills the buffer with the next characters, keeping the last character read so that it can be unread.
+     *
+     * @return false if the end of data, or the end of line while bounded, has been reached
+     * @throws IOException if an I/O exception occurs
+     */
+    private boolean fill() throws IOException {
+        if (this.limit < this.bufferLimit) {
+            // Stopped at the end of line
+            return false;
+        }
+
+        int keep = this.position > 0 ? 1 : 0;
+
+        if (keep > 0) {
+            this.buffer[0] = this.buffer[this.position - 1];
+        }
+
+        this.bufferOffset += this.position - keep;
+        this.position = keep;
+        this.limit = keep;
+        this.bufferLimit = keep;
+
+        int read;
+
+        if (this.string != null) {
+            read = Math.min(this.buffer.length - keep, this.stringEnd - this.stringOffset);
+
+            if (read <= 0) {
+                return false;
+            }
+
+            this.string.getChars(this.stringOffset, this.stringOffset + read, this.buffer, keep);
+            this.stringOffset += read;
+        } else if (this.bytes != null) {
+            read = this.fillBytes(keep);
+
+            if (read <= 0) {
+                return false;
+            }
+        } else {
+            do {
+                read = this.reader.read(this.buffer, keep, this.buffer.length - keep);
+            } while (read == 0);
+
+            if (read == -1) {
+                return false;
+            }
+        }
+
+        this.bufferLimit = keep + read;
+        this.limit = this.lineBounded ? this.findLineEnd(keep) : this.bufferLimit;
+
+        // The filled characters may start with the line feed
+        return this.limit > keep;
+    }
+
+    /**
+     * Returns the index of the next line feed in the buffer, or the end of buffer if there is none.
+     *
+     * @param from the index to search from
+     * @return the index of line feed, or the end of buffer
+     */
+    private int findLineEnd(int from) {
+        for (int index = from; index < this.bufferLimit; index++) {
+            if (this.buffer[index] == '\n') {
+                return index;
+            }
+        }
+
+        return this.bufferLimit;
+    }
+
+    /**
+     * Sets whether the data ends at the next line feed.
+     * While bounded, the line feed and the characters after it are not read, as if the end of data has been reached.
+     *
+     * @param lineBounded true to end the data at the next line feed
+     */
+    public void setLineBounded(boolean lineBounded) {
+        this.lineBounded = lineBounded;
+        this.limit = lineBounded ? this.findLineEnd(this.position) : this.bufferLimit;
+    }
+
+    /**
+     * Decodes the UTF-8 bytes into the buffer from the offset, until the buffer is full or the bytes end.
+     * Malformed bytes are decoded to the replacement character.
+     *
+     * @param offset the offset of buffer to decode into
+     * @return the number of characters decoded
+     * @throws IOException if an I/O exception occurs
+     */
+    private int fillBytes(int offset) throws IOException {
+        char[] buffer = this.buffer;
+        int index = offset;
+
+        if (this.pendingLowSurrogate != 0 && index < buffer.length) {
+            buffer[index++] = this.pendingLowSurrogate;
+            this.pendingLowSurrogate = 0;
+        }
+
+        while (index < buffer.length) {
+            if (this.bytesPosition == this.bytesLimit && !this.refillBytes()) {
+                break;
+            }
+
+            byte[] bytes = this.bytes;
+            int bytesPosition = this.bytesPosition;
+            int asciiEnd = Math.min(this.bytesLimit, bytesPosition + buffer.length - index);
+
+            // ASCII fast path
+            while (bytesPosition < asciiEnd && bytes[bytesPosition] >= 0) {
+                buffer[index++] = (char) bytes[bytesPosition++];
+            }
+
+            this.bytesPosition = bytesPosition;
+
+            if (bytesPosition < asciiEnd) {
+                index += this.decodeSequence(index);
+            }
+        }
+
+        return index - offset;
+    }
+
+    /**
+     * Decodes the multibyte sequence at the position of bytes into the buffer.
+     * If the buffer has no room for the low surrogate of a surrogate pair, it is kept until the next fill.
+     *
+     * @param index the index of buffer to decode into
+     * @return the number of characters decoded
+     * @throws IOException if an I/O exception occurs
+     */
+    private int decodeSequence(int index) throws IOException {
+        int first = this.bytes[this.bytesPosition] & 0xFF;
+        int length;
+        int codePoint;
+
+        if (first >= 0xC2 && first <= 0xDF) {
+            length = 2;
+            codePoint = first & 0x1F;
+        } else if (first >= 0xE0 && first <= 0xEF) {
+            length = 3;
+            codePoint = first & 0x0F;
+        } else if (first >= 0xF0 && first <= 0xF4) {
+            length = 4;
+            codePoint = first & 0x07;
+        } else {
+            this.bytesPosition++;
+            this.buffer[index] = '\uFFFD';
+            return 1;
+        }
+
+        if (this.bytesLimit - this.bytesPosition < length) {
+            this.refillBytes();
+        }
+
+        int available = Math.min(length, this.bytesLimit - this.bytesPosition);
+
+        for (int sequenceIndex = 1; sequenceIndex < length; sequenceIndex++) {
+            int next = sequenceIndex < available ? this.bytes[this.bytesPosition + sequenceIndex] & 0xFF : -1;
+
+            if ((next & 0xC0) != 0x80) {
+                this.bytesPosition += sequenceIndex;
+                this.buffer[index] = '\uFFFD';
+                return 1;
+            }
+
+            codePoint = (codePoint << 6) | (next & 0x3F);
+        }
+
+        this.bytesPosition += length;
+
+        if ((length == 3 && (codePoint < 0x800 || Character.isSurrogate((char) codePoint))) || (length == 4 && (codePoint < 0x10000 || codePoint > Character.MAX_CODE_POINT))) {
+            this.buffer[index] = '\uFFFD';
+            return 1;
+        }
+
+        if (length == 4) {
+            this.buffer[index] = Character.highSurrogate(codePoint);
+
+            if (index + 1 == this.buffer.length) {
+                this.pendingLowSurrogate = Character.lowSurrogate(codePoint);
+                return 1;
+            }
+
+            this.buffer[index + 1] = Character.lowSurrogate(codePoint);
+            return 2;
+        }
+
+        this.buffer[index] = (char) codePoint;
+        return 1;
+    }
+
+    /**
+     * Refills the bytes from the input stream or the direct byte buffer, keeping the bytes not decoded yet.
+     *
+     * @return false if no more bytes can be read
+     * @throws IOException if an I/O exception occurs
+     */
+    private boolean refillBytes() throws IOException {
+        if (this.inputStream == null && this.byteBuffer == null) {
+            return false;
+        }
+
+        int remaining = this.bytesLimit - this.bytesPosition;
+        int read;
+
+        System.arraycopy(this.bytes, this.bytesPosition, this.bytes, 0, remaining);
+        this.bytesPosition = 0;
+        this.bytesLimit = remaining;
+
+        if (this.inputStream != null) {
+            do {
+                read = this.inputStream.read(this.bytes, remaining, this.bytes.length - remaining);
+            } while (read == 0);
+        } else {
+            read = Math.min(this.byteBuffer.remaining(), this.bytes.length - remaining);
+
+            if (read == 0) {
+                read = -1;
+            } else {
+                this.byteBuffer.get(this.bytes, remaining, read);
+            }
+        }
+
+        if (read == -1) {
+            return false;
+        }
+
+        this.bytesLimit += read;
+
+        return true;
+    }
+
+    /**
+     * Returns the number of characters read so far.
+     *
+     * @return the position
+     */
+    public long getPosition() {
+        return this.bufferOffset + this.position;
+    }
+
+    /**
+     * Reads the next character of data.
+     *
+     * @return the character read, or -1 if the end of data has been reached
+     * @throws IOException if an I/O exception occurs
+     */
+    public int read() throws IOException {
+        if (this.position < this.limit || this.fill()) {
+            return this.buffer[this.position++];
+        }
+
+        return -1;
+    }
+
+    /**
+     * Steps back the last character read, so that it is read again.
+     * Only one character can be unread after each read.
+     */
+    public void unread() {
+        this.position--;
+    }
+
+    /**
+     * Skips the characters.
+     *
+     * @param length the number of characters to skip
+     * @throws IOException if an I/O exception occurs
+     */
+    public void skip(int length) throws IOException {
+        for (int index = 0; index < length; index++) {
+            if (this.read() == -1) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Reads the next character inside of string literal.
+     *
+     * @return the character read
+     * @throws IOException  if an I/O exception occurs
+     * @throws EOFException if the end of data has been reached before the string literal is closed
+     */
+    private char readLiteralChar() throws IOException {
+        int read = this.read();
+
+        if (read == -1) {
+            throw new EOFException("Unexpected end of json data, string literal is not closed at " + this.getPosition());
+        }
+
+        return (char) read;
+    }
+
+    /**
+     * Reads the string literal after the opening quote up to the closing quote, unescaping it into the string writer.
+     * If the string writer is null, the string literal is skipped.
+     *
+     * @param stringWriter the string writer to write unescaped characters, or null to skip
+     * @throws IOException  if an I/O exception occurs; if the string literal has a unicode whose unknown pattern
+     * @throws EOFException if the end of data has been reached before the string literal is closed
+     */
+    public void readString(StringWriter stringWriter) throws IOException {
+        while (true) {
+            // Copy the characters before the next quote or escape in the buffer at once
+            int start = this.position;
+            int index = start;
+
+            while (index < this.limit) {
+                char character = this.buffer[index];
+
+                if (character == '\"' || character == '\\') {
+                    break;
+                }
+
+                index++;
+            }
+
+            if (index > start) {
+                if (stringWriter != null) {
+                    stringWriter.write(this.buffer, start, index - start);
+                }
+
+                this.position = index;
+            }
+
+            char literalChar = this.readLiteralChar();
+
+            if (literalChar == '\"') {
+                return;
+            } else if (literalChar == '\\') {
+                char nextChar = this.readLiteralChar();
+                char unescaped;
+
+                switch (nextChar) {
+                    case '"':
+                        unescaped = '\"';
+                        break;
+                    case '\\':
+                        unescaped = '\\';
+                        break;
+                    case 'u':
+                        char result = 0;
+                        for (int i = 0; i < 4; i++) {
+                            char unicode = this.readLiteralChar();
+                            result <<= 4;
+                            if (unicode >= '0' && unicode <= '9') {
+                                result += (unicode - '0');
+                            } else if (unicode >= 'a' && unicode <= 'f') {
+                                result += (unicode - 'a' + 10);
+                            } else if (unicode >= 'A' && unicode <= 'F') {
+                                result += (unicode - 'A' + 10);
+                            } else {
+                                throw new IOException("Parsed unknown unicode pattern at " + this.getPosition() + "(" + unicode + ")");
+                            }
+                        }
+                        unescaped = result;
+                        break;
+                    case 'b':
+                        unescaped = '\b';
+                        break;
+                    case 'f':
+                        unescaped = '\f';
+                        break;
+                    case 'n':
+                        unescaped = '\n';
+                        break;
+                    case 'r':
+                        unescaped = '\r';
+                        break;
+                    case 't':
+                        unescaped = '\t';
+                        break;
+                    default:
+                        continue;
+                }
+
+                if (stringWriter != null) {
+                    stringWriter.write(unescaped);
+                }
+            } else if (stringWriter != null) {
+                stringWriter.write(literalChar);
+            }
+        }
+    }
+
+    /**
+     * Reads and validates the number literal, leaving the character after the number unread.
+     * The number is parsed in place while reading, and its value is returned by {@link #getLongValue()} and {@link #getDoubleValue()}.
+     *
+     * @param stringWriter the string writer to write the number literal, or null to skip
+     * @return true if the number literal has a fraction or an exponent
+     * @throws IOException if an I/O exception occurs; if the number literal is not valid
+     */
+    public boolean readNumber(StringWriter stringWriter) throws IOException {
+        this.numberLength = 0;
+        this.numberSignificand = 0;
+        this.numberDigits = 0;
+        this.numberExponent = 0;
+        this.numberTruncated = false;
+        this.numberDecimal = false;
+
+        int read = this.readNumberChar(-1);
+
+        this.numberNegative = read == '-';
+
+        if (this.numberNegative) {
+            read = this.readNumberChar(read);
+        }
+
+        if (read == '0') {
+            read = this.readNumberChar(read);
+        } else if (read >= '1' && read <= '9') {
+            while (read >= '0' && read <= '9') {
+                if (!this.addNumberDigit(read)) {
+                    this.numberExponent++;
+                }
+
+                read = this.readNumberChar(read);
+            }
+        } else {
+            throw this.newInvalidNumberException(read);
+        }
+
+        if (read == '.') {
+            this.numberDecimal = true;
+            read = this.readNumberChar(read);
+
+            if (!(read >= '0' && read <= '9')) {
+                throw this.newInvalidNumberException(read);
+            }
+
+            while (read >= '0' && read <= '9') {
+                if (this.addNumberDigit(read)) {
+                    this.numberExponent--;
+                }
+
+                read = this.readNumberChar(read);
+            }
+        }
+
+        if (read == 'e' || read == 'E') {
+            this.numberDecimal = true;
+            read = this.readNumberChar(read);
+
+            boolean negativeExponent = read == '-';
+
+            if (read == '-' || read == '+') {
+                read = this.readNumberChar(read);
+            }
+
+            if (!(read >= '0' && read <= '9')) {
+                throw this.newInvalidNumberException(read);
+            }
+
+            int exponent = 0;
+
+            while (read >= '0' && read <= '9') {
+                // Larger exponents are out of range of double anyway
+                if (exponent < 100000) {
+                    exponent = exponent * 10 + (read - '0');
+                }
+
+                read = this.readNumberChar(read);
+            }
+
+            this.numberExponent += negativeExponent ? -exponent : exponent;
+        }
+
+        if (read != -1) {
+            this.numberLength--;
+            this.unread();
+        }
+
+        if (stringWriter != null) {
+            stringWriter.write(this.numberChars, 0, this.numberLength);
+        }
+
+        return this.numberDecimal;
+    }
+
+    /**
+     * Reads the next character of the number literal, keeping it for the fallback parsing and the error message.
+     *
+     * @param previous the previous character read, or -1 if it is the first
+     * @return the read character, or -1 if there is no more character
+     * @throws IOException if an I/O exception occurs
+     */
+    private int readNumberChar(int previous) throws IOException {
+        int read = this.read();
+
+        if (read != -1) {
+            if (this.numberLength == this.numberChars.length) {
+                this.numberChars = Arrays.copyOf(this.numberChars, this.numberChars.length << 1);
+            }
+
+            this.numberChars[this.numberLength++] = (char) read;
+        }
+
+        return read;
+    }
+
+    /**
+     * Accumulates the digit into the significand, if the significand is not full.
+     *
+     * @param digit the digit character
+     * @return true if the digit is accumulated; false if it is dropped
+     */
+    private boolean addNumberDigit(int digit) {
+        if (this.numberDigits < JsonNumber.MAX_SIGNIFICAND_DIGITS) {
+            this.numberSignificand = this.numberSignificand * 10 + (digit - '0');
+
+            if (this.numberSignificand != 0) {
+                this.numberDigits++;
+            }
+
+            return true;
+        }
+
+        if (digit != '0') {
+            this.numberTruncated = true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Returns the exception for the invalid character in the number literal.
+     *
+     * @param read the invalid character, or -1 if there is no more character
+     * @return the exception
+     */
+    private IOException newInvalidNumberException(int read) {
+        if (read == -1) {
+            return new EOFException("Unexpected end of json data, number literal is not completed at " + this.getPosition());
+        }
+
+        return new IOException("Parsed invalid number literal at " + this.getPosition() + "(" + (char) read + ")");
+    }
+
+    /**
+     * Returns the number literal read last by {@link #readNumber(StringWriter)} as string.
+     *
+     * @return the number literal
+     */
+    private String getNumberLiteral() {
+        return new String(this.numberChars, 0, this.numberLength);
+    }
+
+    /**
+     * Returns the value of the number literal read last by {@link #readNumber(StringWriter)} as long.
+     *
+     * @return the number
+     * @throws NumberFormatException if the number literal has a fraction or an exponent, or is out of range of long
+     */
+    public long getLongValue() {
+        if (!this.numberDecimal && !this.numberTruncated && this.numberExponent == 0) {
+            if (!this.numberNegative && this.numberSignificand >= 0) {
+                return this.numberSignificand;
+            } else if (this.numberNegative && Long.compareUnsigned(this.numberSignificand, Long.MIN_VALUE) <= 0) {
+                return -this.numberSignificand;
+            }
+        }
+
+        throw new NumberFormatException("For input string: \"" + this.getNumberLiteral() + "\"");
+    }
+
+    /**
+     * Returns the value of the number literal read last by {@link #readNumber(StringWriter)} as double, rounded to the nearest.
+     *
+     * @return the number
+     */
+    public double getDoubleValue() {
+        if (!this.numberTruncated) {
+            double value = JsonNumber.toDouble(this.numberSignificand, this.numberExponent, this.numberNegative);
+
+            if (!Double.isNaN(value)) {
+                return value;
+            }
+        }
+
+        return Double.parseDouble(this.getNumberLiteral());
+    }
+}
@@ -27,14 +27,14 @@ import com.realtimetech.opack.util.ReflectionUtil;
 import org.jetbrains.annotations.NotNull;
 
 import java.lang.reflect.InvocationTargetException;
-import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class TransformerFactory {
     @NotNull
     final Opacker opacker;
 
     @NotNull
-    final HashMap<Class<? extends Transformer>, Transformer> transformerMap;
+    final ConcurrentHashMap<Class<? extends Transformer>, Transformer> transformerMap;
 
     /**
      * Constructs a TransformerFactory with the opacker.
@@ -44,7 +44,7 @@ public class TransformerFactory {
     public TransformerFactory(@NotNull Opacker opacker) {
         this.opacker = opacker;
 
-        this.transformerMap = new HashMap<>();
+        this.transformerMap = new ConcurrentHashMap<>();
     }
 
     /**
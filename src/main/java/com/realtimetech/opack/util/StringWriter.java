@@ -138,6 +138,28 @@ public class StringWriter extends Writer {
         this.currentIndex = -1;
     }
 
+    /**
+     * Returns whether the characters in this writer are equal to the string, without creating a string.
+     *
+     * @param string the string to compare
+     * @return true if the characters are equal to the string
+     */
+    public boolean contentEquals(String string) {
+        int length = this.currentIndex + 1;
+
+        if (string.length() != length) {
+            return false;
+        }
+
+        for (int index = 0; index < length; index++) {
+            if (this.chars[index] != string.charAt(index)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
     /**
      * Returns a string created through this string writer.
      *
@@ -24,17 +24,44 @@ package com.realtimetech.opack.test.codec;
 
 import com.realtimetech.opack.Opacker;
 import com.realtimetech.opack.codec.dense.DenseCodec;
+import com.realtimetech.opack.codec.dense.DenseMappedReader;
+import com.realtimetech.opack.codec.dense.DenseMessageReader;
+import com.realtimetech.opack.codec.dense.DenseMessageWriter;
+import com.realtimetech.opack.codec.dense.DenseStreamReader;
+import com.realtimetech.opack.codec.dense.DenseStreamWriter;
+import com.realtimetech.opack.codec.dense.frame.BlockCompressor;
+import com.realtimetech.opack.codec.dense.frame.DenseFrameInputStream;
+import com.realtimetech.opack.codec.dense.frame.DenseFrameOutputStream;
+import com.realtimetech.opack.codec.dense.frame.DenseFrameReader;
+import com.realtimetech.opack.codec.dense.frame.impl.DeflateBlockCompressor;
 import com.realtimetech.opack.exception.DecodeException;
 import com.realtimetech.opack.exception.DeserializeException;
 import com.realtimetech.opack.exception.EncodeException;
 import com.realtimetech.opack.exception.SerializeException;
 import com.realtimetech.opack.test.OpackAssert;
 import com.realtimetech.opack.test.opacker.ComplexTest;
+import com.realtimetech.opack.test.opacker.IgnoreFieldTest;
+import com.realtimetech.opack.transformer.Transformer;
+import com.realtimetech.opack.value.OpackArray;
 import com.realtimetech.opack.value.OpackObject;
 import com.realtimetech.opack.value.OpackValue;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Array;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
 public class DenseTest {
     @Test
     public void bytes_to_object_to_bytes_object() throws DecodeException, EncodeException {
@@ -71,4 +98,808 @@ public class DenseTest {
 
         OpackAssert.assertEquals(originalObject, deserialized);
     }
+
+    @Test
+    public void encode_object_without_value() throws DecodeException, EncodeException, SerializeException, DeserializeException, OpackAssert.AssertException {
+        Opacker opacker = new Opacker.Builder().create();
+        DenseCodec denseCodec = new DenseCodec.Builder().create();
+
+        ComplexTest.ComplexClass originalObject = new ComplexTest.ComplexClass();
+        byte[] treeEncoded = denseCodec.encode(opacker.serialize(originalObject));
+        byte[] directEncoded = denseCodec.encodeObject(opacker, originalObject);
+
+        Assertions.assertArrayEquals(treeEncoded, directEncoded);
+
+        OpackValue decoded = denseCodec.decode(directEncoded);
+        ComplexTest.ComplexClass deserialized = opacker.deserialize(ComplexTest.ComplexClass.class, decoded);
+
+        OpackAssert.assertEquals(originalObject, deserialized);
+    }
+
+    public static class LaterTransformed {
+        private String name;
+
+        public LaterTransformed(String name) {
+            this.name = name;
+        }
+    }
+
+    public static class LaterTransformedHolder {
+        private LaterTransformed laterTransformed = new LaterTransformed("later");
+        private int count = 3;
+    }
+
+    public static class LaterTransformer implements Transformer {
+        @Override
+        public Object serialize(Opacker opacker, Object value) {
+            if (value instanceof LaterTransformed) {
+                return ((LaterTransformed) value).name;
+            }
+
+            return value;
+        }
+
+        @Override
+        public Object deserialize(Opacker opacker, Class<?> goalType, Object value) {
+            if (value instanceof String && goalType == LaterTransformed.class) {
+                return new LaterTransformed((String) value);
+            }
+
+            return value;
+        }
+    }
+
+    @Test
+    public void transformer_registered_after_encode() throws DecodeException, EncodeException, SerializeException, InstantiationException, OpackAssert.AssertException {
+        Opacker opacker = new Opacker.Builder().create();
+        DenseCodec denseCodec = new DenseCodec.Builder().create();
+        LaterTransformedHolder originalObject = new LaterTransformedHolder();
+
+        OpackObject<Object, Object> before = (OpackObject<Object, Object>) denseCodec.decode(denseCodec.encodeObject(opacker, originalObject));
+        Assertions.assertTrue(before.get("laterTransformed") instanceof OpackObject);
+
+        // The baked types and object layouts cached by the first encoding must not hide the transformer
+        Assertions.assertTrue(opacker.getTypeBaker().registerPredefinedTransformer(LaterTransformed.class, LaterTransformer.class));
+
+        byte[] directEncoded = denseCodec.encodeObject(opacker, originalObject);
+        Assertions.assertArrayEquals(denseCodec.encode(opacker.serialize(originalObject)), directEncoded);
+
+        OpackObject<Object, Object> after = (OpackObject<Object, Object>) denseCodec.decode(directEncoded);
+        Assertions.assertEquals("later", after.get("laterTransformed"));
+        OpackAssert.assertEquals(originalObject, denseCodec.decodeObject(directEncoded, opacker, LaterTransformedHolder.class));
+
+        Assertions.assertTrue(opacker.getTypeBaker().unregisterPredefinedTransformer(LaterTransformed.class, LaterTransformer.class));
+        Assertions.assertArrayEquals(denseCodec.encode(opacker.serialize(originalObject)), denseCodec.encodeObject(opacker, originalObject));
+        Assertions.assertTrue(((OpackObject<Object, Object>) denseCodec.decode(denseCodec.encodeObject(opacker, originalObject))).get("laterTransformed") instanceof OpackObject);
+    }
+
+    @Test
+    public void decode_object_without_value() throws DecodeException, EncodeException, SerializeException, DeserializeException, OpackAssert.AssertException {
+        Opacker opacker = new Opacker.Builder().create();
+        DenseCodec denseCodec = new DenseCodec.Builder().create();
+
+        ComplexTest.ComplexClass originalObject = new ComplexTest.ComplexClass();
+        byte[] encoded = denseCodec.encode(opacker.serialize(originalObject));
+
+        ComplexTest.ComplexClass treeDecoded = opacker.deserialize(ComplexTest.ComplexClass.class, denseCodec.decode(encoded));
+        ComplexTest.ComplexClass directDecoded = denseCodec.decodeObject(encoded, opacker, ComplexTest.ComplexClass.class);
+
+        OpackAssert.assertEquals(originalObject, directDecoded);
+        OpackAssert.assertEquals(treeDecoded, directDecoded);
+    }
+
+    @Test
+    public void decode_object_with_ignore() throws DecodeException, EncodeException, OpackAssert.AssertException {
+        Opacker opacker = new Opacker.Builder().create();
+        DenseCodec denseCodec = new DenseCodec.Builder().create();
+
+        IgnoreFieldTest.IgnoreFieldTestClass originalObject = new IgnoreFieldTest.IgnoreFieldTestClass();
+        byte[] encoded = denseCodec.encodeObject(opacker, originalObject);
+        IgnoreFieldTest.IgnoreFieldTestClass deserialized = denseCodec.decodeObject(encoded, opacker, IgnoreFieldTest.IgnoreFieldTestClass.class);
+
+        OpackAssert.assertEquals(originalObject, deserialized);
+    }
+
+    @Test
+    public void truncated_bytes() throws EncodeException {
+        OpackValue opackValue = CommonOpackValue.create();
+        DenseCodec denseCodec = new DenseCodec.Builder().create();
+
+        byte[] bytes = denseCodec.encode(opackValue);
+        byte[] truncated = Arrays.copyOf(bytes, bytes.length / 2);
+
+        DecodeException bytesException = Assertions.assertThrows(DecodeException.class, () -> denseCodec.decode(truncated));
+        Assertions.assertTrue(bytesException.getCause() instanceof EOFException);
+
+        DecodeException streamException = Assertions.assertThrows(DecodeException.class, () -> denseCodec.decode(new ByteArrayInputStream(truncated)));
+        Assertions.assertTrue(streamException.getCause() instanceof EOFException);
+    }
+
+    @Test
+    public void back_to_back_stream() throws DecodeException, EncodeException, SerializeException, DeserializeException, IOException, OpackAssert.AssertException {
+        Opacker opacker = new Opacker.Builder().create();
+        DenseCodec denseCodec = new DenseCodec.Builder().create();
+
+        OpackArray<Object> smallValue = new OpackArray<>();
+        smallValue.add(1);
+        smallValue.add("small");
+        OpackValue largeValue = CommonOpackValue.create();
+        ComplexTest.ComplexClass originalObject = new ComplexTest.ComplexClass();
+
+        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+        denseCodec.encode(byteArrayOutputStream, smallValue);
+        denseCodec.encode(byteArrayOutputStream, largeValue);
+        denseCodec.encodeObject(byteArrayOutputStream, opacker, originalObject);
+        denseCodec.encode(byteArrayOutputStream, smallValue);
+        byteArrayOutputStream.write(0x7F);
+        byte[] bytes = byteArrayOutputStream.toByteArray();
+
+        for (boolean markSupported : new boolean[]{true, false}) {
+            InputStream inputStream = new ByteArrayInputStream(bytes);
+
+            if (!markSupported) {
+                inputStream = new FilterInputStream(inputStream) {
+                    @Override
+                    public boolean markSupported() {
+                        return false;
+                    }
+                };
+            }
+
+            Assertions.assertEquals(smallValue, denseCodec.decode(inputStream));
+            Assertions.assertEquals(largeValue, denseCodec.decode(inputStream));
+            OpackAssert.assertEquals(originalObject, denseCodec.decodeObject(inputStream, opacker, ComplexTest.ComplexClass.class));
+            Assertions.assertEquals(smallValue, denseCodec.decode(inputStream));
+            Assertions.assertEquals(0x7F, inputStream.read());
+            Assertions.assertEquals(-1, inputStream.read());
+        }
+    }
+
+    void assertByteBuffer(ByteBuffer byteBuffer) throws DecodeException, EncodeException, OpackAssert.AssertException {
+        Opacker opacker = new Opacker.Builder().create();
+        DenseCodec denseCodec = new DenseCodec.Builder().create();
+
+        OpackValue opackValue = CommonOpackValue.create();
+        ComplexTest.ComplexClass originalObject = new ComplexTest.ComplexClass();
+
+        int valueLength = denseCodec.encode(byteBuffer, opackValue);
+        int objectLength = denseCodec.encodeObject(byteBuffer, opacker, originalObject);
+
+        Assertions.assertEquals(denseCodec.encode(opackValue).length, valueLength);
+        Assertions.assertEquals(denseCodec.encodeObject(opacker, originalObject).length, objectLength);
+        Assertions.assertEquals(valueLength + objectLength, byteBuffer.position());
+
+        byteBuffer.flip();
+
+        Assertions.assertEquals(opackValue, denseCodec.decode(byteBuffer));
+        Assertions.assertEquals(valueLength, byteBuffer.position());
+
+        ComplexTest.ComplexClass deserialized = denseCodec.decodeObject(byteBuffer, opacker, ComplexTest.ComplexClass.class);
+        OpackAssert.assertEquals(originalObject, deserialized);
+        Assertions.assertFalse(byteBuffer.hasRemaining());
+    }
+
+    @Test
+    public void heap_byte_buffer() throws DecodeException, EncodeException, OpackAssert.AssertException {
+        this.assertByteBuffer(ByteBuffer.allocate(1024 * 1024));
+    }
+
+    @Test
+    public void direct_byte_buffer() throws DecodeException, EncodeException, OpackAssert.AssertException {
+        this.assertByteBuffer(ByteBuffer.allocateDirect(1024 * 1024));
+    }
+
+    @Test
+    public void byte_buffer_overflow() {
+        OpackValue opackValue = CommonOpackValue.create();
+        DenseCodec denseCodec = new DenseCodec.Builder().create();
+
+        ByteBuffer byteBuffer = ByteBuffer.allocateDirect(16);
+        byteBuffer.position(4);
+
+        EncodeException exception = Assertions.assertThrows(EncodeException.class, () -> denseCodec.encode(byteBuffer, opackValue));
+        Assertions.assertTrue(exception.getCause() instanceof BufferOverflowException);
+        Assertions.assertEquals(4, byteBuffer.position());
+    }
+
+    @Test
+    public void mapped_reader() throws DecodeException, EncodeException, SerializeException, DeserializeException, IOException, OpackAssert.AssertException {
+        DenseCodec denseCodec = new DenseCodec.Builder().create();
+        OpackObject opackObject = (OpackObject) CommonOpackValue.create();
+
+        Path path = Files.createTempFile("opack", ".dense");
+        try {
+            Files.write(path, denseCodec.encode(opackObject));
+
+            // Small segments to make values cross the segment boundaries
+            try (DenseMappedReader mappedReader = new DenseMappedReader(denseCodec, path, 64)) {
+                DenseMappedReader.Node root = mappedReader.getRoot();
+
+                Assertions.assertTrue(root.isObject());
+                Assertions.assertEquals(opackObject.size(), root.getSize());
+                Assertions.assertEquals(opackObject, root.decode());
+
+                for (int i = 0; i < 10; i++) {
+                    Assertions.assertEquals(opackObject.get("object" + i), root.get("object" + i).decode());
+                }
+
+                OpackArray<?> opackArray = (OpackArray<?>) opackObject.get("array");
+                DenseMappedReader.Node arrayNode = root.get("array");
+
+                Assertions.assertTrue(arrayNode.isArray());
+                Assertions.assertEquals(opackArray.length(), arrayNode.getSize());
+                Assertions.assertEquals(opackArray.get(7), arrayNode.get(7).decode());
+                Assertions.assertEquals(((OpackObject) opackArray.get(3)).get("string"), arrayNode.get(3).get("string").decode());
+                Assertions.assertTrue(root.get("object0").get("null").isNull());
+                Assertions.assertNull(root.get("unknown"));
+                Assertions.assertThrows(IndexOutOfBoundsException.class, () -> arrayNode.get(10));
+            }
+
+            Opacker opacker = new Opacker.Builder().create();
+            ComplexTest.ComplexClass originalObject = new ComplexTest.ComplexClass();
+            Files.write(path, denseCodec.encodeObject(opacker, originalObject));
+
+            try (DenseMappedReader mappedReader = new DenseMappedReader(denseCodec, path, 64)) {
+                ComplexTest.ComplexClass deserialized = mappedReader.getRoot().decode(opacker, ComplexTest.ComplexClass.class);
+                OpackAssert.assertEquals(originalObject, deserialized);
+
+                OpackValue decoded = denseCodec.decode(Files.readAllBytes(path));
+                Assertions.assertArrayEquals(denseCodec.encode(decoded), denseCodec.encode((OpackValue) mappedReader.getRoot().decode()));
+            }
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    static void transcode(DenseStreamReader denseStreamReader, DenseStreamWriter denseStreamWriter) throws IOException {
+        while (true) {
+            switch (denseStreamReader.next()) {
+                case START_OBJECT:
+                    denseStreamWriter.startObject(denseStreamReader.getSize());
+                    break;
+                case START_ARRAY:
+                    denseStreamWriter.startArray(denseStreamReader.getSize());
+                    break;
+                case NATIVE_ARRAY:
+                    Class<?> componentType = denseStreamReader.getNativeComponentType();
+                    Object chunk = Array.newInstance(componentType, 3);
+                    int read;
+
+                    denseStreamWriter.startNativeArray(componentType, denseStreamReader.getSize());
+                    while ((read = denseStreamReader.readNativeArray(chunk, 0, 3)) != -1) {
+                        denseStreamWriter.writeNativeArray(chunk, 0, read);
+                    }
+                    break;
+                case BOOLEAN:
+                    denseStreamWriter.writeBoolean(denseStreamReader.getBoolean());
+                    break;
+                case BYTE:
+                    denseStreamWriter.writeByte(denseStreamReader.getByte());
+                    break;
+                case CHARACTER:
+                    denseStreamWriter.writeChar(denseStreamReader.getChar());
+                    break;
+                case SHORT:
+                    denseStreamWriter.writeShort(denseStreamReader.getShort());
+                    break;
+                case INTEGER:
+                    denseStreamWriter.writeInt(denseStreamReader.getInt());
+                    break;
+                case FLOAT:
+                    denseStreamWriter.writeFloat(denseStreamReader.getFloat());
+                    break;
+                case LONG:
+                    denseStreamWriter.writeLong(denseStreamReader.getLong());
+                    break;
+                case DOUBLE:
+                    denseStreamWriter.writeDouble(denseStreamReader.getDouble());
+                    break;
+                case NULL:
+                    denseStreamWriter.writeNull();
+                    break;
+                case STRING:
+                    denseStreamWriter.writeString(denseStreamReader.getString());
+                    break;
+                case END_DOCUMENT:
+                    return;
+            }
+        }
+    }
+
+    @Test
+    public void stream_transcode() throws EncodeException, IOException {
+        DenseCodec denseCodec = new DenseCodec.Builder().create();
+        Opacker opacker = new Opacker.Builder().create();
+
+        for (byte[] bytes : new byte[][]{denseCodec.encode(CommonOpackValue.create()), denseCodec.encodeObject(opacker, new ComplexTest.ComplexClass())}) {
+            ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+
+            try (DenseStreamReader denseStreamReader = new DenseStreamReader(new ByteArrayInputStream(bytes));
+                 DenseStreamWriter denseStreamWriter = new DenseStreamWriter(byteArrayOutputStream)) {
+                transcode(denseStreamReader, denseStreamWriter);
+            }
+
+            Assertions.assertArrayEquals(bytes, byteArrayOutputStream.toByteArray());
+        }
+    }
+
+    @Test
+    public void stream_reader_skip() throws EncodeException, IOException {
+        DenseCodec denseCodec = new DenseCodec.Builder().create();
+        OpackObject opackObject = (OpackObject) CommonOpackValue.create();
+
+        DenseStreamReader denseStreamReader = new DenseStreamReader(denseCodec.encode(opackObject));
+        Assertions.assertEquals(DenseStreamReader.Token.START_OBJECT, denseStreamReader.next());
+        Assertions.assertEquals(opackObject.size(), denseStreamReader.getSize());
+
+        String unicode = null;
+        int skipped = 0;
+
+        while (denseStreamReader.next() == DenseStreamReader.Token.STRING) {
+            if (denseStreamReader.getString().equals("unicode")) {
+                Assertions.assertEquals(DenseStreamReader.Token.STRING, denseStreamReader.next());
+                unicode = denseStreamReader.getString();
+            } else {
+                denseStreamReader.next();
+                denseStreamReader.skipChildren();
+                Assertions.assertEquals(1, denseStreamReader.getDepth());
+                skipped++;
+            }
+        }
+
+        Assertions.assertEquals(DenseStreamReader.Token.END_OBJECT, denseStreamReader.getToken());
+        Assertions.assertEquals(DenseStreamReader.Token.END_DOCUMENT, denseStreamReader.next());
+        Assertions.assertEquals(opackObject.get("unicode"), unicode);
+        Assertions.assertEquals(11, skipped);
+    }
+
+    @Test
+    public void stream_writer() throws DecodeException, IOException {
+        DenseCodec denseCodec = new DenseCodec.Builder().create();
+        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+
+        int[] chunk = new int[1024];
+        try (DenseStreamWriter denseStreamWriter = new DenseStreamWriter(byteArrayOutputStream)) {
+            denseStreamWriter.startObject(3);
+            denseStreamWriter.writeString("empty");
+            denseStreamWriter.startArray(0);
+            denseStreamWriter.writeString("values");
+            denseStreamWriter.startNativeArray(int.class, chunk.length * 64);
+            for (int index = 0; index < 64; index++) {
+                Arrays.fill(chunk, index);
+                denseStreamWriter.writeNativeArray(chunk, 0, chunk.length);
+            }
+            denseStreamWriter.writeString("mixed");
+            denseStreamWriter.startArray(2);
+            denseStreamWriter.writeNull();
+            denseStreamWriter.writeLong(Long.MAX_VALUE);
+
+            Assertions.assertTrue(denseStreamWriter.isComplete());
+            Assertions.assertThrows(IllegalStateException.class, () -> denseStreamWriter.writeInt(1));
+        }
+
+        OpackObject opackObject = (OpackObject) denseCodec.decode(byteArrayOutputStream.toByteArray());
+        OpackArray<?> values = (OpackArray<?>) opackObject.get("values");
+
+        Assertions.assertEquals(0, ((OpackArray<?>) opackObject.get("empty")).length());
+        Assertions.assertEquals(chunk.length * 64, values.length());
+        Assertions.assertEquals(63, values.get(values.length() - 1));
+        Assertions.assertNull(((OpackArray<?>) opackObject.get("mixed")).get(0));
+        Assertions.assertEquals(Long.MAX_VALUE, ((OpackArray<?>) opackObject.get("mixed")).get(1));
+
+        DenseStreamWriter incompleteWriter = new DenseStreamWriter(new ByteArrayOutputStream());
+        incompleteWriter.startArray(2);
+        incompleteWriter.writeInt(1);
+        Assertions.assertThrows(IOException.class, incompleteWriter::close);
+    }
+
+    @Test
+    public void compact_values() throws DecodeException, EncodeException {
+        DenseCodec denseCodec = new DenseCodec.Builder().create();
+        OpackObject<Object, Object> opackObject = new OpackObject<>();
+
+        Object[] values = new Object[]{
+                true, false, null,
+                0, -32, 31, -33, 32, Integer.MIN_VALUE, Integer.MAX_VALUE,
+                0L, -32L, 31L, -33L, 32L, Long.MIN_VALUE, Long.MAX_VALUE,
+                (short) -1, Short.MIN_VALUE, Short.MAX_VALUE,
+                'a', Character.MIN_VALUE, Character.MAX_VALUE,
+                (byte) -1, 1.5f, 1.5d, "string"
+        };
+
+        for (int index = 0; index < values.length; index++) {
+            opackObject.put("value" + index, values[index]);
+        }
+
+        OpackObject decoded = (OpackObject) denseCodec.decode(denseCodec.encode(opackObject));
+
+        for (int index = 0; index < values.length; index++) {
+            Assertions.assertEquals(values[index], decoded.get("value" + index));
+        }
+    }
+
+    @Test
+    public void version_compatibility() throws DecodeException, EncodeException, IOException, OpackAssert.AssertException {
+        Opacker opacker = new Opacker.Builder().create();
+        DenseCodec version1Codec = new DenseCodec.Builder().setEncodeVersion(1).create();
+        DenseCodec denseCodec = new DenseCodec.Builder().create();
+
+        OpackValue opackValue = CommonOpackValue.create();
+        ComplexTest.ComplexClass originalObject = new ComplexTest.ComplexClass();
+
+        byte[] version1Bytes = version1Codec.encode(opackValue);
+        byte[] version2Bytes = denseCodec.encode(opackValue);
+
+        Assertions.assertTrue(version2Bytes.length < version1Bytes.length);
+        Assertions.assertEquals(opackValue, denseCodec.decode(version1Bytes));
+        Assertions.assertEquals(opackValue, version1Codec.decode(version2Bytes));
+
+        ComplexTest.ComplexClass deserialized = denseCodec.decodeObject(version1Codec.encodeObject(opacker, originalObject), opacker, ComplexTest.ComplexClass.class);
+        OpackAssert.assertEquals(originalObject, deserialized);
+
+        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+
+        try (DenseStreamReader denseStreamReader = new DenseStreamReader(version1Bytes);
+             DenseStreamWriter denseStreamWriter = new DenseStreamWriter(byteArrayOutputStream)) {
+            transcode(denseStreamReader, denseStreamWriter);
+        }
+
+        Assertions.assertArrayEquals(version2Bytes, byteArrayOutputStream.toByteArray());
+
+        Path path = Files.createTempFile("opack", ".dense");
+        try {
+            Files.write(path, version1Bytes);
+
+            try (DenseMappedReader mappedReader = new DenseMappedReader(denseCodec, path, 64)) {
+                Assertions.assertEquals(opackValue, mappedReader.getRoot().decode());
+                Assertions.assertEquals(((OpackObject) opackValue).get("array"), mappedReader.getRoot().get("array").decode());
+            }
+        } finally {
+            Files.delete(path);
+        }
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new DenseCodec.Builder().setEncodeVersion(3).create());
+    }
+
+    @Test
+    public void string_dictionary() throws DecodeException, EncodeException, SerializeException, IOException, OpackAssert.AssertException {
+        Opacker opacker = new Opacker.Builder().create();
+        DenseCodec dictionaryCodec = new DenseCodec.Builder().setEncodeStringDictionary(true).create();
+        DenseCodec denseCodec = new DenseCodec.Builder().create();
+
+        OpackArray<Object> opackArray = new OpackArray<>();
+        for (int index = 0; index < 100; index++) {
+            OpackObject<Object, Object> opackObject = new OpackObject<>();
+            opackObject.put("name", "event");
+            opackObject.put("type", index % 2 == 0 ? "even" : "odd");
+            opackObject.put("index", index);
+            opackArray.add(opackObject);
+        }
+
+        byte[] dictionaryBytes = dictionaryCodec.encode(opackArray);
+        byte[] bytes = denseCodec.encode(opackArray);
+
+        Assertions.assertTrue(dictionaryBytes.length * 2 < bytes.length);
+
+        OpackArray decoded = (OpackArray) denseCodec.decode(dictionaryBytes);
+        Assertions.assertEquals(opackArray, decoded);
+        Assertions.assertSame(((OpackObject) decoded.get(0)).get("name"), ((OpackObject) decoded.get(99)).get("name"));
+        Assertions.assertSame(((OpackObject) decoded.get(0)).get("type"), ((OpackObject) decoded.get(98)).get("type"));
+
+        ComplexTest.ComplexClass originalObject = new ComplexTest.ComplexClass();
+        byte[] directEncoded = dictionaryCodec.encodeObject(opacker, originalObject);
+
+        Assertions.assertArrayEquals(dictionaryCodec.encode(opacker.serialize(originalObject)), directEncoded);
+        OpackAssert.assertEquals(originalObject, denseCodec.decodeObject(directEncoded, opacker, ComplexTest.ComplexClass.class));
+
+        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+
+        try (DenseStreamReader denseStreamReader = new DenseStreamReader(dictionaryBytes);
+             DenseStreamWriter denseStreamWriter = new DenseStreamWriter(byteArrayOutputStream)) {
+            transcode(denseStreamReader, denseStreamWriter);
+        }
+
+        Assertions.assertArrayEquals(bytes, byteArrayOutputStream.toByteArray());
+
+        Path path = Files.createTempFile("opack", ".dense");
+        try {
+            Files.write(path, dictionaryBytes);
+
+            try (DenseMappedReader mappedReader = new DenseMappedReader(denseCodec, path, 64)) {
+                DenseMappedReader.Node elementNode = mappedReader.getRoot().get(51);
+
+                Assertions.assertEquals(opackArray.get(51), elementNode.decode());
+                Assertions.assertEquals("odd", elementNode.get("type").decode());
+                Assertions.assertEquals(opackArray, mappedReader.getRoot().decode());
+            }
+
+            try (DenseMappedReader mappedReader = new DenseMappedReader(denseCodec, path, 64)) {
+                // The dictionary is collected only up to the accessed elements, in any order of access
+                for (int index : new int[]{1, 51, 10, 99, 0}) {
+                    Assertions.assertEquals(opackArray.get(index), mappedReader.getRoot().get(index).decode());
+                    Assertions.assertEquals(index % 2 == 0 ? "even" : "odd", mappedReader.getRoot().get(index).get("type").decode());
+                }
+            }
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    public void object_schema() throws DecodeException, EncodeException, DeserializeException, IOException, OpackAssert.AssertException {
+        Opacker opacker = new Opacker.Builder().create();
+        DenseCodec schemaCodec = new DenseCodec.Builder().setEncodeObjectSchema(true).create();
+        DenseCodec dictionarySchemaCodec = new DenseCodec.Builder().setEncodeObjectSchema(true).setEncodeStringDictionary(true).create();
+        DenseCodec denseCodec = new DenseCodec.Builder().create();
+
+        ComplexTest.ComplexClass originalObject = new ComplexTest.ComplexClass();
+        byte[] schemaBytes = schemaCodec.encodeObject(opacker, originalObject);
+        byte[] dictionarySchemaBytes = dictionarySchemaCodec.encodeObject(opacker, originalObject);
+        byte[] bytes = denseCodec.encodeObject(opacker, originalObject);
+
+        Assertions.assertTrue(schemaBytes.length < bytes.length);
+        Assertions.assertTrue(dictionarySchemaBytes.length < schemaBytes.length);
+
+        OpackAssert.assertEquals(originalObject, denseCodec.decodeObject(schemaBytes, opacker, ComplexTest.ComplexClass.class));
+        OpackAssert.assertEquals(originalObject, denseCodec.decodeObject(dictionarySchemaBytes, opacker, ComplexTest.ComplexClass.class));
+
+        byte[] reencodedBytes = denseCodec.encode(denseCodec.decode(bytes));
+
+        Assertions.assertArrayEquals(reencodedBytes, denseCodec.encode(denseCodec.decode(schemaBytes)));
+        Assertions.assertArrayEquals(reencodedBytes, denseCodec.encode(denseCodec.decode(dictionarySchemaBytes)));
+
+        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+
+        try (DenseStreamReader denseStreamReader = new DenseStreamReader(dictionarySchemaBytes);
+             DenseStreamWriter denseStreamWriter = new DenseStreamWriter(byteArrayOutputStream)) {
+            transcode(denseStreamReader, denseStreamWriter);
+        }
+
+        Assertions.assertArrayEquals(bytes, byteArrayOutputStream.toByteArray());
+
+        Path path = Files.createTempFile("opack", ".dense");
+        try {
+            Files.write(path, dictionarySchemaBytes);
+
+            OpackObject decoded = (OpackObject) denseCodec.decode(bytes);
+
+            try (DenseMappedReader mappedReader = new DenseMappedReader(denseCodec, path, 64)) {
+                DenseMappedReader.Node arrayNode = mappedReader.getRoot().get("stringClassArrayValue");
+                DenseMappedReader.Node elementNode = arrayNode.get(arrayNode.getSize() - 1);
+                OpackArray decodedArray = (OpackArray) decoded.get("stringClassArrayValue");
+
+                Assertions.assertTrue(elementNode.isObject());
+                Assertions.assertEquals(((OpackObject) decodedArray.get(decodedArray.length() - 1)).size(), elementNode.getSize());
+                Assertions.assertArrayEquals(denseCodec.encode((OpackValue) decodedArray.get(decodedArray.length() - 1)), denseCodec.encode((OpackValue) elementNode.decode()));
+                Assertions.assertArrayEquals(reencodedBytes, denseCodec.encode((OpackValue) mappedReader.getRoot().decode()));
+                OpackAssert.assertEquals(originalObject, mappedReader.getRoot().decode(opacker, ComplexTest.ComplexClass.class));
+            }
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    public void compressed_frame() throws DecodeException, EncodeException, DeserializeException, IOException, OpackAssert.AssertException {
+        Opacker opacker = new Opacker.Builder().create();
+        DenseCodec frameCodec = new DenseCodec.Builder().setEncodeCompressor(new DeflateBlockCompressor()).setEncodeCompressionBlockSize(256).create();
+        DenseCodec denseCodec = new DenseCodec.Builder().create();
+
+        OpackValue opackValue = CommonOpackValue.create();
+        byte[] frameBytes = frameCodec.encode(opackValue);
+        byte[] bytes = denseCodec.encode(opackValue);
+
+        Assertions.assertTrue(DenseFrameReader.isFrame(frameBytes));
+        Assertions.assertFalse(DenseFrameReader.isFrame(bytes));
+        Assertions.assertEquals(opackValue, denseCodec.decode(frameBytes));
+        Assertions.assertEquals(opackValue, denseCodec.decode(new ByteArrayInputStream(frameBytes)));
+
+        ByteBuffer byteBuffer = ByteBuffer.allocateDirect(frameBytes.length + 16);
+        Assertions.assertEquals(frameBytes.length, frameCodec.encode(byteBuffer, opackValue));
+        byteBuffer.flip();
+        Assertions.assertEquals(opackValue, denseCodec.decode(byteBuffer));
+        Assertions.assertEquals(frameBytes.length, byteBuffer.position());
+
+        DenseFrameReader frameReader = new DenseFrameReader(ByteBuffer.wrap(frameBytes));
+        Assertions.assertEquals(bytes.length, frameReader.getLength());
+        Assertions.assertEquals(frameBytes.length, frameReader.getFrameSize());
+        Assertions.assertEquals((bytes.length + 255) / 256, frameReader.getBlockCount());
+        Assertions.assertArrayEquals(bytes, frameReader.readAll(true));
+
+        for (int index = 0; index < frameReader.getBlockCount(); index++) {
+            int offset = (int) frameReader.getBlockOffset(index);
+            Assertions.assertArrayEquals(Arrays.copyOfRange(bytes, offset, Math.min(offset + 256, bytes.length)), frameReader.readBlock(index));
+        }
+
+        byte[] range = new byte[300];
+        Assertions.assertEquals(300, frameReader.read(200, range, 0, 300));
+        Assertions.assertArrayEquals(Arrays.copyOfRange(bytes, 200, 500), range);
+        Assertions.assertEquals(-1, frameReader.read(bytes.length, range, 0, 300));
+
+        try (DenseFrameInputStream frameInputStream = new DenseFrameInputStream(new ByteArrayInputStream(frameBytes))) {
+            Assertions.assertArrayEquals(bytes, frameInputStream.readAllBytes());
+        }
+
+        ByteArrayOutputStream frameOutput = new ByteArrayOutputStream();
+        try (DenseFrameOutputStream frameOutputStream = new DenseFrameOutputStream(frameOutput, new DeflateBlockCompressor(), 256)) {
+            frameOutputStream.write(bytes, 0, 100);
+            frameOutputStream.finish();
+
+            // Writes after the end of frame must fail instead of being buffered and lost
+            Assertions.assertThrows(IllegalStateException.class, () -> frameOutputStream.write(1));
+            Assertions.assertThrows(IllegalStateException.class, () -> frameOutputStream.write(bytes, 100, 10));
+        }
+
+        try (DenseFrameInputStream frameInputStream = new DenseFrameInputStream(new ByteArrayInputStream(frameOutput.toByteArray()))) {
+            Assertions.assertArrayEquals(Arrays.copyOf(bytes, 100), frameInputStream.readAllBytes());
+        }
+
+        ComplexTest.ComplexClass originalObject = new ComplexTest.ComplexClass();
+        byte[] frameObjectBytes = frameCodec.encodeObject(opacker, originalObject);
+
+        Assertions.assertTrue(frameObjectBytes.length < denseCodec.encodeObject(opacker, originalObject).length);
+        OpackAssert.assertEquals(originalObject, denseCodec.decodeObject(frameObjectBytes, opacker, ComplexTest.ComplexClass.class));
+        OpackAssert.assertEquals(originalObject, denseCodec.decodeObject(new ByteArrayInputStream(frameObjectBytes), opacker, ComplexTest.ComplexClass.class));
+
+        BlockCompressor storeCompressor = new BlockCompressor() {
+            @Override
+            public byte getId() {
+                return 0x7F;
+            }
+
+            @Override
+            public int compress(byte[] source, int sourceOffset, int sourceLength, byte[] target, int targetOffset, int targetLength) {
+                return -1;
+            }
+
+            @Override
+            public void decompress(byte[] source, int sourceOffset, int sourceLength, byte[] target, int targetOffset, int targetLength) throws IOException {
+                throw new IOException("Stored blocks are never compressed.");
+            }
+        };
+
+        byte[] storedBytes = new DenseCodec.Builder().setEncodeCompressor(storeCompressor).create().encode(opackValue);
+
+        Assertions.assertThrows(DecodeException.class, () -> denseCodec.decode(storedBytes));
+        Assertions.assertEquals(opackValue, new DenseCodec.Builder().setDecodeCompressors(storeCompressor).create().decode(storedBytes));
+    }
+
+    @Test
+    public void parallel_encode() throws DecodeException, EncodeException {
+        OpackArray<Object> opackArray = new OpackArray<>();
+        for (int index = 0; index < 5000; index++) {
+            OpackObject<Object, Object> opackObject = new OpackObject<>();
+            opackObject.put("index", index);
+            opackObject.put("name", "element" + index);
+            opackObject.put("values", OpackArray.createWithArrayObject(new int[]{index, index * 2, index * 3}));
+
+            OpackArray<Object> children = new OpackArray<>();
+            for (int childIndex = 0; childIndex < index % 64; childIndex++) {
+                children.add(childIndex % 2 == 0 ? (Object) ("child" + childIndex) : (Object) (long) childIndex);
+            }
+            opackObject.put("children", children);
+
+            opackArray.add(opackObject);
+        }
+
+        OpackObject<Object, Object> opackObject = new OpackObject<>();
+        for (int index = 0; index < 100; index++) {
+            opackObject.put("key" + index, index % 3 == 0 ? null : CommonOpackValue.create());
+        }
+        opackObject.put("array", opackArray);
+
+        for (int version = 1; version <= 2; version++) {
+            DenseCodec denseCodec = new DenseCodec.Builder().setEncodeVersion(version).create();
+            DenseCodec parallelCodec = new DenseCodec.Builder().setEncodeVersion(version).setEncodeParallelism(4).setEncodeParallelThreshold(16).create();
+
+            byte[] bytes = denseCodec.encode(opackObject);
+
+            Assertions.assertArrayEquals(bytes, parallelCodec.encode(opackObject));
+            Assertions.assertArrayEquals(denseCodec.encode(opackArray), parallelCodec.encode(opackArray));
+            Assertions.assertEquals(opackObject, parallelCodec.decode(bytes));
+        }
+
+        DenseCodec dictionaryCodec = new DenseCodec.Builder().setEncodeStringDictionary(true).create();
+        DenseCodec parallelDictionaryCodec = new DenseCodec.Builder().setEncodeStringDictionary(true).setEncodeParallelism(4).create();
+
+        Assertions.assertArrayEquals(dictionaryCodec.encode(opackObject), parallelDictionaryCodec.encode(opackObject));
+
+        ForkJoinPool forkJoinPool = new ForkJoinPool(2);
+        try {
+            DenseCodec denseCodec = new DenseCodec.Builder().create();
+            DenseCodec poolCodec = new DenseCodec.Builder().setEncodeParallelism(2).setEncodeParallelThreshold(16).setEncodeForkJoinPool(forkJoinPool).create();
+
+            Assertions.assertArrayEquals(denseCodec.encode(opackObject), poolCodec.encode(opackObject));
+        } finally {
+            forkJoinPool.shutdown();
+        }
+    }
+
+    @Test
+    public void message_stream() throws DecodeException, EncodeException, IOException, OpackAssert.AssertException {
+        Opacker opacker = new Opacker.Builder().create();
+        ComplexTest.ComplexClass originalObject = new ComplexTest.ComplexClass();
+
+        DenseCodec[] denseCodecs = new DenseCodec[]{
+                new DenseCodec.Builder().setEncodeVersion(1).create(),
+                new DenseCodec.Builder().setEncodeStringDictionary(true).setEncodeObjectSchema(true).create()
+        };
+
+        for (DenseCodec denseCodec : denseCodecs) {
+            OpackValue opackValue = denseCodec.decode(denseCodec.encode(CommonOpackValue.create()));
+            ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+
+            try (DenseMessageWriter denseMessageWriter = new DenseMessageWriter(byteArrayOutputStream, denseCodec)) {
+                for (int index = 0; index < 100; index++) {
+                    if (index % 25 == 0) {
+                        denseMessageWriter.write(opacker, originalObject);
+                    } else {
+                        denseMessageWriter.write(opackValue);
+                    }
+                }
+
+                Assertions.assertEquals(100, denseMessageWriter.getCount());
+            }
+
+            byte[] bytes = byteArrayOutputStream.toByteArray();
+
+            try (DenseMessageReader denseMessageReader = new DenseMessageReader(new ByteArrayInputStream(bytes), denseCodec)) {
+                for (int index = 0; index < 100; index++) {
+                    if (index % 25 == 0) {
+                        OpackAssert.assertEquals(originalObject, denseMessageReader.read(opacker, ComplexTest.ComplexClass.class));
+                    } else if (index % 2 == 0) {
+                        Assertions.assertTrue(denseMessageReader.skip());
+                    } else {
+                        Assertions.assertEquals(opackValue, denseMessageReader.read());
+                    }
+                }
+
+                Assertions.assertNull(denseMessageReader.read());
+                Assertions.assertFalse(denseMessageReader.isIncomplete());
+                Assertions.assertEquals(100, denseMessageReader.getCount());
+                Assertions.assertEquals(bytes.length, denseMessageReader.getPosition());
+            }
+
+            // The stream grows a few bytes at a time, as a log file being written or a socket
+            int[] available = new int[]{0};
+            InputStream growingInputStream = new InputStream() {
+                int position = 0;
+
+                @Override
+                public int read() {
+                    return this.position < available[0] ? bytes[this.position++] & 0xFF : -1;
+                }
+            };
+
+            int read = 0;
+
+            try (DenseMessageReader denseMessageReader = new DenseMessageReader(growingInputStream, denseCodec)) {
+                while (read < 100) {
+                    if (denseMessageReader.skip()) {
+                        read++;
+                    } else {
+                        Assertions.assertTrue(available[0] < bytes.length);
+                        available[0] = Math.min(bytes.length, available[0] + 997);
+                    }
+                }
+
+                Assertions.assertFalse(denseMessageReader.skip());
+                Assertions.assertFalse(denseMessageReader.isIncomplete());
+            }
+        }
+
+        Assertions.assertThrows(IOException.class, () -> new DenseMessageReader(new ByteArrayInputStream(denseCodecs[0].encode(CommonOpackValue.create()))).read());
+
+        // Truncated stream keeps the incomplete record
+        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+        try (DenseMessageWriter denseMessageWriter = new DenseMessageWriter(byteArrayOutputStream)) {
+            denseMessageWriter.write(CommonOpackValue.create());
+        }
+
+        byte[] bytes = byteArrayOutputStream.toByteArray();
+        DenseMessageReader truncatedReader = new DenseMessageReader(new ByteArrayInputStream(Arrays.copyOf(bytes, bytes.length - 1)));
+
+        Assertions.assertNull(truncatedReader.read());
+        Assertions.assertTrue(truncatedReader.isIncomplete());
+    }
 }
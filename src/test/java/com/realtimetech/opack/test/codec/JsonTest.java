@@ -24,17 +24,34 @@ package com.realtimetech.opack.test.codec;
 
 import com.realtimetech.opack.Opacker;
 import com.realtimetech.opack.codec.json.JsonCodec;
+import com.realtimetech.opack.codec.json.JsonLinesReader;
+import com.realtimetech.opack.codec.json.JsonLinesWriter;
+import com.realtimetech.opack.codec.json.JsonPullParser;
 import com.realtimetech.opack.exception.DecodeException;
 import com.realtimetech.opack.exception.DeserializeException;
 import com.realtimetech.opack.exception.EncodeException;
 import com.realtimetech.opack.exception.SerializeException;
 import com.realtimetech.opack.test.OpackAssert;
 import com.realtimetech.opack.test.opacker.ComplexTest;
+import com.realtimetech.opack.value.OpackArray;
 import com.realtimetech.opack.value.OpackObject;
 import com.realtimetech.opack.value.OpackValue;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
 public class JsonTest {
     @Test
     public void object_to_string_to_object() throws DecodeException, EncodeException {
@@ -115,4 +132,518 @@ public class JsonTest {
 
         OpackAssert.assertEquals(originalObject, deserialized);
     }
+
+    @Test
+    public void reader_to_object() throws DecodeException, EncodeException {
+        JsonCodec jsonCodec = new JsonCodec.Builder().create();
+        String json = jsonCodec.encode(CommonOpackValue.create());
+        OpackValue opackValue = jsonCodec.decode(json);
+
+        // Small buffer to make literals cross the buffer boundaries
+        JsonCodec streamJsonCodec = new JsonCodec.Builder().setDecodeBufferSize(7).create();
+
+        Assertions.assertEquals(opackValue, streamJsonCodec.decode(json));
+        Assertions.assertEquals(opackValue, streamJsonCodec.decode(new StringReader(json)));
+        Assertions.assertEquals(opackValue, streamJsonCodec.decode(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8))));
+    }
+
+    @Test
+    public void parallel_decode() throws DecodeException, EncodeException {
+        JsonCodec jsonCodec = new JsonCodec.Builder().create();
+        JsonCodec parallelJsonCodec = new JsonCodec.Builder().setDecodeParallelism(4).setDecodeParallelThreshold(0).create();
+
+        OpackArray<Object> opackArray = new OpackArray<>();
+        for (int i = 0; i < 256; i++) {
+            opackArray.add(CommonOpackValue.create());
+            opackArray.add("[{\"not, a structure\\\"]},");
+            opackArray.add(i);
+        }
+
+        String json = jsonCodec.encode(opackArray);
+        OpackValue opackValue = jsonCodec.decode(json);
+
+        Assertions.assertEquals(opackValue, parallelJsonCodec.decode(json));
+        Assertions.assertEquals(opackValue, parallelJsonCodec.decode(" \n" + json + "\t "));
+        Assertions.assertEquals(jsonCodec.decode("[1, 2, 3,]"), parallelJsonCodec.decode("[1, 2, 3,]"));
+        Assertions.assertEquals(jsonCodec.decode("{\"key\": [1, 2]}"), parallelJsonCodec.decode("{\"key\": [1, 2]}"));
+        Assertions.assertEquals(jsonCodec.decode("[1, 2, 3, 4"), parallelJsonCodec.decode("[1, 2, 3, 4"));
+
+        // Errors must be reported at the same position as the sequential decoding
+        String[] invalidJsons = new String[]{
+                json.replace(",128,{", ",128,,{"),
+                json.replace(",200,{", ",2@0,{"),
+                json.substring(0, json.length() - 1) + ",,1]",
+                "[1, 2, 3, 4, 5, 6, 7, 8, 9, 10] 11",
+        };
+
+        for (String invalidJson : invalidJsons) {
+            DecodeException decodeException = Assertions.assertThrows(DecodeException.class, () -> jsonCodec.decode(invalidJson));
+            DecodeException parallelDecodeException = Assertions.assertThrows(DecodeException.class, () -> parallelJsonCodec.decode(invalidJson));
+
+            Assertions.assertEquals(decodeException.getCause().getMessage(), parallelDecodeException.getCause().getMessage());
+        }
+
+        ForkJoinPool forkJoinPool = new ForkJoinPool(2);
+        try {
+            JsonCodec poolJsonCodec = new JsonCodec.Builder().setDecodeParallelism(2).setDecodeParallelThreshold(0).setDecodeForkJoinPool(forkJoinPool).create();
+
+            Assertions.assertEquals(opackValue, poolJsonCodec.decode(json));
+        } finally {
+            forkJoinPool.shutdown();
+        }
+    }
+
+    @Test
+    public void json_lines() throws IOException, DecodeException, EncodeException, SerializeException, DeserializeException, OpackAssert.AssertException {
+        Opacker opacker = new Opacker.Builder().create();
+        JsonCodec jsonCodec = new JsonCodec.Builder().create();
+        OpackValue opackValue = jsonCodec.decode(jsonCodec.encode(CommonOpackValue.create()));
+        ComplexTest.ComplexClass originalObject = new ComplexTest.ComplexClass();
+
+        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+        try (JsonLinesWriter jsonLinesWriter = new JsonLinesWriter(byteArrayOutputStream)) {
+            for (int i = 0; i < 2000; i++) {
+                jsonLinesWriter.write(opackValue);
+
+                if (i % 200 == 0) {
+                    jsonLinesWriter.write(opacker, originalObject);
+                }
+            }
+        }
+
+        byte[] bytes = byteArrayOutputStream.toByteArray();
+        String lines = new String(bytes, StandardCharsets.UTF_8);
+        Assertions.assertEquals(2010, lines.split("\n").length);
+
+        JsonCodec[] linesJsonCodecs = new JsonCodec[]{
+                new JsonCodec.Builder().setDecodeBufferSize(7).create(),
+                new JsonCodec.Builder().setDecodeParallelism(4).create()
+        };
+
+        for (JsonCodec linesJsonCodec : linesJsonCodecs) {
+            try (JsonLinesReader jsonLinesReader = new JsonLinesReader(new ByteArrayInputStream(bytes), linesJsonCodec)) {
+                for (int i = 0; i < 2000; i++) {
+                    Assertions.assertEquals(opackValue, jsonLinesReader.read());
+
+                    if (i % 200 == 0) {
+                        OpackAssert.assertEquals(originalObject, jsonLinesReader.read(opacker, ComplexTest.ComplexClass.class));
+                    }
+                }
+
+                Assertions.assertNull(jsonLinesReader.read());
+                Assertions.assertEquals(2010, jsonLinesReader.getLineNumber());
+            }
+
+            // Blank lines, carriage returns and the last line without newline
+            try (JsonLinesReader jsonLinesReader = new JsonLinesReader(new StringReader("\n{\"a\": 1}\r\n  \n[1, 2]  \n{}"), linesJsonCodec)) {
+                Assertions.assertEquals(jsonCodec.decode("{\"a\": 1}"), jsonLinesReader.read());
+                Assertions.assertEquals(jsonCodec.decode("[1, 2]"), jsonLinesReader.read());
+                Assertions.assertEquals(jsonCodec.decode("{}"), jsonLinesReader.read());
+                Assertions.assertNull(jsonLinesReader.read());
+            }
+
+            String[] invalidLines = new String[]{
+                    "{\"a\": 1}\n\n{\"b\": 2} {\"c\": 3}\n",
+                    "{\"a\": 1}\n\n{\"b\": \n",
+                    "{\"a\": 1}\n\n{\"b\": @}\n{}",
+            };
+
+            for (String invalidLine : invalidLines) {
+                try (JsonLinesReader jsonLinesReader = new JsonLinesReader(new StringReader(invalidLine), linesJsonCodec)) {
+                    Assertions.assertEquals(jsonCodec.decode("{\"a\": 1}"), jsonLinesReader.read());
+
+                    IOException exception = Assertions.assertThrows(IOException.class, jsonLinesReader::read);
+                    Assertions.assertTrue(exception.getMessage().endsWith("line 3"), exception.getMessage());
+                }
+            }
+
+            // A record must not continue to the next line, and the records after an invalid line are still read
+            try (JsonLinesReader jsonLinesReader = new JsonLinesReader(new StringReader("{\"a\":\n1}\n{\"b\":2}\n42\n[\"c\n\"]\n[3]\n"), linesJsonCodec)) {
+                String[] expectedErrors = new String[]{"line 1", "line 2", null, "line 4", "line 5", "line 6", null};
+
+                for (String expectedError : expectedErrors) {
+                    if (expectedError == null) {
+                        Assertions.assertNotNull(jsonLinesReader.read());
+                    } else {
+                        IOException exception = Assertions.assertThrows(IOException.class, jsonLinesReader::read);
+                        Assertions.assertTrue(exception.getMessage().endsWith(expectedError), exception.getMessage());
+                    }
+                }
+
+                Assertions.assertNull(jsonLinesReader.read());
+                Assertions.assertNull(jsonLinesReader.read());
+                Assertions.assertEquals(7, jsonLinesReader.getLineNumber());
+            }
+        }
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new JsonLinesWriter(byteArrayOutputStream, new JsonCodec.Builder().setPrettyFormat(true).create()));
+    }
+
+    @Test
+    public void utf8_bytes() throws EncodeException {
+        OpackArray<Object> opackArray = new OpackArray<>();
+        opackArray.add(CommonOpackValue.create());
+        opackArray.add("ascii \uD83D\uDE00 \u00E9\u4E2D\u2028 \"escaped\"\n");
+        opackArray.add("unpaired \uD83D, \uDE00 and \uD83D");
+        opackArray.add("\uD83D");
+        opackArray.add("long ".repeat(10000) + "\u00E9".repeat(10000));
+
+        for (boolean prettyFormat : new boolean[]{false, true}) {
+            JsonCodec jsonCodec = new JsonCodec.Builder().setPrettyFormat(prettyFormat).setEncodeStringBufferSize(16).create();
+            byte[] bytes = jsonCodec.encode(opackArray).getBytes(StandardCharsets.UTF_8);
+
+            Assertions.assertArrayEquals(bytes, jsonCodec.encodeToBytes(opackArray));
+
+            ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+            jsonCodec.encode(byteArrayOutputStream, opackArray);
+            Assertions.assertArrayEquals(bytes, byteArrayOutputStream.toByteArray());
+
+            for (ByteBuffer byteBuffer : new ByteBuffer[]{ByteBuffer.allocate(bytes.length + 10), ByteBuffer.allocate(bytes.length + 15).position(5).slice(), ByteBuffer.allocateDirect(bytes.length + 10)}) {
+                byteBuffer.position(10);
+
+                Assertions.assertEquals(bytes.length, jsonCodec.encode(byteBuffer, opackArray));
+                Assertions.assertEquals(bytes.length + 10, byteBuffer.position());
+
+                byte[] written = new byte[bytes.length];
+                byteBuffer.position(10);
+                byteBuffer.get(written);
+                Assertions.assertArrayEquals(bytes, written);
+            }
+        }
+
+        JsonCodec jsonCodec = new JsonCodec.Builder().create();
+        ByteBuffer byteBuffer = ByteBuffer.allocate(1024);
+        byteBuffer.position(3);
+
+        EncodeException encodeException = Assertions.assertThrows(EncodeException.class, () -> jsonCodec.encode(byteBuffer, opackArray));
+        Assertions.assertTrue(encodeException.getCause() instanceof BufferOverflowException);
+        Assertions.assertEquals(3, byteBuffer.position());
+
+        byte[] bytes = jsonCodec.encodeToBytes(opackArray);
+        ByteBuffer limitedByteBuffer = ByteBuffer.allocate(bytes.length * 2);
+        limitedByteBuffer.limit(bytes.length - 1);
+
+        encodeException = Assertions.assertThrows(EncodeException.class, () -> jsonCodec.encode(limitedByteBuffer, opackArray));
+        Assertions.assertTrue(encodeException.getCause() instanceof BufferOverflowException);
+        Assertions.assertEquals(0, limitedByteBuffer.position());
+        Assertions.assertEquals(0, limitedByteBuffer.array()[bytes.length]);
+    }
+
+    @Test
+    public void utf8_decode() throws EncodeException, DecodeException {
+        OpackArray<Object> opackArray = new OpackArray<>();
+        opackArray.add(CommonOpackValue.create());
+        opackArray.add("ascii \uD83D\uDE00 \u00E9\u4E2D\u2028 \"escaped\"\n");
+        opackArray.add("\uD83D\uDE00".repeat(100) + "\u00E9\u4E2D".repeat(100));
+        opackArray.add("long ".repeat(10000) + "\u00E9".repeat(10000));
+
+        for (int decodeBufferSize : new int[]{2, 7, 1024}) {
+            JsonCodec jsonCodec = new JsonCodec.Builder().setDecodeBufferSize(decodeBufferSize).create();
+            byte[] bytes = jsonCodec.encodeToBytes(opackArray);
+            OpackValue expected = jsonCodec.decode(new String(bytes, StandardCharsets.UTF_8));
+
+            Assertions.assertEquals(expected, jsonCodec.decode(bytes));
+            Assertions.assertEquals(expected, jsonCodec.decode(new ByteArrayInputStream(bytes)));
+
+            for (ByteBuffer byteBuffer : new ByteBuffer[]{ByteBuffer.allocate(bytes.length + 10), ByteBuffer.allocate(bytes.length + 15).position(5).slice(), ByteBuffer.allocateDirect(bytes.length + 10)}) {
+                byteBuffer.position(10);
+                byteBuffer.put(bytes);
+                byteBuffer.flip().position(10);
+
+                Assertions.assertEquals(expected, jsonCodec.decode(byteBuffer));
+                Assertions.assertEquals(bytes.length + 10, byteBuffer.position());
+            }
+        }
+
+        JsonCodec jsonCodec = new JsonCodec.Builder().create();
+        byte[] malformed = new byte[]{'[', '"', 'a', (byte) 0xFF, 'b', (byte) 0xE4, (byte) 0xB8, '"', ']'};
+        Assertions.assertEquals(jsonCodec.decode(new String(malformed, StandardCharsets.UTF_8)), jsonCodec.decode(malformed));
+
+        ByteBuffer byteBuffer = ByteBuffer.wrap("{\"key\": \"val".getBytes(StandardCharsets.UTF_8));
+        Assertions.assertThrows(DecodeException.class, () -> jsonCodec.decode(byteBuffer));
+        Assertions.assertThrows(DecodeException.class, () -> jsonCodec.decode("[1, @]".getBytes(StandardCharsets.UTF_8)));
+        Assertions.assertEquals(0, byteBuffer.position());
+    }
+
+    @Test
+    public void numbers() throws DecodeException, IOException {
+        Random random = new Random(0);
+        List<String> literals = new ArrayList<>();
+
+        for (int index = 0; index < 20000; index++) {
+            double value = Double.longBitsToDouble(random.nextLong());
+
+            if (!Double.isNaN(value) && !Double.isInfinite(value)) {
+                literals.add(Double.toString(value));
+            }
+        }
+
+        for (int index = 0; index < 20000; index++) {
+            StringBuilder literal = new StringBuilder(random.nextBoolean() ? "-" : "");
+            literal.append(random.nextInt(9) + 1);
+
+            int digits = random.nextInt(25);
+            int point = random.nextInt(digits + 1);
+
+            for (int digit = 0; digit < digits; digit++) {
+                literal.append(digit == point ? "." : "").append(random.nextInt(10));
+            }
+
+            if (point == digits && digits >= 18) {
+                // Keep the integers in range of long
+                literal.append(".0");
+            }
+
+            literals.add(literal.append(random.nextBoolean() ? "e" + (random.nextInt(660) - 340) : "").toString());
+        }
+
+        literals.addAll(List.of("0.0", "-0.0", "1e5", "1E+2", "2.5e-3", "1e-400", "-1e400", "4.9e-324", "2.2250738585072011e-308", "1.7976931348623157e308", "0.1000000000000000055511151231257827", "9007199254740993.0"));
+
+        for (int decodeBufferSize : new int[]{7, 1024}) {
+            JsonCodec jsonCodec = new JsonCodec.Builder().setDecodeBufferSize(decodeBufferSize).create();
+            OpackArray<?> opackArray = (OpackArray<?>) jsonCodec.decode("[" + String.join(", ", literals) + "]");
+
+            for (int index = 0; index < literals.size(); index++) {
+                String literal = literals.get(index);
+                Object value = opackArray.get(index);
+
+                if (literal.contains(".") || literal.contains("e") || literal.contains("E")) {
+                    Assertions.assertEquals(Double.doubleToRawLongBits(Double.parseDouble(literal)), Double.doubleToRawLongBits((Double) value), literal);
+                } else {
+                    Assertions.assertEquals(Long.parseLong(literal), value, literal);
+                }
+            }
+        }
+
+        JsonCodec jsonCodec = new JsonCodec.Builder().create();
+        Assertions.assertEquals(Long.MAX_VALUE, ((OpackArray<?>) jsonCodec.decode("[9223372036854775807]")).get(0));
+        Assertions.assertEquals(Long.MIN_VALUE, ((OpackArray<?>) jsonCodec.decode("[-9223372036854775808]")).get(0));
+        Assertions.assertEquals(0L, ((OpackArray<?>) jsonCodec.decode("[-0]")).get(0));
+
+        for (String invalid : new String[]{"[9223372036854775808]", "[-9223372036854775809]", "[01]", "[1.]", "[-]", "[1e]", "[1e+]", "[-a]", "[1.e5]", "[2.5f]"}) {
+            Assertions.assertThrows(DecodeException.class, () -> jsonCodec.decode(invalid));
+        }
+
+        try (JsonPullParser jsonPullParser = new JsonPullParser("[12, 1.5e3, 99999999999999999999]")) {
+            Assertions.assertEquals(JsonPullParser.Token.START_ARRAY, jsonPullParser.next());
+            Assertions.assertEquals(JsonPullParser.Token.NUMBER, jsonPullParser.next());
+            Assertions.assertEquals(12L, jsonPullParser.getNumber());
+            Assertions.assertEquals(12.0, jsonPullParser.getDouble());
+            Assertions.assertEquals(JsonPullParser.Token.NUMBER, jsonPullParser.next());
+            Assertions.assertEquals(1500.0, jsonPullParser.getNumber());
+            Assertions.assertEquals("1.5e3", jsonPullParser.getString());
+            Assertions.assertThrows(NumberFormatException.class, jsonPullParser::getLong);
+            Assertions.assertEquals(JsonPullParser.Token.NUMBER, jsonPullParser.next());
+            Assertions.assertEquals(1e20, jsonPullParser.getDouble());
+            Assertions.assertThrows(NumberFormatException.class, jsonPullParser::getLong);
+        }
+    }
+
+    @Test
+    public void number_format() throws EncodeException {
+        JsonCodec jsonCodec = new JsonCodec.Builder().create();
+        Random random = new Random(0);
+
+        for (int index = 0; index < 20000; index++) {
+            double doubleValue = Double.longBitsToDouble(random.nextLong());
+            float floatValue = Float.intBitsToFloat(random.nextInt());
+
+            if (Double.isFinite(doubleValue)) {
+                String literal = jsonCodec.encode(OpackArray.createWithArrayObject(new double[]{doubleValue}));
+                literal = literal.substring(1, literal.length() - 1);
+
+                Assertions.assertEquals(Double.doubleToRawLongBits(doubleValue), Double.doubleToRawLongBits(Double.parseDouble(literal)));
+                Assertions.assertTrue(literal.length() <= Double.toString(doubleValue).length());
+            }
+
+            if (Float.isFinite(floatValue)) {
+                String literal = jsonCodec.encode(OpackArray.createWithArrayObject(new float[]{floatValue}));
+                literal = literal.substring(1, literal.length() - 1);
+
+                Assertions.assertEquals(Float.floatToRawIntBits(floatValue), Float.floatToRawIntBits(Float.parseFloat(literal)));
+                Assertions.assertTrue(literal.length() <= Float.toString(floatValue).length());
+            }
+        }
+
+        OpackArray<Object> opackArray = new OpackArray<>();
+        opackArray.add(100.0);
+        opackArray.add(0.001);
+        opackArray.add(1.0E-4);
+        opackArray.add(9999999.0);
+        opackArray.add(1.0E7);
+        opackArray.add(-0.0);
+        opackArray.add(1.0E23);
+        opackArray.add(Double.MIN_VALUE);
+        opackArray.add(Double.MAX_VALUE);
+        opackArray.add(0.1f);
+        opackArray.add(1.0E10f);
+        opackArray.add(Float.MIN_VALUE);
+        opackArray.add(Long.MIN_VALUE);
+        opackArray.add(Integer.MAX_VALUE);
+        opackArray.add((short) -7);
+        opackArray.add((byte) 0);
+
+        Assertions.assertEquals("[100.0,0.001,1.0E-4,9999999.0,1.0E7,-0.0,1.0E23,4.9E-324,1.7976931348623157E308,0.1,1.0E10,1.4E-45,-9223372036854775808,2147483647,-7,0]", jsonCodec.encode(opackArray));
+    }
+
+    @Test
+    public void string_escape() throws EncodeException, DecodeException {
+        Random random = new Random(0);
+        char[] alphabet = "abc XYZ 019\"\\/\b\f\n\r\t\u0000\u001F\u007F\u00E9\uAC00\u2028\u2029\uD83D\uDE00".toCharArray();
+        OpackArray<Object> opackArray = new OpackArray<>();
+
+        for (int index = 0; index < 100; index++) {
+            StringBuilder stringBuilder = new StringBuilder();
+            int length = random.nextInt(3000);
+
+            for (int character = 0; character < length; character++) {
+                stringBuilder.append(alphabet[random.nextInt(alphabet.length)]);
+            }
+
+            opackArray.add(stringBuilder.toString());
+        }
+
+        JsonCodec smallCodec = new JsonCodec.Builder().setEncodeStringBufferSize(16).create();
+        JsonCodec jsonCodec = new JsonCodec.Builder().create();
+        String json = jsonCodec.encode(opackArray);
+
+        Assertions.assertEquals(json, smallCodec.encode(opackArray));
+        Assertions.assertEquals(opackArray, jsonCodec.decode(json));
+
+        OpackArray<Object> escapeArray = new OpackArray<>();
+        escapeArray.add("a\"b\\c\n\u0001\u2028\u2029\uAC00");
+
+        Assertions.assertEquals("[\"a\\\"b\\\\c\\n\\u0001\\u2028\\u2029\uAC00\"]", jsonCodec.encode(escapeArray));
+    }
+
+    @Test
+    public void truncated_string() {
+        JsonCodec jsonCodec = new JsonCodec.Builder().create();
+
+        Assertions.assertThrows(DecodeException.class, () -> jsonCodec.decode(new StringReader("{\"key\": \"val")));
+    }
+
+    @Test
+    public void pull_parser() throws IOException {
+        String json = "{\"name\": \"user\\n1\", \"tags\": [1, 2.5, true, null, {}], \"empty\": []}";
+
+        try (JsonPullParser jsonPullParser = new JsonPullParser(json)) {
+            Assertions.assertEquals(JsonPullParser.Token.START_OBJECT, jsonPullParser.next());
+            Assertions.assertEquals(JsonPullParser.Token.KEY, jsonPullParser.next());
+            Assertions.assertTrue(jsonPullParser.textEquals("name"));
+            Assertions.assertEquals(JsonPullParser.Token.STRING, jsonPullParser.next());
+            Assertions.assertEquals("user\n1", jsonPullParser.getString());
+            Assertions.assertEquals(JsonPullParser.Token.KEY, jsonPullParser.next());
+            Assertions.assertEquals("tags", jsonPullParser.getString());
+            Assertions.assertEquals(JsonPullParser.Token.START_ARRAY, jsonPullParser.next());
+            Assertions.assertEquals(JsonPullParser.Token.NUMBER, jsonPullParser.next());
+            Assertions.assertEquals(1L, jsonPullParser.getNumber());
+            Assertions.assertEquals(JsonPullParser.Token.NUMBER, jsonPullParser.next());
+            Assertions.assertEquals(2.5, jsonPullParser.getNumber());
+            Assertions.assertEquals(JsonPullParser.Token.BOOLEAN, jsonPullParser.next());
+            Assertions.assertTrue(jsonPullParser.getBoolean());
+            Assertions.assertEquals(JsonPullParser.Token.NULL, jsonPullParser.next());
+            Assertions.assertEquals(JsonPullParser.Token.START_OBJECT, jsonPullParser.next());
+            Assertions.assertEquals(JsonPullParser.Token.END_OBJECT, jsonPullParser.next());
+            Assertions.assertEquals(JsonPullParser.Token.END_ARRAY, jsonPullParser.next());
+            Assertions.assertEquals(JsonPullParser.Token.KEY, jsonPullParser.next());
+            Assertions.assertEquals(JsonPullParser.Token.START_ARRAY, jsonPullParser.next());
+            Assertions.assertEquals(JsonPullParser.Token.END_ARRAY, jsonPullParser.next());
+            Assertions.assertEquals(JsonPullParser.Token.END_OBJECT, jsonPullParser.next());
+            Assertions.assertEquals(JsonPullParser.Token.END_DOCUMENT, jsonPullParser.next());
+        }
+
+        Assertions.assertThrows(IOException.class, () -> new JsonPullParser("{\"key\": [1, 2}").skipValue());
+        Assertions.assertThrows(IOException.class, () -> new JsonPullParser("[1, 2").skipValue());
+
+        String[] invalidJsons = new String[]{
+                "[1 2]",
+                "{\"a\" 1}",
+                "{\"a\":1 \"b\":2}",
+                "{\"a\"}",
+                "{\"a\":}",
+                "{1:2}",
+                "[1,]",
+                "[,1]",
+                "{,}",
+                "1 2",
+                "[] []",
+                "{} x",
+                "[tru]",
+                "[nulx]",
+                "fals",
+                "txyz",
+                "[true, nul]",
+        };
+
+        for (String invalidJson : invalidJsons) {
+            Assertions.assertThrows(IOException.class, () -> {
+                try (JsonPullParser jsonPullParser = new JsonPullParser(invalidJson)) {
+                    while (jsonPullParser.next() != JsonPullParser.Token.END_DOCUMENT) {
+                        // Read until the syntax problem
+                    }
+                }
+            });
+            Assertions.assertThrows(IOException.class, () -> {
+                try (JsonPullParser jsonPullParser = new JsonPullParser(invalidJson)) {
+                    jsonPullParser.skipValue();
+                    jsonPullParser.next();
+                }
+            });
+        }
+
+        try (JsonPullParser jsonPullParser = new JsonPullParser(" [1, {\"a\": []}] \n")) {
+            jsonPullParser.skipValue();
+            Assertions.assertEquals(JsonPullParser.Token.END_DOCUMENT, jsonPullParser.next());
+        }
+
+        try (JsonPullParser jsonPullParser = new JsonPullParser("[nulx]")) {
+            Assertions.assertEquals(JsonPullParser.Token.START_ARRAY, jsonPullParser.next());
+
+            IOException exception = Assertions.assertThrows(IOException.class, jsonPullParser::next);
+            Assertions.assertTrue(exception.getMessage().contains("null literal") && exception.getMessage().endsWith("at 5(x)"), exception.getMessage());
+        }
+
+        Assertions.assertThrows(EOFException.class, () -> new JsonPullParser("fals").next());
+
+        try (JsonPullParser jsonPullParser = new JsonPullParser(new ByteArrayInputStream("[\"\uD55C\uAE00\", false]".getBytes(StandardCharsets.UTF_8)))) {
+            Assertions.assertEquals(JsonPullParser.Token.START_ARRAY, jsonPullParser.next());
+            Assertions.assertEquals(JsonPullParser.Token.STRING, jsonPullParser.next());
+            Assertions.assertEquals("\uD55C\uAE00", jsonPullParser.getString());
+            Assertions.assertEquals(JsonPullParser.Token.BOOLEAN, jsonPullParser.next());
+            Assertions.assertFalse(jsonPullParser.getBoolean());
+            Assertions.assertEquals(JsonPullParser.Token.END_ARRAY, jsonPullParser.next());
+            Assertions.assertEquals(JsonPullParser.Token.END_DOCUMENT, jsonPullParser.next());
+        }
+    }
+
+    @Test
+    public void pull_parser_skip() throws IOException, EncodeException {
+        JsonCodec jsonCodec = new JsonCodec.Builder().create();
+        String json = jsonCodec.encode(CommonOpackValue.create());
+
+        int skipped = 0;
+        String unicode = null;
+
+        try (JsonPullParser jsonPullParser = new JsonPullParser(new StringReader(json))) {
+            Assertions.assertEquals(JsonPullParser.Token.START_OBJECT, jsonPullParser.next());
+
+            while (jsonPullParser.next() == JsonPullParser.Token.KEY) {
+                if (jsonPullParser.textEquals("unicode")) {
+                    Assertions.assertEquals(JsonPullParser.Token.STRING, jsonPullParser.next());
+                    unicode = jsonPullParser.getString();
+                } else {
+                    jsonPullParser.skipValue();
+                    Assertions.assertEquals(1, jsonPullParser.getDepth());
+                    skipped++;
+                }
+            }
+
+            Assertions.assertEquals(JsonPullParser.Token.END_OBJECT, jsonPullParser.getToken());
+            Assertions.assertEquals(JsonPullParser.Token.END_DOCUMENT, jsonPullParser.next());
+        }
+
+        Assertions.assertEquals(11, skipped);
+        Assertions.assertEquals("\u0000\u0001\u0302\u0777\u0000", unicode);
+    }
 }
@@ -0,0 +1,143 @@
+/*
+ * Copyright (C) 2021 REALTIMETECH All Rights Reserved
+ *
+ * Licensed either under the Apache License, Version 2.0, or (at your option)
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (subject to the "Classpath" exception),
+ * either version 2, or any later version (collectively, the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     http://www.gnu.org/licenses/
+ *     http://www.gnu.org/software/classpath/license.html
+ *
+ * or as provided in the LICENSE file that accompanied this code.
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.realtimetech.opack.test.performance;
+
+import com.realtimetech.opack.bake.FieldAccessor;
+import com.realtimetech.opack.bake.ReflectionFieldAccessor;
+import com.realtimetech.opack.util.ReflectionUtil;
+import com.realtimetech.opack.value.OpackValue;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+public class AccessorPerformanceTest {
+    static void collectObjects(List<Object> objects, Object object) throws IllegalAccessException {
+        if (object == null || OpackValue.isAllowType(object.getClass())) {
+            return;
+        }
+
+        if (object.getClass().isArray()) {
+            if (!object.getClass().getComponentType().isPrimitive()) {
+                for (Object element : (Object[]) object) {
+                    collectObjects(objects, element);
+                }
+            }
+
+            return;
+        }
+
+        objects.add(object);
+
+        for (Field field : ReflectionUtil.getAccessibleFields(object.getClass())) {
+            field.setAccessible(true);
+            collectObjects(objects, field.get(object));
+        }
+    }
+
+    /**
+     * Measures the access through the fields as the properties of baked type did before the field accessors, checking the accessibility on every access.
+     */
+    static long measureFieldTime(int loop, List<Object> objects, Map<Class<?>, Field[]> fieldMap) {
+        return PerformanceClass.measureRunningTime(loop, () -> {
+            for (Object object : objects) {
+                for (Field field : fieldMap.get(object.getClass())) {
+                    if (!field.canAccess(object)) {
+                        field.setAccessible(true);
+                    }
+                    Object value = field.get(object);
+
+                    if (!field.canAccess(object)) {
+                        field.setAccessible(true);
+                    }
+                    field.set(object, value);
+                }
+            }
+        });
+    }
+
+    static long measureAccessTime(int loop, List<Object> objects, Map<Class<?>, FieldAccessor[]> accessorMap) {
+        return PerformanceClass.measureRunningTime(loop, () -> {
+            for (Object object : objects) {
+                for (FieldAccessor fieldAccessor : accessorMap.get(object.getClass())) {
+                    fieldAccessor.set(object, fieldAccessor.get(object));
+                }
+            }
+        });
+    }
+
+    @Test
+    public void reflection_accessor() throws IllegalAccessException {
+        PerformanceClass performanceClass = new PerformanceClass();
+
+        List<Object> objects = new LinkedList<>();
+        collectObjects(objects, performanceClass);
+
+        Map<Class<?>, Field[]> fieldMap = new HashMap<>();
+        Map<Class<?>, FieldAccessor[]> reflectionAccessorMap = new HashMap<>();
+        Map<Class<?>, FieldAccessor[]> generatedAccessorMap = new HashMap<>();
+
+        for (Object object : objects) {
+            Class<?> objectType = object.getClass();
+
+            if (!reflectionAccessorMap.containsKey(objectType)) {
+                Field[] fields = ReflectionUtil.getAccessibleFields(objectType);
+                FieldAccessor[] reflectionAccessors = new FieldAccessor[fields.length];
+                FieldAccessor[] generatedAccessors = new FieldAccessor[fields.length];
+
+                for (int index = 0; index < fields.length; index++) {
+                    reflectionAccessors[index] = new ReflectionFieldAccessor(fields[index]);
+                    generatedAccessors[index] = FieldAccessor.create(fields[index]);
+                }
+
+                fieldMap.put(objectType, fields);
+                reflectionAccessorMap.put(objectType, reflectionAccessors);
+                generatedAccessorMap.put(objectType, generatedAccessors);
+            }
+        }
+
+        int loop = 512 * 64;
+
+        // Warm up!
+        measureFieldTime(loop, objects, fieldMap);
+        measureAccessTime(loop, objects, reflectionAccessorMap);
+        measureAccessTime(loop, objects, generatedAccessorMap);
+
+        long fieldTime = measureFieldTime(loop, objects, fieldMap);
+        long reflectionTime = measureAccessTime(loop, objects, reflectionAccessorMap);
+        long generatedTime = measureAccessTime(loop, objects, generatedAccessorMap);
+
+        System.out.println("# " + this.getClass().getSimpleName());
+        System.out.println(" Field\t: " + fieldTime + "ms");
+        System.out.println(" Reflection\t: " + reflectionTime + "ms");
+        System.out.println(" Generated\t: " + generatedTime + "ms");
+
+        if (generatedTime > fieldTime) {
+            Assertions.fail("Generated accessor must faster then field reflection");
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2021 REALTIMETECH All Rights Reserved
+ *
+ * Licensed either under the Apache License, Version 2.0, or (at your option)
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (subject to the "Classpath" exception),
+ * either version 2, or any later version (collectively, the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     http://www.gnu.org/licenses/
+ *     http://www.gnu.org/software/classpath/license.html
+ *
+ * or as provided in the LICENSE file that accompanied this code.
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.realtimetech.opack.test.performance;
+
+import com.realtimetech.opack.Opacker;
+import com.realtimetech.opack.test.OpackAssert;
+import com.realtimetech.opack.test.opacker.ComplexTest;
+import com.realtimetech.opack.value.OpackValue;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class ConcurrentPerformanceTest {
+    @Test
+    public void shared_opacker() throws Exception {
+        ComplexTest.ComplexClass complexClass = new ComplexTest.ComplexClass();
+
+        Opacker opacker = new Opacker.Builder().create();
+
+        int processors = Runtime.getRuntime().availableProcessors();
+        int threadCount = Math.max(2, processors);
+        int loop = 64;
+
+        PerformanceClass.ExceptionRunnable opackRunnable = () -> {
+            OpackValue serialize = opacker.serialize(complexClass);
+            ComplexTest.ComplexClass deserialize = opacker.deserialize(ComplexTest.ComplexClass.class, serialize);
+        };
+        PerformanceClass.ExceptionRunnable assertRunnable = () -> {
+            OpackValue serialize = opacker.serialize(complexClass);
+            ComplexTest.ComplexClass deserialize = opacker.deserialize(ComplexTest.ComplexClass.class, serialize);
+
+            OpackAssert.assertEquals(complexClass, deserialize);
+        };
+        PerformanceClass.measureRunningTime(loop, opackRunnable); // Warm up!
+
+        long singleTime = PerformanceClass.measureRunningTime(loop * threadCount, opackRunnable);
+
+        ExecutorService executorService = Executors.newFixedThreadPool(threadCount);
+        long multiTime;
+
+        try {
+            List<Future<Long>> futures = new LinkedList<>();
+            long start = System.currentTimeMillis();
+
+            for (int index = 0; index < threadCount; index++) {
+                futures.add(executorService.submit(() -> {
+                    long time = PerformanceClass.measureRunningTime(loop, opackRunnable);
+                    assertRunnable.run();
+                    return time;
+                }));
+            }
+
+            for (Future<Long> future : futures) {
+                future.get();
+            }
+
+            multiTime = System.currentTimeMillis() - start;
+        } finally {
+            executorService.shutdown();
+        }
+
+        double speedup = (double) singleTime / Math.max(1, multiTime);
+
+        // Half of the ideal speedup, which is bounded by the cores; on a single core, the threads must not lose more than half of the throughput
+        double minimumSpeedup = 0.5 * Math.min(threadCount, processors);
+
+        System.out.println("# " + this.getClass().getSimpleName());
+        System.out.println(" 1 Thread\t: " + singleTime + "ms");
+        System.out.println(" " + threadCount + " Threads\t: " + multiTime + "ms (x" + String.format("%.2f", speedup) + ", minimum x" + String.format("%.2f", minimumSpeedup) + ", " + processors + " cores)");
+
+        if (speedup < minimumSpeedup) {
+            Assertions.fail("Shared opacker must scale with threads, x" + String.format("%.2f", speedup) + " is below x" + String.format("%.2f", minimumSpeedup));
+        }
+    }
+}
@@ -0,0 +1,495 @@
+/*
+ * Copyright (C) 2021 REALTIMETECH All Rights Reserved
+ *
+ * Licensed either under the Apache License, Version 2.0, or (at your option)
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (subject to the "Classpath" exception),
+ * either version 2, or any later version (collectively, the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     http://www.gnu.org/licenses/
+ *     http://www.gnu.org/software/classpath/license.html
+ *
+ * or as provided in the LICENSE file that accompanied this code.
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.realtimetech.opack.test.performance;
+
+import com.realtimetech.opack.Opacker;
+import com.realtimetech.opack.codec.dense.DenseCodec;
+import com.realtimetech.opack.codec.dense.DenseMessageReader;
+import com.realtimetech.opack.codec.dense.DenseMessageWriter;
+import com.realtimetech.opack.codec.dense.frame.DenseFrameReader;
+import com.realtimetech.opack.codec.dense.frame.impl.DeflateBlockCompressor;
+import com.realtimetech.opack.test.opacker.PrimitiveTest;
+import com.realtimetech.opack.value.OpackArray;
+import com.realtimetech.opack.value.OpackObject;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.ByteBuffer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+public class DensePerformanceTest {
+    static long getAllocatedBytes() {
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+
+        if (threadMXBean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threadMXBean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+
+        return -1;
+    }
+
+    @Test
+    public void encode_object() {
+        Opacker opacker = new Opacker.Builder().create();
+        DenseCodec denseCodec = new DenseCodec.Builder().create();
+
+        PerformanceClass performanceClass = new PerformanceClass();
+        OutputStream outputStream = OutputStream.nullOutputStream();
+
+        PerformanceClass.ExceptionRunnable treeRunnable = () -> {
+            denseCodec.encode(outputStream, opacker.serialize(performanceClass));
+        };
+        PerformanceClass.ExceptionRunnable directRunnable = () -> {
+            denseCodec.encodeObject(outputStream, opacker, performanceClass);
+        };
+
+        int loop = 64;
+
+        // Warm up!
+        PerformanceClass.measureRunningTime(loop, treeRunnable);
+        PerformanceClass.measureRunningTime(loop, directRunnable);
+
+        long treeAllocated = getAllocatedBytes();
+        long treeTime = PerformanceClass.measureRunningTime(loop, treeRunnable);
+        treeAllocated = getAllocatedBytes() - treeAllocated;
+
+        long directAllocated = getAllocatedBytes();
+        long directTime = PerformanceClass.measureRunningTime(loop, directRunnable);
+        directAllocated = getAllocatedBytes() - directAllocated;
+
+        System.out.println("# " + this.getClass().getSimpleName());
+        System.out.println(" Tree\t: " + treeTime + "ms, " + (treeAllocated / loop) + " bytes/op");
+        System.out.println(" Direct\t: " + directTime + "ms, " + (directAllocated / loop) + " bytes/op");
+
+        if (directAllocated * 10 > treeAllocated) {
+            Assertions.fail("Direct encoding must allocate an order of magnitude less then tree encoding");
+        }
+    }
+
+    @Test
+    public void decode_object() throws Exception {
+        Opacker opacker = new Opacker.Builder().create();
+        DenseCodec denseCodec = new DenseCodec.Builder().create();
+
+        PerformanceClass performanceClass = new PerformanceClass();
+        byte[] bytes = denseCodec.encodeObject(opacker, performanceClass);
+
+        PerformanceClass.ExceptionRunnable treeRunnable = () -> {
+            opacker.deserialize(PerformanceClass.class, denseCodec.decode(new ByteArrayInputStream(bytes)));
+        };
+        PerformanceClass.ExceptionRunnable directRunnable = () -> {
+            denseCodec.decodeObject(new ByteArrayInputStream(bytes), opacker, PerformanceClass.class);
+        };
+
+        int loop = 64;
+
+        // Warm up!
+        PerformanceClass.measureRunningTime(loop, treeRunnable);
+        PerformanceClass.measureRunningTime(loop, directRunnable);
+
+        long treeAllocated = getAllocatedBytes();
+        long treeTime = PerformanceClass.measureRunningTime(loop, treeRunnable);
+        treeAllocated = getAllocatedBytes() - treeAllocated;
+
+        long directAllocated = getAllocatedBytes();
+        long directTime = PerformanceClass.measureRunningTime(loop, directRunnable);
+        directAllocated = getAllocatedBytes() - directAllocated;
+
+        System.out.println("# " + this.getClass().getSimpleName());
+        System.out.println(" Tree\t: " + treeTime + "ms, " + (treeAllocated / loop) + " bytes/op");
+        System.out.println(" Direct\t: " + directTime + "ms, " + (directAllocated / loop) + " bytes/op");
+
+        if (directTime > treeTime) {
+            Assertions.fail("Direct decoding must faster then tree decoding");
+        }
+    }
+
+    @Test
+    public void compact_version() throws Exception {
+        Opacker opacker = new Opacker.Builder().create();
+        DenseCodec version1Codec = new DenseCodec.Builder().setEncodeVersion(1).create();
+        DenseCodec version2Codec = new DenseCodec.Builder().create();
+
+        PerformanceClass performanceClass = new PerformanceClass();
+        byte[] version1Bytes = version1Codec.encodeObject(opacker, performanceClass);
+        byte[] version2Bytes = version2Codec.encodeObject(opacker, performanceClass);
+        OutputStream outputStream = OutputStream.nullOutputStream();
+
+        PerformanceClass.ExceptionRunnable version1EncodeRunnable = () -> {
+            version1Codec.encodeObject(outputStream, opacker, performanceClass);
+        };
+        PerformanceClass.ExceptionRunnable version2EncodeRunnable = () -> {
+            version2Codec.encodeObject(outputStream, opacker, performanceClass);
+        };
+        PerformanceClass.ExceptionRunnable version1DecodeRunnable = () -> {
+            version1Codec.decodeObject(version1Bytes, opacker, PerformanceClass.class);
+        };
+        PerformanceClass.ExceptionRunnable version2DecodeRunnable = () -> {
+            version2Codec.decodeObject(version2Bytes, opacker, PerformanceClass.class);
+        };
+
+        int loop = 64;
+
+        // Warm up!
+        PerformanceClass.measureRunningTime(loop, version1EncodeRunnable);
+        PerformanceClass.measureRunningTime(loop, version2EncodeRunnable);
+        PerformanceClass.measureRunningTime(loop, version1DecodeRunnable);
+        PerformanceClass.measureRunningTime(loop, version2DecodeRunnable);
+
+        long version1EncodeTime = PerformanceClass.measureRunningTime(loop, version1EncodeRunnable);
+        long version2EncodeTime = PerformanceClass.measureRunningTime(loop, version2EncodeRunnable);
+        long version1DecodeTime = PerformanceClass.measureRunningTime(loop, version1DecodeRunnable);
+        long version2DecodeTime = PerformanceClass.measureRunningTime(loop, version2DecodeRunnable);
+
+        System.out.println("# " + this.getClass().getSimpleName());
+        System.out.println(" V1\t: " + version1Bytes.length + " bytes, encode " + version1EncodeTime + "ms, decode " + version1DecodeTime + "ms");
+        System.out.println(" V2\t: " + version2Bytes.length + " bytes, encode " + version2EncodeTime + "ms, decode " + version2DecodeTime + "ms");
+
+        if (version2Bytes.length >= version1Bytes.length) {
+            Assertions.fail("Version 2 must smaller then version 1");
+        }
+
+        // Small integers, short strings and many small collections, where the variable-length lengths and inlined values matter
+        OpackArray<Object> opackArray = new OpackArray<>();
+        for (int index = 0; index < 4096; index++) {
+            OpackObject<Object, Object> opackObject = new OpackObject<>();
+            opackObject.put("id", index % 100);
+            opackObject.put("name", "n" + (index % 10));
+            opackObject.put("score", (long) (index % 50));
+
+            OpackArray<Object> tags = new OpackArray<>();
+            for (int tag = 0; tag < index % 4; tag++) {
+                tags.add(tag);
+            }
+            opackObject.put("tags", tags);
+
+            opackArray.add(opackObject);
+        }
+
+        int version1SmallLength = version1Codec.encode(opackArray).length;
+        int version2SmallLength = version2Codec.encode(opackArray).length;
+
+        System.out.println(" V1 small\t: " + version1SmallLength + " bytes");
+        System.out.println(" V2 small\t: " + version2SmallLength + " bytes");
+
+        if (version2SmallLength * 3L > version1SmallLength * 2L) {
+            Assertions.fail("Version 2 must be at most 2/3 of version 1 on small values");
+        }
+    }
+
+    @Test
+    public void string_dictionary() throws Exception {
+        DenseCodec denseCodec = new DenseCodec.Builder().create();
+        DenseCodec dictionaryCodec = new DenseCodec.Builder().setEncodeStringDictionary(true).create();
+
+        OpackArray<Object> opackArray = new OpackArray<>();
+        for (int index = 0; index < 4096; index++) {
+            OpackObject<Object, Object> opackObject = new OpackObject<>();
+            opackObject.put("timestamp", System.currentTimeMillis());
+            opackObject.put("category", "category" + (index % 8));
+            opackObject.put("message", "message" + (index % 32));
+            opackObject.put("path", "/api/v1/resources/" + (index % 16) + "/items?expand=owner,tags");
+            opackObject.put("sequence", index);
+            opackArray.add(opackObject);
+        }
+
+        byte[] bytes = denseCodec.encode(opackArray);
+        byte[] dictionaryBytes = dictionaryCodec.encode(opackArray);
+
+        PerformanceClass.ExceptionRunnable plainRunnable = () -> {
+            denseCodec.decode(bytes);
+        };
+        PerformanceClass.ExceptionRunnable dictionaryRunnable = () -> {
+            denseCodec.decode(dictionaryBytes);
+        };
+
+        int loop = 64;
+
+        // Warm up!
+        PerformanceClass.measureRunningTime(loop, plainRunnable);
+        PerformanceClass.measureRunningTime(loop, dictionaryRunnable);
+
+        long plainAllocated = getAllocatedBytes();
+        PerformanceClass.measureRunningTime(loop, plainRunnable);
+        plainAllocated = getAllocatedBytes() - plainAllocated;
+
+        long dictionaryAllocated = getAllocatedBytes();
+        PerformanceClass.measureRunningTime(loop, dictionaryRunnable);
+        dictionaryAllocated = getAllocatedBytes() - dictionaryAllocated;
+
+        // Best of interleaved rounds, so that a single gc or jit pause does not decide the comparison
+        long plainTime = Long.MAX_VALUE;
+        long dictionaryTime = Long.MAX_VALUE;
+
+        for (int round = 0; round < 5; round++) {
+            plainTime = Math.min(plainTime, PerformanceClass.measureRunningTime(loop, plainRunnable));
+            dictionaryTime = Math.min(dictionaryTime, PerformanceClass.measureRunningTime(loop, dictionaryRunnable));
+        }
+
+        System.out.println("# " + this.getClass().getSimpleName());
+        System.out.println(" Plain\t: " + bytes.length + " bytes, decode " + plainTime + "ms, " + (plainAllocated / loop) + " bytes/op");
+        System.out.println(" Dictionary\t: " + dictionaryBytes.length + " bytes, decode " + dictionaryTime + "ms, " + (dictionaryAllocated / loop) + " bytes/op");
+
+        if (dictionaryAllocated > plainAllocated) {
+            Assertions.fail("Dictionary decoding must allocate less then plain decoding");
+        }
+
+        if (dictionaryTime > plainTime) {
+            Assertions.fail("Dictionary decoding must not be slower then plain decoding on repeated strings");
+        }
+    }
+
+    @Test
+    public void object_schema() throws Exception {
+        Opacker opacker = new Opacker.Builder().create();
+        DenseCodec denseCodec = new DenseCodec.Builder().create();
+        DenseCodec schemaCodec = new DenseCodec.Builder().setEncodeObjectSchema(true).create();
+
+        PrimitiveTest.PrimitiveClass[] primitiveClasses = new PrimitiveTest.PrimitiveClass[4096];
+        for (int index = 0; index < primitiveClasses.length; index++) {
+            primitiveClasses[index] = new PrimitiveTest.PrimitiveClass();
+        }
+
+        byte[] bytes = denseCodec.encodeObject(opacker, primitiveClasses);
+        byte[] schemaBytes = schemaCodec.encodeObject(opacker, primitiveClasses);
+
+        PerformanceClass.ExceptionRunnable plainRunnable = () -> {
+            denseCodec.decodeObject(bytes, opacker, PrimitiveTest.PrimitiveClass[].class);
+        };
+        PerformanceClass.ExceptionRunnable schemaRunnable = () -> {
+            denseCodec.decodeObject(schemaBytes, opacker, PrimitiveTest.PrimitiveClass[].class);
+        };
+
+        int loop = 64;
+
+        // Warm up!
+        PerformanceClass.measureRunningTime(loop, plainRunnable);
+        PerformanceClass.measureRunningTime(loop, schemaRunnable);
+
+        long plainAllocated = getAllocatedBytes();
+        long plainTime = PerformanceClass.measureRunningTime(loop, plainRunnable);
+        plainAllocated = getAllocatedBytes() - plainAllocated;
+
+        long schemaAllocated = getAllocatedBytes();
+        long schemaTime = PerformanceClass.measureRunningTime(loop, schemaRunnable);
+        schemaAllocated = getAllocatedBytes() - schemaAllocated;
+
+        System.out.println("# " + this.getClass().getSimpleName());
+        System.out.println(" Plain\t: " + bytes.length + " bytes, decode " + plainTime + "ms, " + (plainAllocated / loop) + " bytes/op");
+        System.out.println(" Schema\t: " + schemaBytes.length + " bytes, decode " + schemaTime + "ms, " + (schemaAllocated / loop) + " bytes/op");
+
+        if (schemaBytes.length * 2 > bytes.length || schemaTime > plainTime) {
+            Assertions.fail("Schema encoding must be half the size of plain encoding, and schema decoding must faster then plain decoding");
+        }
+    }
+
+    @Test
+    public void compressed_frame() throws Exception {
+        DenseCodec denseCodec = new DenseCodec.Builder().create();
+        DenseCodec frameCodec = new DenseCodec.Builder().setEncodeCompressor(new DeflateBlockCompressor()).create();
+
+        OpackArray<Object> opackArray = new OpackArray<>();
+        for (int index = 0; index < 16384; index++) {
+            OpackObject<Object, Object> opackObject = new OpackObject<>();
+            opackObject.put("timestamp", System.currentTimeMillis());
+            opackObject.put("category", "category" + (index % 8));
+            opackObject.put("message", "message" + (index % 32));
+            opackObject.put("sequence", index);
+            opackArray.add(opackObject);
+        }
+
+        byte[] bytes = denseCodec.encode(opackArray);
+        ByteArrayOutputStream gzipByteArrayStream = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(gzipByteArrayStream)) {
+            gzipOutputStream.write(bytes);
+        }
+        byte[] gzipBytes = gzipByteArrayStream.toByteArray();
+        byte[] frameBytes = frameCodec.encode(opackArray);
+
+        PerformanceClass.ExceptionRunnable gzipEncodeRunnable = () -> {
+            try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(OutputStream.nullOutputStream())) {
+                denseCodec.encode(gzipOutputStream, opackArray);
+            }
+        };
+        PerformanceClass.ExceptionRunnable frameEncodeRunnable = () -> {
+            frameCodec.encode(OutputStream.nullOutputStream(), opackArray);
+        };
+        PerformanceClass.ExceptionRunnable gzipDecodeRunnable = () -> {
+            denseCodec.decode(new GZIPInputStream(new ByteArrayInputStream(gzipBytes)));
+        };
+        PerformanceClass.ExceptionRunnable frameDecodeRunnable = () -> {
+            denseCodec.decode(frameBytes);
+        };
+        PerformanceClass.ExceptionRunnable parallelDecompressRunnable = () -> {
+            new DenseFrameReader(ByteBuffer.wrap(frameBytes)).readAll(true);
+        };
+
+        int loop = 32;
+
+        // Warm up!
+        PerformanceClass.measureRunningTime(loop, gzipEncodeRunnable);
+        PerformanceClass.measureRunningTime(loop, frameEncodeRunnable);
+        PerformanceClass.measureRunningTime(loop, gzipDecodeRunnable);
+        PerformanceClass.measureRunningTime(loop, frameDecodeRunnable);
+        PerformanceClass.measureRunningTime(loop, parallelDecompressRunnable);
+
+        long gzipEncodeTime = PerformanceClass.measureRunningTime(loop, gzipEncodeRunnable);
+        long frameEncodeTime = PerformanceClass.measureRunningTime(loop, frameEncodeRunnable);
+        long gzipDecodeTime = PerformanceClass.measureRunningTime(loop, gzipDecodeRunnable);
+        long frameDecodeTime = PerformanceClass.measureRunningTime(loop, frameDecodeRunnable);
+        long parallelDecompressTime = PerformanceClass.measureRunningTime(loop, parallelDecompressRunnable);
+
+        System.out.println("# " + this.getClass().getSimpleName());
+        System.out.println(" Plain\t: " + bytes.length + " bytes");
+        System.out.println(" GZIP\t: " + gzipBytes.length + " bytes, encode " + gzipEncodeTime + "ms, decode " + gzipDecodeTime + "ms");
+        System.out.println(" Frame\t: " + frameBytes.length + " bytes, encode " + frameEncodeTime + "ms, decode " + frameDecodeTime + "ms, parallel decompress " + parallelDecompressTime + "ms (" + Runtime.getRuntime().availableProcessors() + " processors)");
+
+        if (frameEncodeTime > gzipEncodeTime) {
+            Assertions.fail("Frame encoding must faster then GZIP wrapped encoding");
+        }
+    }
+
+    @Test
+    public void parallel_encode() throws Exception {
+        OpackArray<Object> opackArray = new OpackArray<>();
+        for (int index = 0; index < 131072; index++) {
+            OpackObject<Object, Object> opackObject = new OpackObject<>();
+            opackObject.put("timestamp", System.currentTimeMillis());
+            opackObject.put("category", "category" + (index % 8));
+            opackObject.put("message", "message" + index);
+            opackObject.put("sequence", index);
+            opackArray.add(opackObject);
+        }
+
+        int processors = Runtime.getRuntime().availableProcessors();
+        int loop = 8;
+
+        System.out.println("# " + this.getClass().getSimpleName());
+
+        long sequentialTime = 0;
+        long bestParallelTime = Long.MAX_VALUE;
+
+        for (int parallelism = 1; parallelism <= Math.max(8, processors); parallelism *= 2) {
+            DenseCodec denseCodec = new DenseCodec.Builder().setEncodeParallelism(parallelism).create();
+            PerformanceClass.ExceptionRunnable encodeRunnable = () -> {
+                denseCodec.encode(OutputStream.nullOutputStream(), opackArray);
+            };
+
+            // Warm up!
+            PerformanceClass.measureRunningTime(loop, encodeRunnable);
+
+            long time = PerformanceClass.measureRunningTime(loop, encodeRunnable);
+
+            if (parallelism == 1) {
+                sequentialTime = time;
+            } else {
+                bestParallelTime = Math.min(bestParallelTime, time);
+            }
+
+            System.out.println(" " + parallelism + " threads\t: " + time + "ms (" + processors + " processors)");
+        }
+
+        if (processors > 1 && bestParallelTime > sequentialTime) {
+            Assertions.fail("Parallel encoding must faster then sequential encoding on multiple processors");
+        }
+    }
+
+    @Test
+    public void message_stream() throws Exception {
+        DenseCodec denseCodec = new DenseCodec.Builder().create();
+
+        OpackObject<Object, Object>[] messages = new OpackObject[65536];
+        for (int index = 0; index < messages.length; index++) {
+            OpackObject<Object, Object> opackObject = new OpackObject<>();
+            opackObject.put("timestamp", System.currentTimeMillis());
+            opackObject.put("category", "category" + (index % 8));
+            opackObject.put("sequence", index);
+            messages[index] = opackObject;
+        }
+
+        int loop = 8;
+
+        /*
+            Each message with its own header and a length prefix, as written before message stream
+         */
+        ByteArrayOutputStream singleOutputStream = new ByteArrayOutputStream();
+        DataOutputStream dataOutputStream = new DataOutputStream(singleOutputStream);
+        for (OpackObject<Object, Object> message : messages) {
+            byte[] bytes = denseCodec.encode(message);
+            dataOutputStream.writeInt(bytes.length);
+            dataOutputStream.write(bytes);
+        }
+        byte[] singleBytes = singleOutputStream.toByteArray();
+
+        ByteArrayOutputStream messageOutputStream = new ByteArrayOutputStream();
+        try (DenseMessageWriter denseMessageWriter = new DenseMessageWriter(messageOutputStream, denseCodec)) {
+            for (OpackObject<Object, Object> message : messages) {
+                denseMessageWriter.write(message);
+            }
+        }
+        byte[] messageBytes = messageOutputStream.toByteArray();
+
+        PerformanceClass.ExceptionRunnable singleRunnable = () -> {
+            DataInputStream dataInputStream = new DataInputStream(new ByteArrayInputStream(singleBytes));
+            for (int index = 0; index < messages.length; index++) {
+                byte[] bytes = new byte[dataInputStream.readInt()];
+                dataInputStream.readFully(bytes);
+                denseCodec.decode(bytes);
+            }
+        };
+        PerformanceClass.ExceptionRunnable readRunnable = () -> {
+            DenseMessageReader denseMessageReader = new DenseMessageReader(new ByteArrayInputStream(messageBytes), denseCodec);
+            while (denseMessageReader.read() != null) ;
+        };
+        PerformanceClass.ExceptionRunnable skipRunnable = () -> {
+            DenseMessageReader denseMessageReader = new DenseMessageReader(new ByteArrayInputStream(messageBytes), denseCodec);
+            while (denseMessageReader.skip()) ;
+        };
+
+        // Warm up!
+        PerformanceClass.measureRunningTime(loop, singleRunnable);
+        PerformanceClass.measureRunningTime(loop, readRunnable);
+        PerformanceClass.measureRunningTime(loop, skipRunnable);
+
+        long singleTime = PerformanceClass.measureRunningTime(loop, singleRunnable);
+        long readTime = PerformanceClass.measureRunningTime(loop, readRunnable);
+        long skipTime = PerformanceClass.measureRunningTime(loop, skipRunnable);
+
+        System.out.println("# " + this.getClass().getSimpleName());
+        System.out.println(" Single\t: " + singleTime + "ms, " + singleBytes.length + " bytes");
+        System.out.println(" Stream\t: " + readTime + "ms, " + messageBytes.length + " bytes");
+        System.out.println(" Skip\t: " + skipTime + "ms");
+
+        if (messageBytes.length >= singleBytes.length || skipTime > readTime) {
+            Assertions.fail("Message stream must smaller then single messages, and skipping must faster then decoding");
+        }
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright (C) 2021 REALTIMETECH All Rights Reserved
+ *
+ * Licensed either under the Apache License, Version 2.0, or (at your option)
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (subject to the "Classpath" exception),
+ * either version 2, or any later version (collectively, the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     http://www.gnu.org/licenses/
+ *     http://www.gnu.org/software/classpath/license.html
+ *
+ * or as provided in the LICENSE file that accompanied this code.
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.realtimetech.opack.test.performance;
+
+import com.realtimetech.opack.Opacker;
+import com.realtimetech.opack.codec.json.JsonCodec;
+import com.realtimetech.opack.codec.json.JsonPullParser;
+import com.realtimetech.opack.value.OpackArray;
+import com.realtimetech.opack.value.OpackObject;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class JsonPullParserPerformanceTest {
+    @Test
+    public void extract_field() throws Exception {
+        Opacker opacker = new Opacker.Builder().create();
+        JsonCodec jsonCodec = new JsonCodec.Builder().create();
+
+        OpackObject<Object, Object> opackObject = new OpackObject<>();
+        opackObject.put("payload", opacker.serialize(new PerformanceClass()));
+        opackObject.put("route", "gateway");
+        String json = jsonCodec.encode(opackObject);
+
+        PerformanceClass.ExceptionRunnable treeRunnable = () -> {
+            OpackObject decoded = (OpackObject) jsonCodec.decode(json);
+
+            if (!"gateway".equals(decoded.get("route"))) {
+                throw new IllegalStateException("Wrong route");
+            }
+        };
+        PerformanceClass.ExceptionRunnable pullRunnable = () -> {
+            try (JsonPullParser jsonPullParser = new JsonPullParser(json)) {
+                jsonPullParser.next();
+
+                while (jsonPullParser.next() == JsonPullParser.Token.KEY) {
+                    if (jsonPullParser.textEquals("route")) {
+                        jsonPullParser.next();
+
+                        if (!jsonPullParser.textEquals("gateway")) {
+                            throw new IllegalStateException("Wrong route");
+                        }
+                    } else {
+                        jsonPullParser.skipValue();
+                    }
+                }
+            }
+        };
+
+        int loop = 64;
+
+        // Warm up!
+        PerformanceClass.measureRunningTime(loop, treeRunnable);
+        PerformanceClass.measureRunningTime(loop, pullRunnable);
+
+        long treeAllocated = DensePerformanceTest.getAllocatedBytes();
+        long treeTime = PerformanceClass.measureRunningTime(loop, treeRunnable);
+        treeAllocated = DensePerformanceTest.getAllocatedBytes() - treeAllocated;
+
+        long pullAllocated = DensePerformanceTest.getAllocatedBytes();
+        long pullTime = PerformanceClass.measureRunningTime(loop, pullRunnable);
+        pullAllocated = DensePerformanceTest.getAllocatedBytes() - pullAllocated;
+
+        System.out.println("# " + this.getClass().getSimpleName());
+        System.out.println(" Tree\t: " + treeTime + "ms, " + (treeAllocated / loop) + " bytes/op");
+        System.out.println(" Pull\t: " + pullTime + "ms, " + (pullAllocated / loop) + " bytes/op");
+
+        if (pullAllocated * 10 > treeAllocated) {
+            Assertions.fail("Pull parsing must allocate an order of magnitude less then tree decoding");
+        }
+    }
+
+    @Test
+    public void parse_numbers() throws Exception {
+        JsonCodec jsonCodec = new JsonCodec.Builder().create();
+
+        OpackArray<Object> opackArray = new OpackArray<>();
+        for (int index = 0; index < 100000; index++) {
+            OpackObject<Object, Object> opackObject = new OpackObject<>();
+            opackObject.put("timestamp", 1700000000000L + index);
+            opackObject.put("value", PerformanceClass.RANDOM.nextDouble() * 1000);
+            opackObject.put("ratio", PerformanceClass.RANDOM.nextGaussian());
+            opackArray.add(opackObject);
+        }
+
+        String json = jsonCodec.encode(opackArray);
+
+        PerformanceClass.ExceptionRunnable stringRunnable = () -> {
+            try (JsonPullParser jsonPullParser = new JsonPullParser(json)) {
+                JsonPullParser.Token token;
+                double sum = 0;
+
+                while ((token = jsonPullParser.next()) != JsonPullParser.Token.END_DOCUMENT) {
+                    if (token == JsonPullParser.Token.NUMBER) {
+                        sum += Double.parseDouble(jsonPullParser.getString());
+                    }
+                }
+
+                if (sum == 0) {
+                    throw new IllegalStateException("Wrong sum");
+                }
+            }
+        };
+        PerformanceClass.ExceptionRunnable inPlaceRunnable = () -> {
+            try (JsonPullParser jsonPullParser = new JsonPullParser(json)) {
+                JsonPullParser.Token token;
+                double sum = 0;
+
+                while ((token = jsonPullParser.next()) != JsonPullParser.Token.END_DOCUMENT) {
+                    if (token == JsonPullParser.Token.NUMBER) {
+                        sum += jsonPullParser.getDouble();
+                    }
+                }
+
+                if (sum == 0) {
+                    throw new IllegalStateException("Wrong sum");
+                }
+            }
+        };
+        PerformanceClass.ExceptionRunnable decodeRunnable = () -> {
+            jsonCodec.decode(json);
+        };
+
+        int loop = 16;
+
+        // Warm up!
+        PerformanceClass.measureRunningTime(loop, stringRunnable);
+        PerformanceClass.measureRunningTime(loop, inPlaceRunnable);
+        PerformanceClass.measureRunningTime(loop, decodeRunnable);
+
+        long stringAllocated = DensePerformanceTest.getAllocatedBytes();
+        long stringTime = PerformanceClass.measureRunningTime(loop, stringRunnable);
+        stringAllocated = DensePerformanceTest.getAllocatedBytes() - stringAllocated;
+
+        long inPlaceAllocated = DensePerformanceTest.getAllocatedBytes();
+        long inPlaceTime = PerformanceClass.measureRunningTime(loop, inPlaceRunnable);
+        inPlaceAllocated = DensePerformanceTest.getAllocatedBytes() - inPlaceAllocated;
+
+        long decodeTime = PerformanceClass.measureRunningTime(loop, decodeRunnable);
+
+        System.out.println("# " + this.getClass().getSimpleName());
+        System.out.println(" String + parseDouble\t: " + stringTime + "ms, " + (stringAllocated / loop) + " bytes/op");
+        System.out.println(" In place\t: " + inPlaceTime + "ms, " + (inPlaceAllocated / loop) + " bytes/op");
+        System.out.println(" Decode\t: " + decodeTime + "ms");
+
+        if (inPlaceTime > stringTime || inPlaceAllocated * 10 > stringAllocated) {
+            Assertions.fail("In place number parsing must faster and allocate an order of magnitude less then parsing the number string");
+        }
+    }
+}
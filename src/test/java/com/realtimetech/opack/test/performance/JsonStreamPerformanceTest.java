@@ -0,0 +1,328 @@
+/*
+ * Copyright (C) 2021 REALTIMETECH All Rights Reserved
+ *
+ * Licensed either under the Apache License, Version 2.0, or (at your option)
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (subject to the "Classpath" exception),
+ * either version 2, or any later version (collectively, the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     http://www.gnu.org/licenses/
+ *     http://www.gnu.org/software/classpath/license.html
+ *
+ * or as provided in the LICENSE file that accompanied this code.
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.realtimetech.opack.test.performance;
+
+import com.realtimetech.opack.codec.json.JsonCodec;
+import com.realtimetech.opack.codec.json.JsonLinesReader;
+import com.realtimetech.opack.codec.json.JsonLinesWriter;
+import com.realtimetech.opack.value.OpackArray;
+import com.realtimetech.opack.value.OpackObject;
+import com.realtimetech.opack.value.OpackValue;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class JsonStreamPerformanceTest {
+    static void resetPeakHeapUsage() {
+        System.gc();
+
+        for (MemoryPoolMXBean memoryPoolMXBean : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (memoryPoolMXBean.getType() == MemoryType.HEAP) {
+                memoryPoolMXBean.resetPeakUsage();
+            }
+        }
+    }
+
+    static long getPeakHeapUsage() {
+        long peak = 0;
+
+        for (MemoryPoolMXBean memoryPoolMXBean : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (memoryPoolMXBean.getType() == MemoryType.HEAP) {
+                peak += memoryPoolMXBean.getPeakUsage().getUsed();
+            }
+        }
+
+        return peak;
+    }
+
+    @Test
+    public void decode_stream() throws Exception {
+        JsonCodec jsonCodec = new JsonCodec.Builder().create();
+
+        OpackArray<Object> opackArray = new OpackArray<>();
+        for (int i = 0; i < 20000; i++) {
+            OpackObject<Object, Object> opackObject = new OpackObject<>();
+            opackObject.put("index", i);
+            opackObject.put("text", "The quick brown fox jumps over the lazy dog. ".repeat(20));
+
+            opackArray.add(opackObject);
+        }
+
+        Path path = Files.createTempFile("opack", ".json");
+        try {
+            Files.writeString(path, jsonCodec.encode(opackArray), StandardCharsets.UTF_8);
+            opackArray = null;
+
+            resetPeakHeapUsage();
+            long stringBase = getPeakHeapUsage();
+            OpackValue stringDecoded = jsonCodec.decode(Files.readString(path, StandardCharsets.UTF_8));
+            long stringPeak = getPeakHeapUsage() - stringBase;
+            int stringLength = ((OpackArray<?>) stringDecoded).length();
+            stringDecoded = null;
+
+            resetPeakHeapUsage();
+            long streamBase = getPeakHeapUsage();
+            OpackValue streamDecoded;
+            try (InputStream inputStream = Files.newInputStream(path)) {
+                streamDecoded = jsonCodec.decode(inputStream);
+            }
+            long streamPeak = getPeakHeapUsage() - streamBase;
+
+            System.out.println("# " + this.getClass().getSimpleName());
+            System.out.println(" File\t: " + Files.size(path) + " bytes");
+            System.out.println(" String\t: " + stringPeak + " bytes peak");
+            System.out.println(" Stream\t: " + streamPeak + " bytes peak");
+
+            Assertions.assertEquals(stringLength, ((OpackArray<?>) streamDecoded).length());
+
+            if (streamPeak > stringPeak) {
+                Assertions.fail("Stream decoding must use less heap then string decoding");
+            }
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    public void decode_parallel() throws Exception {
+        JsonCodec jsonCodec = new JsonCodec.Builder().create();
+
+        OpackArray<Object> opackArray = new OpackArray<>();
+        for (int index = 0; index < 131072; index++) {
+            OpackObject<Object, Object> opackObject = new OpackObject<>();
+            opackObject.put("timestamp", System.currentTimeMillis());
+            opackObject.put("category", "category" + (index % 8));
+            opackObject.put("message", "message, [" + index + "]");
+            opackObject.put("ratio", index / 7.0);
+            opackArray.add(opackObject);
+        }
+
+        String json = jsonCodec.encode(opackArray);
+        int processors = Runtime.getRuntime().availableProcessors();
+        int loop = 8;
+
+        System.out.println("# " + this.getClass().getSimpleName());
+        System.out.println(" String\t: " + json.length() + " chars");
+
+        long sequentialTime = 0;
+        long bestParallelTime = Long.MAX_VALUE;
+
+        for (int parallelism = 1; parallelism <= Math.max(8, processors); parallelism *= 2) {
+            JsonCodec parallelJsonCodec = new JsonCodec.Builder().setDecodeParallelism(parallelism).create();
+            PerformanceClass.ExceptionRunnable decodeRunnable = () -> {
+                parallelJsonCodec.decode(json);
+            };
+
+            // Warm up!
+            PerformanceClass.measureRunningTime(loop, decodeRunnable);
+
+            long time = PerformanceClass.measureRunningTime(loop, decodeRunnable);
+
+            if (parallelism == 1) {
+                sequentialTime = time;
+            } else {
+                bestParallelTime = Math.min(bestParallelTime, time);
+            }
+
+            System.out.println(" " + parallelism + " threads\t: " + time + "ms (" + processors + " processors)");
+        }
+
+        if (processors > 1 && bestParallelTime > sequentialTime) {
+            Assertions.fail("Parallel decoding must faster then sequential decoding on multiple processors");
+        }
+    }
+
+    @Test
+    public void json_lines() throws Exception {
+        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+        try (JsonLinesWriter jsonLinesWriter = new JsonLinesWriter(byteArrayOutputStream)) {
+            for (int index = 0; index < 65536; index++) {
+                OpackObject<Object, Object> opackObject = new OpackObject<>();
+                opackObject.put("timestamp", System.currentTimeMillis());
+                opackObject.put("category", "category" + (index % 8));
+                opackObject.put("message", "message, [" + index + "]");
+                opackObject.put("ratio", index / 7.0);
+                jsonLinesWriter.write(opackObject);
+            }
+        }
+
+        byte[] bytes = byteArrayOutputStream.toByteArray();
+        JsonCodec jsonCodec = new JsonCodec.Builder().create();
+        JsonCodec parallelJsonCodec = new JsonCodec.Builder().setDecodeParallelism(4).create();
+        int loop = 8;
+
+        PerformanceClass.ExceptionRunnable lineRunnable = () -> {
+            try (BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(bytes), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = bufferedReader.readLine()) != null) {
+                    jsonCodec.decode(line);
+                }
+            }
+        };
+        PerformanceClass.ExceptionRunnable readerRunnable = () -> {
+            try (JsonLinesReader jsonLinesReader = new JsonLinesReader(new ByteArrayInputStream(bytes), jsonCodec)) {
+                while (jsonLinesReader.read() != null) ;
+            }
+        };
+        PerformanceClass.ExceptionRunnable parallelReaderRunnable = () -> {
+            try (JsonLinesReader jsonLinesReader = new JsonLinesReader(new ByteArrayInputStream(bytes), parallelJsonCodec)) {
+                while (jsonLinesReader.read() != null) ;
+            }
+        };
+
+        // Warm up!
+        PerformanceClass.measureRunningTime(loop, lineRunnable);
+        PerformanceClass.measureRunningTime(loop, readerRunnable);
+        PerformanceClass.measureRunningTime(loop, parallelReaderRunnable);
+
+        long lineTime = PerformanceClass.measureRunningTime(loop, lineRunnable);
+        long readerTime = PerformanceClass.measureRunningTime(loop, readerRunnable);
+        long parallelReaderTime = PerformanceClass.measureRunningTime(loop, parallelReaderRunnable);
+
+        System.out.println("# " + this.getClass().getSimpleName());
+        System.out.println(" Line\t: " + lineTime + "ms");
+        System.out.println(" Reader\t: " + readerTime + "ms");
+        System.out.println(" Parallel\t: " + parallelReaderTime + "ms (" + Runtime.getRuntime().availableProcessors() + " processors)");
+
+        if (readerTime > lineTime) {
+            Assertions.fail("Json lines reader must faster then decoding each line");
+        }
+    }
+
+    @Test
+    public void encode_bytes() throws Exception {
+        JsonCodec jsonCodec = new JsonCodec.Builder().create();
+
+        OpackArray<Object> opackArray = new OpackArray<>();
+        for (int index = 0; index < 20000; index++) {
+            OpackObject<Object, Object> opackObject = new OpackObject<>();
+            opackObject.put("index", index);
+            opackObject.put("text", "The quick brown fox jumps over the lazy dog.");
+            opackObject.put("unicode", "\u00E9\u4E2D\uD83D\uDE00");
+            opackArray.add(opackObject);
+        }
+
+        int loop = 16;
+
+        PerformanceClass.ExceptionRunnable stringRunnable = () -> {
+            jsonCodec.encode(opackArray).getBytes(StandardCharsets.UTF_8);
+        };
+        PerformanceClass.ExceptionRunnable bytesRunnable = () -> {
+            jsonCodec.encodeToBytes(opackArray);
+        };
+        PerformanceClass.ExceptionRunnable writerRunnable = () -> {
+            Writer writer = new OutputStreamWriter(OutputStream.nullOutputStream(), StandardCharsets.UTF_8);
+            jsonCodec.encode(writer, opackArray);
+            writer.flush();
+        };
+        PerformanceClass.ExceptionRunnable streamRunnable = () -> {
+            jsonCodec.encode(OutputStream.nullOutputStream(), opackArray);
+        };
+
+        // Warm up!
+        PerformanceClass.measureRunningTime(loop, stringRunnable);
+        PerformanceClass.measureRunningTime(loop, bytesRunnable);
+        PerformanceClass.measureRunningTime(loop, writerRunnable);
+        PerformanceClass.measureRunningTime(loop, streamRunnable);
+
+        long stringTime = PerformanceClass.measureRunningTime(loop, stringRunnable);
+        long bytesTime = PerformanceClass.measureRunningTime(loop, bytesRunnable);
+        long writerTime = PerformanceClass.measureRunningTime(loop, writerRunnable);
+        long streamTime = PerformanceClass.measureRunningTime(loop, streamRunnable);
+
+        System.out.println("# " + this.getClass().getSimpleName());
+        System.out.println(" String + getBytes\t: " + stringTime + "ms");
+        System.out.println(" Bytes\t: " + bytesTime + "ms");
+        System.out.println(" OutputStreamWriter\t: " + writerTime + "ms");
+        System.out.println(" OutputStream\t: " + streamTime + "ms");
+
+        if (streamTime > writerTime) {
+            Assertions.fail("Byte encoding to output stream must faster then encoding through charset encoder");
+        }
+    }
+
+    @Test
+    public void decode_bytes() throws Exception {
+        JsonCodec jsonCodec = new JsonCodec.Builder().create();
+
+        OpackArray<Object> opackArray = new OpackArray<>();
+        for (int index = 0; index < 20000; index++) {
+            OpackObject<Object, Object> opackObject = new OpackObject<>();
+            opackObject.put("index", index);
+            opackObject.put("text", "The quick brown fox jumps over the lazy dog.");
+            opackObject.put("unicode", "\u00E9\u4E2D\uD83D\uDE00");
+            opackArray.add(opackObject);
+        }
+
+        byte[] bytes = jsonCodec.encodeToBytes(opackArray);
+        int loop = 16;
+
+        PerformanceClass.ExceptionRunnable stringRunnable = () -> {
+            jsonCodec.decode(new String(bytes, StandardCharsets.UTF_8));
+        };
+        PerformanceClass.ExceptionRunnable bytesRunnable = () -> {
+            jsonCodec.decode(bytes);
+        };
+        PerformanceClass.ExceptionRunnable readerRunnable = () -> {
+            jsonCodec.decode(new InputStreamReader(new ByteArrayInputStream(bytes), StandardCharsets.UTF_8));
+        };
+        PerformanceClass.ExceptionRunnable streamRunnable = () -> {
+            jsonCodec.decode(new ByteArrayInputStream(bytes));
+        };
+
+        // Warm up!
+        PerformanceClass.measureRunningTime(loop, stringRunnable);
+        PerformanceClass.measureRunningTime(loop, bytesRunnable);
+        PerformanceClass.measureRunningTime(loop, readerRunnable);
+        PerformanceClass.measureRunningTime(loop, streamRunnable);
+
+        long stringTime = PerformanceClass.measureRunningTime(loop, stringRunnable);
+        long bytesTime = PerformanceClass.measureRunningTime(loop, bytesRunnable);
+        long readerTime = PerformanceClass.measureRunningTime(loop, readerRunnable);
+        long streamTime = PerformanceClass.measureRunningTime(loop, streamRunnable);
+
+        System.out.println("# " + this.getClass().getSimpleName());
+        System.out.println(" new String + decode\t: " + stringTime + "ms");
+        System.out.println(" Bytes\t: " + bytesTime + "ms");
+        System.out.println(" InputStreamReader\t: " + readerTime + "ms");
+        System.out.println(" InputStream\t: " + streamTime + "ms");
+
+        if (streamTime > readerTime) {
+            Assertions.fail("Byte decoding from input stream must faster then decoding through charset decoder");
+        }
+    }
+}
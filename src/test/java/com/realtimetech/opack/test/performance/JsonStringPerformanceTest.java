@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2021 REALTIMETECH All Rights Reserved
+ *
+ * Licensed either under the Apache License, Version 2.0, or (at your option)
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (subject to the "Classpath" exception),
+ * either version 2, or any later version (collectively, the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     http://www.gnu.org/licenses/
+ *     http://www.gnu.org/software/classpath/license.html
+ *
+ * or as provided in the LICENSE file that accompanied this code.
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.realtimetech.opack.test.performance;
+
+import com.realtimetech.opack.codec.json.JsonCodec;
+import com.realtimetech.opack.util.StringWriter;
+import com.realtimetech.opack.value.OpackArray;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class JsonStringPerformanceTest {
+    @Test
+    public void encode_strings() throws Exception {
+        String[] corpora = new String[]{
+                "2024-01-01T00:00:00.000Z INFO [gateway-worker-3] Request completed: method=GET path=/api/v1/users/12345 status=200 elapsed=12ms ",
+                "2024-01-01T00:00:00.000Z WARN [gateway-worker-7] Slow query \"SELECT * FROM users WHERE id = ?\" took 1.2s\n\tat Database.query\n",
+                "\uC0AC\uC6A9\uC790 \uC694\uCCAD\uC774 \uC644\uB8CC\uB418\uC5C8\uC2B5\uB2C8\uB2E4. \u00E9\u00E8\u00EA caf\u00E9 \u4E2D\u6587 \uD83D\uDE00 "
+        };
+
+        OpackArray<Object> opackArray = new OpackArray<>();
+        for (int index = 0; index < 3000; index++) {
+            opackArray.add(corpora[index % corpora.length].repeat(16));
+        }
+
+        JsonCodec jsonCodec = new JsonCodec.Builder().create();
+        StringWriter stringWriter = new StringWriter();
+
+        PerformanceClass.ExceptionRunnable perCharRunnable = () -> {
+            stringWriter.reset();
+            stringWriter.write('[');
+
+            for (int index = 0; index < opackArray.length(); index++) {
+                if (index != 0) {
+                    stringWriter.write(',');
+                }
+
+                stringWriter.write('"');
+                for (char character : ((String) opackArray.get(index)).toCharArray()) {
+                    if (character == '"' || character == '\\') {
+                        stringWriter.write('\\');
+                        stringWriter.write(character);
+                    } else if (character == '\n') {
+                        stringWriter.write('\\');
+                        stringWriter.write('n');
+                    } else if (character == '\t') {
+                        stringWriter.write('\\');
+                        stringWriter.write('t');
+                    } else {
+                        stringWriter.write(character);
+                    }
+                }
+                stringWriter.write('"');
+            }
+
+            stringWriter.write(']');
+            stringWriter.toString();
+        };
+        PerformanceClass.ExceptionRunnable bulkRunnable = () -> {
+            jsonCodec.encode(opackArray);
+        };
+
+        int loop = 64;
+
+        // Warm up!
+        PerformanceClass.measureRunningTime(loop, perCharRunnable);
+        PerformanceClass.measureRunningTime(loop, bulkRunnable);
+
+        long perCharTime = PerformanceClass.measureRunningTime(loop, perCharRunnable);
+        long bulkTime = PerformanceClass.measureRunningTime(loop, bulkRunnable);
+
+        System.out.println("# " + this.getClass().getSimpleName());
+        System.out.println(" Per char\t: " + perCharTime + "ms");
+        System.out.println(" Bulk\t: " + bulkTime + "ms");
+
+        if (bulkTime > perCharTime) {
+            Assertions.fail("Bulk escape scanning must faster then escaping character by character");
+        }
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright (C) 2021 REALTIMETECH All Rights Reserved
+ *
+ * Licensed either under the Apache License, Version 2.0, or (at your option)
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation (subject to the "Classpath" exception),
+ * either version 2, or any later version (collectively, the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *     http://www.gnu.org/licenses/
+ *     http://www.gnu.org/software/classpath/license.html
+ *
+ * or as provided in the LICENSE file that accompanied this code.
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.realtimetech.opack.test.performance;
+
+import com.realtimetech.opack.codec.dense.DenseCodec;
+import com.realtimetech.opack.codec.json.JsonCodec;
+import com.realtimetech.opack.value.OpackArray;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.util.Random;
+
+public class NativeArrayPerformanceTest {
+    static final int LENGTH = 1024 * 1024;
+
+    @Test
+    public void double_array() throws Exception {
+        Random random = new Random();
+        double[] array = new double[LENGTH];
+        for (int index = 0; index < array.length; index++) {
+            array[index] = random.nextDouble();
+        }
+
+        DenseCodec denseCodec = new DenseCodec.Builder().create();
+        OpackArray<?> opackArray = OpackArray.createWithArrayObject(array);
+        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream(LENGTH * 8 + 64);
+        byte[] bytes = denseCodec.encode(opackArray);
+
+        PerformanceClass.ExceptionRunnable streamRunnable = () -> {
+            byteArrayOutputStream.reset();
+            DataOutputStream dataOutputStream = new DataOutputStream(byteArrayOutputStream);
+            for (double value : array) {
+                dataOutputStream.writeDouble(value);
+            }
+
+            DataInputStream dataInputStream = new DataInputStream(new ByteArrayInputStream(byteArrayOutputStream.toByteArray()));
+            double[] decoded = new double[LENGTH];
+            for (int index = 0; index < decoded.length; index++) {
+                decoded[index] = dataInputStream.readDouble();
+            }
+        };
+        PerformanceClass.ExceptionRunnable denseRunnable = () -> {
+            byteArrayOutputStream.reset();
+            denseCodec.encode(byteArrayOutputStream, opackArray);
+            denseCodec.decode(byteArrayOutputStream.toByteArray());
+        };
+
+        int loop = 8;
+
+        // Warm up!
+        PerformanceClass.measureRunningTime(loop, streamRunnable);
+        PerformanceClass.measureRunningTime(loop, denseRunnable);
+
+        long streamTime = PerformanceClass.measureRunningTime(loop, streamRunnable);
+        long denseTime = PerformanceClass.measureRunningTime(loop, denseRunnable);
+
+        System.out.println("# " + this.getClass().getSimpleName() + " (double[" + LENGTH + "])");
+        System.out.println(" Stream\t: " + streamTime + "ms");
+        System.out.println(" Dense\t: " + denseTime + "ms");
+
+        Assertions.assertEquals(opackArray, denseCodec.decode(bytes));
+
+        if (denseTime > streamTime) {
+            Assertions.fail("Dense bulk array must faster then stream");
+        }
+    }
+
+    @Test
+    public void long_array() throws Exception {
+        Random random = new Random();
+        long[] array = new long[LENGTH];
+        for (int index = 0; index < array.length; index++) {
+            array[index] = random.nextLong();
+        }
+
+        DenseCodec denseCodec = new DenseCodec.Builder().create();
+        OpackArray<?> opackArray = OpackArray.createWithArrayObject(array);
+        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream(LENGTH * 8 + 64);
+        byte[] bytes = denseCodec.encode(opackArray);
+
+        PerformanceClass.ExceptionRunnable streamRunnable = () -> {
+            byteArrayOutputStream.reset();
+            DataOutputStream dataOutputStream = new DataOutputStream(byteArrayOutputStream);
+            for (long value : array) {
+                dataOutputStream.writeLong(value);
+            }
+
+            DataInputStream dataInputStream = new DataInputStream(new ByteArrayInputStream(byteArrayOutputStream.toByteArray()));
+            long[] decoded = new long[LENGTH];
+            for (int index = 0; index < decoded.length; index++) {
+                decoded[index] = dataInputStream.readLong();
+            }
+        };
+        PerformanceClass.ExceptionRunnable denseRunnable = () -> {
+            byteArrayOutputStream.reset();
+            denseCodec.encode(byteArrayOutputStream, opackArray);
+            denseCodec.decode(byteArrayOutputStream.toByteArray());
+        };
+
+        int loop = 8;
+
+        // Warm up!
+        PerformanceClass.measureRunningTime(loop, streamRunnable);
+        PerformanceClass.measureRunningTime(loop, denseRunnable);
+
+        long streamTime = PerformanceClass.measureRunningTime(loop, streamRunnable);
+        long denseTime = PerformanceClass.measureRunningTime(loop, denseRunnable);
+
+        System.out.println("# " + this.getClass().getSimpleName() + " (long[" + LENGTH + "])");
+        System.out.println(" Stream\t: " + streamTime + "ms");
+        System.out.println(" Dense\t: " + denseTime + "ms");
+
+        Assertions.assertEquals(opackArray, denseCodec.decode(bytes));
+
+        if (denseTime > streamTime) {
+            Assertions.fail("Dense bulk array must faster then stream");
+        }
+    }
+
+    @Test
+    public void json_double_array() throws Exception {
+        Random random = new Random();
+        double[] array = new double[LENGTH];
+        for (int index = 0; index < array.length; index++) {
+            array[index] = random.nextDouble() * 1000;
+        }
+
+        JsonCodec jsonCodec = new JsonCodec.Builder().create();
+        OpackArray<?> opackArray = OpackArray.createWithArrayObject(array);
+
+        PerformanceClass.ExceptionRunnable toStringRunnable = () -> {
+            StringBuilder stringBuilder = new StringBuilder(LENGTH * 20);
+            stringBuilder.append('[');
+            for (int index = 0; index < array.length; index++) {
+                if (index != 0) {
+                    stringBuilder.append(',');
+                }
+                stringBuilder.append(Double.toString(array[index]).toCharArray());
+            }
+            stringBuilder.append(']');
+            stringBuilder.toString();
+        };
+        PerformanceClass.ExceptionRunnable jsonRunnable = () -> {
+            jsonCodec.encode(opackArray);
+        };
+
+        int loop = 8;
+
+        // Warm up!
+        PerformanceClass.measureRunningTime(loop, toStringRunnable);
+        PerformanceClass.measureRunningTime(loop, jsonRunnable);
+
+        long toStringTime = PerformanceClass.measureRunningTime(loop, toStringRunnable);
+        long jsonTime = PerformanceClass.measureRunningTime(loop, jsonRunnable);
+
+        System.out.println("# " + this.getClass().getSimpleName() + " (json double[" + LENGTH + "])");
+        System.out.println(" Double.toString\t: " + toStringTime + "ms");
+        System.out.println(" Json\t: " + jsonTime + "ms");
+
+        if (jsonTime > toStringTime) {
+            Assertions.fail("Json encoding of double array must faster then formatting with Double.toString");
+        }
+    }
+}